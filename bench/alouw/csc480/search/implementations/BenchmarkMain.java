@@ -0,0 +1,30 @@
+package alouw.csc480.search.implementations;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs the benchmarks with the GC profiler attached, so every result reports allocation rate (gc.alloc.rate.norm
+ * is bytes per operation) beside throughput and sample time percentiles.
+ *
+ * The benchmarks are compiled from this source root together with jmh-core and jmh-generator-annprocess; any
+ * standard JMH command line option is accepted, e.g.
+ *	BenchmarkMain StateBenchmarks -p board=15_PUZZLE
+ *	BenchmarkMain SolveBenchmarks -p instance=HARD -p searchFunction=ASTAR -p evalFunction=ASTAR_3
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+	}
+}
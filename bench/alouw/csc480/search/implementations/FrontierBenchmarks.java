@@ -0,0 +1,124 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import alouw.csc480.search.interfaces.ClosedStateSet;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.FrontierTieBreak;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * The two data structures every graph search hits once per generated node: the closed set probe and the
+ * frontier push/pop. "RANKED" is the permutation rank bitmap used for the 8-Puzzle, "PACKED" the open addressing
+ * implementation used for other boards with a packed encoding, "HASH" the java.util fallback used for every other
+ * board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrontierBenchmarks {
+
+	private static final int STATE_COUNT = 4096;
+	private static final int CLOSED_SET_SIZE = 100_000;
+
+	@Param({"RANKED", "PACKED", "HASH"})
+	public String closedSet;
+
+	private ClosedStateSet closedStates;
+	private ProblemState[] hits;
+	private ProblemState[] misses;
+	private TreeNode[] nodes;
+	private int[] fValues;
+	private int[] gValues;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		ProblemState goalState = InstanceCorpus.getState(InstanceCorpus.EIGHT_PUZZLE_GOAL_STATE);
+
+		// the closed set holds the first states of a breadth first sweep; misses lie beyond it
+		this.closedStates = "RANKED".equals(this.closedSet) ? ClosedStateSetFactory.getNewRankedClosedStateSet()
+				: "PACKED".equals(this.closedSet) ? ClosedStateSetFactory.getNewPackedClosedStateSet(CLOSED_SET_SIZE)
+				: ClosedStateSetFactory.getNewHashClosedStateSet();
+		ClosedStateSet seen = ClosedStateSetFactory.getNewHashClosedStateSet();
+		ArrayDeque<ProblemState> queue = new ArrayDeque<>();
+		queue.add(goalState);
+		seen.add(goalState);
+
+		this.hits = new ProblemState[STATE_COUNT];
+		this.misses = new ProblemState[STATE_COUNT];
+		int hitCount = 0;
+		int missCount = 0;
+
+		while (missCount < STATE_COUNT) {
+			ProblemState state = queue.pop();
+			if (this.closedStates.size() < CLOSED_SET_SIZE) {
+				this.closedStates.add(state);
+				if (hitCount < STATE_COUNT && (this.closedStates.size() % 16) == 0) this.hits[hitCount++] = state;
+			} else {
+				this.misses[missCount++] = state;
+			}
+
+			for (ProblemState successor : state.getAllValidSucessorStates())
+				if (seen.add(successor)) queue.add(successor);
+		}
+
+		// frontier entries with realistic (f, g) spreads
+		List<ProblemState> corpus = InstanceCorpus.generate(goalState, STATE_COUNT, 30);
+		this.nodes = new TreeNode[STATE_COUNT];
+		this.fValues = new int[STATE_COUNT];
+		this.gValues = new int[STATE_COUNT];
+		for (int index = 0; index < STATE_COUNT; index++) {
+			this.nodes[index] = TreeNodeFactory.getNewRootNode(corpus.get(index));
+			this.gValues[index] = index % 97;
+			this.fValues[index] = this.gValues[index] +
+					corpus.get(index).getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_3, goalState) -
+					corpus.get(index).getCumulativeTransformationCostFromInitialState();
+		}
+	}
+
+	private int nextIndex() {
+		this.next = (this.next + 1) & (STATE_COUNT - 1);
+		return this.next;
+	}
+
+	@Benchmark
+	public boolean closedSetProbeHit() {
+		return this.closedStates.contains(this.hits[this.nextIndex()]);
+	}
+
+	@Benchmark
+	public boolean closedSetProbeMiss() {
+		return this.closedStates.contains(this.misses[this.nextIndex()]);
+	}
+
+	// one push and one pop per node; duplicates in the corpus exercise the decrease-key path
+	@Benchmark
+	@OperationsPerInvocation(STATE_COUNT)
+	public void frontierPushPop(Blackhole blackhole) {
+		BucketPriorityQueue frontier = new BucketPriorityQueue(FrontierTieBreak.PREFER_HIGHER_G, this.nodes[0].getProblemState());
+
+		for (int index = 0; index < STATE_COUNT; index++) frontier.offer(this.nodes[index], this.fValues[index], this.gValues[index]);
+		while (!frontier.isEmpty()) blackhole.consume(frontier.poll());
+	}
+}
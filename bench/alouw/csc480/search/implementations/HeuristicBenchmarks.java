@@ -0,0 +1,87 @@
+package alouw.csc480.search.implementations;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+
+/*
+ * Cost of one evaluation of each heuristic. A tracked state answers from the distances it carries (the common
+ * case during a search); an untracked state computes them from its board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicBenchmarks {
+
+	private static final int STATE_COUNT = 1024;
+
+	@Param({"8_PUZZLE", "15_PUZZLE"})
+	public String board;
+
+	@Param({"GREEDY", "ASTAR_1", "ASTAR_2", "ASTAR_3", "ASTAR_LINEAR_CONFLICT", "ASTAR_LINEAR_CONFLICT_WEIGHTED",
+			"ASTAR_WALKING_DISTANCE", "ASTAR_WALKING_DISTANCE_WEIGHTED", "ASTAR_PDB", "ASTAR_PDB_WEIGHTED"})
+	public String evalFunction;
+
+	private EvaluationFunction h;
+	private ProblemState goalState;
+	private ProblemState[] trackedStates;
+	private ProblemState[] untrackedStates;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		this.h = EvaluationFunction.valueOf(this.evalFunction);
+		this.goalState = InstanceCorpus.getState(InstanceCorpus.getGoalStateString(this.board));
+
+		List<ProblemState> corpus = InstanceCorpus.generate(this.goalState.withGoalState(this.goalState), STATE_COUNT, 50);
+		this.trackedStates = corpus.toArray(new ProblemState[STATE_COUNT]);
+		this.untrackedStates = new ProblemState[STATE_COUNT];
+		for (int index = 0; index < STATE_COUNT; index++)
+			this.untrackedStates[index] = InstanceCorpus.getState(this.trackedStates[index].toString());
+
+		// load any tables up front
+		this.trackedStates[0].getExpectedTransformationCostToGoalState(this.h, this.goalState);
+	}
+
+	private int nextIndex() {
+		this.next = (this.next + 1) & (STATE_COUNT - 1);
+		return this.next;
+	}
+
+	@Benchmark
+	public int trackedEstimate() {
+		return this.trackedStates[this.nextIndex()].getExpectedTransformationCostToGoalState(this.h, this.goalState);
+	}
+
+	@Benchmark
+	public int untrackedEstimate() {
+		return this.untrackedStates[this.nextIndex()].getExpectedTransformationCostToGoalState(this.h, this.goalState);
+	}
+
+	// the incremental update a tracked successor pays for every heuristic at once
+	@Benchmark
+	public ProblemState trackedSuccessor() {
+		ProblemState state = this.trackedStates[this.nextIndex()];
+		for (ProblemTransformationOperation move : ProblemTransformationOperation.values())
+			if (move != ProblemTransformationOperation.NONE && state.isTransformationLegal(move)) return state.applyTransformation(move);
+		return state;
+	}
+}
@@ -0,0 +1,101 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+
+/*
+ * Reproducible benchmark inputs: the three canonical 8-Puzzle instances and corpora of states generated by
+ * random walks from a goal state. Walks never undo their previous move, and a fixed seed makes every fork
+ * and every run see the same instances.
+ */
+public final class InstanceCorpus {
+
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String EIGHT_PUZZLE_GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+	public static final String FIFTEEN_PUZZLE_GOAL_STATE = "1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 0";
+	public static final String TWENTY_FOUR_PUZZLE_GOAL_STATE =
+			"1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 20 21 22 23 24 0";
+
+	private static final long SEED = 480L;
+
+	private InstanceCorpus() {}
+
+	public static ProblemState getState(String stateString) {
+		return ProblemStateFactory.getNewProblemState(stateString, ProblemTransformationOperation.NONE);
+	}
+
+	/*
+	 * The goal state of a board: "8_PUZZLE", "15_PUZZLE" or "24_PUZZLE"
+	 */
+	public static String getGoalStateString(String board) {
+		switch (board) {
+			case "8_PUZZLE": return EIGHT_PUZZLE_GOAL_STATE;
+			case "15_PUZZLE": return FIFTEEN_PUZZLE_GOAL_STATE;
+			case "24_PUZZLE": return TWENTY_FOUR_PUZZLE_GOAL_STATE;
+			default: throw new IllegalArgumentException("Unknown board " + board);
+		}
+	}
+
+	/*
+	 * Initial states of an instance set: "EASY", "MEDIUM", "HARD" or "CORPUS_<board>", e.g. "CORPUS_15_PUZZLE",
+	 * which holds 32 instances generated by walks of 40 moves
+	 */
+	public static List<String> getInitialStateStrings(String instance) {
+		switch (instance) {
+			case "EASY": return Collections.singletonList(EASY_INITIAL_STATE);
+			case "MEDIUM": return Collections.singletonList(MEDIUM_INITIAL_STATE);
+			case "HARD": return Collections.singletonList(HARD_INITIAL_STATE);
+		}
+
+		if (!instance.startsWith("CORPUS_")) throw new IllegalArgumentException("Unknown instance " + instance);
+
+		List<String> result = new ArrayList<>();
+		for (ProblemState state : InstanceCorpus.generate(getState(getGoalStateString(instance.substring("CORPUS_".length()))), 32, 40))
+			result.add(state.toString());
+		return result;
+	}
+
+	/*
+	 * The goal state an instance set is solved against
+	 */
+	public static String getGoalStateStringForInstance(String instance) {
+		return instance.startsWith("CORPUS_") ? getGoalStateString(instance.substring("CORPUS_".length())) : EIGHT_PUZZLE_GOAL_STATE;
+	}
+
+	/*
+	 * States reached by count random walks of walkLength moves from the start state
+	 */
+	public static List<ProblemState> generate(ProblemState startState, int count, int walkLength) {
+		Random random = new Random(SEED);
+		ProblemTransformationOperation[] moves = {ProblemTransformationOperation.UP, ProblemTransformationOperation.DOWN,
+				ProblemTransformationOperation.LEFT, ProblemTransformationOperation.RIGHT};
+
+		List<ProblemState> result = new ArrayList<>(count);
+		for (int index = 0; index < count; index++) {
+			ProblemState state = startState;
+			ProblemTransformationOperation previous = ProblemTransformationOperation.NONE;
+
+			for (int step = 0; step < walkLength; step++) {
+				ProblemTransformationOperation move;
+				do {
+					move = moves[random.nextInt(moves.length)];
+				} while (!state.isTransformationLegal(move) || move == previous.reverseTransformation());
+
+				state = state.applyTransformation(move);
+				previous = move;
+			}
+
+			result.add(state);
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,88 @@
+package alouw.csc480.search.implementations;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.SearchFunction;
+
+/*
+ * End to end solves for every SearchFunction x EvaluationFunction pair. Each invocation solves the next instance
+ * of the instance set, so the sample time percentiles of a corpus describe the spread over its instances.
+ *
+ * The default matrix covers the 8-Puzzle only; uninformed searches on the 15-Puzzle corpus ("CORPUS_15_PUZZLE")
+ * do not finish in useful time, so select pairs explicitly, e.g.
+ *	-p instance=CORPUS_15_PUZZLE -p searchFunction=ASTAR,IDA -p evalFunction=ASTAR_LINEAR_CONFLICT_WEIGHTED
+ *
+ * The beam width only applies to BEAM; sweep it to trade solution cost for time, e.g.
+ *	-p searchFunction=BEAM -p evalFunction=ASTAR_3 -p beamWidth=4,16,64,256
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmarks {
+
+	@Param({"EASY", "MEDIUM", "HARD", "CORPUS_8_PUZZLE"})
+	public String instance;
+
+	@Param({"BREADTH_FIRST", "DEPTH_FIRST", "IDA", "UNIFORM_COST", "GREEDY", "ASTAR", "PARALLEL_ASTAR", "BIDIRECTIONAL", "DISTANCE_TABLE", "ANYTIME_ASTAR", "SMASTAR", "BEAM", "EXTERNAL_BREADTH_FIRST"})
+	public String searchFunction;
+
+	@Param({"NONE", "CUME_COST", "GREEDY", "ASTAR_1", "ASTAR_2", "ASTAR_3", "ASTAR_LINEAR_CONFLICT",
+			"ASTAR_LINEAR_CONFLICT_WEIGHTED", "ASTAR_WALKING_DISTANCE", "ASTAR_WALKING_DISTANCE_WEIGHTED",
+			"ASTAR_PDB", "ASTAR_PDB_WEIGHTED"})
+	public String evalFunction;
+
+	@Param({"64"})
+	public int beamWidth;
+
+	private SearchFunction search;
+	private SearchParameters parameters;
+	private EvaluationFunction h;
+	private ProblemState goalState;
+	private ProblemState[] initialStates;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		this.search = SearchFunction.valueOf(this.searchFunction);
+		this.h = EvaluationFunction.valueOf(this.evalFunction);
+		this.parameters = SearchParameters.getDefaultParameters().withBeamWidth(this.beamWidth);
+		this.goalState = InstanceCorpus.getState(InstanceCorpus.getGoalStateStringForInstance(this.instance));
+
+		List<String> initialStateStrings = InstanceCorpus.getInitialStateStrings(this.instance);
+		this.initialStates = new ProblemState[initialStateStrings.size()];
+		for (int index = 0; index < this.initialStates.length; index++)
+			this.initialStates[index] = InstanceCorpus.getState(initialStateStrings.get(index));
+
+		// load any heuristic tables outside the measurement
+		this.initialStates[0].withGoalState(this.goalState).getExpectedTransformationCostToGoalState(this.h, this.goalState);
+		if (this.search == SearchFunction.DISTANCE_TABLE) GoalIndex.getGoalIndex(this.goalState).getDistanceTable();
+	}
+
+	@Benchmark
+	public Object solve() {
+		ProblemState initialState = this.initialStates[this.next];
+		this.next = (this.next + 1) % this.initialStates.length;
+
+		SearchTree tree = new SearchTree(this.search, this.h, initialState, this.goalState, this.parameters);
+		tree.search();
+		return tree.getSolution();
+	}
+}
@@ -0,0 +1,80 @@
+package alouw.csc480.search.implementations;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+
+/*
+ * Successor generation: one move, and every legal move of a state, collected into a set or streamed to a consumer. The states cycle through a generated corpus
+ * so neither the branch predictor nor the caches see the same board twice in a row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmarks {
+
+	private static final int STATE_COUNT = 1024;
+
+	@Param({"8_PUZZLE", "15_PUZZLE", "24_PUZZLE"})
+	public String board;
+
+	private ProblemState[] states;
+	private ProblemTransformationOperation[] moves;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		ProblemState goalState = InstanceCorpus.getState(InstanceCorpus.getGoalStateString(this.board));
+		List<ProblemState> corpus = InstanceCorpus.generate(goalState.withGoalState(goalState), STATE_COUNT, 50);
+
+		this.states = corpus.toArray(new ProblemState[STATE_COUNT]);
+		this.moves = new ProblemTransformationOperation[STATE_COUNT];
+		for (int index = 0; index < STATE_COUNT; index++) {
+			for (ProblemTransformationOperation move : ProblemTransformationOperation.values()) {
+				if (move != ProblemTransformationOperation.NONE && this.states[index].isTransformationLegal(move)) {
+					this.moves[index] = move;
+					break;
+				}
+			}
+		}
+	}
+
+	private int nextIndex() {
+		this.next = (this.next + 1) & (STATE_COUNT - 1);
+		return this.next;
+	}
+
+	@Benchmark
+	public ProblemState applyTransformation() {
+		int index = this.nextIndex();
+		return this.states[index].applyTransformation(this.moves[index]);
+	}
+
+	@Benchmark
+	public Object getAllValidSucessorStates() {
+		return this.states[this.nextIndex()].getAllValidSucessorStates();
+	}
+
+	@Benchmark
+	public void forEachSuccessorState(Blackhole blackhole) {
+		this.states[this.nextIndex()].forEachSuccessorState(ProblemTransformationOperation.NONE, blackhole::consume);
+	}
+}
@@ -0,0 +1,216 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import alouw.csc480.search.interfaces.ClosedStateSet;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Anytime repairing A* (ARA*).
+ *
+ * A series of weighted A* searches, f'(n) = g(n) + w * h(n), that starts at SearchParameters.getInitialWeight() and
+ * lowers w by getWeightDecrement() after every search, down to 1. A high weight finds a solution fast; every later
+ * search starts from the frontier (OPEN) of the one before it instead of from scratch, re-keyed for the new weight.
+ * Within one search a state is expanded at most once: a state found via a cheaper path after its expansion is set
+ * aside (INCONS) and queued again only when the weight next changes. A search stops as soon as no queued node has a
+ * lower f'(n) than the incumbent's cost.
+ *
+ * After every search the incumbent costs at most min(w, cost / min(g(n) + h(n))) times the optimal cost, the minimum
+ * taken over OPEN and INCONS, given an admissible h(n); every better solution or tighter bound is reported through
+ * SearchStatsCollector.reportSolution. The series ends once the bound reaches 1, or when the node or time budget of the
+ * SearchParameters runs out, in which case the incumbent is returned as it is. Only a search that runs out of budget
+ * before finding any solution fails.
+ *
+ * The h(n) of a node is f(n) - g(n) for evaluation functions that accumulate the path cost and f(n) for the others.
+ * Weights are applied in tenths, which keeps f'(n) an int priority of BucketPriorityQueue.
+ */
+public final class AnytimeAStarSearch {
+
+	// f'(n) is kept as WEIGHT_SCALE * (g(n) + w * h(n))
+	private static final int WEIGHT_SCALE = 10;
+
+	private final EvaluationFunction evalFunction;
+	private final ProblemState goalState;
+	private final SearchStatsCollector statsCollector;
+
+	// OPEN, CLOSED and INCONS of the current search; the cheapest g(n) found for every state generated
+	private BucketPriorityQueue frontier;
+	private final ClosedStateSet statesExplored;
+	private final List<TreeNode> inconsistentNodes = new ArrayList<>();
+	private final StateHandleIndex cheapestCosts;
+	private final Consumer<TreeNode> offerChild = this::offerChild;
+
+	private final ProblemState prototypeState;
+	private final SearchParameters parameters;
+
+	// w, scaled
+	private int weight;
+
+	private TreeNode incumbentNode = null;
+	private int incumbentCost = Integer.MAX_VALUE;
+
+	private AnytimeAStarSearch(EvaluationFunction evalFunction, ProblemState goalState, SearchParameters parameters,
+			SearchStatsCollector statsCollector, ProblemState prototypeState) {
+		this.evalFunction = evalFunction;
+		this.goalState = goalState;
+		this.parameters = parameters;
+		this.statsCollector = statsCollector;
+		this.prototypeState = prototypeState;
+
+		this.frontier = new BucketPriorityQueue(parameters.getTieBreak(), prototypeState);
+		this.statesExplored = ClosedStateSetFactory.getNewClosedStateSet(prototypeState);
+		this.cheapestCosts = prototypeState.hasPackedEncoding() ? new PackedStateHandleIndex() : new HashStateHandleIndex();
+		this.weight = (int) Math.round(parameters.getInitialWeight() * WEIGHT_SCALE);
+	}
+
+	public static Optional<TreeNode> search(final ArrayDeque<TreeNode> queue, final EvaluationFunction evalFunction,
+			final ProblemState goalState, final SearchParameters parameters, SearchStatsCollector statsCollector) {
+
+		// confirm that the queue has at least an initial root node
+		assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
+
+		// expanded nodes are kept as primitives in a node arena; see TreeNodeFactory.getNewArenaRootNode
+		TreeNode rootNode = TreeNodeFactory.getNewArenaRootNode(queue.pop());
+
+		AnytimeAStarSearch search = new AnytimeAStarSearch(evalFunction, goalState, parameters, statsCollector, rootNode.getProblemState());
+		TreeNode solutionNode;
+		try {
+			solutionNode = search.run(rootNode);
+		} catch (SearchBudgetExceededException e) {
+			// out of budget: the incumbent is the answer, if there is one
+			if (search.incumbentNode == null) throw e;
+			solutionNode = search.incumbentNode;
+		}
+
+		if (solutionNode != null) {
+			statsCollector.incrementSolutionCost(solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+			statsCollector.incrementSolutionPath(solutionNode.getDepth());
+		}
+
+		return Optional.ofNullable(solutionNode);
+	}
+
+	private TreeNode run(TreeNode rootNode) {
+		ProblemState rootState = rootNode.getProblemState();
+		int rootCost = rootState.getCumulativeTransformationCostFromInitialState();
+		this.cheapestCosts.put(rootState, rootCost);
+
+		if (rootState.equals(this.goalState)) {
+			this.offerIncumbent(rootNode, rootCost);
+			this.statsCollector.reportSolution(rootNode, 1);
+			return rootNode;
+		}
+		this.frontier.offer(rootNode, this.getPriority(rootCost, this.getHeuristic(rootNode, rootCost)), rootCost);
+
+		int decrement = Math.max(1, (int) Math.round(this.parameters.getWeightDecrement() * WEIGHT_SCALE));
+		int reportedCost = Integer.MAX_VALUE;
+		double reportedBound = SearchProgress.NO_BOUND;
+
+		while (true) {
+			this.improvePath();
+			if (this.incumbentNode == null) return null;
+
+			// every node that may still lead to a cheaper goal, and the lowest cost any of them could reach it at
+			List<TreeNode> openNodes = new ArrayList<>(this.frontier.size() + this.inconsistentNodes.size());
+			for (TreeNode node = this.frontier.poll(); node != null; node = this.frontier.poll()) openNodes.add(node);
+			openNodes.addAll(this.inconsistentNodes);
+			this.statsCollector.incrementNodesReopened(this.inconsistentNodes.size());
+			this.inconsistentNodes.clear();
+
+			int lowerBound = this.incumbentCost;
+			for (TreeNode node : openNodes) {
+				int cost = node.getProblemState().getCumulativeTransformationCostFromInitialState();
+				lowerBound = Math.min(lowerBound, cost + this.getHeuristic(node, cost));
+			}
+
+			double bound = Math.min((double) this.weight / WEIGHT_SCALE, (lowerBound == 0) ? 1 : (double) this.incumbentCost / lowerBound);
+			if (this.incumbentCost < reportedCost || bound < reportedBound) {
+				this.statsCollector.reportSolution(this.incumbentNode, bound);
+				reportedCost = this.incumbentCost;
+				reportedBound = bound;
+			}
+			if (bound <= 1) return this.incumbentNode;
+
+			// the next search starts where this one stopped, with a lower weight
+			this.weight = Math.max(WEIGHT_SCALE, this.weight - decrement);
+			this.statesExplored.clear();
+			this.frontier = new BucketPriorityQueue(this.parameters.getTieBreak(), this.prototypeState);
+			for (TreeNode node : openNodes) {
+				int cost = node.getProblemState().getCumulativeTransformationCostFromInitialState();
+				int heuristic = this.getHeuristic(node, cost);
+				if (cost + heuristic < this.incumbentCost) this.frontier.offer(node, this.getPriority(cost, heuristic), cost);
+			}
+		}
+	}
+
+	/*
+	 * Weighted A* from the current frontier until no node can beat the incumbent at the current weight
+	 */
+	private void improvePath() {
+		while (!this.frontier.isEmpty() && this.frontier.peekPriority() < (long) WEIGHT_SCALE * this.incumbentCost) {
+
+			// capture max length of queue
+			this.statsCollector.setMaxQueueSize(this.frontier.size());
+			this.statsCollector.setBound(this.frontier.peekPriority() / WEIGHT_SCALE);
+
+			// take from the front
+			TreeNode currentNode = this.frontier.poll();
+
+			// count the # of nodes explored
+			this.statsCollector.incrementNodesExplored(1);
+
+			this.statesExplored.add(currentNode.getProblemState());
+
+			// push the children into the frontier
+			currentNode.forEachChild(this.offerChild);
+		}
+	}
+
+	private void offerChild(TreeNode childNode) {
+		this.statsCollector.incrementNodesGenerated(1);
+
+		ProblemState childState = childNode.getProblemState();
+		int cost = childState.getCumulativeTransformationCostFromInitialState();
+		int cheapestCost = this.cheapestCosts.get(childState);
+		if (cheapestCost != -1 && cost >= cheapestCost) {
+			this.statsCollector.incrementDuplicates(1);
+			return;
+		}
+		this.cheapestCosts.put(childState, cost);
+
+		// nothing beyond the goal is worth expanding
+		if (childState.equals(this.goalState)) {
+			this.offerIncumbent(childNode, cost);
+			return;
+		}
+
+		// a path that cannot beat the incumbent is not worth queueing
+		int heuristic = this.getHeuristic(childNode, cost);
+		if (cost + heuristic >= this.incumbentCost) return;
+
+		// a state expanded by this search waits for the next one
+		if (this.statesExplored.contains(childState)) this.inconsistentNodes.add(childNode);
+		else this.frontier.offer(childNode, this.getPriority(cost, heuristic), cost);
+	}
+
+	private void offerIncumbent(TreeNode node, int cost) {
+		if (cost >= this.incumbentCost) return;
+		this.incumbentNode = node;
+		this.incumbentCost = cost;
+	}
+
+	private int getHeuristic(TreeNode node, int cost) {
+		int f = node.getEvaluationPathCost(this.evalFunction, this.goalState);
+		return this.evalFunction.accumulatesPathCost() ? f - cost : f;
+	}
+
+	private int getPriority(int cost, int heuristic) {
+		return WEIGHT_SCALE * cost + this.weight * heuristic;
+	}
+}
@@ -0,0 +1,265 @@
+package alouw.csc480.search.implementations;
+
+import java.lang.reflect.Method;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Solves many independent puzzle instances concurrently, one SearchTree per job.
+ *
+ * Jobs are pulled from the input stream lazily and at most maxConcurrentJobs of them are in flight at any time, so
+ * arbitrarily long job streams run in bounded memory. Results are handed out in completion order, not input order.
+ * Every job carries its own SearchParameters, and with them its own node and time budget; a job that runs out of
+ * budget is reported as BUDGET_EXCEEDED instead of holding up the batch.
+ *
+ * Jobs run on virtual threads where the JVM offers them (Java 21+) and on a fixed pool of platform threads
+ * otherwise. The goal-derived tables (GoalIndex, BoardGoalIndex, PatternDatabase) are immutable and cached per goal,
+ * so every job with the same goal shares one copy of them.
+ */
+public final class BatchSolver implements AutoCloseable {
+
+	public enum Status {
+		SOLVED,
+		NO_SOLUTION,
+		BUDGET_EXCEEDED,
+		FAILED
+	}
+
+	private final ExecutorService executor;
+	private final int maxConcurrentJobs;
+	private final boolean virtualThreads;
+
+	private BatchSolver(ExecutorService executor, int maxConcurrentJobs, boolean virtualThreads) {
+		this.executor = executor;
+		this.maxConcurrentJobs = maxConcurrentJobs;
+		this.virtualThreads = virtualThreads;
+	}
+
+	/*
+	 * One virtual thread per job, at most maxConcurrentJobs at a time; falls back to a fixed pool of
+	 * maxConcurrentJobs platform threads if the JVM has no virtual threads
+	 */
+	public static BatchSolver newVirtualThreadSolver(int maxConcurrentJobs) {
+		BatchSolver.validateConcurrency(maxConcurrentJobs);
+
+		ExecutorService executor = BatchSolver.newVirtualThreadExecutor();
+		if (executor == null) return BatchSolver.newFixedPoolSolver(maxConcurrentJobs);
+
+		return new BatchSolver(executor, maxConcurrentJobs, true);
+	}
+
+	/*
+	 * A fixed pool of threadCount platform threads, one job per thread
+	 */
+	public static BatchSolver newFixedPoolSolver(int threadCount) {
+		BatchSolver.validateConcurrency(threadCount);
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, "batch-solver-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+
+		return new BatchSolver(Executors.newFixedThreadPool(threadCount, threadFactory), threadCount, false);
+	}
+
+	private static void validateConcurrency(int maxConcurrentJobs) {
+		if (maxConcurrentJobs < 1)
+			throw new IllegalArgumentException("Expected at least 1 concurrent job; received " + maxConcurrentJobs);
+	}
+
+	// Executors.newVirtualThreadPerTaskExecutor() looked up reflectively, so the class still loads on older JVMs
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+	public boolean usesVirtualThreads() {
+		return this.virtualThreads;
+	}
+
+	public int getMaxConcurrentJobs() {
+		return this.maxConcurrentJobs;
+	}
+
+	/*
+	 * Lazily solves the jobs; nothing is submitted until the returned stream is consumed
+	 */
+	public Stream<Result> solve(Stream<Job> jobs) {
+		Iterator<Result> results = new ResultIterator(jobs.iterator());
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.NONNULL), false)
+				.onClose(jobs::close);
+	}
+
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+	}
+
+	private static Result run(Job job) {
+		long startTime = System.nanoTime();
+
+		try {
+			SearchTree tree = new SearchTree(job.searchFunction, job.evalFunction, job.initialState, job.goalState,
+					job.parameters);
+			boolean solutionFound = tree.search();
+
+			Status status = solutionFound ? Status.SOLVED
+					: tree.isBudgetExceeded() ? Status.BUDGET_EXCEEDED : Status.NO_SOLUTION;
+			Deque<TreeNode> solution = solutionFound ? tree.getSolution().get() : null;
+
+			return new Result(job, status, solution, tree.getStatsCollector(), System.nanoTime() - startTime, null);
+		} catch (RuntimeException | StackOverflowError e) {
+			return new Result(job, Status.FAILED, null, null, System.nanoTime() - startTime, e);
+		}
+	}
+
+	/*
+	 * Keeps up to maxConcurrentJobs jobs submitted and hands out whichever finishes first
+	 */
+	private final class ResultIterator implements Iterator<Result> {
+		private final Iterator<Job> jobs;
+		private final CompletionService<Result> completions = new ExecutorCompletionService<>(executor);
+		private int jobsInFlight = 0;
+
+		ResultIterator(Iterator<Job> jobs) {
+			this.jobs = jobs;
+		}
+
+		@Override
+		public boolean hasNext() {
+			this.submitJobs();
+			return this.jobsInFlight > 0;
+		}
+
+		@Override
+		public Result next() {
+			if (!this.hasNext()) throw new NoSuchElementException();
+
+			try {
+				Result result = this.completions.take().get();
+				this.jobsInFlight--;
+				return result;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for a batch result", e);
+			} catch (ExecutionException e) {
+				// run() reports failures as results, so this only happens on errors it lets through
+				throw new IllegalStateException("Batch job failed", e.getCause());
+			}
+		}
+
+		private void submitJobs() {
+			while (this.jobsInFlight < maxConcurrentJobs && this.jobs.hasNext()) {
+				Job job = this.jobs.next();
+				if (job == null) throw new IllegalArgumentException("Job cannot be <null>");
+
+				this.completions.submit(() -> BatchSolver.run(job));
+				this.jobsInFlight++;
+			}
+		}
+	}
+
+	/*
+	 * One instance to solve
+	 */
+	public static final class Job {
+		private final String id;
+		private final ProblemState initialState;
+		private final ProblemState goalState;
+		private final SearchFunction searchFunction;
+		private final EvaluationFunction evalFunction;
+		private final SearchParameters parameters;
+
+		public Job(String id, ProblemState initialState, ProblemState goalState, SearchFunction searchFunction,
+				EvaluationFunction evalFunction, SearchParameters parameters) {
+			if (initialState == null || goalState == null) throw new IllegalArgumentException("States cannot be <null>");
+			if (searchFunction == null || evalFunction == null)
+				throw new IllegalArgumentException("Search and evaluation functions cannot be <null>");
+			if (parameters == null) throw new IllegalArgumentException("SearchParameters cannot be <null>");
+
+			this.id = id;
+			this.initialState = initialState;
+			this.goalState = goalState;
+			this.searchFunction = searchFunction;
+			this.evalFunction = evalFunction;
+			this.parameters = parameters;
+		}
+
+		public String getId() {return this.id;}
+		public ProblemState getInitialState() {return this.initialState;}
+		public ProblemState getGoalState() {return this.goalState;}
+		public SearchFunction getSearchFunction() {return this.searchFunction;}
+		public EvaluationFunction getEvaluationFunction() {return this.evalFunction;}
+		public SearchParameters getParameters() {return this.parameters;}
+
+		public String toString() {
+			return this.id + ": " + this.initialState + " ---> " + this.goalState + " by " + this.searchFunction +
+				   " using f(n)= " + this.evalFunction;
+		}
+	}
+
+	/*
+	 * The outcome of one job; the solution is present only if the status is SOLVED and the statistics are absent
+	 * only if it is FAILED
+	 */
+	public static final class Result {
+		private final Job job;
+		private final Status status;
+		private final Deque<TreeNode> solution;
+		private final SearchStatsCollector statsCollector;
+		private final long elapsedNanos;
+		private final Throwable failure;
+
+		private Result(Job job, Status status, Deque<TreeNode> solution, SearchStatsCollector statsCollector,
+				long elapsedNanos, Throwable failure) {
+			this.job = job;
+			this.status = status;
+			this.solution = solution;
+			this.statsCollector = statsCollector;
+			this.elapsedNanos = elapsedNanos;
+			this.failure = failure;
+		}
+
+		public Job getJob() {return this.job;}
+		public Status getStatus() {return this.status;}
+		public Optional<Deque<TreeNode>> getSolution() {return Optional.ofNullable(this.solution);}
+		public Optional<SearchStatsCollector> getStatsCollector() {return Optional.ofNullable(this.statsCollector);}
+		public long getElapsedNanos() {return this.elapsedNanos;}
+		public Optional<Throwable> getFailure() {return Optional.ofNullable(this.failure);}
+
+		public String toString() {
+			StringBuilder stringValue = new StringBuilder();
+			stringValue.append(this.job.getId()).append(" :: ").append(this.status);
+			if (this.statsCollector != null)
+				stringValue.append(" ; Cost = ").append(this.statsCollector.getSolutionCost())
+						   .append(" ; Time = ").append(this.statsCollector.getNodesExplored());
+			if (this.failure != null) stringValue.append(" ; ").append(this.failure);
+			stringValue.append(" ; Elapsed = ").append(this.elapsedNanos / 1_000_000).append("ms");
+			return stringValue.toString();
+		}
+	}
+}
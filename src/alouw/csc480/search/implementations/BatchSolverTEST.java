@@ -0,0 +1,135 @@
+package alouw.csc480.search.implementations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+
+public class BatchSolverTEST {
+
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	private static BatchSolver.Job job(String id, String initialStateString, SearchFunction searchFunction,
+			EvaluationFunction evalFunction, SearchParameters parameters) {
+		ProblemState initialState = ProblemStateFactory.getNewProblemState(initialStateString, ProblemTransformationOperation.NONE);
+		return new BatchSolver.Job(id, initialState, goalState, searchFunction, evalFunction, parameters);
+	}
+
+	private static Map<String, BatchSolver.Result> solveAll(BatchSolver solver, Stream<BatchSolver.Job> jobs) {
+		return solver.solve(jobs).collect(Collectors.toMap(result -> result.getJob().getId(), Function.identity()));
+	}
+
+	private static void assertSolved(BatchSolver.Result result, long expectedCost) {
+		Assert.assertEquals(BatchSolver.Status.SOLVED, result.getStatus());
+		Assert.assertEquals(expectedCost, result.getStatsCollector().get().getSolutionCost());
+		Assert.assertEquals(goalState, result.getSolution().get().peekLast().getProblemState());
+		Assert.assertEquals(result.getJob().getInitialState(), result.getSolution().get().peekFirst().getProblemState());
+	}
+
+	@Test
+	public void testSolvesEveryJobOnFixedPool() {
+		SearchParameters parameters = SearchParameters.getDefaultParameters();
+
+		try (BatchSolver solver = BatchSolver.newFixedPoolSolver(3)) {
+			Assert.assertFalse(solver.usesVirtualThreads());
+
+			Map<String, BatchSolver.Result> results = solveAll(solver, Stream.of(
+					job("easy", EASY_INITIAL_STATE, SearchFunction.ASTAR, EvaluationFunction.ASTAR_3, parameters),
+					job("medium", MEDIUM_INITIAL_STATE, SearchFunction.IDA, EvaluationFunction.ASTAR_3, parameters),
+					job("hard", HARD_INITIAL_STATE, SearchFunction.UNIFORM_COST, EvaluationFunction.CUME_COST, parameters),
+					job("hard-pdb", HARD_INITIAL_STATE, SearchFunction.ASTAR, EvaluationFunction.ASTAR_PDB_WEIGHTED, parameters)));
+
+			Assert.assertEquals(4, results.size());
+			assertSolved(results.get("easy"), 17);
+			assertSolved(results.get("medium"), 31);
+			assertSolved(results.get("hard"), 128);
+			assertSolved(results.get("hard-pdb"), 128);
+		}
+	}
+
+	@Test
+	public void testSolvesLongJobStreamOnVirtualThreads() {
+		SearchParameters parameters = SearchParameters.getDefaultParameters();
+		String[] initialStates = {EASY_INITIAL_STATE, MEDIUM_INITIAL_STATE, HARD_INITIAL_STATE};
+		long[] costs = {17, 31, 128};
+
+		// falls back to platform threads on JVMs without virtual threads
+		try (BatchSolver solver = BatchSolver.newVirtualThreadSolver(2)) {
+			Assert.assertEquals(2, solver.getMaxConcurrentJobs());
+
+			Map<String, BatchSolver.Result> results = solveAll(solver, IntStream.range(0, 30).mapToObj(index ->
+					job(String.valueOf(index), initialStates[index % 3], SearchFunction.ASTAR, EvaluationFunction.ASTAR_3, parameters)));
+
+			Assert.assertEquals(30, results.size());
+			for (int index = 0; index < 30; index++) assertSolved(results.get(String.valueOf(index)), costs[index % 3]);
+		}
+	}
+
+	@Test
+	public void testBudgetsAreEnforcedPerJob() {
+		SearchParameters parameters = SearchParameters.getDefaultParameters();
+		SearchParameters smallNodeBudget = parameters.withNodeBudget(100);
+		SearchParameters smallTimeBudget = parameters.withTimeBudget(20, TimeUnit.MILLISECONDS);
+
+		try (BatchSolver solver = BatchSolver.newFixedPoolSolver(2)) {
+			Map<String, BatchSolver.Result> results = solveAll(solver, Stream.of(
+					job("bfs", HARD_INITIAL_STATE, SearchFunction.BREADTH_FIRST, EvaluationFunction.NONE, smallNodeBudget),
+					job("parallel", HARD_INITIAL_STATE, SearchFunction.PARALLEL_ASTAR, EvaluationFunction.CUME_COST,
+							smallNodeBudget.withWorkerCount(2)),
+					job("ida", HARD_INITIAL_STATE, SearchFunction.IDA, EvaluationFunction.NONE, smallTimeBudget),
+					job("easy", EASY_INITIAL_STATE, SearchFunction.ASTAR, EvaluationFunction.ASTAR_3, smallNodeBudget)));
+
+			for (String id : new String[] {"bfs", "parallel", "ida"}) {
+				BatchSolver.Result result = results.get(id);
+				Assert.assertEquals(BatchSolver.Status.BUDGET_EXCEEDED, result.getStatus());
+				Assert.assertFalse(result.getSolution().isPresent());
+			}
+			Assert.assertEquals(101, results.get("bfs").getStatsCollector().get().getNodesExplored());
+			Assert.assertTrue(results.get("ida").getElapsedNanos() < TimeUnit.SECONDS.toNanos(10));
+
+			// a budget large enough for the job does not change the result
+			assertSolved(results.get("easy"), 17);
+		}
+	}
+
+	@Test
+	public void testFailuresAreReportedAsResults() {
+		ProblemState fifteenPuzzle = ProblemStateFactory.getNewProblemState("1 2 3 4 5 6 7 8 9 10 11 12 13 14 0 15",
+				ProblemTransformationOperation.NONE);
+
+		try (BatchSolver solver = BatchSolver.newFixedPoolSolver(1)) {
+			List<BatchSolver.Result> results = solver.solve(Stream.of(new BatchSolver.Job("mismatch", fifteenPuzzle, goalState,
+					SearchFunction.ASTAR, EvaluationFunction.ASTAR_3, SearchParameters.getDefaultParameters()))).collect(Collectors.toList());
+
+			Assert.assertEquals(1, results.size());
+			Assert.assertEquals(BatchSolver.Status.FAILED, results.get(0).getStatus());
+			Assert.assertTrue(results.get(0).getFailure().isPresent());
+			Assert.assertFalse(results.get(0).getStatsCollector().isPresent());
+		}
+	}
+
+	@Test
+	public void testRejectsZeroConcurrency() {
+		try {
+			BatchSolver.newFixedPoolSolver(0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {}
+	}
+}
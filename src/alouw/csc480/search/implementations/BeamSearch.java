@@ -0,0 +1,160 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+import alouw.csc480.search.interfaces.ClosedStateSet;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Beam search.
+ *
+ * Breadth first search that keeps only the best SearchParameters.getBeamWidth() nodes of every depth, as ordered by
+ * the comparator of the evaluation function. A layer is expanded as a whole; its children are deduplicated, by state,
+ * against each other and against every state the beam has held, and the best of them become the next layer. The first
+ * layer to generate the goal ends the search with the cheapest path to it in that layer.
+ *
+ * The beam holds at most width * depth states, so memory is bounded by the width rather than by the size of the
+ * problem, and so is the time spent on a layer. The price is that the solution is neither optimal nor guaranteed: when
+ * a layer runs out of nodes without reaching the goal the search starts over from the root with twice the width, up to
+ * SearchParameters.getMaxBeamWidth(), and fails beyond it. Every width is recorded as an iteration of the search.
+ */
+public final class BeamSearch {
+
+	private final ProblemState goalState;
+	private final SearchStatsCollector statsCollector;
+	private final Comparator<TreeNode> childOrder;
+
+	// every state the beam has held at the current width
+	private final ClosedStateSet statesExplored;
+	private final SuccessorBuffer children = new SuccessorBuffer();
+
+	// the best node of every state generated by the layer being expanded
+	private final Map<ProblemState, TreeNode> layerChildren = new HashMap<>();
+
+	private BeamSearch(EvaluationFunction evalFunction, ProblemState goalState, SearchStatsCollector statsCollector,
+			ProblemState prototypeState) {
+		this.goalState = goalState;
+		this.statsCollector = statsCollector;
+		this.childOrder = evalFunction.getComparator(goalState);
+		this.statesExplored = ClosedStateSetFactory.getNewClosedStateSet(prototypeState);
+	}
+
+	public static Optional<TreeNode> search(final ArrayDeque<TreeNode> queue, final EvaluationFunction evalFunction,
+			final ProblemState goalState, final SearchParameters parameters, SearchStatsCollector statsCollector) {
+
+		// confirm that the queue has at least an initial root node
+		assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
+
+		// expanded nodes are kept as primitives in a node arena; see TreeNodeFactory.getNewArenaRootNode
+		TreeNode rootNode = TreeNodeFactory.getNewArenaRootNode(queue.pop());
+
+		BeamSearch search = new BeamSearch(evalFunction, goalState, statsCollector, rootNode.getProblemState());
+		TreeNode solutionNode;
+		int width = parameters.getBeamWidth();
+		while (true) {
+			statsCollector.startIteration(width);
+			solutionNode = search.searchBeam(rootNode, width);
+			statsCollector.finishIteration();
+
+			if (solutionNode != null || width == parameters.getMaxBeamWidth()) break;
+			width = (int) Math.min(2L * width, parameters.getMaxBeamWidth());
+		}
+
+		if (solutionNode != null) {
+			statsCollector.incrementSolutionCost(solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+			statsCollector.incrementSolutionPath(solutionNode.getDepth());
+		}
+
+		return Optional.ofNullable(solutionNode);
+	}
+
+	/*
+	 * One pass of the beam from the root; null if a layer runs out of nodes first
+	 */
+	private TreeNode searchBeam(TreeNode rootNode, int width) {
+		this.statesExplored.clear();
+		this.statesExplored.add(rootNode.getProblemState());
+		if (rootNode.getProblemState().equals(this.goalState)) return rootNode;
+
+		List<TreeNode> layer = Collections.singletonList(rootNode);
+		while (!layer.isEmpty()) {
+
+			// capture max width of the beam
+			this.statsCollector.setMaxQueueSize(layer.size());
+			this.statsCollector.setBound(layer.get(0).getDepth());
+
+			TreeNode goalNode = null;
+			for (TreeNode node : layer) {
+
+				// count the # of nodes explored
+				this.statsCollector.incrementNodesExplored(1);
+
+				this.children.fill(node);
+				this.statsCollector.incrementNodesGenerated(this.children.size());
+				for (int index = 0; index < this.children.size(); index++) {
+					TreeNode child = this.children.get(index);
+					ProblemState childState = child.getProblemState();
+					if (this.statesExplored.contains(childState)) {
+						this.statsCollector.incrementDuplicates(1);
+						continue;
+					}
+
+					if (childState.equals(this.goalState) && (goalNode == null || getPathCost(child) < getPathCost(goalNode))) goalNode = child;
+
+					TreeNode sameStateNode = this.layerChildren.get(childState);
+					if (sameStateNode == null) {
+						this.layerChildren.put(childState, child);
+						continue;
+					}
+					this.statsCollector.incrementDuplicates(1);
+					if (this.childOrder.compare(child, sameStateNode) < 0) this.layerChildren.put(childState, child);
+				}
+			}
+
+			if (goalNode != null) {
+				this.layerChildren.clear();
+				return goalNode;
+			}
+			layer = this.selectBest(width);
+		}
+
+		return null;
+	}
+
+	/*
+	 * The best width children of the layer, best first; a bounded heap keeps the worst of those kept on top
+	 */
+	private List<TreeNode> selectBest(int width) {
+		PriorityQueue<TreeNode> best = new PriorityQueue<>(Math.min(width, this.layerChildren.size()) + 1, this.childOrder.reversed());
+		for (TreeNode child : this.layerChildren.values()) {
+			if (best.size() < width) best.add(child);
+			else if (this.childOrder.compare(child, best.peek()) < 0) {
+				best.poll();
+				best.add(child);
+			}
+		}
+		this.layerChildren.clear();
+
+		List<TreeNode> layer = new ArrayList<>(best.size());
+		for (TreeNode node = best.poll(); node != null; node = best.poll()) {
+			layer.add(node);
+			this.statesExplored.add(node.getProblemState());
+		}
+		Collections.reverse(layer);
+		return layer;
+	}
+
+	private static int getPathCost(TreeNode node) {
+		return node.getProblemState().getCumulativeTransformationCostFromInitialState();
+	}
+}
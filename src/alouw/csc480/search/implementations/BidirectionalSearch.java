@@ -0,0 +1,267 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import alouw.csc480.search.interfaces.ClosedStateSet;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Bidirectional search: one tree grows from the initial state towards the goal state and a second tree grows from
+ * the goal state towards the initial state until the two meet in the middle.
+ *
+ * Moving a tile back costs exactly what moving it forward did, so the backward tree uses the same transformations
+ * and costs as the forward tree. The mode depends on the evaluation function:
+ *	- no path cost (NONE, GREEDY): breadth first by whole layers, always expanding the smaller frontier; the layer
+ *	  that first meets the other tree finds every meeting within as many moves, and the one with the fewest moves
+ *	  (the cheapest of those) is the solution.
+ *	- path cost only (CUME_COST): uniform cost in both directions, expanding the smaller frontier; stops once the
+ *	  two cheapest frontier costs add up to at least the cheapest meeting found.
+ *	- path cost + heuristic (ASTAR_*): MM, which orders each frontier by max(f(n), 2 g(n)) and expands the direction
+ *	  with the lower priority; stops once the cheapest meeting found is no more than the lowest priority left. The
+ *	  backward tree estimates its distance to the initial state with the same heuristic.
+ *
+ * The solution path is stitched together by replaying the backward tree's moves, reversed, from the meeting node
+ * of the forward tree, so the result is an ordinary forward path ending at the goal state.
+ */
+public final class BidirectionalSearch {
+
+	private BidirectionalSearch() {}
+
+	public static Optional<TreeNode> search(final ArrayDeque<TreeNode> queue, final EvaluationFunction evalFunction,
+			final ProblemState goalState, final SearchParameters parameters, SearchStatsCollector statsCollector) {
+
+		// confirm that the queue has at least an initial root node
+		assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
+
+		TreeNode forwardRoot = queue.pop();
+		ProblemState initialState = forwardRoot.getProblemState();
+		TreeNode backwardRoot = TreeNodeFactory.getNewRootNode(goalState.withGoalState(initialState), evalFunction, initialState);
+
+		Meeting meeting = (!evalFunction.accumulatesPathCost())
+				? BidirectionalSearch.searchByLayers(forwardRoot, backwardRoot, statsCollector)
+				: BidirectionalSearch.searchByCost(forwardRoot, backwardRoot, evalFunction, goalState, initialState,
+						parameters, statsCollector);
+
+		if (meeting == null) return Optional.empty();
+
+		TreeNode solutionNode = BidirectionalSearch.stitch(meeting.forwardNode, meeting.backwardNode);
+
+		statsCollector.incrementSolutionCost(solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+		statsCollector.incrementSolutionPath(solutionNode.getDepth());
+
+		return Optional.of(solutionNode);
+	}
+
+	/*
+	 * Unit cost search: alternately expand the complete frontier layer of whichever direction is smaller
+	 */
+	private static Meeting searchByLayers(TreeNode forwardRoot, TreeNode backwardRoot, SearchStatsCollector statsCollector) {
+		Map<ProblemState, TreeNode> forwardSeen = new HashMap<>();
+		Map<ProblemState, TreeNode> backwardSeen = new HashMap<>();
+		List<TreeNode> forwardLayer = new ArrayList<>();
+		List<TreeNode> backwardLayer = new ArrayList<>();
+
+		forwardSeen.put(forwardRoot.getProblemState(), forwardRoot);
+		backwardSeen.put(backwardRoot.getProblemState(), backwardRoot);
+		forwardLayer.add(forwardRoot);
+		backwardLayer.add(backwardRoot);
+
+		SuccessorBuffer children = new SuccessorBuffer();
+
+		Meeting best = null;
+		if (backwardSeen.containsKey(forwardRoot.getProblemState())) best = new Meeting(forwardRoot, backwardRoot);
+
+		while (best == null && !forwardLayer.isEmpty() && !backwardLayer.isEmpty()) {
+
+			// capture max size of both frontiers
+			statsCollector.setMaxQueueSize(forwardLayer.size() + backwardLayer.size());
+
+			boolean expandForward = forwardLayer.size() <= backwardLayer.size();
+			List<TreeNode> layer = expandForward ? forwardLayer : backwardLayer;
+			Map<ProblemState, TreeNode> seen = expandForward ? forwardSeen : backwardSeen;
+			Map<ProblemState, TreeNode> otherSeen = expandForward ? backwardSeen : forwardSeen;
+			List<TreeNode> nextLayer = new ArrayList<>();
+
+			for (TreeNode currentNode : layer) {
+
+				// count the # of nodes explored
+				statsCollector.incrementNodesExplored(1);
+
+				children.fill(currentNode);
+				statsCollector.incrementNodesGenerated(children.size());
+				for (int index = 0; index < children.size(); index++) {
+					TreeNode childNode = children.get(index);
+					ProblemState childState = childNode.getProblemState();
+					if (seen.containsKey(childState)) {
+						statsCollector.incrementDuplicates(1);
+						continue;
+					}
+
+					seen.put(childState, childNode);
+					nextLayer.add(childNode);
+
+					// the other tree may be met at any of its depths; keep the fewest moves, then the cheapest
+					TreeNode otherNode = otherSeen.get(childState);
+					if (otherNode != null) {
+						Meeting meeting = expandForward ? new Meeting(childNode, otherNode) : new Meeting(otherNode, childNode);
+						if (best == null || meeting.getDepth() < best.getDepth() ||
+								(meeting.getDepth() == best.getDepth() && meeting.getCost() < best.getCost())) best = meeting;
+					}
+				}
+			}
+
+			if (expandForward) forwardLayer = nextLayer;
+			else backwardLayer = nextLayer;
+		}
+
+		return best;
+	}
+
+	/*
+	 * Uniform cost (h == 0) or MM (h > 0) search in both directions
+	 */
+	private static Meeting searchByCost(TreeNode forwardRoot, TreeNode backwardRoot, EvaluationFunction evalFunction,
+			ProblemState goalState, ProblemState initialState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+
+		boolean usesHeuristic = evalFunction != EvaluationFunction.CUME_COST;
+		Direction forward = new Direction(forwardRoot, goalState, evalFunction, usesHeuristic, parameters);
+		Direction backward = new Direction(backwardRoot, initialState, evalFunction, usesHeuristic, parameters);
+
+		SuccessorBuffer children = new SuccessorBuffer();
+
+		Meeting best = null;
+		if (forwardRoot.getProblemState().equals(goalState)) best = new Meeting(forwardRoot, backwardRoot);
+
+		while (!forward.frontier.isEmpty() && !backward.frontier.isEmpty()) {
+
+			// capture max size of both frontiers
+			statsCollector.setMaxQueueSize(forward.frontier.size() + backward.frontier.size());
+
+			// stopping rules; a meeting at least as cheap as the bound cannot be improved on
+			int forwardMinimum = forward.frontier.peekPriority();
+			int backwardMinimum = backward.frontier.peekPriority();
+			int bound = usesHeuristic ? Math.min(forwardMinimum, backwardMinimum) : forwardMinimum + backwardMinimum;
+			if (best != null && best.getCost() <= bound) break;
+			statsCollector.setBound(bound);
+
+			boolean expandForward = usesHeuristic
+					? (forwardMinimum < backwardMinimum ||
+					   (forwardMinimum == backwardMinimum && forward.frontier.size() <= backward.frontier.size()))
+					: forward.frontier.size() <= backward.frontier.size();
+			Direction direction = expandForward ? forward : backward;
+			Direction otherDirection = expandForward ? backward : forward;
+
+			TreeNode currentNode = direction.frontier.poll();
+
+			// count the # of nodes explored
+			statsCollector.incrementNodesExplored(1);
+
+			direction.statesExplored.add(currentNode.getProblemState());
+
+			children.fill(currentNode);
+			statsCollector.incrementNodesGenerated(children.size());
+			for (int index = 0; index < children.size(); index++) {
+				TreeNode childNode = children.get(index);
+				ProblemState childState = childNode.getProblemState();
+				TreeNode seenNode = direction.cheapestNodes.get(childState);
+				if (direction.statesExplored.contains(childState) || (seenNode != null && 
+						seenNode.getProblemState().getCumulativeTransformationCostFromInitialState() <= 
+						childState.getCumulativeTransformationCostFromInitialState())) {
+					statsCollector.incrementDuplicates(1);
+					continue;
+				}
+
+				direction.cheapestNodes.put(childState, childNode);
+				direction.offer(childNode);
+
+				TreeNode otherNode = otherDirection.cheapestNodes.get(childState);
+				if (otherNode != null) {
+					Meeting meeting = expandForward ? new Meeting(childNode, otherNode) : new Meeting(otherNode, childNode);
+					if (best == null || meeting.getCost() < best.getCost()) {
+						best = meeting;
+						statsCollector.setBestSolutionCost(best.getCost());
+					}
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/*
+	 * Extends the forward node with the reverse of every move on the backward node's path to the goal state
+	 */
+	private static TreeNode stitch(TreeNode forwardNode, TreeNode backwardNode) {
+		TreeNode result = forwardNode;
+
+		for (TreeNode node = backwardNode; !node.isRootNode(); node = node.getParentNode()) {
+			ProblemTransformationOperation operation = node.getProblemState().getPredecessorTransformation().reverseTransformation();
+			result = TreeNodeFactory.getNewTreeNode(result, result.getProblemState().applyTransformation(operation));
+		}
+
+		return result;
+	}
+
+	/*
+	 * One search direction: its frontier, closed set and cheapest known node per state
+	 */
+	private static final class Direction {
+		private final BucketPriorityQueue frontier;
+		private final ClosedStateSet statesExplored;
+		private final Map<ProblemState, TreeNode> cheapestNodes = new HashMap<>();
+		private final EvaluationFunction evalFunction;
+		private final ProblemState targetState;
+		private final boolean usesHeuristic;
+
+		Direction(TreeNode rootNode, ProblemState targetState, EvaluationFunction evalFunction, boolean usesHeuristic,
+				SearchParameters parameters) {
+			this.frontier = new BucketPriorityQueue(parameters.getTieBreak(), rootNode.getProblemState());
+			this.statesExplored = ClosedStateSetFactory.getNewClosedStateSet(rootNode.getProblemState());
+			this.evalFunction = evalFunction;
+			this.targetState = targetState;
+			this.usesHeuristic = usesHeuristic;
+
+			this.cheapestNodes.put(rootNode.getProblemState(), rootNode);
+			this.offer(rootNode);
+		}
+
+		// MM priority max(f(n), 2 g(n)); plain g(n) without a heuristic
+		void offer(TreeNode node) {
+			int g = node.getProblemState().getCumulativeTransformationCostFromInitialState();
+			int priority = this.usesHeuristic
+					? Math.max(node.getEvaluationPathCost(this.evalFunction, this.targetState), 2 * g)
+					: g;
+			this.frontier.offer(node, priority, g);
+		}
+	}
+
+	/*
+	 * A state reached by both trees
+	 */
+	private static final class Meeting {
+		private final TreeNode forwardNode;
+		private final TreeNode backwardNode;
+
+		Meeting(TreeNode forwardNode, TreeNode backwardNode) {
+			this.forwardNode = forwardNode;
+			this.backwardNode = backwardNode;
+		}
+
+		int getCost() {
+			return this.forwardNode.getProblemState().getCumulativeTransformationCostFromInitialState() +
+				   this.backwardNode.getProblemState().getCumulativeTransformationCostFromInitialState();
+		}
+
+		int getDepth() {
+			return this.forwardNode.getDepth() + this.backwardNode.getDepth();
+		}
+	}
+}
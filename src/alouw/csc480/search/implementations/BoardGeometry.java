@@ -0,0 +1,214 @@
+package alouw.csc480.search.implementations;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+
+/*
+ * Immutable description of one board size, shared by every state of that size: how tiles are packed into
+ * the two words of a state, and which cell the blank trades places with for every blank index and move.
+ */
+final class BoardGeometry {
+
+	static final int UNDEFINED_INDEX = -1;
+
+	private static final int WORD_SIZE = Long.SIZE;
+	private static final int WORD_COUNT = 2;
+
+	// # of moves in the move table; NONE is not tabulated
+	private static final int MOVE_COUNT = 4;
+
+	// (rows << 16 | columns) --> geometry
+	private static final ConcurrentMap<Integer, BoardGeometry> GEOMETRIES = new ConcurrentHashMap<>();
+
+	final int rowCount;
+	final int columnCount;
+	final int cellCount;
+
+	private final int bitsPerTile;
+	private final long tileMask;
+	private final int tilesPerWord;
+
+	// the cell that is not stored but derived from the others; UNDEFINED_INDEX if every cell is stored
+	private final int inferredCell;
+
+	// sum of all tile values; the inferred tile is this minus the sum of the stored tiles
+	private final int tileSum;
+
+	// [blank index * MOVE_COUNT + operation] --> index the blank moves to, or UNDEFINED_INDEX
+	private final int[] moveTargets;
+
+	// the cells of every line: rows 0..rowCount-1, then columns
+	private final int[][] lineCells;
+
+	// goal state --> goal tables, for the most recently used goals of this board size
+	static final int GOAL_INDEX_CACHE_CAPACITY = 64;
+	final LeastRecentlyUsedCache<ProblemState, BoardGoalIndex> goalIndexes = new LeastRecentlyUsedCache<>(GOAL_INDEX_CACHE_CAPACITY);
+
+	private BoardGeometry(int rowCount, int columnCount) {
+		this.rowCount = rowCount;
+		this.columnCount = columnCount;
+		this.cellCount = rowCount * columnCount;
+
+		this.bitsPerTile = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(this.cellCount - 1));
+		this.tileMask = (1L << this.bitsPerTile) - 1;
+		this.tilesPerWord = WORD_SIZE / this.bitsPerTile;
+
+		if (this.cellCount <= WORD_COUNT * this.tilesPerWord) this.inferredCell = UNDEFINED_INDEX;
+		else if (this.cellCount == WORD_COUNT * this.tilesPerWord + 1) this.inferredCell = this.cellCount - 1;
+		else throw new IllegalArgumentException("A " + this + " board does not fit in " + WORD_COUNT + " longs");
+
+		this.tileSum = this.cellCount * (this.cellCount - 1) / 2;
+
+		this.moveTargets = new int[this.cellCount * MOVE_COUNT];
+		for (int index = 0; index < this.cellCount; index++) {
+			int row = index / columnCount;
+			int column = index % columnCount;
+			this.moveTargets[index * MOVE_COUNT + ProblemTransformationOperation.UP.ordinal()] =
+					(row == 0) ? UNDEFINED_INDEX : index - columnCount;
+			this.moveTargets[index * MOVE_COUNT + ProblemTransformationOperation.DOWN.ordinal()] =
+					(row == rowCount - 1) ? UNDEFINED_INDEX : index + columnCount;
+			this.moveTargets[index * MOVE_COUNT + ProblemTransformationOperation.LEFT.ordinal()] =
+					(column == 0) ? UNDEFINED_INDEX : index - 1;
+			this.moveTargets[index * MOVE_COUNT + ProblemTransformationOperation.RIGHT.ordinal()] =
+					(column == columnCount - 1) ? UNDEFINED_INDEX : index + 1;
+		}
+
+		this.lineCells = new int[rowCount + columnCount][];
+		for (int row = 0; row < rowCount; row++) {
+			this.lineCells[row] = new int[columnCount];
+			for (int column = 0; column < columnCount; column++) this.lineCells[row][column] = row * columnCount + column;
+		}
+		for (int column = 0; column < columnCount; column++) {
+			this.lineCells[rowCount + column] = new int[rowCount];
+			for (int row = 0; row < rowCount; row++) this.lineCells[rowCount + column][row] = row * columnCount + column;
+		}
+	}
+
+	static BoardGeometry getGeometry(int rowCount, int columnCount) {
+		if (rowCount < 1 || columnCount < 1 || rowCount * columnCount < 2 || rowCount > 0xFFFF || columnCount > 0xFFFF)
+			throw new IllegalArgumentException("A board needs at least 2 tiles; received " + rowCount + " x " + columnCount);
+
+		return GEOMETRIES.computeIfAbsent(Integer.valueOf((rowCount << 16) | columnCount),
+				x -> new BoardGeometry(rowCount, columnCount));
+	}
+
+	boolean fitsInOneWord() {
+		return this.cellCount <= this.tilesPerWord;
+	}
+
+	/*
+	 * Parses and validates a string representation; every value 0..cellCount-1 must occur exactly once
+	 */
+	int[] parse(String stateString) {
+		String[] stringArray = stateString.split(" ");
+
+		if (stringArray.length != this.cellCount)
+			throw new IllegalArgumentException("Expected " + this.cellCount + " args; received " + stringArray.length);
+
+		int[] tiles = new int[this.cellCount];
+		boolean[] seen = new boolean[this.cellCount];
+
+		for (int index = 0; index < tiles.length; index++) {
+			int value = Integer.parseInt(stringArray[index]);
+
+			if (value < 0 || value >= this.cellCount)
+				throw new IllegalArgumentException("Tile value " + value + " is outside the range of a " + this + " board");
+			if (seen[value]) throw new IllegalArgumentException("Tile value " + value + " occurs more than once");
+
+			seen[value] = true;
+			tiles[index] = value;
+		}
+
+		return tiles;
+	}
+
+	long[] pack(int[] tiles) {
+		long[] words = new long[WORD_COUNT];
+		for (int index = 0; index < tiles.length; index++) {
+			if (index == this.inferredCell) continue;
+			words[index / this.tilesPerWord] |= ((long) tiles[index]) << this.getShift(index);
+		}
+		return words;
+	}
+
+	int findZeroIndex(long lowWord, long highWord) {
+		for (int index = 0; index < this.cellCount; index++)
+			if (this.getTile(lowWord, highWord, index) == 0) return index;
+		throw new IllegalArgumentException("Every board configuration requires a blank (zero) tile");
+	}
+
+	private int getShift(int index) {
+		return (index % this.tilesPerWord) * this.bitsPerTile;
+	}
+
+	/*
+	 * Returns the value of the tile stored at the row major index of packed words
+	 */
+	int getTile(long lowWord, long highWord, int index) {
+		if (index == this.inferredCell) {
+			int result = this.tileSum;
+			for (int stored = 0; stored < this.inferredCell; stored++) result -= this.getTile(lowWord, highWord, stored);
+			return result;
+		}
+
+		long word = (index < this.tilesPerWord) ? lowWord : highWord;
+		return (int) ((word >>> this.getShift(index)) & this.tileMask);
+	}
+
+	/*
+	 * Returns the word with the tile written at the index if the index is stored in that word; the word otherwise
+	 */
+	long withTile(long word, int wordIndex, int index, int tile) {
+		if (index == this.inferredCell || index / this.tilesPerWord != wordIndex) return word;
+
+		int shift = this.getShift(index);
+		return (word & ~(this.tileMask << shift)) | (((long) tile) << shift);
+	}
+
+	// the index the blank moves to when applying the operation, or UNDEFINED_INDEX if the move is illegal
+	int getMoveTarget(int zeroIndex, ProblemTransformationOperation operation) {
+		return this.moveTargets[zeroIndex * MOVE_COUNT + operation.ordinal()];
+	}
+
+	int getRow(int index) {
+		return index / this.columnCount;
+	}
+
+	int getColumn(int index) {
+		return index % this.columnCount;
+	}
+
+	int getRowLine(int index) {
+		return index / this.columnCount;
+	}
+
+	int getColumnLine(int index) {
+		return this.rowCount + index % this.columnCount;
+	}
+
+	int getLineCount() {
+		return this.lineCells.length;
+	}
+
+	int[] getLineCells(int line) {
+		return this.lineCells[line];
+	}
+
+	boolean isRowLine(int line) {
+		return line < this.rowCount;
+	}
+
+	BoardGoalIndex getGoalIndex(ProblemState goalState) {
+		if (!(goalState instanceof BoardStateImpl) || ((BoardStateImpl) goalState).getGeometry() != this)
+			throw new IllegalArgumentException("Goal state " + goalState + " is not a " + this + " board");
+
+		return this.goalIndexes.computeIfAbsent(goalState, x -> new BoardGoalIndex(this, (BoardStateImpl) goalState));
+	}
+
+	@Override
+	public String toString() {
+		return this.rowCount + " x " + this.columnCount;
+	}
+}
@@ -0,0 +1,131 @@
+package alouw.csc480.search.implementations;
+
+import alouw.csc480.search.interfaces.ProblemState;
+
+/*
+ * Immutable lookup tables describing one goal configuration of one board size; the counterpart of GoalIndex.
+ *
+ * For each tile value and each board index the tables hold the Manhattan distance from the index to the tile's
+ * goal position and whether the tile would be out of place at the index. Linear conflicts are computed per line
+ * on demand: tables covering every arrangement of a line grow too quickly with the board size.
+ */
+final class BoardGoalIndex {
+
+	private final BoardGeometry geometry;
+	private final BoardStateImpl goalState;
+
+	// [tile value * cellCount + board index]
+	private final int[] distances;
+	private final int[] outOfPlace;
+
+	// goal index of every tile
+	private final int[] goalIndexes;
+
+	BoardGoalIndex(BoardGeometry geometry, BoardStateImpl goalState) {
+		this.geometry = geometry;
+		this.goalState = goalState;
+
+		int cellCount = geometry.cellCount;
+		this.distances = new int[cellCount * cellCount];
+		this.outOfPlace = new int[cellCount * cellCount];
+		this.goalIndexes = new int[cellCount];
+
+		for (int goalIndex = 0; goalIndex < cellCount; goalIndex++) {
+			int value = geometry.getTile(goalState.getLowWord(), goalState.getHighWord(), goalIndex);
+			this.goalIndexes[value] = goalIndex;
+
+			for (int index = 0; index < cellCount; index++) {
+				this.distances[value * cellCount + index] =
+						Math.abs(geometry.getRow(goalIndex) - geometry.getRow(index)) +
+						Math.abs(geometry.getColumn(goalIndex) - geometry.getColumn(index));
+				this.outOfPlace[value * cellCount + index] = (goalIndex == index) ? 0 : 1;
+			}
+		}
+	}
+
+	boolean isGoalState(ProblemState state) {
+		return state == this.goalState || this.goalState.equals(state);
+	}
+
+	// the # of moves for the tile to travel from the index to its goal position
+	int getDistance(int tileValue, int index) {
+		return this.distances[tileValue * this.geometry.cellCount + index];
+	}
+
+	// 1 if the tile does not belong at the index; 0 otherwise
+	int getOutOfPlace(int tileValue, int index) {
+		return this.outOfPlace[tileValue * this.geometry.cellCount + index];
+	}
+
+	int getNumberOfTilesOutOfPlace(long lowWord, long highWord) {
+		int result = 0;
+		for (int index = 0; index < this.geometry.cellCount; index++)
+			result += this.getOutOfPlace(this.geometry.getTile(lowWord, highWord, index), index);
+		return result;
+	}
+
+	int getSumOfManhattanDistances(long lowWord, long highWord) {
+		int result = 0;
+		for (int index = 0; index < this.geometry.cellCount; index++)
+			result += this.getDistance(this.geometry.getTile(lowWord, highWord, index), index);
+		return result;
+	}
+
+	int getSumOfManhattanDistancesTimesTileValue(long lowWord, long highWord) {
+		int result = 0;
+		for (int index = 0; index < this.geometry.cellCount; index++) {
+			int value = this.geometry.getTile(lowWord, highWord, index);
+			result += this.getDistance(value, index) * value;
+		}
+		return result;
+	}
+
+	int getLinearConflicts(long lowWord, long highWord, boolean weighted) {
+		int result = 0;
+		for (int line = 0; line < this.geometry.getLineCount(); line++)
+			result += this.getLineConflicts(lowWord, highWord, line, weighted);
+		return result;
+	}
+
+	/*
+	 * Tiles that belong to the line must reach their goal positions in goal order; every tile outside the
+	 * heaviest subsequence already in that order has to step out of the line and back (2 moves or 2 x its value)
+	 */
+	int getLineConflicts(long lowWord, long highWord, int line, boolean weighted) {
+		BoardGeometry board = this.geometry;
+		int[] cells = board.getLineCells(line);
+		boolean isRow = board.isRowLine(line);
+
+		// goal order and weight of every tile on the line that belongs to it, in board order
+		int[] goalOrder = new int[cells.length];
+		int[] keptWeight = new int[cells.length];
+		int count = 0;
+		int totalWeight = 0;
+		int bestWeight = 0;
+
+		for (int cell : cells) {
+			int tile = board.getTile(lowWord, highWord, cell);
+			int goalIndex = this.goalIndexes[tile];
+			int goalLine = isRow ? board.getRowLine(goalIndex) : board.getColumnLine(goalIndex);
+
+			// the blank and tiles that leave the line anyway do not conflict
+			if (tile == 0 || goalLine != line) continue;
+
+			int order = isRow ? board.getColumn(goalIndex) : board.getRow(goalIndex);
+			int weight = weighted ? tile : 1;
+
+			// heaviest increasing subsequence ending with this tile
+			int best = 0;
+			for (int previous = 0; previous < count; previous++)
+				if (goalOrder[previous] < order) best = Math.max(best, keptWeight[previous]);
+
+			goalOrder[count] = order;
+			keptWeight[count] = best + weight;
+			bestWeight = Math.max(bestWeight, keptWeight[count]);
+			totalWeight += weight;
+			count++;
+		}
+
+		return 2 * (totalWeight - bestWeight);
+	}
+}
@@ -0,0 +1,358 @@
+package alouw.csc480.search.implementations;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+
+/*
+ * Immutable problem state for a sliding tile board of any size whose tiles fit in two longs, e.g. the
+ * 15-Puzzle (4 x 4) and the 24-Puzzle (5 x 5). The 8-Puzzle keeps its own single long representation
+ * (see ProblemStateImpl).
+ *
+ * Tiles are packed in row major order with as few bits per tile as the largest tile value needs. A 4 x 4 board
+ * fills exactly one long (and so has a packed encoding); a 5 x 5 board stores 24 tiles in two longs and infers
+ * the last tile from the others. The blank's index is kept beside the packed tiles, and the legal moves from
+ * every blank index are precomputed once per board size (see BoardGeometry).
+ *
+ * Heuristic distances to the goal are carried from state to state exactly as in ProblemStateImpl. Walking distance
+ * and the pattern databases are only tabulated for the 8-Puzzle; on other boards those evaluation functions use
+ * linear conflict, the strongest admissible estimate computed here, so every EvaluationFunction still works.
+ *
+ * @precondition: applying the predecessor transformation to the current state yields a valid prior state
+ */
+final class BoardStateImpl implements ProblemState {
+
+	// the moves, in the order successors are generated
+	private static final ProblemTransformationOperation[] MOVES = {ProblemTransformationOperation.UP,
+			ProblemTransformationOperation.DOWN, ProblemTransformationOperation.LEFT, ProblemTransformationOperation.RIGHT};
+
+	private final BoardGeometry geometry;
+
+	// internal representation of the grid; highWord is only used by boards that do not fit in one long
+	private final long lowWord;
+	private final long highWord;
+
+	// the location of the zero/blank tile
+	private final int zeroIndex;
+
+	// the transformation operation applied to the predecessor state to create *this* successor state
+	private final ProblemTransformationOperation predecessorOperation;
+
+	// the cost of the transformation operation from predecessor to current
+	private final int transformationCostLocal;
+
+	// the cost of the transformation operations to date
+	private final int transformationCostCume;
+
+	// compute once; use many times
+	private final int hashCode;
+
+	// the goal this state tracks its heuristic distances to; null if the state is not tracking a goal
+	private final BoardGoalIndex goalIndex;
+
+	// heuristic distances to the tracked goal, carried from predecessor to successor state
+	private final int tilesOutOfPlace;
+	private final int manhattanDistance;
+	private final int weightedManhattanDistance;
+	private final int linearConflicts;
+	private final int weightedLinearConflicts;
+
+	// instantiate a problem state with an internal state derived from the string representation
+	BoardStateImpl(BoardGeometry geometry, String stateString, ProblemTransformationOperation predecessorOperation, int cost) {
+		this(geometry, geometry.pack(geometry.parse(stateString)), predecessorOperation, cost);
+	}
+
+	private BoardStateImpl(BoardGeometry geometry, long[] words, ProblemTransformationOperation predecessorOperation, int cost) {
+		this(geometry, words[0], words[1], geometry.findZeroIndex(words[0], words[1]), predecessorOperation, cost,
+				null, 0, 0, 0, 0, 0);
+	}
+
+	// instantiate a problem state on the prototype's board from the single word of getPackedEncoding
+	static ProblemState fromPackedEncoding(BoardStateImpl prototype, long packedEncoding,
+			ProblemTransformationOperation predecessorOperation, int cost) {
+		if (!prototype.hasPackedEncoding())
+			throw new IllegalStateException(prototype.geometry + " boards do not fit in a single long");
+		return new BoardStateImpl(prototype.geometry, new long[] {packedEncoding, 0L}, predecessorOperation, cost);
+	}
+
+	// instantiate a problem state directly from packed words; used when deriving successor states
+	private BoardStateImpl(BoardGeometry geometry, long lowWord, long highWord, int zeroIndex,
+			ProblemTransformationOperation predecessorOperation, int cost, BoardGoalIndex goalIndex,
+			int tilesOutOfPlace, int manhattanDistance, int weightedManhattanDistance,
+			int linearConflicts, int weightedLinearConflicts) {
+		this.geometry = geometry;
+		this.lowWord = lowWord;
+		this.highWord = highWord;
+		this.zeroIndex = zeroIndex;
+		this.predecessorOperation = predecessorOperation;
+
+		this.goalIndex = goalIndex;
+		this.tilesOutOfPlace = tilesOutOfPlace;
+		this.manhattanDistance = manhattanDistance;
+		this.weightedManhattanDistance = weightedManhattanDistance;
+		this.linearConflicts = linearConflicts;
+		this.weightedLinearConflicts = weightedLinearConflicts;
+
+		this.transformationCostLocal = this.getPredecessorTransformationCost();
+		this.transformationCostCume = cost + this.transformationCostLocal;
+
+		this.hashCode = ProblemStateImpl.mixBits(lowWord ^ Long.rotateLeft(highWord * 0x9e3779b97f4a7c15L, 32));
+	}
+
+	/*
+	 * Computes the tile cost (== cost of move) when reversing the operation that created this state
+	 */
+	private int getPredecessorTransformationCost() {
+		// a no-op swaps the blank with itself, which has a cost of zero
+		if (this.predecessorOperation == ProblemTransformationOperation.NONE) return 0;
+
+		int swapIndex = this.geometry.getMoveTarget(this.zeroIndex, this.predecessorOperation.reverseTransformation());
+		if (swapIndex == BoardGeometry.UNDEFINED_INDEX)
+			throw new IllegalArgumentException(this.predecessorOperation + " cannot have created state " + this.toString());
+
+		return this.geometry.getTile(this.lowWord, this.highWord, swapIndex);
+	}
+
+	/*
+	 * Generate the successor state derived by applying the operation to the current state
+	 * Note: a no-op operation results in an equal state being returned
+	 */
+	@Override
+	public ProblemState applyTransformation(ProblemTransformationOperation operation) throws IllegalStateException {
+		if (!this.isTransformationLegal(operation))
+			throw new IllegalStateException(operation + "is illegal with state " + this.toString());
+
+		BoardGeometry board = this.geometry;
+		int swapIndex = (operation == ProblemTransformationOperation.NONE)
+				? this.zeroIndex : board.getMoveTarget(this.zeroIndex, operation);
+		int tile = board.getTile(this.lowWord, this.highWord, swapIndex);
+
+		// the blank holds a zero, so the swap only has to clear the tile's old cell and write its new one
+		long newLowWord = board.withTile(board.withTile(this.lowWord, 0, swapIndex, 0), 0, this.zeroIndex, tile);
+		long newHighWord = board.withTile(board.withTile(this.highWord, 1, swapIndex, 0), 1, this.zeroIndex, tile);
+
+		if (this.goalIndex == null)
+			return new BoardStateImpl(board, newLowWord, newHighWord, swapIndex, operation, this.transformationCostCume,
+					null, 0, 0, 0, 0, 0);
+
+		// only the moved tile and the blank change places, so only their contributions to each heuristic change
+		BoardGoalIndex goal = this.goalIndex;
+		int tileDistanceChange = goal.getDistance(tile, this.zeroIndex) - goal.getDistance(tile, swapIndex);
+
+		// a vertical move only reorders the two rows involved, a horizontal move only the two columns
+		boolean isVerticalMove = board.getRow(this.zeroIndex) != board.getRow(swapIndex);
+		int lineOne = isVerticalMove ? board.getRowLine(this.zeroIndex) : board.getColumnLine(this.zeroIndex);
+		int lineTwo = isVerticalMove ? board.getRowLine(swapIndex) : board.getColumnLine(swapIndex);
+
+		return new BoardStateImpl(board, newLowWord, newHighWord, swapIndex, operation, this.transformationCostCume, goal,
+				this.tilesOutOfPlace + goal.getOutOfPlace(tile, this.zeroIndex) - goal.getOutOfPlace(tile, swapIndex)
+					+ goal.getOutOfPlace(0, swapIndex) - goal.getOutOfPlace(0, this.zeroIndex),
+				this.manhattanDistance + tileDistanceChange
+					+ goal.getDistance(0, swapIndex) - goal.getDistance(0, this.zeroIndex),
+				this.weightedManhattanDistance + tileDistanceChange * tile,
+				this.linearConflicts
+					+ goal.getLineConflicts(newLowWord, newHighWord, lineOne, false)
+					+ goal.getLineConflicts(newLowWord, newHighWord, lineTwo, false)
+					- goal.getLineConflicts(this.lowWord, this.highWord, lineOne, false)
+					- goal.getLineConflicts(this.lowWord, this.highWord, lineTwo, false),
+				this.weightedLinearConflicts
+					+ goal.getLineConflicts(newLowWord, newHighWord, lineOne, true)
+					+ goal.getLineConflicts(newLowWord, newHighWord, lineTwo, true)
+					- goal.getLineConflicts(this.lowWord, this.highWord, lineOne, true)
+					- goal.getLineConflicts(this.lowWord, this.highWord, lineTwo, true));
+	}
+
+	/*
+	 * Returns a copy of this state that carries its heuristic distances to the goal state;
+	 * every successor derived from the copy updates those distances incrementally
+	 */
+	@Override
+	public ProblemState withGoalState(ProblemState goalState) {
+		BoardGoalIndex goal = this.geometry.getGoalIndex(goalState);
+
+		return new BoardStateImpl(this.geometry, this.lowWord, this.highWord, this.zeroIndex, this.predecessorOperation,
+				this.transformationCostCume - this.transformationCostLocal, goal,
+				goal.getNumberOfTilesOutOfPlace(this.lowWord, this.highWord),
+				goal.getSumOfManhattanDistances(this.lowWord, this.highWord),
+				goal.getSumOfManhattanDistancesTimesTileValue(this.lowWord, this.highWord),
+				goal.getLinearConflicts(this.lowWord, this.highWord, false),
+				goal.getLinearConflicts(this.lowWord, this.highWord, true));
+	}
+
+	/*
+	 * Returns the goal index holding the heuristic distances for the goal state; the tracked one if possible
+	 */
+	private BoardGoalIndex getGoalIndex(ProblemState goalState) {
+		if (this.goalIndex != null && this.goalIndex.isGoalState(goalState)) return this.goalIndex;
+		return this.geometry.getGoalIndex(goalState);
+	}
+
+	private boolean isTracking(BoardGoalIndex goal) {
+		return goal == this.goalIndex;
+	}
+
+	private int getNumberOfTilesOutOfPlace(ProblemState goalState) {
+		BoardGoalIndex goal = this.getGoalIndex(goalState);
+		return this.isTracking(goal) ? this.tilesOutOfPlace : goal.getNumberOfTilesOutOfPlace(this.lowWord, this.highWord);
+	}
+
+	private int getSumOfManhattanDistances(ProblemState goalState) {
+		BoardGoalIndex goal = this.getGoalIndex(goalState);
+		return this.isTracking(goal) ? this.manhattanDistance : goal.getSumOfManhattanDistances(this.lowWord, this.highWord);
+	}
+
+	private int getSumOfManhattanDistancesTimesTileValue(ProblemState goalState) {
+		BoardGoalIndex goal = this.getGoalIndex(goalState);
+		return this.isTracking(goal)
+				? this.weightedManhattanDistance : goal.getSumOfManhattanDistancesTimesTileValue(this.lowWord, this.highWord);
+	}
+
+	// Manhattan distance of the tiles (but not the blank) plus 2 moves for every tile that must leave its line
+	// to let another tile of the line pass
+	private int getLinearConflictDistance(ProblemState goalState) {
+		BoardGoalIndex goal = this.getGoalIndex(goalState);
+		int blankDistance = goal.getDistance(0, this.zeroIndex);
+
+		if (this.isTracking(goal)) return this.manhattanDistance - blankDistance + this.linearConflicts;
+		return goal.getSumOfManhattanDistances(this.lowWord, this.highWord) - blankDistance
+				+ goal.getLinearConflicts(this.lowWord, this.highWord, false);
+	}
+
+	// as above, with every move weighted by the value of the tile moved
+	private int getWeightedLinearConflictDistance(ProblemState goalState) {
+		BoardGoalIndex goal = this.getGoalIndex(goalState);
+
+		if (this.isTracking(goal)) return this.weightedManhattanDistance + this.weightedLinearConflicts;
+		return goal.getSumOfManhattanDistancesTimesTileValue(this.lowWord, this.highWord)
+				+ goal.getLinearConflicts(this.lowWord, this.highWord, true);
+	}
+
+	@Override
+	public int getExpectedTransformationCostToGoalState(EvaluationFunction h, ProblemState goalState) {
+		int result = 0;
+
+		switch(h) {
+			case NONE: result = this.transformationCostLocal; break;
+			case CUME_COST: result = this.transformationCostCume; break;
+			case GREEDY: result = this.getNumberOfTilesOutOfPlace(goalState); break;
+			case ASTAR_1: result = this.transformationCostCume +
+					this.getNumberOfTilesOutOfPlace(goalState); break;
+			case ASTAR_2: result = this.transformationCostCume +
+					this.getSumOfManhattanDistances(goalState); break;
+			case ASTAR_3: result = this.transformationCostCume +
+					this.getSumOfManhattanDistancesTimesTileValue(goalState); break;
+			// walking distance and the pattern databases are only tabulated for the 8-Puzzle
+			case ASTAR_LINEAR_CONFLICT:
+			case ASTAR_WALKING_DISTANCE:
+			case ASTAR_PDB: result = this.transformationCostCume +
+					this.getLinearConflictDistance(goalState); break;
+			case ASTAR_LINEAR_CONFLICT_WEIGHTED:
+			case ASTAR_WALKING_DISTANCE_WEIGHTED:
+			case ASTAR_PDB_WEIGHTED: result = this.transformationCostCume +
+					this.getWeightedLinearConflictDistance(goalState); break;
+			default: result = 0;
+		}
+
+		return result;
+	}
+
+	@Override
+	public boolean isTransformationLegal(ProblemTransformationOperation operation) {
+		return operation == ProblemTransformationOperation.NONE ||
+			   this.geometry.getMoveTarget(this.zeroIndex, operation) != BoardGeometry.UNDEFINED_INDEX;
+	}
+
+	@Override
+	public ProblemTransformationOperation getPredecessorTransformation() {
+		return this.predecessorOperation;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+
+		for (int index = 0; index < this.geometry.cellCount; index++) {
+			if (index > 0) result.append(" ");
+			result.append(this.geometry.getTile(this.lowWord, this.highWord, index));
+		}
+
+		return result.toString();
+	}
+
+	@Override
+	public Set<ProblemState> getAllValidSucessorStates() {
+		Set<ProblemState> successorStates = new HashSet<>();
+		this.forEachSuccessorState(ProblemTransformationOperation.NONE, successorStates::add);
+		return successorStates;
+	}
+
+	@Override
+	public void forEachSuccessorState(ProblemTransformationOperation skippedOperation, Consumer<ProblemState> consumer) {
+		for (ProblemTransformationOperation op: MOVES) {
+			if (op != skippedOperation && this.isTransformationLegal(op)) consumer.accept(this.applyTransformation(op));
+		}
+	}
+
+	@Override
+	public boolean hasPackedEncoding() {
+		return this.geometry.fitsInOneWord();
+	}
+
+	@Override
+	public long getPackedEncoding() {
+		if (!this.hasPackedEncoding())
+			throw new IllegalStateException(this.geometry + " boards do not fit in a single long");
+		return this.lowWord;
+	}
+
+	@Override
+	public int getLocalTransformationCostFromPredecessorState() {
+		return this.transformationCostLocal;
+	}
+
+	@Override
+	public int getCumulativeTransformationCostFromInitialState() {
+		return this.transformationCostCume;
+	}
+
+	long getLowWord() {
+		return this.lowWord;
+	}
+
+	long getHighWord() {
+		return this.highWord;
+	}
+
+	BoardGeometry getGeometry() {
+		return this.geometry;
+	}
+
+	@Override
+	public boolean equals(Object that){
+		if (this == that) return true;
+		if (!(that instanceof BoardStateImpl)) return false;
+
+		BoardStateImpl thatState = (BoardStateImpl) that;
+
+		return this.lowWord == thatState.lowWord && this.highWord == thatState.highWord &&
+			   this.geometry == thatState.geometry;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	/*
+	 * Same ordering as ProblemStateImpl: by cumulative cost, never 0 for distinct configurations
+	 */
+	@Override
+	public int compareTo(ProblemState that) {
+		int result = Integer.compare(this.transformationCostCume, that.getCumulativeTransformationCostFromInitialState());
+		result = (result == 0 && this.equals(that) == false) ? 1 : result;
+		return result;
+	}
+}
@@ -0,0 +1,207 @@
+package alouw.csc480.search.implementations;
+
+import java.util.Arrays;
+import alouw.csc480.search.interfaces.FrontierTieBreak;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * A best-first frontier for small, non-negative integer priorities.
+ *
+ * Nodes are binned twice: first by f(n), then within each f(n) by g(n), and every bin is an intrusive
+ * doubly linked list of int handles. Pushing and removing are O(1); popping advances a cursor over
+ * the bins, which only ever has to move forward between decrease-key operations.
+ *
+ * Each problem state occupies at most one handle. Offering a node whose state is already queued either
+ * replaces the queued node (when the new path to the state is cheaper) or is ignored, so the frontier
+ * never holds stale duplicates.
+ */
+public final class BucketPriorityQueue {
+
+	private static final int UNDEFINED_HANDLE = -1;
+	private static final int DEFAULT_CAPACITY = 256;
+
+	// how equal f(n) nodes are released
+	private final FrontierTieBreak tieBreak;
+
+	// per handle storage; free handles are chained through next[]
+	private TreeNode[] nodes;
+	private int[] fValues;
+	private int[] gValues;
+	private int[] next;
+	private int[] previous;
+	private int freeHandle = UNDEFINED_HANDLE;
+	private int handleCount;
+
+	// bins[f][g] is the first handle in the bin; binSizes[f] is the # of handles across all g for that f
+	private int[][] bins = new int[0][];
+	private int[] binSizes = new int[0];
+
+	// lowest f(n) that may hold a node
+	private int minimumF = Integer.MAX_VALUE;
+
+	private int size;
+
+	// state --> handle
+	private final StateHandleIndex index;
+
+	public BucketPriorityQueue(FrontierTieBreak tieBreak, ProblemState prototypeState) {
+		this.tieBreak = tieBreak;
+		this.index = prototypeState.hasPackedEncoding() ? new PackedStateHandleIndex() : new HashStateHandleIndex();
+
+		this.nodes = new TreeNode[DEFAULT_CAPACITY];
+		this.fValues = new int[DEFAULT_CAPACITY];
+		this.gValues = new int[DEFAULT_CAPACITY];
+		this.next = new int[DEFAULT_CAPACITY];
+		this.previous = new int[DEFAULT_CAPACITY];
+	}
+
+	/*
+	 * Queues the node unless its state is already queued via a path that is at least as cheap.
+	 * Returns true iff the frontier changed.
+	 */
+	public boolean offer(TreeNode node, int f, int g) {
+		if (f < 0 || g < 0) throw new IllegalArgumentException("Priorities must be non-negative; f=" + f + " g=" + g);
+
+		ProblemState state = node.getProblemState();
+		int handle = this.index.get(state);
+
+		if (handle != UNDEFINED_HANDLE) {
+			if (g >= this.gValues[handle]) return false;
+
+			// decrease key: the same state via a cheaper path
+			this.unlink(handle);
+		} else {
+			handle = this.allocateHandle();
+			this.index.put(state, handle);
+			this.size++;
+		}
+
+		this.nodes[handle] = node;
+		this.fValues[handle] = f;
+		this.gValues[handle] = g;
+		this.link(handle);
+
+		return true;
+	}
+
+	/*
+	 * Removes and returns the node with the lowest f(n), ties broken on g(n); null if empty
+	 */
+	public TreeNode poll() {
+		if (this.size == 0) return null;
+
+		while (this.binSizes[this.minimumF] == 0) this.minimumF++;
+
+		int[] gBins = this.bins[this.minimumF];
+		int handle = UNDEFINED_HANDLE;
+
+		if (this.tieBreak == FrontierTieBreak.PREFER_HIGHER_G) {
+			for (int g = gBins.length - 1; handle == UNDEFINED_HANDLE; g--) handle = gBins[g];
+		} else {
+			for (int g = 0; handle == UNDEFINED_HANDLE; g++) handle = gBins[g];
+		}
+
+		TreeNode result = this.nodes[handle];
+
+		this.unlink(handle);
+		this.index.remove(result.getProblemState());
+		this.releaseHandle(handle);
+		this.size--;
+
+		return result;
+	}
+
+	/*
+	 * The lowest f(n) in the frontier; Integer.MAX_VALUE if empty
+	 */
+	public int peekPriority() {
+		if (this.size == 0) return Integer.MAX_VALUE;
+
+		while (this.binSizes[this.minimumF] == 0) this.minimumF++;
+		return this.minimumF;
+	}
+
+	public boolean contains(ProblemState state) {
+		return this.index.get(state) != UNDEFINED_HANDLE;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	private int allocateHandle() {
+		if (this.freeHandle != UNDEFINED_HANDLE) {
+			int handle = this.freeHandle;
+			this.freeHandle = this.next[handle];
+			return handle;
+		}
+
+		if (this.handleCount == this.nodes.length) {
+			int capacity = this.nodes.length * 2;
+			this.nodes = Arrays.copyOf(this.nodes, capacity);
+			this.fValues = Arrays.copyOf(this.fValues, capacity);
+			this.gValues = Arrays.copyOf(this.gValues, capacity);
+			this.next = Arrays.copyOf(this.next, capacity);
+			this.previous = Arrays.copyOf(this.previous, capacity);
+		}
+
+		return this.handleCount++;
+	}
+
+	private void releaseHandle(int handle) {
+		this.nodes[handle] = null;
+		this.next[handle] = this.freeHandle;
+		this.freeHandle = handle;
+	}
+
+	/*
+	 * Pushes the handle onto the front of its (f, g) bin, growing the bins as required
+	 */
+	private void link(int handle) {
+		int f = this.fValues[handle];
+		int g = this.gValues[handle];
+
+		if (f >= this.bins.length) {
+			int oldLength = this.bins.length;
+			int newLength = Math.max(f + 1, oldLength * 2);
+			this.bins = Arrays.copyOf(this.bins, newLength);
+			this.binSizes = Arrays.copyOf(this.binSizes, newLength);
+			for (int index = oldLength; index < newLength; index++) this.bins[index] = new int[0];
+		}
+
+		int[] gBins = this.bins[f];
+		if (g >= gBins.length) {
+			int oldLength = gBins.length;
+			gBins = Arrays.copyOf(gBins, Math.max(g + 1, oldLength * 2));
+			Arrays.fill(gBins, oldLength, gBins.length, UNDEFINED_HANDLE);
+			this.bins[f] = gBins;
+		}
+
+		int head = gBins[g];
+		this.next[handle] = head;
+		this.previous[handle] = UNDEFINED_HANDLE;
+		if (head != UNDEFINED_HANDLE) this.previous[head] = handle;
+		gBins[g] = handle;
+
+		this.binSizes[f]++;
+		this.minimumF = Math.min(this.minimumF, f);
+	}
+
+	private void unlink(int handle) {
+		int f = this.fValues[handle];
+		int before = this.previous[handle];
+		int after = this.next[handle];
+
+		if (before == UNDEFINED_HANDLE) this.bins[f][this.gValues[handle]] = after;
+		else this.next[before] = after;
+
+		if (after != UNDEFINED_HANDLE) this.previous[after] = before;
+
+		this.binSizes[f]--;
+	}
+}
@@ -0,0 +1,78 @@
+package alouw.csc480.search.implementations;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import alouw.csc480.search.interfaces.FrontierTieBreak;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.TreeNode;
+
+public class BucketPriorityQueueTEST {
+	
+	private static final ProblemState problemOne = ProblemStateFactory.getNewProblemState("1 2 3 4 0 5 6 7 8", 
+			ProblemTransformationOperation.NONE);
+	private static final TreeNode rootNode = TreeNodeFactory.getNewRootNode(problemOne);
+	
+	private static TreeNode child(ProblemTransformationOperation op) {
+		return TreeNodeFactory.getNewTreeNode(rootNode, problemOne.applyTransformation(op));
+	}
+	
+	@Test
+	public void testOrderedByF() {
+		BucketPriorityQueue frontier = new BucketPriorityQueue(FrontierTieBreak.PREFER_HIGHER_G, problemOne);
+		TreeNode up = child(ProblemTransformationOperation.UP);
+		TreeNode down = child(ProblemTransformationOperation.DOWN);
+		TreeNode left = child(ProblemTransformationOperation.LEFT);
+		
+		Assert.assertTrue(frontier.offer(down, 40, 1));
+		Assert.assertTrue(frontier.offer(up, 3, 1));
+		Assert.assertTrue(frontier.offer(left, 17, 1));
+		Assert.assertEquals(3, frontier.size());
+		
+		Assert.assertSame(up, frontier.poll());
+		Assert.assertSame(left, frontier.poll());
+		Assert.assertSame(down, frontier.poll());
+		Assert.assertTrue(frontier.isEmpty());
+		Assert.assertNull(frontier.poll());
+	}
+	
+	/*
+	 * The same state offered twice is only queued once, with the cheaper of the two paths
+	 */
+	@Test
+	public void testDecreaseKey() {
+		BucketPriorityQueue frontier = new BucketPriorityQueue(FrontierTieBreak.PREFER_HIGHER_G, problemOne);
+		TreeNode up = child(ProblemTransformationOperation.UP);
+		TreeNode upAgain = TreeNodeFactory.getNewTreeNode(rootNode, up.getProblemState());
+		TreeNode down = child(ProblemTransformationOperation.DOWN);
+		
+		Assert.assertTrue(frontier.offer(up, 10, 8));
+		Assert.assertTrue(frontier.offer(down, 7, 7));
+		Assert.assertFalse(frontier.offer(upAgain, 12, 10));
+		Assert.assertTrue(frontier.offer(upAgain, 5, 3));
+		Assert.assertEquals(2, frontier.size());
+		Assert.assertTrue(frontier.contains(up.getProblemState()));
+		
+		Assert.assertSame(upAgain, frontier.poll());
+		Assert.assertFalse(frontier.contains(up.getProblemState()));
+		Assert.assertSame(down, frontier.poll());
+		Assert.assertTrue(frontier.isEmpty());
+	}
+	
+	@Test
+	public void testTieBreak() {
+		TreeNode up = child(ProblemTransformationOperation.UP);
+		TreeNode down = child(ProblemTransformationOperation.DOWN);
+		
+		BucketPriorityQueue higher = new BucketPriorityQueue(FrontierTieBreak.PREFER_HIGHER_G, problemOne);
+		higher.offer(up, 9, 2);
+		higher.offer(down, 9, 7);
+		Assert.assertSame(down, higher.poll());
+		
+		BucketPriorityQueue lower = new BucketPriorityQueue(FrontierTieBreak.PREFER_LOWER_G, problemOne);
+		lower.offer(up, 9, 2);
+		lower.offer(down, 9, 7);
+		Assert.assertSame(up, lower.poll());
+	}
+}
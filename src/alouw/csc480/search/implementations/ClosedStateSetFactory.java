@@ -0,0 +1,61 @@
+package alouw.csc480.search.implementations;
+
+import java.util.HashSet;
+import java.util.Set;
+import alouw.csc480.search.interfaces.ClosedStateSet;
+import alouw.csc480.search.interfaces.ProblemState;
+
+public final class ClosedStateSetFactory {
+
+	// returns the most compact closed set able to hold states shaped like the prototype
+	public static ClosedStateSet getNewClosedStateSet(ProblemState prototypeState) {
+		if (prototypeState instanceof ProblemStateImpl) return new RankedClosedStateSet();
+		if (prototypeState.hasPackedEncoding()) return new PackedClosedStateSet();
+		return new HashClosedStateSet();
+	}
+	
+	public static ClosedStateSet getNewRankedClosedStateSet() {
+		return new RankedClosedStateSet();
+	}
+
+	public static ClosedStateSet getNewPackedClosedStateSet(int expectedSize) {
+		return new PackedClosedStateSet(expectedSize);
+	}
+
+	public static ClosedStateSet getNewHashClosedStateSet() {
+		return new HashClosedStateSet();
+	}
+}
+
+/*
+ * Closed set for states without a packed encoding; retains every state in a HashSet
+ */
+class HashClosedStateSet implements ClosedStateSet {
+
+	private final Set<ProblemState> states = new HashSet<>();
+
+	@Override
+	public boolean add(ProblemState state) {
+		return this.states.add(state);
+	}
+
+	@Override
+	public boolean contains(ProblemState state) {
+		return this.states.contains(state);
+	}
+
+	@Override
+	public boolean remove(ProblemState state) {
+		return this.states.remove(state);
+	}
+
+	@Override
+	public int size() {
+		return this.states.size();
+	}
+
+	@Override
+	public void clear() {
+		this.states.clear();
+	}
+}
@@ -0,0 +1,125 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import alouw.csc480.search.interfaces.ClosedStateSet;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+
+public class ClosedStateSetFactoryTEST {
+	
+	private static final String stateOne = "1 2 3 4 0 5 6 7 8";
+	private static final ProblemState problemOne = ProblemStateFactory.getNewProblemState(stateOne, 
+			ProblemTransformationOperation.NONE);
+	
+	/*
+	 * Membership must depend on the configuration only, not on the path that produced it
+	 */
+	@Test
+	public void testMembership() {
+		for (ClosedStateSet closedSet : new ClosedStateSet[] {ClosedStateSetFactory.getNewClosedStateSet(problemOne), 
+															  ClosedStateSetFactory.getNewPackedClosedStateSet(16),
+															  ClosedStateSetFactory.getNewHashClosedStateSet()}) {
+			Assert.assertFalse(closedSet.contains(problemOne));
+			Assert.assertTrue(closedSet.add(problemOne));
+			Assert.assertFalse(closedSet.add(problemOne));
+			Assert.assertTrue(closedSet.contains(problemOne));
+			
+			ProblemState stateDown = problemOne.applyTransformation(ProblemTransformationOperation.DOWN);
+			Assert.assertFalse(closedSet.contains(stateDown));
+			Assert.assertTrue(closedSet.contains(stateDown.applyTransformation(ProblemTransformationOperation.UP)));
+			Assert.assertEquals(1, closedSet.size());
+			
+			Assert.assertTrue(closedSet.remove(problemOne));
+			Assert.assertFalse(closedSet.remove(problemOne));
+			Assert.assertFalse(closedSet.contains(problemOne));
+			Assert.assertEquals(0, closedSet.size());
+			
+			closedSet.add(problemOne);
+			closedSet.clear();
+			Assert.assertFalse(closedSet.contains(problemOne));
+			Assert.assertEquals(0, closedSet.size());
+		}
+	}
+	
+	/*
+	 * Walk far enough through the state space to force the packed table to grow several times
+	 */
+	@Test
+	public void testGrowth() {
+		ClosedStateSet closedSet = ClosedStateSetFactory.getNewPackedClosedStateSet(1);
+		ClosedStateSet referenceSet = ClosedStateSetFactory.getNewHashClosedStateSet();
+		
+		ArrayDeque<ProblemState> queue = new ArrayDeque<>();
+		queue.add(problemOne);
+		while (!queue.isEmpty() && referenceSet.size() < 20000) {
+			ProblemState state = queue.pop();
+			Assert.assertEquals(referenceSet.add(state), closedSet.add(state));
+			for (ProblemState successor : state.getAllValidSucessorStates())
+				if (!referenceSet.contains(successor)) queue.add(successor);
+		}
+		
+		Assert.assertEquals(referenceSet.size(), closedSet.size());
+	}
+	
+	/*
+	 * Add and remove states in an order that leaves long probe runs behind, checking every set against the reference
+	 */
+	@Test
+	public void testRemoval() {
+		ClosedStateSet[] closedSets = {ClosedStateSetFactory.getNewRankedClosedStateSet(), 
+									   ClosedStateSetFactory.getNewPackedClosedStateSet(1)};
+		ClosedStateSet referenceSet = ClosedStateSetFactory.getNewHashClosedStateSet();
+		List<ProblemState> states = new ArrayList<>();
+		
+		ArrayDeque<ProblemState> queue = new ArrayDeque<>();
+		queue.add(problemOne);
+		while (!queue.isEmpty() && referenceSet.size() < 5000) {
+			ProblemState state = queue.pop();
+			if (!referenceSet.add(state)) continue;
+			states.add(state);
+			for (ClosedStateSet closedSet : closedSets) Assert.assertTrue(closedSet.add(state));
+			for (ProblemState successor : state.getAllValidSucessorStates())
+				if (!referenceSet.contains(successor)) queue.add(successor);
+		}
+		
+		// remove every other state, then check membership of all of them
+		for (int index = 0; index < states.size(); index += 2) {
+			Assert.assertTrue(referenceSet.remove(states.get(index)));
+			for (ClosedStateSet closedSet : closedSets) Assert.assertTrue(closedSet.remove(states.get(index)));
+		}
+		for (ClosedStateSet closedSet : closedSets) {
+			Assert.assertEquals(referenceSet.size(), closedSet.size());
+			for (ProblemState state : states) Assert.assertEquals(referenceSet.contains(state), closedSet.contains(state));
+		}
+	}
+	
+	/*
+	 * The ranked set is chosen for 8-Puzzle states and covers the whole state space in a fixed bitmap
+	 */
+	@Test
+	public void testRankedSetCoversStateSpace() {
+		Assert.assertTrue(ClosedStateSetFactory.getNewClosedStateSet(problemOne) instanceof RankedClosedStateSet);
+		
+		ProblemState fifteenPuzzle = ProblemStateFactory.getNewProblemState("1 2 3 4 5 6 7 8 9 10 11 12 13 14 0 15", 
+				ProblemTransformationOperation.NONE);
+		Assert.assertTrue(ClosedStateSetFactory.getNewClosedStateSet(fifteenPuzzle) instanceof PackedClosedStateSet);
+		
+		ClosedStateSet closedSet = ClosedStateSetFactory.getNewRankedClosedStateSet();
+		ArrayDeque<ProblemState> queue = new ArrayDeque<>();
+		queue.add(problemOne);
+		closedSet.add(problemOne);
+		while (!queue.isEmpty()) {
+			for (ProblemState successor : queue.pop().getAllValidSucessorStates())
+				if (closedSet.add(successor)) queue.add(successor);
+		}
+		
+		// the states of one parity
+		Assert.assertEquals(PermutationRank.STATE_COUNT / 2, closedSet.size());
+	}
+}
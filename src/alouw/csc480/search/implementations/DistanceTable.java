@@ -0,0 +1,232 @@
+package alouw.csc480.search.implementations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+
+/*
+ * Exact distance to one goal configuration for every state of the 8-Puzzle.
+ *
+ * A state is indexed by its PermutationRank, a perfect hash onto 0 .. 9! - 1. Half of the ranks are states of the
+ * other parity that can never reach the goal; they are marked unreachable rather than compacted away, which keeps
+ * the index a plain rank and every lookup O(1).
+ *
+ * Two tables are kept: the fewest moves to the goal (one unsigned byte per state) and the cheapest path to the goal
+ * when each move costs the value of the tile moved (one unsigned short per state). Both are built by Dijkstra back
+ * from the goal; moves are reversible at the same cost, so the distance from the goal is the distance to the goal.
+ *
+ * Like the pattern databases, the tables are written once per goal to the directory named by the system property
+ * DISTANCE_TABLE_DIRECTORY_PROPERTY (the temp directory by default) and memory mapped read only on every later load.
+ * main() builds the files ahead of time for the goals given on the command line.
+ */
+final class DistanceTable {
+
+	// directory holding the distance table files
+	static final String DISTANCE_TABLE_DIRECTORY_PROPERTY = "alouw.csc480.distances.dir";
+
+	private static final int MAGIC = 0x44535431;
+	private static final int VERSION = 1;
+
+	private static final int ROW_COUNT = 3;
+	private static final int COLUMN_COUNT = 3;
+	private static final int CELL_COUNT = ROW_COUNT * COLUMN_COUNT;
+
+	static final int STATE_COUNT = PermutationRank.STATE_COUNT;
+
+	static final int UNREACHABLE = -1;
+	private static final int UNREACHABLE_MOVES = 0xFF;
+	private static final int UNREACHABLE_COST = 0xFFFF;
+
+	// magic, version, goal encoding, state count
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+
+	// the move table (a byte per state) followed by the cost table (a short per state)
+	private static final int COST_TABLE_OFFSET = HEADER_SIZE + STATE_COUNT;
+	private static final int FILE_SIZE = COST_TABLE_OFFSET + 2 * STATE_COUNT;
+
+	private final ByteBuffer tables;
+
+	private DistanceTable(ByteBuffer tables) {
+		this.tables = tables;
+	}
+
+	/*
+	 * Maps the distance table file for the goal from the directory named by DISTANCE_TABLE_DIRECTORY_PROPERTY
+	 */
+	static DistanceTable load(long goalEncoding) {
+		return DistanceTable.load(DistanceTable.getDirectory(), goalEncoding);
+	}
+
+	/*
+	 * Maps the distance table file for the goal, building and writing it first if it is missing or stale
+	 */
+	static DistanceTable load(Path directory, long goalEncoding) {
+		Path file = DistanceTable.getFile(directory, goalEncoding);
+
+		try {
+			if (!DistanceTable.isValidFile(file, goalEncoding)) DistanceTable.write(file, goalEncoding);
+
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+				return new DistanceTable(mapped.order(ByteOrder.BIG_ENDIAN));
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot load distance table " + file, e);
+		}
+	}
+
+	static Path getDirectory() {
+		return Paths.get(System.getProperty(DISTANCE_TABLE_DIRECTORY_PROPERTY, System.getProperty("java.io.tmpdir")));
+	}
+
+	static Path getFile(Path directory, long goalEncoding) {
+		return directory.resolve("8puzzle-distances-" + Long.toHexString(goalEncoding) + ".bin");
+	}
+
+	/*
+	 * The fewest moves from the state to the goal; UNREACHABLE if the state cannot reach the goal
+	 */
+	int getMoveCount(long state) {
+		int result = this.tables.get(HEADER_SIZE + PermutationRank.getRank(state)) & 0xFF;
+		return (result == UNREACHABLE_MOVES) ? UNREACHABLE : result;
+	}
+
+	/*
+	 * The cost of the cheapest path from the state to the goal, each move costing the tile's value;
+	 * UNREACHABLE if the state cannot reach the goal
+	 */
+	int getCost(long state) {
+		int result = this.tables.getChar(COST_TABLE_OFFSET + 2 * PermutationRank.getRank(state));
+		return (result == UNREACHABLE_COST) ? UNREACHABLE : result;
+	}
+
+	private static boolean isValidFile(Path file, long goalEncoding) throws IOException {
+		if (!Files.isRegularFile(file) || Files.size(file) != FILE_SIZE) return false;
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// keep reading
+			}
+		}
+		header.flip();
+
+		return header.remaining() == HEADER_SIZE && header.getInt() == MAGIC && header.getInt() == VERSION &&
+			   header.getLong() == goalEncoding && header.getInt() == STATE_COUNT;
+	}
+
+	/*
+	 * Builds both tables and writes the file; written to a temporary file and moved into place so that
+	 * concurrent loaders never map a partially written file
+	 */
+	private static void write(Path file, long goalEncoding) throws IOException {
+		ByteBuffer contents = ByteBuffer.allocate(FILE_SIZE).order(ByteOrder.BIG_ENDIAN);
+		contents.putInt(MAGIC).putInt(VERSION).putLong(goalEncoding).putInt(STATE_COUNT);
+
+		for (int moves : DistanceTable.buildTable(goalEncoding, false))
+			contents.put((byte) ((moves == UNREACHABLE) ? UNREACHABLE_MOVES : moves));
+		for (int cost : DistanceTable.buildTable(goalEncoding, true))
+			contents.putChar((char) ((cost == UNREACHABLE) ? UNREACHABLE_COST : cost));
+		contents.flip();
+
+		Files.createDirectories(file.getParent());
+		Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				while (contents.hasRemaining()) channel.write(contents);
+				channel.force(true);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/*
+	 * Retrograde Dijkstra from the goal over every state; a move costs 1 or the value of the tile moved
+	 */
+	static int[] buildTable(long goalEncoding, boolean tileCost) {
+		int[] distances = new int[STATE_COUNT];
+		Arrays.fill(distances, UNREACHABLE);
+
+		int goalRank = PermutationRank.getRank(goalEncoding);
+		int maximum = tileCost ? UNREACHABLE_COST : UNREACHABLE_MOVES;
+
+		// entries are (distance << 32) | rank
+		PriorityQueue<Long> open = new PriorityQueue<>();
+		distances[goalRank] = 0;
+		open.add(Long.valueOf(goalRank));
+
+		int[] tiles = new int[CELL_COUNT];
+		while (!open.isEmpty()) {
+			long entry = open.poll().longValue();
+			int distance = (int) (entry >>> 32);
+			int rank = (int) entry;
+			if (distance > distances[rank]) continue;
+
+			PermutationRank.getTiles(rank, tiles);
+			int blank = 0;
+			while (tiles[blank] != 0) blank++;
+
+			for (int neighbor : DistanceTable.getNeighborCells(blank)) {
+				int tile = tiles[neighbor];
+
+				// slide the tile into the blank's cell, rank the result, slide it back
+				tiles[blank] = tile;
+				tiles[neighbor] = 0;
+				int next = PermutationRank.getRank(tiles);
+				tiles[neighbor] = tile;
+				tiles[blank] = 0;
+
+				int nextDistance = distance + (tileCost ? tile : 1);
+				if (distances[next] == UNREACHABLE || nextDistance < distances[next]) {
+					if (nextDistance >= maximum) throw new IllegalStateException("Distance " + nextDistance + " does not fit the table");
+					distances[next] = nextDistance;
+					open.add(Long.valueOf(((long) nextDistance << 32) | next));
+				}
+			}
+		}
+
+		return distances;
+	}
+
+	private static int[] getNeighborCells(int cell) {
+		int row = cell / COLUMN_COUNT;
+		int column = cell % COLUMN_COUNT;
+
+		int[] result = new int[4];
+		int count = 0;
+		if (row > 0) result[count++] = cell - COLUMN_COUNT;
+		if (row < ROW_COUNT - 1) result[count++] = cell + COLUMN_COUNT;
+		if (column > 0) result[count++] = cell - 1;
+		if (column < COLUMN_COUNT - 1) result[count++] = cell + 1;
+
+		return Arrays.copyOf(result, count);
+	}
+
+	/*
+	 * Builds the distance table files ahead of time, one per goal state given as a quoted argument,
+	 * e.g. "1 2 3 8 0 4 7 6 5"
+	 */
+	public static void main(String[] args) {
+		for (String goal : args) {
+			long goalEncoding = ProblemStateFactory.getNewProblemState(goal, ProblemTransformationOperation.NONE).getPackedEncoding();
+
+			long startTime = System.nanoTime();
+			DistanceTable.load(goalEncoding);
+			System.out.println(goal + " ---> " + DistanceTable.getFile(DistanceTable.getDirectory(), goalEncoding) + " (" +
+					(System.nanoTime() - startTime) / 1_000_000 + "ms)");
+		}
+	}
+}
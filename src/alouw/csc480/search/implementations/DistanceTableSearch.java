@@ -0,0 +1,80 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayDeque;
+import java.util.Optional;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Table driven solver for the 8-Puzzle: looks up the exact distance to the goal in the goal's DistanceTable and
+ * walks greedily down it, taking at each step the first child whose distance is exactly one move (or one move's
+ * cost) less. Nothing is searched, so each step costs a handful of table lookups.
+ *
+ * Evaluation functions without path cost (NONE, GREEDY) walk the fewest moves table, like BREADTH_FIRST; all others
+ * walk the cheapest cost table, like UNIFORM_COST and the admissible ASTAR_* modes.
+ */
+public final class DistanceTableSearch {
+
+	private DistanceTableSearch() {}
+
+	public static Optional<TreeNode> search(final ArrayDeque<TreeNode> queue, final EvaluationFunction evalFunction,
+			final ProblemState goalState, final SearchParameters parameters, SearchStatsCollector statsCollector) {
+
+		// confirm that the queue has at least an initial root node
+		assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
+
+		DistanceTable table = GoalIndex.getGoalIndex(goalState).getDistanceTable();
+		boolean fewestMoves = !evalFunction.accumulatesPathCost();
+
+		TreeNode currentNode = queue.pop();
+		int distance = DistanceTableSearch.getDistance(table, currentNode, fewestMoves);
+
+		// the state has the wrong parity to ever reach the goal
+		if (distance == DistanceTable.UNREACHABLE) return Optional.empty();
+
+		// the walk only ever holds the current node
+		statsCollector.setMaxQueueSize(1);
+		SuccessorBuffer children = new SuccessorBuffer();
+
+		while (distance > 0) {
+
+			// count the # of nodes explored
+			statsCollector.incrementNodesExplored(1);
+
+			int currentCost = currentNode.getProblemState().getCumulativeTransformationCostFromInitialState();
+			TreeNode nextNode = null;
+
+			children.fill(currentNode);
+			statsCollector.incrementNodesGenerated(children.size());
+			for (int index = 0; index < children.size(); index++) {
+				TreeNode childNode = children.get(index);
+				int stepCost = fewestMoves ? 1
+						: childNode.getProblemState().getCumulativeTransformationCostFromInitialState() - currentCost;
+
+				if (DistanceTableSearch.getDistance(table, childNode, fewestMoves) == distance - stepCost) {
+					nextNode = childNode;
+					distance -= stepCost;
+					break;
+				}
+			}
+
+			if (nextNode == null) throw new IllegalStateException("Distance table has no optimal move from " + currentNode);
+			currentNode = nextNode;
+		}
+
+		// count the goal node, as the searches do
+		statsCollector.incrementNodesExplored(1);
+
+		statsCollector.incrementSolutionCost(currentNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+		statsCollector.incrementSolutionPath(currentNode.getDepth());
+
+		return Optional.of(currentNode);
+	}
+
+	private static int getDistance(DistanceTable table, TreeNode node, boolean fewestMoves) {
+		long state = node.getProblemState().getPackedEncoding();
+		return fewestMoves ? table.getMoveCount(state) : table.getCost(state);
+	}
+}
@@ -0,0 +1,464 @@
+package alouw.csc480.search.implementations;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Breadth first search with its layers in files rather than in memory (external memory BFS).
+ *
+ * Every layer is a file of the packed encodings of its states (see ProblemState.getPackedEncoding), sorted and free
+ * of duplicates, and is read and written through memory mapped windows. A layer is expanded in one pass: successors
+ * are gathered in a buffer of SearchParameters.getSortBufferSize() states, and every full buffer is sorted and
+ * written out as a run. Sorting and writing a run happen on a second thread while the next buffer fills, so the two
+ * buffers are the only memory the search needs beyond the mapped pages the OS chooses to keep.
+ *
+ * Duplicates are detected late: the runs are merged into the next layer, dropping every state of the two layers
+ * before it. Each move can be undone, so a successor of layer d is in layer d - 1, d or d + 1, and nothing older than
+ * layer d - 1 has to be consulted. Layers are kept on disk until the search ends; the path to the goal is rebuilt
+ * backwards from them, one binary search per predecessor.
+ *
+ * The solution has the fewest moves but, unlike BREADTH_FIRST, is not necessarily the cheapest of those paths.
+ * Only states with a packed encoding can be searched; the evaluation function is not used.
+ */
+public final class ExternalBreadthFirstSearch {
+
+	// states of an expansion that are handed to the consumer before the buffer is checked
+	private static final int MAX_SUCCESSORS = ProblemTransformationOperation.values().length;
+
+	private final ProblemState rootState;
+	private final long goalEncoding;
+	private final SearchStatsCollector statsCollector;
+	private final Path directory;
+
+	// layers so far, the root's first
+	private final List<SpillFile> layers = new ArrayList<>();
+	private int nextFileNumber;
+
+	// the buffer being filled, the other one may be being sorted by the sorter
+	private final ExecutorService sorter;
+	private final long[][] sortBuffers;
+	private long[] sortBuffer;
+	private int sortBufferCount;
+	private final Consumer<ProblemState> addSuccessor = x -> this.sortBuffer[this.sortBufferCount++] = x.getPackedEncoding();
+
+	// the run being written, and the # of states it was written from
+	private Future<SpillFile> pendingRun;
+	private int pendingRunStates;
+
+	private ExternalBreadthFirstSearch(ProblemState rootState, ProblemState goalState, SearchParameters parameters,
+			SearchStatsCollector statsCollector) throws IOException {
+		this.rootState = rootState;
+		this.goalEncoding = goalState.getPackedEncoding();
+		this.statsCollector = statsCollector;
+
+		Path parent = parameters.getSpillDirectory().orElse(Paths.get(System.getProperty("java.io.tmpdir")));
+		Files.createDirectories(parent);
+		this.directory = Files.createTempDirectory(parent, "bfs-layers");
+
+		this.sortBuffers = new long[][] {new long[parameters.getSortBufferSize()], new long[parameters.getSortBufferSize()]};
+		this.sortBuffer = this.sortBuffers[0];
+		this.sorter = Executors.newSingleThreadExecutor(x -> {
+			Thread thread = new Thread(x, "external-bfs-sorter");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public static Optional<TreeNode> search(final ArrayDeque<TreeNode> queue, final EvaluationFunction evalFunction,
+			final ProblemState goalState, final SearchParameters parameters, SearchStatsCollector statsCollector) {
+
+		// confirm that the queue has at least an initial root node
+		assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
+
+		TreeNode rootNode = queue.pop();
+		ProblemState rootState = rootNode.getProblemState();
+		if (!rootState.hasPackedEncoding() || !goalState.hasPackedEncoding())
+			throw new IllegalArgumentException("ProblemState has no packed encoding");
+
+		TreeNode solutionNode = null;
+		ExternalBreadthFirstSearch search = null;
+		try {
+			search = new ExternalBreadthFirstSearch(rootState, goalState, parameters, statsCollector);
+			int depth = search.run();
+			if (depth != -1) solutionNode = search.getSolutionNode(rootNode, depth);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot spill search layers to " + parameters.getSpillDirectory().orElse(null), e);
+		} finally {
+			if (search != null) search.close();
+		}
+
+		if (solutionNode != null) {
+			statsCollector.incrementSolutionCost(solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+			statsCollector.incrementSolutionPath(solutionNode.getDepth());
+		}
+
+		return Optional.ofNullable(solutionNode);
+	}
+
+	/*
+	 * Writes layers until one holds the goal; returns the depth of the goal, or -1 if a layer comes up empty
+	 */
+	private int run() throws IOException {
+		SpillWriter rootLayer = new SpillWriter(this.nextFile());
+		rootLayer.add(this.rootState.getPackedEncoding());
+		this.layers.add(rootLayer.finish());
+		if (this.rootState.getPackedEncoding() == this.goalEncoding) return 0;
+
+		for (int depth = 0; ; depth++) {
+			SpillFile layer = this.layers.get(depth);
+			if (layer.size() == 0) return -1;
+
+			// capture max size of a layer
+			this.statsCollector.setMaxQueueSize(layer.size());
+			this.statsCollector.setBound(depth);
+
+			List<SpillFile> runs = this.expand(layer);
+			try {
+				SpillFile previousLayer = (depth == 0) ? null : this.layers.get(depth - 1);
+				SpillWriter nextLayer = new SpillWriter(this.nextFile());
+				boolean goalFound = this.merge(runs, layer, previousLayer, nextLayer);
+				this.layers.add(nextLayer.finish());
+				if (goalFound) return depth + 1;
+			} finally {
+				for (SpillFile run : runs) run.delete();
+			}
+		}
+	}
+
+	/*
+	 * Generates every successor of the layer into sorted runs
+	 */
+	private List<SpillFile> expand(SpillFile layer) throws IOException {
+		List<SpillFile> runs = new ArrayList<>();
+		try {
+			for (long index = 0; index < layer.size(); index++) {
+
+				// count the # of nodes explored
+				this.statsCollector.incrementNodesExplored(1);
+
+				int count = this.sortBufferCount;
+				this.rebuild(layer.get(index)).forEachSuccessorState(ProblemTransformationOperation.NONE, this.addSuccessor);
+				this.statsCollector.incrementNodesGenerated(this.sortBufferCount - count);
+
+				if (this.sortBufferCount > this.sortBuffer.length - MAX_SUCCESSORS) this.spill(runs);
+			}
+			if (this.sortBufferCount > 0) this.spill(runs);
+			this.awaitRun(runs);
+		} catch (IOException | RuntimeException e) {
+			for (SpillFile run : runs) run.delete();
+			throw e;
+		}
+		return runs;
+	}
+
+	/*
+	 * Hands the full buffer to the sorter and carries on with the other one, once the sorter is done with it
+	 */
+	private void spill(List<SpillFile> runs) throws IOException {
+		this.awaitRun(runs);
+
+		long[] states = this.sortBuffer;
+		int count = this.sortBufferCount;
+		Path file = this.nextFile();
+		this.pendingRun = this.sorter.submit(() -> ExternalBreadthFirstSearch.writeRun(file, states, count));
+		this.pendingRunStates = count;
+
+		this.sortBuffer = (states == this.sortBuffers[0]) ? this.sortBuffers[1] : this.sortBuffers[0];
+		this.sortBufferCount = 0;
+	}
+
+	private void awaitRun(List<SpillFile> runs) throws IOException {
+		if (this.pendingRun == null) return;
+
+		try {
+			SpillFile run = this.pendingRun.get();
+			runs.add(run);
+			this.statsCollector.incrementDuplicates(this.pendingRunStates - run.size());
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while sorting a search layer", e);
+		} finally {
+			this.pendingRun = null;
+		}
+	}
+
+	// runs on the sorter
+	private static SpillFile writeRun(Path file, long[] states, int count) throws IOException {
+		Arrays.sort(states, 0, count);
+
+		SpillWriter writer = new SpillWriter(file);
+		for (int index = 0; index < count; index++)
+			if (index == 0 || states[index] != states[index - 1]) writer.add(states[index]);
+		return writer.finish();
+	}
+
+	/*
+	 * Merges the runs into the next layer, without the states of the layer and the one before it; stops at the goal
+	 */
+	private boolean merge(List<SpillFile> runs, SpillFile layer, SpillFile previousLayer, SpillWriter nextLayer) throws IOException {
+		PriorityQueue<SpillCursor> cursors = new PriorityQueue<>(Math.max(1, runs.size()));
+		for (SpillFile run : runs) {
+			SpillCursor cursor = new SpillCursor(run);
+			if (cursor.hasValue()) cursors.add(cursor);
+		}
+		SpillCursor layerCursor = new SpillCursor(layer);
+		SpillCursor previousLayerCursor = (previousLayer == null) ? null : new SpillCursor(previousLayer);
+
+		boolean hasLastState = false;
+		long lastState = 0;
+		while (!cursors.isEmpty()) {
+			SpillCursor cursor = cursors.poll();
+			long state = cursor.getValue();
+			if (cursor.advance()) cursors.add(cursor);
+
+			if ((hasLastState && state == lastState) || layerCursor.skipTo(state) ||
+					(previousLayerCursor != null && previousLayerCursor.skipTo(state))) {
+				this.statsCollector.incrementDuplicates(1);
+				continue;
+			}
+			hasLastState = true;
+			lastState = state;
+
+			nextLayer.add(state);
+			if (state == this.goalEncoding) return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Walks back from the goal through the layers, one predecessor at a time, then down from the root to the goal
+	 */
+	private TreeNode getSolutionNode(TreeNode rootNode, int depth) {
+		long[] path = new long[depth + 1];
+		path[depth] = this.goalEncoding;
+		for (int index = depth - 1; index >= 0; index--) {
+			SpillFile layer = this.layers.get(index);
+			long[] predecessor = {0};
+			boolean[] found = {false};
+			this.rebuild(path[index + 1]).forEachSuccessorState(ProblemTransformationOperation.NONE, x -> {
+				if (!found[0] && layer.contains(x.getPackedEncoding())) {
+					predecessor[0] = x.getPackedEncoding();
+					found[0] = true;
+				}
+			});
+			if (!found[0]) throw new IllegalStateException("Layer " + index + " has no predecessor of " + this.rebuild(path[index + 1]));
+			path[index] = predecessor[0];
+		}
+
+		SuccessorBuffer children = new SuccessorBuffer();
+		TreeNode node = rootNode;
+		for (int index = 1; index <= depth; index++) {
+			children.fill(node);
+			TreeNode nextNode = null;
+			for (int child = 0; child < children.size(); child++) {
+				if (children.get(child).getProblemState().getPackedEncoding() == path[index]) {
+					nextNode = children.get(child);
+					break;
+				}
+			}
+
+			if (nextNode == null) throw new IllegalStateException("No move from " + node + " to " + this.rebuild(path[index]));
+			node = nextNode;
+		}
+		return node;
+	}
+
+	private ProblemState rebuild(long packedEncoding) {
+		return ProblemStateFactory.getNewProblemState(this.rootState, packedEncoding, ProblemTransformationOperation.NONE, 0);
+	}
+
+	private Path nextFile() {
+		return this.directory.resolve((this.nextFileNumber++) + ".bin");
+	}
+
+	/*
+	 * Lets the sorter finish any run it is writing, then deletes every file of the search
+	 */
+	private void close() {
+		this.sorter.shutdown();
+		try {
+			while (!this.sorter.awaitTermination(1, TimeUnit.SECONDS)) {
+				// the last run is still being written
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		try (Stream<Path> files = Files.list(this.directory)) {
+			files.forEach(SpillFile::delete);
+		} catch (IOException e) {
+			// whatever is left stays in the directory
+		}
+		SpillFile.delete(this.directory);
+	}
+}
+
+/*
+ * An immutable file of longs in native byte order, mapped a window at a time; a single mapping cannot span more than
+ * 2^31 bytes
+ */
+final class SpillFile {
+
+	static final int WINDOW_SIZE = 1 << 27;
+
+	private final Path file;
+	private final long size;
+	private final LongBuffer[] windows;
+
+	SpillFile(Path file, long size) throws IOException {
+		this.file = file;
+		this.size = size;
+		this.windows = new LongBuffer[(int) ((size + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+
+		// the mappings stay valid once the channel is closed
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			for (int index = 0; index < this.windows.length; index++) {
+				long start = (long) index * WINDOW_SIZE;
+				long length = Math.min(WINDOW_SIZE, size - start);
+				this.windows[index] = channel.map(FileChannel.MapMode.READ_ONLY, start * Long.BYTES, length * Long.BYTES)
+						.order(ByteOrder.nativeOrder()).asLongBuffer();
+			}
+		}
+	}
+
+	long size() {
+		return this.size;
+	}
+
+	long get(long index) {
+		return this.windows[(int) (index / WINDOW_SIZE)].get((int) (index % WINDOW_SIZE));
+	}
+
+	// binary search; the file must be sorted
+	boolean contains(long value) {
+		long low = 0;
+		long high = this.size - 1;
+		while (low <= high) {
+			long middle = (low + high) >>> 1;
+			long middleValue = this.get(middle);
+			if (middleValue < value) low = middle + 1;
+			else if (middleValue > value) high = middle - 1;
+			else return true;
+		}
+		return false;
+	}
+
+	void delete() {
+		SpillFile.delete(this.file);
+	}
+
+	// best effort: a file that is still mapped cannot be deleted on every platform
+	static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			file.toFile().deleteOnExit();
+		}
+	}
+}
+
+/*
+ * Appends longs to a new file, a block at a time through a mapping of exactly the block
+ */
+final class SpillWriter {
+
+	private static final int BLOCK_SIZE = 1 << 16;
+
+	private final Path file;
+	private final FileChannel channel;
+	private final long[] block = new long[BLOCK_SIZE];
+	private int blockCount;
+	private long size;
+
+	SpillWriter(Path file) throws IOException {
+		this.file = file;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	void add(long value) throws IOException {
+		if (this.blockCount == BLOCK_SIZE) this.flush();
+		this.block[this.blockCount++] = value;
+	}
+
+	SpillFile finish() throws IOException {
+		try {
+			this.flush();
+		} finally {
+			this.channel.close();
+		}
+		return new SpillFile(this.file, this.size);
+	}
+
+	private void flush() throws IOException {
+		if (this.blockCount == 0) return;
+
+		this.channel.map(FileChannel.MapMode.READ_WRITE, this.size * Long.BYTES, (long) this.blockCount * Long.BYTES)
+				.order(ByteOrder.nativeOrder()).asLongBuffer().put(this.block, 0, this.blockCount);
+		this.size += this.blockCount;
+		this.blockCount = 0;
+	}
+}
+
+/*
+ * Reads a SpillFile in order
+ */
+final class SpillCursor implements Comparable<SpillCursor> {
+
+	private final SpillFile file;
+	private long index;
+
+	SpillCursor(SpillFile file) {
+		this.file = file;
+	}
+
+	boolean hasValue() {
+		return this.index < this.file.size();
+	}
+
+	long getValue() {
+		return this.file.get(this.index);
+	}
+
+	boolean advance() {
+		this.index++;
+		return this.hasValue();
+	}
+
+	// moves past every value below the given one; returns true iff the file holds it
+	boolean skipTo(long value) {
+		while (this.hasValue() && this.getValue() < value) this.index++;
+		return this.hasValue() && this.getValue() == value;
+	}
+
+	@Override
+	public int compareTo(SpillCursor that) {
+		return Long.compare(this.getValue(), that.getValue());
+	}
+}
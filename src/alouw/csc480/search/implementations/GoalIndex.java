@@ -0,0 +1,320 @@
+package alouw.csc480.search.implementations;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import alouw.csc480.search.interfaces.ProblemState;
+
+/*
+ * Immutable lookup tables describing one goal configuration, computed once per goal and shared by every
+ * problem state (and every search) that measures its distance to that goal.
+ * 
+ * For each tile value and each board index the tables hold:
+ *	- the Manhattan distance from the index to the tile's goal position; and
+ *	- whether the tile would be out of place at the index
+ * 
+ * For each line (row or column) and each arrangement of three tiles on it, the linear conflict tables hold the
+ * extra moves needed because tiles that belong to the line sit in the wrong order: the cheapest set of tiles
+ * that has to step out of the line (and back) so the others can pass, 2 moves per tile or 2 x its value.
+ * 
+ * The walking distance tables hold, for every assignment of the tiles to rows (and separately to columns), 
+ * the exact cost of walking every tile to its goal row (column) when only vertical (horizontal) moves are 
+ * counted and a tile may swap rows with the blank from any column. Vertical and horizontal moves are disjoint, 
+ * so the two distances add up to an admissible estimate that dominates the Manhattan distance.
+ */
+final class GoalIndex {
+	
+	private static final int ROW_COUNT = 3;
+	private static final int COLUMN_COUNT = 3;
+	private static final int TILE_COUNT = ROW_COUNT * COLUMN_COUNT;
+	
+	// lines 0..2 are rows, lines 3..5 are columns; a line's arrangement is indexed by its 3 tiles as base 9 digits
+	private static final int LINE_COUNT = ROW_COUNT + COLUMN_COUNT;
+	private static final int LINE_ARRANGEMENT_COUNT = TILE_COUNT * TILE_COUNT * TILE_COUNT;
+	
+	// the board indexes on each line
+	private static final int[][] LINE_CELLS = {{0, 1, 2}, {3, 4, 5}, {6, 7, 8}, {0, 3, 6}, {1, 4, 7}, {2, 5, 8}};
+	
+	// POWERS_OF_THREE[tile] is the weight of the tile's digit in a row or column code
+	private static final int[] POWERS_OF_THREE = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+	private static final int CODE_COUNT = 3 * 6561;
+	
+	// goal encoding --> tables, for the most recently used goals
+	static final int GOAL_INDEX_CACHE_CAPACITY = 64;
+	static final LeastRecentlyUsedCache<Long, GoalIndex> GOAL_INDEXES = new LeastRecentlyUsedCache<>(GOAL_INDEX_CACHE_CAPACITY);
+	
+	private final ProblemState goalState;
+	private final long goalEncoding;
+	
+	// [tile value * TILE_COUNT + board index]
+	private final int[] distances = new int[TILE_COUNT * TILE_COUNT];
+	private final int[] outOfPlace = new int[TILE_COUNT * TILE_COUNT];
+	
+	// [line * LINE_ARRANGEMENT_COUNT + arrangement]
+	private final int[] lineConflicts = new int[LINE_COUNT * LINE_ARRANGEMENT_COUNT];
+	private final int[] weightedLineConflicts = new int[LINE_COUNT * LINE_ARRANGEMENT_COUNT];
+	
+	// [row code] and [column code]
+	private final short[] verticalWalk;
+	private final short[] horizontalWalk;
+	private final short[] weightedVerticalWalk;
+	private final short[] weightedHorizontalWalk;
+	
+	// mapped on first use; building or mapping the tables is only worth it for searches that use them
+	private volatile PatternDatabase patternDatabase;
+	private volatile DistanceTable distanceTable;
+	
+	private GoalIndex(ProblemState goalState) {
+		this.goalState = goalState;
+		this.goalEncoding = goalState.getPackedEncoding();
+		
+		for (int goalIndex = 0; goalIndex < TILE_COUNT; goalIndex++) {
+			int value = ProblemStateImpl.getTile(this.goalEncoding, goalIndex);
+			
+			for (int index = 0; index < TILE_COUNT; index++) {
+				this.distances[value * TILE_COUNT + index] = 
+						Math.abs(goalIndex / COLUMN_COUNT - index / COLUMN_COUNT) + 
+						Math.abs(goalIndex % COLUMN_COUNT - index % COLUMN_COUNT);
+				this.outOfPlace[value * TILE_COUNT + index] = (goalIndex == index) ? 0 : 1;
+			}
+		}
+		
+		for (int line = 0; line < LINE_COUNT; line++) {
+			for (int arrangement = 0; arrangement < LINE_ARRANGEMENT_COUNT; arrangement++) {
+				int[] tiles = {arrangement % TILE_COUNT, (arrangement / TILE_COUNT) % TILE_COUNT, arrangement / (TILE_COUNT * TILE_COUNT)};
+				this.lineConflicts[line * LINE_ARRANGEMENT_COUNT + arrangement] = this.computeLineConflicts(line, tiles, false);
+				this.weightedLineConflicts[line * LINE_ARRANGEMENT_COUNT + arrangement] = this.computeLineConflicts(line, tiles, true);
+			}
+		}
+		
+		int goalRowCode = GoalIndex.getRowCode(this.goalEncoding);
+		int goalColumnCode = GoalIndex.getColumnCode(this.goalEncoding);
+		this.verticalWalk = GoalIndex.computeWalkingDistances(goalRowCode, false);
+		this.horizontalWalk = GoalIndex.computeWalkingDistances(goalColumnCode, false);
+		this.weightedVerticalWalk = GoalIndex.computeWalkingDistances(goalRowCode, true);
+		this.weightedHorizontalWalk = GoalIndex.computeWalkingDistances(goalColumnCode, true);
+	}
+	
+	/*
+	 * Tiles that belong to the line must reach their goal positions in goal order; every tile outside the 
+	 * heaviest subset already in that order has to step out of the line and back
+	 */
+	private int computeLineConflicts(int line, int[] tiles, boolean weighted) {
+		boolean isRow = line < ROW_COUNT;
+		int[] goalOrder = new int[tiles.length];
+		int[] weights = new int[tiles.length];
+		int totalWeight = 0;
+		
+		for (int position = 0; position < tiles.length; position++) {
+			int tile = tiles[position];
+			int goalIndex = this.getGoalIndexOf(tile);
+			int goalLine = isRow ? goalIndex / COLUMN_COUNT : ROW_COUNT + goalIndex % COLUMN_COUNT;
+			
+			// the blank and tiles that leave the line anyway do not conflict
+			if (tile == 0 || goalLine != line) continue;
+			
+			goalOrder[position] = isRow ? goalIndex % COLUMN_COUNT : goalIndex / COLUMN_COUNT;
+			weights[position] = weighted ? tile : 1;
+			totalWeight += weights[position];
+		}
+		
+		// heaviest subset whose goal order matches the current order; 3 positions --> 8 subsets
+		int keptWeight = 0;
+		for (int subset = 0; subset < (1 << tiles.length); subset++) {
+			int weight = 0;
+			int previousOrder = -1;
+			boolean isOrdered = true;
+			
+			for (int position = 0; position < tiles.length && isOrdered; position++) {
+				if ((subset & (1 << position)) == 0 || weights[position] == 0) continue;
+				isOrdered = goalOrder[position] > previousOrder;
+				previousOrder = goalOrder[position];
+				weight += weights[position];
+			}
+			
+			if (isOrdered) keptWeight = Math.max(keptWeight, weight);
+		}
+		
+		return 2 * (totalWeight - keptWeight);
+	}
+	
+	private int getGoalIndexOf(int tile) {
+		for (int index = 0; index < TILE_COUNT; index++) 
+			if (ProblemStateImpl.getTile(this.goalEncoding, index) == tile) return index;
+		throw new IllegalStateException("Tile " + tile + " is missing from goal " + this.goalState);
+	}
+	
+	/*
+	 * Uniform cost search from the goal code over tile --> row (column) assignments with 3 tiles per row; the blank
+	 * trades rows with any tile in a neighbouring row at a cost of 1 or the tile's value. Moves are reversible at 
+	 * the same cost, so the distance from the goal is the distance to the goal.
+	 */
+	private static short[] computeWalkingDistances(int goalCode, boolean weighted) {
+		int[] distances = new int[CODE_COUNT];
+		Arrays.fill(distances, Integer.MAX_VALUE);
+		
+		// entries are (distance << 32) | code
+		PriorityQueue<Long> open = new PriorityQueue<>();
+		distances[goalCode] = 0;
+		open.add(Long.valueOf(goalCode));
+		
+		while (!open.isEmpty()) {
+			long entry = open.poll().longValue();
+			int distance = (int) (entry >>> 32);
+			int code = (int) entry;
+			if (distance > distances[code]) continue;
+			
+			int blankLine = code % 3;
+			for (int tile = 1; tile < TILE_COUNT; tile++) {
+				int tileLine = (code / POWERS_OF_THREE[tile]) % 3;
+				if (Math.abs(tileLine - blankLine) != 1) continue;
+				
+				int next = code + GoalIndex.getCodeChange(tile, blankLine - tileLine);
+				int nextDistance = distance + (weighted ? tile : 1);
+				if (nextDistance < distances[next]) {
+					distances[next] = nextDistance;
+					open.add(Long.valueOf(((long) nextDistance << 32) | next));
+				}
+			}
+		}
+		
+		short[] result = new short[CODE_COUNT];
+		for (int code = 0; code < CODE_COUNT; code++) 
+			result[code] = (short) ((distances[code] == Integer.MAX_VALUE) ? 0 : distances[code]);
+		return result;
+	}
+	
+	static GoalIndex getGoalIndex(ProblemState goalState) {
+		if (!(goalState instanceof ProblemStateImpl)) 
+			throw new IllegalArgumentException("Goal state " + goalState + " is not an 8-Puzzle configuration");
+		
+		return GOAL_INDEXES.computeIfAbsent(Long.valueOf(goalState.getPackedEncoding()), x -> new GoalIndex(goalState));
+	}
+	
+	PatternDatabase getPatternDatabase() {
+		PatternDatabase result = this.patternDatabase;
+		if (result == null) {
+			synchronized (this) {
+				result = this.patternDatabase;
+				if (result == null) this.patternDatabase = result = PatternDatabase.load(this.goalEncoding);
+			}
+		}
+		return result;
+	}
+	
+	DistanceTable getDistanceTable() {
+		DistanceTable result = this.distanceTable;
+		if (result == null) {
+			synchronized (this) {
+				result = this.distanceTable;
+				if (result == null) this.distanceTable = result = DistanceTable.load(this.goalEncoding);
+			}
+		}
+		return result;
+	}
+	
+	static int getRowLine(int index) {
+		return index / COLUMN_COUNT;
+	}
+	
+	static int getColumnLine(int index) {
+		return ROW_COUNT + index % COLUMN_COUNT;
+	}
+	
+	/*
+	 * The row (column) code of a board holds the row (column) of every tile, blank included, as the tile's 
+	 * base 3 digit; e.g. tile 5 in row 2 contributes 2 * 3^5 to the row code
+	 */
+	static int getRowCode(long state) {
+		int result = 0;
+		for (int index = 0; index < TILE_COUNT; index++) 
+			result += POWERS_OF_THREE[ProblemStateImpl.getTile(state, index)] * (index / COLUMN_COUNT);
+		return result;
+	}
+	
+	static int getColumnCode(long state) {
+		int result = 0;
+		for (int index = 0; index < TILE_COUNT; index++) 
+			result += POWERS_OF_THREE[ProblemStateImpl.getTile(state, index)] * (index % COLUMN_COUNT);
+		return result;
+	}
+	
+	// the change in a row (column) code when the tile moves lineChange rows (columns) and the blank moves back
+	static int getCodeChange(int tile, int lineChange) {
+		return lineChange * (POWERS_OF_THREE[tile] - 1);
+	}
+	
+	// the extra moves caused by tiles blocking each other on one line of the board
+	int getLineConflicts(long state, int line) {
+		return this.lineConflicts[line * LINE_ARRANGEMENT_COUNT + GoalIndex.getLineArrangement(state, line)];
+	}
+	
+	int getWeightedLineConflicts(long state, int line) {
+		return this.weightedLineConflicts[line * LINE_ARRANGEMENT_COUNT + GoalIndex.getLineArrangement(state, line)];
+	}
+	
+	private static int getLineArrangement(long state, int line) {
+		int[] cells = LINE_CELLS[line];
+		return ProblemStateImpl.getTile(state, cells[0]) + 
+			   ProblemStateImpl.getTile(state, cells[1]) * TILE_COUNT + 
+			   ProblemStateImpl.getTile(state, cells[2]) * TILE_COUNT * TILE_COUNT;
+	}
+	
+	int getLinearConflicts(long state) {
+		int result = 0;
+		for (int line = 0; line < LINE_COUNT; line++) result += this.getLineConflicts(state, line);
+		return result;
+	}
+	
+	int getWeightedLinearConflicts(long state) {
+		int result = 0;
+		for (int line = 0; line < LINE_COUNT; line++) result += this.getWeightedLineConflicts(state, line);
+		return result;
+	}
+	
+	int getWalkingDistance(int rowCode, int columnCode, boolean weighted) {
+		return weighted 
+				? this.weightedVerticalWalk[rowCode] + this.weightedHorizontalWalk[columnCode]
+				: this.verticalWalk[rowCode] + this.horizontalWalk[columnCode];
+	}
+	
+	boolean isGoalState(ProblemState state) {
+		return state == this.goalState || (state.hasPackedEncoding() && state.getPackedEncoding() == this.goalEncoding);
+	}
+	
+	// the # of moves for the tile to travel from the index to its goal position
+	int getDistance(int tileValue, int index) {
+		return this.distances[tileValue * TILE_COUNT + index];
+	}
+	
+	// 1 if the tile does not belong at the index; 0 otherwise
+	int getOutOfPlace(int tileValue, int index) {
+		return this.outOfPlace[tileValue * TILE_COUNT + index];
+	}
+	
+	int getNumberOfTilesOutOfPlace(long state) {
+		int result = 0;
+		for (int index = 0; index < TILE_COUNT; index++) 
+			result += this.getOutOfPlace(ProblemStateImpl.getTile(state, index), index);
+		return result;
+	}
+	
+	// the # of moves from current to goal for every tile is the min distance in y + min distance in x
+	// e.g. if 4 is @ 0, 1 for current and @ 2, 2 in goal the math is:
+	// ABS(goal row - current row) == 2 + ABS(goal column - current column) == 1 ==> 3
+	int getSumOfManhattanDistances(long state) {
+		int result = 0;
+		for (int index = 0; index < TILE_COUNT; index++) 
+			result += this.getDistance(ProblemStateImpl.getTile(state, index), index);
+		return result;
+	}
+	
+	// the tweak here is that for each computed value we multiply by the tile value to weight the move cost
+	int getSumOfManhattanDistancesTimesTileValue(long state) {
+		int result = 0;
+		for (int index = 0; index < TILE_COUNT; index++) {
+			int value = ProblemStateImpl.getTile(state, index);
+			result += this.getDistance(value, index) * value;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,29 @@
+package alouw.csc480.search.implementations;
+
+import java.util.HashMap;
+import java.util.Map;
+import alouw.csc480.search.interfaces.ProblemState;
+
+/*
+ * Index for states without a packed encoding
+ */
+class HashStateHandleIndex implements StateHandleIndex {
+
+	private final Map<ProblemState, Integer> handles = new HashMap<>();
+
+	@Override
+	public int get(ProblemState state) {
+		Integer handle = this.handles.get(state);
+		return (handle == null) ? -1 : handle.intValue();
+	}
+
+	@Override
+	public void put(ProblemState state, int handle) {
+		this.handles.put(state, Integer.valueOf(handle));
+	}
+
+	@Override
+	public void remove(ProblemState state) {
+		this.handles.remove(state);
+	}
+}
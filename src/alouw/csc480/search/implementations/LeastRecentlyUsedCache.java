@@ -0,0 +1,67 @@
+package alouw.csc480.search.implementations;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+ * Thread safe map of at most capacity entries that evicts the least recently used entry, for tables that are costly
+ * to compute and shared by every search, e.g. the lookup tables of each goal state. A long running process that
+ * meets many keys keeps only the recent ones; an evicted value stays valid for whoever still holds it, and is
+ * computed again if its key comes back.
+ *
+ * The entry looked up last is also kept in a volatile field, so the common case of one key per search never takes
+ * the lock.
+ */
+final class LeastRecentlyUsedCache<K, V> {
+
+	private final int capacity;
+
+	// in access order, least recently used first
+	private final LinkedHashMap<K, V> entries;
+
+	private volatile Map.Entry<K, V> lastEntry;
+
+	LeastRecentlyUsedCache(int capacity) {
+		if (capacity < 1) throw new IllegalArgumentException("Expected a capacity of at least 1 entry; received " + capacity);
+
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return this.size() > LeastRecentlyUsedCache.this.capacity;
+			}
+		};
+	}
+
+	/*
+	 * The value of the key, computed and cached first if it is missing
+	 */
+	V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		Map.Entry<K, V> last = this.lastEntry;
+		if (last != null && last.getKey().equals(key)) return last.getValue();
+
+		V value;
+		synchronized (this) {
+			value = this.entries.get(key);
+			if (value == null) {
+				value = mappingFunction.apply(key);
+				this.entries.put(key, value);
+			}
+		}
+
+		this.lastEntry = new AbstractMap.SimpleImmutableEntry<>(key, value);
+		return value;
+	}
+
+	synchronized int size() {
+		return this.entries.size();
+	}
+
+	int getCapacity() {
+		return this.capacity;
+	}
+}
@@ -0,0 +1,236 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Simplified memory-bounded A* (SMA*).
+ *
+ * Best-first tree search that never keeps more than SearchParameters.getStoredNodeLimit() nodes. Like A* it expands
+ * the leaf with the lowest f(n), the deepest one on ties; when the new children take the search over the limit, the
+ * leaf with the highest f(n), the shallowest one on ties, is forgotten until it fits again. A forgotten node leaves its
+ * f(n) in its parent, so the parent knows how good the best path through the forgotten subtree is; once every child of
+ * a node is forgotten, the node is a leaf again with that f(n), and its children are regenerated if it ever becomes the
+ * best leaf. The f(n) of every node is backed up to the least f(n) of its children, so it only grows as the search
+ * learns more about the subtree below.
+ *
+ * A node as deep as the limit can hold no path beyond it: short of being the goal, its f(n) is infinite. Given an
+ * admissible h(n) the solution is optimal if memory can hold the path to the cheapest goal, and the search fails if
+ * memory cannot hold the path to any goal.
+ *
+ * A child is dropped if its state is already in memory via a path at least as cheap; the cheaper path, or the f(n) it
+ * left behind when forgotten, stands for it. Nothing is known of states that are no longer in memory, so unsolvable
+ * problems run until the node or time budget runs out; see SearchFunction.IDA.
+ *
+ * f(n) is taken as max(f(n), f(parent)) for evaluation functions that accumulate the path cost (pathmax), which keeps
+ * f(n) from decreasing along a path.
+ */
+public final class MemoryBoundedAStarSearch {
+
+	private static final int INFINITE_COST = Integer.MAX_VALUE;
+
+	/*
+	 * A node in memory. The TreeNode keeps its own path to the root, but the tree of Nodes is what limits memory: a
+	 * forgotten Node is dropped by its parent and left to the garbage collector
+	 */
+	private static final class Node {
+		private final TreeNode treeNode;
+		private final Node parent;
+		private final long id;
+
+		// backed up f(n); the least f(n) of the forgotten children
+		private int cost;
+		private int forgottenCost = INFINITE_COST;
+
+		// the children in memory; null until the node is expanded
+		private List<Node> children;
+
+		private Node(TreeNode treeNode, Node parent, long id, int cost) {
+			this.treeNode = treeNode;
+			this.parent = parent;
+			this.id = id;
+			this.cost = cost;
+		}
+
+		private boolean isLeaf() {
+			return this.children == null || this.children.isEmpty();
+		}
+
+		private int getDepth() {
+			return this.treeNode.getDepth();
+		}
+	}
+
+	/*
+	 * Leaves ordered best first: lowest f(n), then deepest, then oldest. The last leaf is the one to forget: highest
+	 * f(n), then shallowest, then newest
+	 */
+	private static final Comparator<Node> LEAF_ORDER = Comparator.<Node>comparingInt(x -> x.cost)
+			.thenComparing(Comparator.<Node>comparingInt(x -> x.getDepth()).reversed())
+			.thenComparingLong(x -> x.id);
+
+	private final EvaluationFunction evalFunction;
+	private final ProblemState goalState;
+	private final SearchStatsCollector statsCollector;
+	private final int storedNodeLimit;
+
+	private final TreeSet<Node> leaves = new TreeSet<>(LEAF_ORDER);
+
+	// the cheapest node in memory of every state in memory
+	private final Map<ProblemState, Node> storedStates = new HashMap<>();
+	private int storedNodes;
+	private long nextId;
+
+	// the node being expanded and whether its children are being regenerated; see expand
+	private Node expandingNode;
+	private boolean regenerating;
+	private final Consumer<TreeNode> addChild = this::addChild;
+
+	private MemoryBoundedAStarSearch(EvaluationFunction evalFunction, ProblemState goalState, SearchParameters parameters,
+			SearchStatsCollector statsCollector) {
+		this.evalFunction = evalFunction;
+		this.goalState = goalState;
+		this.statsCollector = statsCollector;
+		this.storedNodeLimit = parameters.getStoredNodeLimit();
+	}
+
+	public static Optional<TreeNode> search(final ArrayDeque<TreeNode> queue, final EvaluationFunction evalFunction,
+			final ProblemState goalState, final SearchParameters parameters, SearchStatsCollector statsCollector) {
+
+		// confirm that the queue has at least an initial root node
+		assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
+
+		MemoryBoundedAStarSearch search = new MemoryBoundedAStarSearch(evalFunction, goalState, parameters, statsCollector);
+		TreeNode solutionNode = search.run(queue.pop());
+
+		if (solutionNode != null) {
+			statsCollector.incrementSolutionCost(solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+			statsCollector.incrementSolutionPath(solutionNode.getDepth());
+		}
+
+		return Optional.ofNullable(solutionNode);
+	}
+
+	private TreeNode run(TreeNode rootNode) {
+		Node root = new Node(rootNode, null, this.nextId++, rootNode.getEvaluationPathCost(this.evalFunction, this.goalState));
+		this.storedStates.put(rootNode.getProblemState(), root);
+		this.storedNodes = 1;
+		this.leaves.add(root);
+
+		while (true) {
+			Node bestNode = this.leaves.first();
+			if (bestNode.cost == INFINITE_COST) return null;
+
+			// capture the most nodes held at once
+			this.statsCollector.setMaxQueueSize(this.storedNodes);
+			this.statsCollector.setBound(bestNode.cost);
+
+			if (bestNode.treeNode.getProblemState().equals(this.goalState)) return bestNode.treeNode;
+
+			// count the # of nodes explored
+			this.statsCollector.incrementNodesExplored(1);
+
+			this.expand(bestNode);
+			while (this.storedNodes > this.storedNodeLimit) this.forget(this.leaves.last());
+		}
+	}
+
+	/*
+	 * Brings every child of the node into memory, or those forgotten since it was last expanded, and backs up its f(n)
+	 */
+	private void expand(Node node) {
+		this.leaves.remove(node);
+		this.regenerating = (node.children != null);
+		if (!this.regenerating) node.children = new ArrayList<>(4);
+
+		this.expandingNode = node;
+		node.treeNode.forEachChild(this.addChild);
+		this.expandingNode = null;
+		node.forgottenCost = INFINITE_COST;
+
+		if (node.children.isEmpty()) node.cost = INFINITE_COST;
+		this.backUp(node);
+		if (node.isLeaf()) this.leaves.add(node);
+	}
+
+	private void addChild(TreeNode childNode) {
+		Node parent = this.expandingNode;
+		ProblemState childState = childNode.getProblemState();
+
+		// children still in memory stay as they are
+		if (this.regenerating) {
+			for (Node sibling : parent.children)
+				if (sibling.treeNode.getProblemState().equals(childState)) return;
+		}
+		this.statsCollector.incrementNodesGenerated(1);
+
+		// this covers paths that come back to one of their own states
+		Node storedNode = this.storedStates.get(childState);
+		if (storedNode != null && getPathCost(storedNode) <= childState.getCumulativeTransformationCostFromInitialState()) {
+			this.statsCollector.incrementDuplicates(1);
+			return;
+		}
+		if (this.regenerating) this.statsCollector.incrementNodesRegenerated(1);
+
+		int cost;
+		if (childState.equals(this.goalState)) cost = childNode.getEvaluationPathCost(this.evalFunction, this.goalState);
+		else if (childNode.getDepth() >= this.storedNodeLimit - 1) cost = INFINITE_COST;
+		else cost = childNode.getEvaluationPathCost(this.evalFunction, this.goalState);
+		if (this.evalFunction.accumulatesPathCost()) cost = Math.max(cost, parent.cost);
+
+		Node child = new Node(childNode, parent, this.nextId++, cost);
+		parent.children.add(child);
+		this.storedStates.put(childState, child);
+		this.leaves.add(child);
+		this.storedNodes++;
+	}
+
+	/*
+	 * Drops a leaf from memory, leaving its f(n) with its parent; a parent left with no children is a leaf again
+	 */
+	private void forget(Node node) {
+		Node parent = node.parent;
+
+		// the limit is at least 2 and every expansion leaves a leaf other than the root
+		assert(parent != null);
+
+		this.leaves.remove(node);
+		parent.children.remove(node);
+		parent.forgottenCost = Math.min(parent.forgottenCost, node.cost);
+		this.storedStates.remove(node.treeNode.getProblemState(), node);
+		this.storedNodes--;
+		this.statsCollector.incrementNodesForgotten(1);
+
+		// the parent's f(n) already covers the forgotten child
+		if (parent.children.isEmpty()) this.leaves.add(parent);
+	}
+
+	private static int getPathCost(Node node) {
+		return node.treeNode.getProblemState().getCumulativeTransformationCostFromInitialState();
+	}
+
+	/*
+	 * Raises the f(n) of the node and its ancestors to the least f(n) below them, for as long as it changes
+	 */
+	private void backUp(Node node) {
+		for (; node != null; node = node.parent) {
+			if (node.isLeaf()) continue;
+
+			int cost = node.forgottenCost;
+			for (Node child : node.children) cost = Math.min(cost, child.cost);
+			if (cost == node.cost) return;
+			node.cost = cost;
+		}
+	}
+}
@@ -0,0 +1,296 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Struct of arrays store for the expanded nodes of one search tree. A node is an int handle into parallel primitive
+ * arrays: its packed state, its parent's handle, its cumulative cost g(n), its cost f(n) under the tree's evaluation
+ * function, its depth and the operation that created it. The arrays grow a chunk at a time, so growing never copies
+ * a node, and a node costs 25 bytes instead of a TreeNodeImpl plus the ProblemState it holds.
+ *
+ * Searches only see ArenaTreeNode views. A view of a node that has not been expanded holds its ProblemState and its
+ * parent's handle; expanding it records it here and its children refer back to the record by handle, so once the
+ * search drops the view only the record is left. Views of recorded nodes (e.g. the parents walked by
+ * SearchTree.getSolution) rebuild their ProblemState from the packed state on demand.
+ *
+ * Only states with a packed encoding can be recorded. Not thread safe; each search owns its own arena.
+ */
+final class NodeArena {
+
+	// the parent handle of the root
+	static final int NO_PARENT = -1;
+
+	// 2^14 nodes per chunk
+	private static final int CHUNK_SHIFT = 14;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private static final ProblemTransformationOperation[] OPERATIONS = ProblemTransformationOperation.values();
+
+	// every other state is rebuilt on the root's board
+	private final ProblemState rootState;
+
+	// the evaluation function and goal state f(n) is computed with; both null if the tree has none
+	private final EvaluationFunction evalFunction;
+	private final ProblemState goalState;
+
+	// chunk = handle >>> CHUNK_SHIFT, slot = handle & CHUNK_MASK
+	private long[][] states = new long[1][];
+	private int[][] parents = new int[1][];
+	private int[][] costs = new int[1][];
+	private int[][] evaluationCosts = new int[1][];
+	private int[][] depths = new int[1][];
+	private byte[][] operations = new byte[1][];
+	private int size;
+
+	NodeArena(ProblemState rootState, EvaluationFunction evalFunction, ProblemState goalState) {
+		if (rootState == null) throw new IllegalArgumentException("ProblemState cannot be <null>");
+		if (!rootState.hasPackedEncoding()) throw new IllegalArgumentException("ProblemState has no packed encoding");
+
+		this.rootState = rootState;
+		this.evalFunction = evalFunction;
+		this.goalState = goalState;
+	}
+
+	// the unexpanded root of the tree
+	TreeNode getRootNode() {
+		return new ArenaTreeNode(this, NO_PARENT, this.rootState, 0, this.computeEvaluationCost(this.rootState));
+	}
+
+	// a view of a recorded node
+	TreeNode getNode(int handle) {
+		return new ArenaTreeNode(this, handle);
+	}
+
+	/*
+	 * Records an expanded node; returns its handle
+	 */
+	int add(ProblemState state, int parent, int evaluationCost, int depth) {
+		int chunk = this.size >>> CHUNK_SHIFT;
+		int slot = this.size & CHUNK_MASK;
+		if (slot == 0) this.addChunk(chunk);
+
+		this.states[chunk][slot] = state.getPackedEncoding();
+		this.parents[chunk][slot] = parent;
+		this.costs[chunk][slot] = state.getCumulativeTransformationCostFromInitialState();
+		this.evaluationCosts[chunk][slot] = evaluationCost;
+		this.depths[chunk][slot] = depth;
+		this.operations[chunk][slot] = (byte) state.getPredecessorTransformation().ordinal();
+
+		return this.size++;
+	}
+
+	private void addChunk(int chunk) {
+		if (chunk == this.states.length) {
+			int chunkCount = chunk * 2;
+			this.states = Arrays.copyOf(this.states, chunkCount);
+			this.parents = Arrays.copyOf(this.parents, chunkCount);
+			this.costs = Arrays.copyOf(this.costs, chunkCount);
+			this.evaluationCosts = Arrays.copyOf(this.evaluationCosts, chunkCount);
+			this.depths = Arrays.copyOf(this.depths, chunkCount);
+			this.operations = Arrays.copyOf(this.operations, chunkCount);
+		}
+
+		this.states[chunk] = new long[CHUNK_SIZE];
+		this.parents[chunk] = new int[CHUNK_SIZE];
+		this.costs[chunk] = new int[CHUNK_SIZE];
+		this.evaluationCosts[chunk] = new int[CHUNK_SIZE];
+		this.depths[chunk] = new int[CHUNK_SIZE];
+		this.operations[chunk] = new byte[CHUNK_SIZE];
+	}
+
+	// the # of recorded nodes
+	int size() {
+		return this.size;
+	}
+
+	long getPackedState(int handle) {
+		return this.states[this.getChunk(handle)][handle & CHUNK_MASK];
+	}
+
+	int getParent(int handle) {
+		return this.parents[this.getChunk(handle)][handle & CHUNK_MASK];
+	}
+
+	int getCost(int handle) {
+		return this.costs[this.getChunk(handle)][handle & CHUNK_MASK];
+	}
+
+	int getEvaluationCost(int handle) {
+		return this.evaluationCosts[this.getChunk(handle)][handle & CHUNK_MASK];
+	}
+
+	int getDepth(int handle) {
+		return this.depths[this.getChunk(handle)][handle & CHUNK_MASK];
+	}
+
+	ProblemTransformationOperation getOperation(int handle) {
+		return OPERATIONS[this.operations[this.getChunk(handle)][handle & CHUNK_MASK]];
+	}
+
+	private int getChunk(int handle) {
+		if (handle < 0 || handle >= this.size) throw new IndexOutOfBoundsException("Handle " + handle + " ; Size " + this.size);
+		return handle >>> CHUNK_SHIFT;
+	}
+
+	/*
+	 * Rebuilds the state of a recorded node; the move cost is recovered from the parent's cumulative cost
+	 */
+	ProblemState getProblemState(int handle) {
+		int parent = this.getParent(handle);
+		if (parent == NO_PARENT) return this.rootState;
+
+		return ProblemStateFactory.getNewProblemState(this.rootState, this.getPackedState(handle),
+				this.getOperation(handle), this.getCost(parent));
+	}
+
+	EvaluationFunction getEvaluationFunction() {
+		return this.evalFunction;
+	}
+
+	ProblemState getGoalState() {
+		return this.goalState;
+	}
+
+	int computeEvaluationCost(ProblemState state) {
+		if (this.evalFunction == null) return 0;
+		return state.getExpectedTransformationCostToGoalState(this.evalFunction, this.goalState);
+	}
+}
+
+/*
+ * View of a node of a NodeArena. Logically immutable: the handle is assigned the first time the node is expanded
+ * and never changes after that.
+ */
+final class ArenaTreeNode implements TreeNode {
+
+	private static final int NO_HANDLE = -1;
+
+	private final NodeArena arena;
+	private final int parentHandle;
+	private final int nodeDepth;
+	private final int evaluationCost;
+
+	// null in a view of a recorded node until asked for
+	private ProblemState problemState;
+
+	// NO_HANDLE until the node is expanded
+	private int handle;
+
+	// a node that has not been recorded yet
+	ArenaTreeNode(NodeArena arena, int parentHandle, ProblemState state, int depth, int evaluationCost) {
+		this.arena = arena;
+		this.parentHandle = parentHandle;
+		this.problemState = state;
+		this.nodeDepth = depth;
+		this.evaluationCost = evaluationCost;
+		this.handle = NO_HANDLE;
+	}
+
+	// a recorded node
+	ArenaTreeNode(NodeArena arena, int handle) {
+		this.arena = arena;
+		this.parentHandle = arena.getParent(handle);
+		this.nodeDepth = arena.getDepth(handle);
+		this.evaluationCost = arena.getEvaluationCost(handle);
+		this.handle = handle;
+	}
+
+	// records the node on its first expansion
+	private int getHandle() {
+		if (this.handle == NO_HANDLE)
+			this.handle = this.arena.add(this.getProblemState(), this.parentHandle, this.evaluationCost, this.nodeDepth);
+		return this.handle;
+	}
+
+	private TreeNode newChildNode(int parent, ProblemState state) {
+		return new ArenaTreeNode(this.arena, parent, state, this.nodeDepth + 1, this.arena.computeEvaluationCost(state));
+	}
+
+	@Override
+	public List<TreeNode> getChildrenNodes() {
+		List<TreeNode> result = new ArrayList<>(4);
+		int parent = this.getHandle();
+
+		this.getProblemState().forEachSuccessorState(ProblemTransformationOperation.NONE,
+				x -> result.add(this.newChildNode(parent, x)));
+
+		return result;
+	}
+
+	@Override
+	public void forEachChild(Consumer<TreeNode> consumer) {
+		int parent = this.getHandle();
+		ProblemState state = this.getProblemState();
+
+		// the root's state may name a predecessor transformation, but the root has no parent to return to
+		ProblemTransformationOperation skippedOperation = this.isRootNode() ? ProblemTransformationOperation.NONE
+				: state.getPredecessorTransformation().reverseTransformation();
+
+		state.forEachSuccessorState(skippedOperation, x -> consumer.accept(this.newChildNode(parent, x)));
+	}
+
+	@Override
+	public TreeNode getParentNode() {
+		if (this.parentHandle == NodeArena.NO_PARENT) return this;
+		return this.arena.getNode(this.parentHandle);
+	}
+
+	@Override
+	public Boolean isRootNode() {
+		return this.parentHandle == NodeArena.NO_PARENT;
+	}
+
+	@Override
+	public ProblemState getProblemState() {
+		if (this.problemState == null) this.problemState = this.arena.getProblemState(this.handle);
+		return this.problemState;
+	}
+
+	@Override
+	public int getDepth() {
+		return this.nodeDepth;
+	}
+
+	@Override
+	public int getEvaluationPathCost(EvaluationFunction h, ProblemState goalState) {
+		if (h == this.arena.getEvaluationFunction() && goalState == this.arena.getGoalState()) return this.evaluationCost;
+		return this.getProblemState().getExpectedTransformationCostToGoalState(h, goalState);
+	}
+
+	@Override
+	public EvaluationFunction getEvaluationFunction() {
+		return this.arena.getEvaluationFunction();
+	}
+
+	@Override
+	public int getEvaluationCost() {
+		return this.evaluationCost;
+	}
+
+	public String toString() {
+		return TreeNodeImpl.toString(this);
+	}
+
+	@Override
+	public boolean equals(Object that){
+		if (this == that) return true;
+		if (!(that instanceof ArenaTreeNode)) return false;
+
+		return Objects.equals(this.getProblemState(), ((ArenaTreeNode) that).getProblemState());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.getProblemState());
+	}
+}
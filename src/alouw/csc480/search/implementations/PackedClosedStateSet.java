@@ -0,0 +1,161 @@
+package alouw.csc480.search.implementations;
+
+import java.util.Arrays;
+import alouw.csc480.search.interfaces.ClosedStateSet;
+import alouw.csc480.search.interfaces.ProblemState;
+
+/*
+ * Closed set keyed by the packed encoding of each state.
+ *
+ * Keys are stored in a single long[] table with linear probing; the table doubles whenever it becomes
+ * more than half full, so a probe touches at most a few adjacent slots. No object is allocated
+ * per entry and the states themselves are not retained, so each explored state costs between
+ * 16 and 32 bytes of heap depending on where the table sits in its growth cycle.
+ *
+ * The value 0 marks an empty slot; the (never produced) zero encoding is tracked by a separate flag.
+ */
+class PackedClosedStateSet implements ClosedStateSet {
+
+	private static final int DEFAULT_CAPACITY = 1024;
+	private static final long EMPTY_KEY = 0L;
+
+	private long[] keys;
+	private int mask;
+	private int size;
+	private int resizeThreshold;
+	private boolean containsEmptyKey;
+
+	PackedClosedStateSet() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	PackedClosedStateSet(int expectedSize) {
+		this.allocate(PackedClosedStateSet.tableSizeFor(Math.max(expectedSize, 1) * 2));
+	}
+
+	private static int tableSizeFor(int capacity) {
+		int result = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+		if (result <= 0) throw new IllegalStateException("Closed set cannot grow beyond " + (1 << 30) + " slots");
+		return result;
+	}
+
+	/*
+	 * Spreads the entropy of the key over the low order bits used to pick a slot (murmur3 finalizer)
+	 */
+	private static int slotFor(long key, int mask) {
+		long hash = key;
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return (int) hash & mask;
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.mask = capacity - 1;
+		this.resizeThreshold = capacity / 2;
+	}
+
+	@Override
+	public boolean add(ProblemState state) {
+		long key = state.getPackedEncoding();
+
+		if (key == EMPTY_KEY) {
+			boolean result = !this.containsEmptyKey;
+			if (result) this.size++;
+			this.containsEmptyKey = true;
+			return result;
+		}
+
+		int slot = PackedClosedStateSet.slotFor(key, this.mask);
+		while (this.keys[slot] != EMPTY_KEY) {
+			if (this.keys[slot] == key) return false;
+			slot = (slot + 1) & this.mask;
+		}
+
+		this.keys[slot] = key;
+		if (++this.size > this.resizeThreshold) this.grow();
+
+		return true;
+	}
+
+	@Override
+	public boolean contains(ProblemState state) {
+		long key = state.getPackedEncoding();
+
+		if (key == EMPTY_KEY) return this.containsEmptyKey;
+
+		int slot = PackedClosedStateSet.slotFor(key, this.mask);
+		while (this.keys[slot] != EMPTY_KEY) {
+			if (this.keys[slot] == key) return true;
+			slot = (slot + 1) & this.mask;
+		}
+
+		return false;
+	}
+
+	/*
+	 * Backward shift deletion: keys after the removed one in its probe run move up into the hole unless their own
+	 * home slot lies cyclically after the hole, so no tombstones are needed and every run stays unbroken
+	 */
+	@Override
+	public boolean remove(ProblemState state) {
+		long key = state.getPackedEncoding();
+
+		if (key == EMPTY_KEY) {
+			boolean result = this.containsEmptyKey;
+			if (result) this.size--;
+			this.containsEmptyKey = false;
+			return result;
+		}
+
+		int slot = PackedClosedStateSet.slotFor(key, this.mask);
+		while (this.keys[slot] != key) {
+			if (this.keys[slot] == EMPTY_KEY) return false;
+			slot = (slot + 1) & this.mask;
+		}
+
+		int hole = slot;
+		for (int next = (hole + 1) & this.mask; this.keys[next] != EMPTY_KEY; next = (next + 1) & this.mask) {
+			int home = PackedClosedStateSet.slotFor(this.keys[next], this.mask);
+			if (((next - home) & this.mask) >= ((next - hole) & this.mask)) {
+				this.keys[hole] = this.keys[next];
+				hole = next;
+			}
+		}
+		this.keys[hole] = EMPTY_KEY;
+		this.size--;
+
+		return true;
+	}
+
+	/*
+	 * Doubles the table and re-inserts every key; no equality tests are needed since keys are unique
+	 */
+	private void grow() {
+		long[] oldKeys = this.keys;
+		this.allocate(PackedClosedStateSet.tableSizeFor(oldKeys.length * 2));
+
+		for (long key : oldKeys) {
+			if (key == EMPTY_KEY) continue;
+
+			int slot = PackedClosedStateSet.slotFor(key, this.mask);
+			while (this.keys[slot] != EMPTY_KEY) slot = (slot + 1) & this.mask;
+			this.keys[slot] = key;
+		}
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.keys, EMPTY_KEY);
+		this.containsEmptyKey = false;
+		this.size = 0;
+	}
+}
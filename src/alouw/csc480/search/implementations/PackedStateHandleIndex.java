@@ -0,0 +1,103 @@
+package alouw.csc480.search.implementations;
+
+import java.util.Arrays;
+import alouw.csc480.search.interfaces.ProblemState;
+
+/*
+ * Open addressing index keyed by the packed encoding of each state; linear probing with backward shift
+ * deletion keeps probe sequences short without tombstones. Slot occupancy is tracked by handle != -1.
+ */
+class PackedStateHandleIndex implements StateHandleIndex {
+
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	private long[] keys;
+	private int[] handles;
+	private int mask;
+	private int size;
+
+	PackedStateHandleIndex() {
+		this.allocate(DEFAULT_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.handles = new int[capacity];
+		Arrays.fill(this.handles, -1);
+		this.mask = capacity - 1;
+	}
+
+	/*
+	 * Spreads the entropy of the key over the low order bits used to pick a slot (murmur3 finalizer)
+	 */
+	private static int slotFor(long key, int mask) {
+		long hash = key;
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return (int) hash & mask;
+	}
+
+	@Override
+	public int get(ProblemState state) {
+		long key = state.getPackedEncoding();
+
+		for (int slot = slotFor(key, this.mask); this.handles[slot] != -1; slot = (slot + 1) & this.mask)
+			if (this.keys[slot] == key) return this.handles[slot];
+
+		return -1;
+	}
+
+	@Override
+	public void put(ProblemState state, int handle) {
+		if (!this.insert(state.getPackedEncoding(), handle)) return;
+
+		if (++this.size > (this.keys.length >> 1)) {
+			long[] oldKeys = this.keys;
+			int[] oldHandles = this.handles;
+
+			this.allocate(oldKeys.length * 2);
+			for (int slot = 0; slot < oldKeys.length; slot++)
+				if (oldHandles[slot] != -1) this.insert(oldKeys[slot], oldHandles[slot]);
+		}
+	}
+
+	// returns true iff the key was not present before
+	private boolean insert(long key, int handle) {
+		int slot = slotFor(key, this.mask);
+		while (this.handles[slot] != -1 && this.keys[slot] != key) slot = (slot + 1) & this.mask;
+
+		boolean result = this.handles[slot] == -1;
+		this.keys[slot] = key;
+		this.handles[slot] = handle;
+		return result;
+	}
+
+	@Override
+	public void remove(ProblemState state) {
+		long key = state.getPackedEncoding();
+
+		int slot = slotFor(key, this.mask);
+		while (this.handles[slot] != -1 && this.keys[slot] != key) slot = (slot + 1) & this.mask;
+
+		if (this.handles[slot] == -1) return;
+
+		// shift back any later entry in the probe run that would otherwise become unreachable
+		int gap = slot;
+		for (int probe = (gap + 1) & this.mask; this.handles[probe] != -1; probe = (probe + 1) & this.mask) {
+			int home = slotFor(this.keys[probe], this.mask);
+
+			// the entry may move into the gap iff its home slot does not lie cyclically in (gap, probe]
+			if (((probe - home) & this.mask) >= ((probe - gap) & this.mask)) {
+				this.keys[gap] = this.keys[probe];
+				this.handles[gap] = this.handles[probe];
+				gap = probe;
+			}
+		}
+
+		this.handles[gap] = -1;
+		this.size--;
+	}
+}
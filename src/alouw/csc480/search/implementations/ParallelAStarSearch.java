@@ -0,0 +1,379 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Hash distributed A* (HDA*).
+ *
+ * Every problem state is owned by exactly one worker thread, chosen by the state's hash code. Each worker keeps
+ * its own frontier and closed list and only ever expands states it owns; successors owned by another worker are
+ * buffered and shipped to that worker's inbox in batches through lock-free queues, so workers never contend on
+ * shared search state.
+ *
+ * Termination: the cheapest goal found so far (the incumbent) bounds every worker; a worker whose best frontier
+ * node cannot beat the incumbent has nothing useful left to do and goes idle. A single activity counter tracks
+ * busy workers plus batches in flight. A worker becomes busy before it retires the batch that woke it, so the
+ * counter can only reach zero once every worker is idle and every batch has been consumed, at which point no
+ * cheaper goal can be found and the incumbent is optimal (given an admissible heuristic).
+ *
+ * Budgets: workers add their expansions to a shared counter and read the clock at every flush, so the search may
+ * run over its node budget by up to FLUSH_INTERVAL nodes per worker before every worker stops.
+ */
+public final class ParallelAStarSearch {
+
+	// # of nodes buffered for one destination before they are shipped
+	private static final int BATCH_SIZE = 64;
+
+	// # of expansions between flushes of partially filled batches
+	private static final int FLUSH_INTERVAL = 256;
+
+	private static final long IDLE_PARK_NANOS = 50_000L;
+
+	private final EvaluationFunction evalFunction;
+	private final ProblemState goalState;
+	private final SearchParameters parameters;
+	private final ProblemState prototypeState;
+
+	private final Worker[] workers;
+
+	// busy workers + batches in flight
+	private final AtomicLong activity;
+	private volatile boolean finished = false;
+
+	// the incumbent; written under the lock, read without it
+	private final Object incumbentLock = new Object();
+	private volatile int incumbentCost = Integer.MAX_VALUE;
+	private volatile TreeNode incumbentNode = null;
+
+	private volatile Throwable failure = null;
+
+	// # of expansions of all workers, as of their last flush; the System.nanoTime() the search runs out of time
+	private final AtomicLong budgetedNodesExplored = new AtomicLong();
+	private final long deadline;
+	private volatile boolean budgetExceeded = false;
+
+	private ParallelAStarSearch(EvaluationFunction evalFunction, ProblemState goalState,
+			SearchParameters parameters, ProblemState prototypeState) {
+		this.evalFunction = evalFunction;
+		this.goalState = goalState;
+		this.parameters = parameters;
+		this.prototypeState = prototypeState;
+		this.deadline = parameters.getDeadline(System.nanoTime());
+
+		this.workers = new Worker[parameters.getWorkerCount()];
+		for (int index = 0; index < this.workers.length; index++) this.workers[index] = new Worker(index);
+
+		this.activity = new AtomicLong(this.workers.length);
+	}
+
+	public static Optional<TreeNode> search(final ArrayDeque<TreeNode> queue, final EvaluationFunction evalFunction,
+			final ProblemState goalState, final SearchParameters parameters, SearchStatsCollector statsCollector) {
+
+		// confirm that the queue has at least an initial root node
+		assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
+		TreeNode rootNode = queue.pop();
+
+		ParallelAStarSearch search = new ParallelAStarSearch(evalFunction, goalState, parameters, rootNode.getProblemState());
+		search.workers[search.getOwner(rootNode.getProblemState())].consider(rootNode);
+
+		Thread[] threads = new Thread[search.workers.length];
+		for (int index = 0; index < threads.length; index++) {
+			threads[index] = new Thread(search.workers[index], "hda-worker-" + index);
+			threads[index].start();
+		}
+
+		// with a progress listener, wake up once per progress period to report the shared counts of the workers
+		long progressMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(statsCollector.getProgressPeriodNanos()));
+		boolean interrupted = false;
+		for (Thread thread : threads) {
+			while (thread.isAlive()) {
+				try {
+					if (!statsCollector.hasProgressListener()) {
+						thread.join();
+						continue;
+					}
+					
+					thread.join(progressMillis);
+					int incumbentCost = search.incumbentCost;
+					if (incumbentCost != Integer.MAX_VALUE) statsCollector.setBestSolutionCost(incumbentCost);
+					statsCollector.reportProgress(search.budgetedNodesExplored.get());
+				} catch (InterruptedException e) {
+					// stop the workers, but keep waiting for them so no thread outlives the search
+					interrupted = true;
+					search.finished = true;
+				}
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+
+		if (search.failure != null) throw new IllegalStateException("Parallel search failed", search.failure);
+
+		// collect per worker statistics
+		long[] nodesExplored = new long[search.workers.length];
+		long totalNodesExplored = 0;
+		for (Worker worker : search.workers) {
+			nodesExplored[worker.index] = worker.nodesExplored;
+			totalNodesExplored += worker.nodesExplored;
+			statsCollector.setMaxQueueSize(worker.maxQueueSize);
+			statsCollector.incrementNodesGenerated(worker.nodesGenerated);
+			statsCollector.incrementDuplicates(worker.duplicates);
+			statsCollector.incrementNodesReopened(worker.nodesReopened);
+			statsCollector.addThreadResources(worker.cpuNanos, worker.allocatedBytes);
+		}
+		statsCollector.setWorkerNodesExplored(nodesExplored);
+
+		// throws if the workers ran over the node budget
+		statsCollector.incrementNodesExplored(totalNodesExplored);
+		if (search.budgetExceeded) throw new SearchBudgetExceededException("Parallel search ran out of its budget");
+
+		TreeNode solutionNode = search.incumbentNode;
+		if (solutionNode != null) {
+			statsCollector.incrementSolutionCost(solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+			statsCollector.incrementSolutionPath(solutionNode.getDepth());
+		}
+
+		return Optional.ofNullable(solutionNode);
+	}
+
+	private int getOwner(ProblemState state) {
+		return (state.hashCode() & Integer.MAX_VALUE) % this.workers.length;
+	}
+
+	private void offerIncumbent(TreeNode node) {
+		int cost = node.getProblemState().getCumulativeTransformationCostFromInitialState();
+		synchronized (this.incumbentLock) {
+			if (cost < this.incumbentCost) {
+				this.incumbentNode = node;
+				this.incumbentCost = cost;
+			}
+		}
+	}
+
+	/*
+	 * A node can only lead to a cheaper goal if both its path cost and, for evaluation functions that include the
+	 * path cost, its f(n) are below the incumbent's cost
+	 */
+	private boolean canImproveIncumbent(TreeNode node) {
+		int bound = this.incumbentCost;
+		if (node.getProblemState().getCumulativeTransformationCostFromInitialState() >= bound) return false;
+		return !this.evalFunction.accumulatesPathCost() || node.getEvaluationPathCost(this.evalFunction, this.goalState) < bound;
+	}
+
+	private final class Worker implements Runnable {
+
+		private final int index;
+
+		// nodes owned by this worker
+		private final BucketPriorityQueue frontier;
+		private final StateHandleIndex closedCosts;
+
+		// incoming batches; written by other workers
+		private final ConcurrentLinkedQueue<TreeNode[]> inbox = new ConcurrentLinkedQueue<>();
+
+		// outgoing batches, one per destination worker
+		private final TreeNode[][] outgoing;
+		private final int[] outgoingSizes;
+
+		private long nodesExplored;
+		private long maxQueueSize;
+		private long nodesGenerated;
+		private long duplicates;
+		private long nodesReopened;
+		
+		// used by the worker's thread; measured only if the search keeps detailed stats
+		private long cpuNanos = SearchStatsCollector.UNAVAILABLE;
+		private long allocatedBytes = SearchStatsCollector.UNAVAILABLE;
+
+		private final SuccessorBuffer children = new SuccessorBuffer();
+
+		Worker(int index) {
+			this.index = index;
+			this.frontier = new BucketPriorityQueue(parameters.getTieBreak(), prototypeState);
+			this.closedCosts = prototypeState.hasPackedEncoding() ? new PackedStateHandleIndex() : new HashStateHandleIndex();
+			this.outgoing = new TreeNode[parameters.getWorkerCount()][BATCH_SIZE];
+			this.outgoingSizes = new int[parameters.getWorkerCount()];
+		}
+
+		@Override
+		public void run() {
+			boolean measured = parameters.isDetailedStats();
+			long startCpuNanos = measured ? SearchStatsCollector.getCurrentThreadCpuNanos() : SearchStatsCollector.UNAVAILABLE;
+			long startAllocatedBytes = measured ? SearchStatsCollector.getCurrentThreadAllocatedBytes() : SearchStatsCollector.UNAVAILABLE;
+			
+			try {
+				this.work();
+			} catch (Throwable t) {
+				failure = t;
+				finished = true;
+			}
+			
+			if (measured) {
+				long endCpuNanos = SearchStatsCollector.getCurrentThreadCpuNanos();
+				long endAllocatedBytes = SearchStatsCollector.getCurrentThreadAllocatedBytes();
+				if (startCpuNanos != SearchStatsCollector.UNAVAILABLE && endCpuNanos != SearchStatsCollector.UNAVAILABLE) 
+					this.cpuNanos = endCpuNanos - startCpuNanos;
+				if (startAllocatedBytes != SearchStatsCollector.UNAVAILABLE && endAllocatedBytes != SearchStatsCollector.UNAVAILABLE) 
+					this.allocatedBytes = endAllocatedBytes - startAllocatedBytes;
+			}
+		}
+
+		private void work() {
+			int expansionsSinceFlush = 0;
+
+			while (!finished) {
+				this.drainInbox();
+
+				TreeNode currentNode = this.frontier.poll();
+
+				// a frontier ordered by f(n) holds nothing better behind a node that cannot beat the incumbent; one
+				// ordered otherwise may still hold cheaper paths, so only that node is skipped
+				if (currentNode != null && !canImproveIncumbent(currentNode)) {
+					if (!evalFunction.accumulatesPathCost()) continue;
+					this.discardFrontier();
+					currentNode = null;
+				}
+
+				// nothing left that could beat the incumbent: ship what is buffered and wait for work
+				if (currentNode == null) {
+					this.flushAll();
+					this.checkBudget(expansionsSinceFlush);
+					expansionsSinceFlush = 0;
+					this.idle();
+					continue;
+				}
+
+				// count the # of nodes explored
+				this.nodesExplored++;
+
+				// a goal is never expanded; it becomes the incumbent if it is cheaper
+				if (currentNode.getProblemState().equals(goalState)) {
+					offerIncumbent(currentNode);
+					continue;
+				}
+
+				this.closedCosts.put(currentNode.getProblemState(),
+						currentNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+
+				this.children.fill(currentNode);
+				this.nodesGenerated += this.children.size();
+				for (int index = 0; index < this.children.size(); index++) {
+					TreeNode childNode = this.children.get(index);
+					int owner = getOwner(childNode.getProblemState());
+					if (owner == this.index) this.consider(childNode);
+					else this.send(owner, childNode);
+				}
+
+				if (++expansionsSinceFlush == FLUSH_INTERVAL) {
+					this.flushAll();
+					this.checkBudget(expansionsSinceFlush);
+					expansionsSinceFlush = 0;
+				}
+			}
+		}
+
+		/*
+		 * Queues a node owned by this worker unless the state was already expanded via a path at least as cheap;
+		 * a cheaper path re-opens the state
+		 */
+		void consider(TreeNode node) {
+			if (!canImproveIncumbent(node)) return;
+
+			ProblemState state = node.getProblemState();
+			int cost = state.getCumulativeTransformationCostFromInitialState();
+			int closedCost = this.closedCosts.get(state);
+			if (closedCost != -1) {
+				if (closedCost <= cost) {
+					this.duplicates++;
+					return;
+				}
+				this.closedCosts.remove(state);
+				this.nodesReopened++;
+			}
+
+			if (!this.frontier.offer(node, node.getEvaluationPathCost(evalFunction, goalState), cost)) this.duplicates++;
+			this.maxQueueSize = Math.max(this.maxQueueSize, this.frontier.size());
+		}
+
+		private void checkBudget(int expansions) {
+			long total = budgetedNodesExplored.addAndGet(expansions);
+			if (total > parameters.getNodeBudget() ||
+				(deadline != SearchParameters.UNLIMITED && System.nanoTime() - deadline > 0)) {
+				budgetExceeded = true;
+				finished = true;
+			}
+		}
+
+		private void drainInbox() {
+			TreeNode[] batch;
+			while ((batch = this.inbox.poll()) != null) {
+				for (TreeNode node : batch) {
+					if (node == null) break;
+					this.consider(node);
+				}
+
+				// the batch is retired only after its nodes are in the frontier
+				activity.decrementAndGet();
+			}
+		}
+
+		private void discardFrontier() {
+			while (this.frontier.poll() != null) {
+				// nodes that cannot beat the incumbent now never will; the incumbent only gets cheaper, and no node
+				// behind the first one in f(n) order can beat it either
+			}
+		}
+
+		private void send(int owner, TreeNode node) {
+			this.outgoing[owner][this.outgoingSizes[owner]++] = node;
+			if (this.outgoingSizes[owner] == BATCH_SIZE) this.flush(owner);
+		}
+
+		private void flush(int owner) {
+			int size = this.outgoingSizes[owner];
+			if (size == 0) return;
+
+			TreeNode[] batch = this.outgoing[owner];
+			if (size < BATCH_SIZE) batch = Arrays.copyOf(batch, size);
+
+			// account for the batch before it becomes visible to the receiver
+			activity.incrementAndGet();
+			workers[owner].inbox.add(batch);
+
+			this.outgoing[owner] = new TreeNode[BATCH_SIZE];
+			this.outgoingSizes[owner] = 0;
+		}
+
+		private void flushAll() {
+			for (int owner = 0; owner < this.outgoingSizes.length; owner++) this.flush(owner);
+		}
+
+		/*
+		 * Marks the worker idle and waits until either a batch arrives or every worker is idle with nothing in flight
+		 */
+		private void idle() {
+			if (activity.decrementAndGet() == 0) {
+				finished = true;
+				return;
+			}
+
+			while (!finished) {
+				if (!this.inbox.isEmpty()) {
+					// become busy before the batch that woke us is retired
+					activity.incrementAndGet();
+					return;
+				}
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+			}
+		}
+	}
+}
@@ -0,0 +1,255 @@
+package alouw.csc480.search.implementations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/*
+ * Disjoint additive pattern databases for one goal configuration.
+ *
+ * The tiles 1..8 are split into disjoint groups. For each group a table holds, for every placement of the group's
+ * tiles, the exact cost of moving just those tiles to their goal positions when every other tile (and the blank)
+ * may be moved for free. No move is charged to more than one group, so the sum over all groups never overestimates
+ * the real cost and dominates the Manhattan distance of the same tiles.
+ *
+ * Each group is built for two cost models: unit cost (1 per move) and the project's tile cost (the value of the
+ * tile moved). Tables are built by a retrograde Dijkstra from the goal over (blank position, group tile positions),
+ * minimized over the blank position and stored as one unsigned byte per placement.
+ *
+ * The tables are written once per goal to a file in the directory named by the system property PDB_DIRECTORY_PROPERTY
+ * (the temp directory by default) and memory mapped read only on every later load, so solver processes share the
+ * pages and start up without rebuilding.
+ */
+final class PatternDatabase {
+
+	// directory holding the pattern database files
+	static final String PDB_DIRECTORY_PROPERTY = "alouw.csc480.pdb.dir";
+
+	private static final int MAGIC = 0x50444231;
+	private static final int VERSION = 1;
+
+	private static final int ROW_COUNT = 3;
+	private static final int COLUMN_COUNT = 3;
+	private static final int CELL_COUNT = ROW_COUNT * COLUMN_COUNT;
+
+	// the tile groups; every tile except the blank belongs to exactly one group
+	private static final int[][] TILE_GROUPS = {{1, 2, 3, 4}, {5, 6, 7, 8}};
+
+	// a placement of a group is indexed by its tile positions as base CELL_COUNT digits, first tile lowest
+	private static final int GROUP_SIZE = 4;
+	private static final int TABLE_SIZE = 9 * 9 * 9 * 9;
+
+	// magic, version, goal encoding, group size, table size
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+
+	// tables are stored unit cost groups first, then tile cost groups
+	private static final int FILE_SIZE = HEADER_SIZE + 2 * TILE_GROUPS.length * TABLE_SIZE;
+
+	private static final int UNREACHED = Integer.MAX_VALUE;
+
+	private final ByteBuffer tables;
+
+	private PatternDatabase(ByteBuffer tables) {
+		this.tables = tables;
+	}
+
+	/*
+	 * Maps the pattern database file for the goal from the directory named by PDB_DIRECTORY_PROPERTY
+	 */
+	static PatternDatabase load(long goalEncoding) {
+		return PatternDatabase.load(Paths.get(System.getProperty(PDB_DIRECTORY_PROPERTY, System.getProperty("java.io.tmpdir"))),
+				goalEncoding);
+	}
+
+	/*
+	 * Maps the pattern database file for the goal, building and writing it first if it is missing or stale
+	 */
+	static PatternDatabase load(Path directory, long goalEncoding) {
+		Path file = PatternDatabase.getFile(directory, goalEncoding);
+
+		try {
+			if (!PatternDatabase.isValidFile(file, goalEncoding)) PatternDatabase.write(file, goalEncoding);
+
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+				return new PatternDatabase(mapped);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot load pattern database " + file, e);
+		}
+	}
+
+	static Path getFile(Path directory, long goalEncoding) {
+		return directory.resolve("8puzzle-pdb-" + Long.toHexString(goalEncoding) + ".bin");
+	}
+
+	/*
+	 * The sum over all groups of the cost to move the group's tiles home; unit cost per move
+	 */
+	int getUnitCost(long state) {
+		return this.getCost(state, 0);
+	}
+
+	/*
+	 * The sum over all groups of the cost to move the group's tiles home; each move costs the tile's value
+	 */
+	int getTileCost(long state) {
+		return this.getCost(state, TILE_GROUPS.length);
+	}
+
+	private int getCost(long state, int firstTable) {
+		int result = 0;
+
+		for (int group = 0; group < TILE_GROUPS.length; group++) {
+			int offset = HEADER_SIZE + (firstTable + group) * TABLE_SIZE;
+			result += this.tables.get(offset + PatternDatabase.getPlacementIndex(state, TILE_GROUPS[group])) & 0xFF;
+		}
+
+		return result;
+	}
+
+	private static int getPlacementIndex(long state, int[] tiles) {
+		int result = 0;
+
+		for (int cell = 0; cell < CELL_COUNT; cell++) {
+			int tile = ProblemStateImpl.getTile(state, cell);
+			for (int slot = 0, weight = 1; slot < tiles.length; slot++, weight *= CELL_COUNT)
+				if (tiles[slot] == tile) result += cell * weight;
+		}
+
+		return result;
+	}
+
+	private static boolean isValidFile(Path file, long goalEncoding) throws IOException {
+		if (!Files.isRegularFile(file) || Files.size(file) != FILE_SIZE) return false;
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// keep reading
+			}
+		}
+		header.flip();
+
+		return header.remaining() == HEADER_SIZE && header.getInt() == MAGIC && header.getInt() == VERSION &&
+			   header.getLong() == goalEncoding && header.getInt() == GROUP_SIZE && header.getInt() == TABLE_SIZE;
+	}
+
+	/*
+	 * Builds every table and writes the file; written to a temporary file and moved into place so that
+	 * concurrent loaders never map a partially written file
+	 */
+	private static void write(Path file, long goalEncoding) throws IOException {
+		ByteBuffer contents = ByteBuffer.allocate(FILE_SIZE).order(ByteOrder.BIG_ENDIAN);
+		contents.putInt(MAGIC).putInt(VERSION).putLong(goalEncoding).putInt(GROUP_SIZE).putInt(TABLE_SIZE);
+
+		for (boolean tileCost : new boolean[] {false, true})
+			for (int[] tiles : TILE_GROUPS) contents.put(PatternDatabase.buildTable(goalEncoding, tiles, tileCost));
+		contents.flip();
+
+		Files.createDirectories(file.getParent());
+		Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				while (contents.hasRemaining()) channel.write(contents);
+				channel.force(true);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/*
+	 * Retrograde Dijkstra from the goal over abstract states (blank cell, group tile placement); moving a group
+	 * tile costs 1 or its value, moving any other tile is free. Moves are reversible at the same cost, so the
+	 * distance from the goal is the distance to the goal.
+	 */
+	static byte[] buildTable(long goalEncoding, int[] tiles, boolean tileCost) {
+		int[] goalCells = new int[CELL_COUNT];
+		for (int cell = 0; cell < CELL_COUNT; cell++) goalCells[ProblemStateImpl.getTile(goalEncoding, cell)] = cell;
+
+		// abstract state = blank cell * TABLE_SIZE + placement index
+		int[] distances = new int[CELL_COUNT * TABLE_SIZE];
+		Arrays.fill(distances, UNREACHED);
+
+		int goalPlacement = 0;
+		for (int slot = 0, weight = 1; slot < tiles.length; slot++, weight *= CELL_COUNT)
+			goalPlacement += goalCells[tiles[slot]] * weight;
+		int goalAbstractState = goalCells[0] * TABLE_SIZE + goalPlacement;
+
+		// entries are (distance << 32) | abstract state
+		PriorityQueue<Long> open = new PriorityQueue<>();
+		distances[goalAbstractState] = 0;
+		open.add(Long.valueOf(goalAbstractState));
+
+		int[] cells = new int[tiles.length];
+		while (!open.isEmpty()) {
+			long entry = open.poll().longValue();
+			int distance = (int) (entry >>> 32);
+			int abstractState = (int) entry;
+			if (distance > distances[abstractState]) continue;
+
+			int blank = abstractState / TABLE_SIZE;
+			int placement = abstractState % TABLE_SIZE;
+			for (int slot = 0, rest = placement; slot < tiles.length; slot++, rest /= CELL_COUNT) cells[slot] = rest % CELL_COUNT;
+
+			for (int neighbor : PatternDatabase.getNeighborCells(blank)) {
+				int nextPlacement = placement;
+				int cost = 0;
+
+				for (int slot = 0, weight = 1; slot < tiles.length; slot++, weight *= CELL_COUNT) {
+					if (cells[slot] != neighbor) continue;
+
+					// the group tile slides into the blank's cell
+					nextPlacement += (blank - neighbor) * weight;
+					cost = tileCost ? tiles[slot] : 1;
+				}
+
+				int next = neighbor * TABLE_SIZE + nextPlacement;
+				int nextDistance = distance + cost;
+				if (nextDistance < distances[next]) {
+					distances[next] = nextDistance;
+					open.add(Long.valueOf(((long) nextDistance << 32) | next));
+				}
+			}
+		}
+
+		// the real blank position is unknown to the group, so take the cheapest one
+		byte[] result = new byte[TABLE_SIZE];
+		for (int placement = 0; placement < TABLE_SIZE; placement++) {
+			int best = UNREACHED;
+			for (int blank = 0; blank < CELL_COUNT; blank++) best = Math.min(best, distances[blank * TABLE_SIZE + placement]);
+
+			// placements with two tiles in one cell are never reached and never looked up
+			if (best == UNREACHED) continue;
+			if (best > 0xFF) throw new IllegalStateException("Pattern cost " + best + " does not fit in a byte");
+			result[placement] = (byte) best;
+		}
+
+		return result;
+	}
+
+	private static int[] getNeighborCells(int cell) {
+		int row = cell / COLUMN_COUNT;
+		int column = cell % COLUMN_COUNT;
+
+		int[] result = new int[4];
+		int count = 0;
+		if (row > 0) result[count++] = cell - COLUMN_COUNT;
+		if (row < ROW_COUNT - 1) result[count++] = cell + COLUMN_COUNT;
+		if (column > 0) result[count++] = cell - 1;
+		if (column < COLUMN_COUNT - 1) result[count++] = cell + 1;
+
+		return Arrays.copyOf(result, count);
+	}
+}
@@ -0,0 +1,97 @@
+package alouw.csc480.search.implementations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+
+public class PatternDatabaseTEST {
+	
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+	
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+	
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE, 
+			ProblemTransformationOperation.NONE);
+	
+	private static ProblemState getState(String stateString) {
+		return ProblemStateFactory.getNewProblemState(stateString, ProblemTransformationOperation.NONE);
+	}
+	
+	// the tables must never overestimate (known optimal costs) and must dominate Manhattan distance without the blank
+	@Test
+	public void testAdmissibleAndDominatesManhattan() {
+		String[] states = {GOAL_STATE, EASY_INITIAL_STATE, MEDIUM_INITIAL_STATE, HARD_INITIAL_STATE};
+		int[] optimalTileCosts = {0, 17, 31, 128};
+		int[] optimalMoves = {0, 5, 9, 30};
+		GoalIndex goal = GoalIndex.getGoalIndex(goalState);
+		
+		for (int index = 0; index < states.length; index++) {
+			ProblemState state = getState(states[index]);
+			int unitCost = state.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_PDB, goalState);
+			int tileCost = state.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_PDB_WEIGHTED, goalState);
+			
+			Assert.assertTrue(unitCost <= optimalMoves[index]);
+			Assert.assertTrue(tileCost <= optimalTileCosts[index]);
+			
+			int blankIndex = (int) (state.getPackedEncoding() >>> 36);
+			Assert.assertTrue(unitCost >= goal.getSumOfManhattanDistances(state.getPackedEncoding()) - goal.getDistance(0, blankIndex));
+			Assert.assertTrue(tileCost >= state.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_3, goalState));
+		}
+		
+		Assert.assertEquals(0, goalState.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_PDB_WEIGHTED, goalState));
+	}
+	
+	// a second load maps the file written by the first rather than rebuilding it
+	@Test
+	public void testFileIsWrittenOnceAndMapped() throws IOException {
+		Path directory = Files.createTempDirectory("pdb");
+		long goalEncoding = goalState.getPackedEncoding();
+		Path file = PatternDatabase.getFile(directory, goalEncoding);
+		
+		try {
+			long hardEncoding = getState(HARD_INITIAL_STATE).getPackedEncoding();
+			
+			PatternDatabase built = PatternDatabase.load(directory, goalEncoding);
+			Assert.assertTrue(Files.isRegularFile(file));
+			long lastModified = Files.getLastModifiedTime(file).toMillis();
+			
+			PatternDatabase mapped = PatternDatabase.load(directory, goalEncoding);
+			Assert.assertEquals(lastModified, Files.getLastModifiedTime(file).toMillis());
+			Assert.assertEquals(built.getUnitCost(hardEncoding), mapped.getUnitCost(hardEncoding));
+			Assert.assertEquals(built.getTileCost(hardEncoding), mapped.getTileCost(hardEncoding));
+			
+			// a damaged file is rebuilt; replaced rather than truncated, since truncating a mapped file faults the mapping
+			int expected = built.getTileCost(hardEncoding);
+			Files.delete(file);
+			Files.write(file, new byte[] {1, 2, 3});
+			Assert.assertEquals(expected, PatternDatabase.load(directory, goalEncoding).getTileCost(hardEncoding));
+		} finally {
+			Files.deleteIfExists(file);
+			Files.delete(directory);
+		}
+	}
+	
+	// the stronger heuristic finds the same optimal cost while exploring fewer nodes than ASTAR_3
+	@Test
+	public void testSearchWithHardInitialState() {
+		SearchTree pdbTree = new SearchTree(SearchFunction.ASTAR, EvaluationFunction.ASTAR_PDB_WEIGHTED, 
+				getState(HARD_INITIAL_STATE), goalState);
+		SearchTree manhattanTree = new SearchTree(SearchFunction.ASTAR, EvaluationFunction.ASTAR_3, 
+				getState(HARD_INITIAL_STATE), goalState);
+		
+		Assert.assertTrue(pdbTree.search());
+		Assert.assertTrue(manhattanTree.search());
+		Assert.assertEquals(128, pdbTree.getSolution().get().peekLast().getProblemState().getCumulativeTransformationCostFromInitialState());
+		Assert.assertTrue(pdbTree.getStatsCollector().getNodesExplored() < manhattanTree.getStatsCollector().getNodesExplored());
+	}
+}
@@ -0,0 +1,75 @@
+package alouw.csc480.search.implementations;
+
+/*
+ * Perfect hash of 8-Puzzle configurations onto 0 .. 9! - 1: the Lehmer code rank of the tiles in row major order,
+ * blank included.
+ *
+ * The Lehmer digit of a cell is the # of smaller tiles in later cells, i.e. the tile's value minus the # of smaller
+ * tiles already seen; the tiles seen are kept in a 9 bit mask, so each digit is a mask, a bit count and a multiply
+ * and ranking a state costs O(cells) with no allocation. Ranks follow lexicographic order of the configurations.
+ */
+final class PermutationRank {
+
+	private static final int CELL_COUNT = 9;
+
+	// 9!
+	static final int STATE_COUNT = 362880;
+
+	// FACTORIALS[n] = n!
+	private static final int[] FACTORIALS = {1, 1, 2, 6, 24, 120, 720, 5040, 40320, 362880};
+
+	private PermutationRank() {}
+
+	/*
+	 * Rank of a packed 3x3 configuration (see ProblemStateImpl)
+	 */
+	static int getRank(long state) {
+		int result = 0;
+		int usedTiles = 0;
+
+		for (int cell = 0; cell < CELL_COUNT; cell++) {
+			int tile = ProblemStateImpl.getTile(state, cell);
+			result += (tile - Integer.bitCount(usedTiles & ((1 << tile) - 1))) * FACTORIALS[CELL_COUNT - 1 - cell];
+			usedTiles |= 1 << tile;
+		}
+
+		return result;
+	}
+
+	/*
+	 * Rank of a configuration given as tiles[cell]
+	 */
+	static int getRank(int[] tiles) {
+		int result = 0;
+		int usedTiles = 0;
+
+		for (int cell = 0; cell < CELL_COUNT; cell++) {
+			int tile = tiles[cell];
+			result += (tile - Integer.bitCount(usedTiles & ((1 << tile) - 1))) * FACTORIALS[CELL_COUNT - 1 - cell];
+			usedTiles |= 1 << tile;
+		}
+
+		return result;
+	}
+
+	/*
+	 * Inverse of getRank; fills tiles[cell] with the tile at each cell
+	 */
+	static void getTiles(int rank, int[] tiles) {
+		int unusedTiles = (1 << CELL_COUNT) - 1;
+
+		for (int cell = 0, rest = rank; cell < CELL_COUNT; cell++) {
+			int weight = FACTORIALS[CELL_COUNT - 1 - cell];
+			int smallerUnusedTiles = rest / weight;
+			rest %= weight;
+
+			// the (smallerUnusedTiles + 1)th lowest unused tile
+			int candidates = unusedTiles;
+			for (int skip = 0; skip < smallerUnusedTiles; skip++) candidates &= candidates - 1;
+			int tile = Integer.numberOfTrailingZeros(candidates);
+
+			tiles[cell] = tile;
+			unusedTiles &= ~(1 << tile);
+		}
+	}
+}
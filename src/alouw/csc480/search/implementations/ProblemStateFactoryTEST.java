@@ -1,6 +1,8 @@
 package alouw.csc480.search.implementations;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Assert;
@@ -132,6 +134,188 @@ public class ProblemStateFactoryTEST {
 							ProblemStateFactory.getNewProblemState("1 2 3 8 0 4 7 6 5", ProblemTransformationOperation.NONE, 0)));
 	}
 	
+	// a derived state must be indistinguishable from the same configuration parsed from a string
+	@Test
+	public void testDerivedStateEqualsParsedState() {
+		ProblemState stateDown = problemOne.applyTransformation(ProblemTransformationOperation.DOWN);
+		ProblemState parsedDown = ProblemStateFactory.getNewProblemState("1 2 3 4 7 5 6 0 8",
+				ProblemTransformationOperation.NONE, 0);
+		Assert.assertEquals(parsedDown, stateDown);
+		Assert.assertEquals(parsedDown.hashCode(), stateDown.hashCode());
+
+		ProblemState stateRestored = stateDown.applyTransformation(ProblemTransformationOperation.UP);
+		Assert.assertEquals(problemOne, stateRestored);
+		Assert.assertEquals(problemOne.hashCode(), stateRestored.hashCode());
+		Assert.assertEquals(stateOne, stateRestored.toString());
+	}
+
+	// heuristics carried from state to state must match those computed from scratch
+	@Test
+	public void testIncrementalHeuristics() {
+		ProblemState tracked = problemTwo.withGoalState(problemGoal);
+		Assert.assertEquals(problemTwo, tracked);
+		Assert.assertEquals(problemTwo.getCumulativeTransformationCostFromInitialState(),
+				tracked.getCumulativeTransformationCostFromInitialState());
+
+		ProblemTransformationOperation[] walk = {ProblemTransformationOperation.UP, ProblemTransformationOperation.LEFT,
+				ProblemTransformationOperation.DOWN, ProblemTransformationOperation.LEFT, ProblemTransformationOperation.UP,
+				ProblemTransformationOperation.UP, ProblemTransformationOperation.RIGHT, ProblemTransformationOperation.DOWN};
+
+		for (ProblemTransformationOperation op : walk) {
+			tracked = tracked.applyTransformation(op);
+			ProblemState parsed = ProblemStateFactory.getNewProblemState(tracked.toString(), op,
+					tracked.getCumulativeTransformationCostFromInitialState() - tracked.getLocalTransformationCostFromPredecessorState());
+
+			for (EvaluationFunction h : EvaluationFunction.values())
+				Assert.assertEquals(parsed.getExpectedTransformationCostToGoalState(h, problemGoal),
+						tracked.getExpectedTransformationCostToGoalState(h, problemGoal));
+		}
+	}
+
+	// the tables of many goals are cached only for the most recent ones; an evicted goal is rebuilt on demand
+	@Test
+	public void testGoalIndexCacheIsBounded() {
+		int expected = problemTwo.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_LINEAR_CONFLICT, problemGoal);
+		
+		Set<ProblemState> goals = new HashSet<>();
+		Random random = new Random(480);
+		for (ProblemState goal = problemGoal; goals.size() <= 2 * GoalIndex.GOAL_INDEX_CACHE_CAPACITY; ) {
+			ProblemTransformationOperation op = ProblemTransformationOperation.values()[random.nextInt(4)];
+			if (!goal.isTransformationLegal(op)) continue;
+			
+			goal = goal.applyTransformation(op);
+			goals.add(goal);
+			problemOne.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_2, goal);
+			Assert.assertTrue(GoalIndex.GOAL_INDEXES.size() <= GoalIndex.GOAL_INDEX_CACHE_CAPACITY);
+		}
+		Assert.assertEquals(GoalIndex.GOAL_INDEX_CACHE_CAPACITY, GoalIndex.GOAL_INDEXES.size());
+		
+		Assert.assertEquals(expected, problemTwo.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_LINEAR_CONFLICT, problemGoal));
+	}
+	
+	// two tiles swapped in their goal row: each heuristic must charge the detour Manhattan distance misses
+	@Test
+	public void testLinearConflictAndWalkingDistance() {
+		ProblemState goal = ProblemStateFactory.getNewProblemState("1 2 3 8 0 4 7 6 5", ProblemTransformationOperation.NONE);
+		ProblemState swapped = ProblemStateFactory.getNewProblemState("2 1 3 8 0 4 7 6 5", ProblemTransformationOperation.NONE);
+		
+		// Manhattan 2 + one tile steps out and back
+		Assert.assertEquals(4, swapped.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_LINEAR_CONFLICT, goal));
+		// weighted Manhattan 1 + 2, the cheaper tile (1) steps out and back
+		Assert.assertEquals(5, swapped.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_LINEAR_CONFLICT_WEIGHTED, goal));
+		
+		// walking distance only counts tiles per row/column, not their order within it
+		Assert.assertEquals(2, swapped.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_WALKING_DISTANCE, goal));
+		Assert.assertEquals(3, swapped.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_WALKING_DISTANCE_WEIGHTED, goal));
+		
+		for (EvaluationFunction h : new EvaluationFunction[] {EvaluationFunction.ASTAR_LINEAR_CONFLICT, 
+				EvaluationFunction.ASTAR_LINEAR_CONFLICT_WEIGHTED, EvaluationFunction.ASTAR_WALKING_DISTANCE, 
+				EvaluationFunction.ASTAR_WALKING_DISTANCE_WEIGHTED})
+			Assert.assertEquals(0, goal.getExpectedTransformationCostToGoalState(h, goal));
+		
+		// the weighted variants never fall below weighted Manhattan distance
+		Assert.assertTrue(problemTwo.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_LINEAR_CONFLICT_WEIGHTED, problemGoal) >= 
+						  problemTwo.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_3, problemGoal));
+		Assert.assertTrue(problemTwo.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_WALKING_DISTANCE_WEIGHTED, problemGoal) >= 
+						  problemTwo.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_3, problemGoal));
+	}
+	
+	// a 15-Puzzle fills one long exactly; states parsed and derived must agree on layout, costs and encoding
+	@Test
+	public void testFifteenPuzzleState() {
+		ProblemState state = ProblemStateFactory.getNewProblemState("1 2 3 4 5 6 7 8 9 10 11 12 13 14 0 15", 
+				ProblemTransformationOperation.NONE);
+		Assert.assertTrue(state.hasPackedEncoding());
+		Assert.assertFalse(state.isTransformationLegal(ProblemTransformationOperation.DOWN));
+		Assert.assertEquals(3, state.getAllValidSucessorStates().size());
+		
+		ProblemState stateRight = state.applyTransformation(ProblemTransformationOperation.RIGHT);
+		Assert.assertEquals("1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 0", stateRight.toString());
+		Assert.assertEquals(15, stateRight.getLocalTransformationCostFromPredecessorState());
+		Assert.assertEquals(ProblemStateFactory.getNewProblemState(stateRight.toString(), ProblemTransformationOperation.NONE), stateRight);
+		Assert.assertEquals(state, stateRight.applyTransformation(ProblemTransformationOperation.LEFT));
+		Assert.assertNotEquals(state.getPackedEncoding(), stateRight.getPackedEncoding());
+	}
+	
+	// a 24-Puzzle stores 24 tiles in two longs and infers the last; moves through the last cell must round trip
+	@Test
+	public void testTwentyFourPuzzleState() {
+		String goalString = "1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 20 21 22 23 24 0";
+		ProblemState goal = ProblemStateFactory.getNewProblemState(goalString, ProblemTransformationOperation.NONE);
+		Assert.assertFalse(goal.hasPackedEncoding());
+		Assert.assertEquals(goalString, goal.toString());
+		
+		ProblemState stateUp = goal.applyTransformation(ProblemTransformationOperation.UP);
+		Assert.assertEquals("1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 0 21 22 23 24 20", stateUp.toString());
+		Assert.assertEquals(20, stateUp.getCumulativeTransformationCostFromInitialState());
+		Assert.assertEquals(goal, stateUp.applyTransformation(ProblemTransformationOperation.DOWN));
+		Assert.assertEquals(goal.hashCode(), stateUp.applyTransformation(ProblemTransformationOperation.DOWN).hashCode());
+		
+		// 20 is one row away from home and nothing else is out of place
+		Assert.assertEquals(20 + 20, stateUp.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_3, goal));
+		Assert.assertEquals(20 + 1, stateUp.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_LINEAR_CONFLICT, goal));
+	}
+	
+	// heuristics carried across a walk on a larger board must match those computed from scratch
+	@Test
+	public void testIncrementalHeuristicsOnLargerBoards() {
+		String[] goals = {"1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 0", 
+						  "1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 20 21 22 23 24 0"};
+		
+		for (String goalString : goals) {
+			ProblemState goal = ProblemStateFactory.getNewProblemState(goalString, ProblemTransformationOperation.NONE);
+			ProblemState tracked = goal.withGoalState(goal);
+			Random random = new Random(7);
+			
+			for (int step = 0; step < 200; step++) {
+				ProblemTransformationOperation op = ProblemTransformationOperation.values()[random.nextInt(4)];
+				if (!tracked.isTransformationLegal(op)) continue;
+				
+				tracked = tracked.applyTransformation(op);
+				ProblemState parsed = ProblemStateFactory.getNewProblemState(tracked.toString(), op,
+						tracked.getCumulativeTransformationCostFromInitialState() - tracked.getLocalTransformationCostFromPredecessorState());
+				Assert.assertEquals(parsed, tracked);
+				
+				for (EvaluationFunction h : EvaluationFunction.values())
+					Assert.assertEquals(parsed.getExpectedTransformationCostToGoalState(h, goal),
+							tracked.getExpectedTransformationCostToGoalState(h, goal));
+			}
+		}
+	}
+	
+	// the goal tables of a larger board are cached for the most recent goals of that board size only
+	@Test
+	public void testBoardGoalIndexCacheIsBounded() {
+		ProblemState state = ProblemStateFactory.getNewProblemState("1 2 3 4 5 6 7 8 9 10 11 12 13 14 0 15", 
+				ProblemTransformationOperation.NONE);
+		BoardGeometry geometry = ((BoardStateImpl) state).getGeometry();
+		
+		Set<ProblemState> goals = new HashSet<>();
+		Random random = new Random(480);
+		for (ProblemState goal = state; goals.size() <= 2 * BoardGeometry.GOAL_INDEX_CACHE_CAPACITY; ) {
+			ProblemTransformationOperation op = ProblemTransformationOperation.values()[random.nextInt(4)];
+			if (!goal.isTransformationLegal(op)) continue;
+			
+			goal = goal.applyTransformation(op);
+			goals.add(goal);
+			state.getExpectedTransformationCostToGoalState(EvaluationFunction.ASTAR_2, goal);
+			Assert.assertTrue(geometry.goalIndexes.size() <= BoardGeometry.GOAL_INDEX_CACHE_CAPACITY);
+		}
+		Assert.assertEquals(BoardGeometry.GOAL_INDEX_CACHE_CAPACITY, geometry.goalIndexes.size());
+	}
+	
+	// N x M boards are created explicitly; the tiles must form a permutation
+	@Test
+	public void testRectangularBoard() {
+		ProblemState state = ProblemStateFactory.getNewProblemState("1 2 3 4 5 0 6 7", ProblemTransformationOperation.NONE, 0, 2, 4);
+		Assert.assertTrue(state.isTransformationLegal(ProblemTransformationOperation.UP));
+		Assert.assertFalse(state.isTransformationLegal(ProblemTransformationOperation.DOWN));
+		Assert.assertEquals("1 0 3 4 5 2 6 7", state.applyTransformation(ProblemTransformationOperation.UP).toString());
+		
+		instantiationException.expect(IllegalArgumentException.class);
+		ProblemStateFactory.getNewProblemState("1 2 3 4 5 0 6 6", ProblemTransformationOperation.NONE, 0, 2, 4);
+	}
+	
 	// instantiation should fail if puzzle config does not have at least one zero tile
 	@Test
 	public void testIllegalProblemStateFactoryExecution() {
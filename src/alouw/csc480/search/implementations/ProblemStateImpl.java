@@ -0,0 +1,469 @@
+package alouw.csc480.search.implementations;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+
+/*
+ * Immutable problem state class that represents one particular 8-Puzzle configuration. 
+ * 
+ * The following happens when an external agent moves a tile:
+ * (1) checks whether the empty tile can be moved in the desired direction; 
+ * (2) create a new problem state where the empty tile and the target tile are swapped
+ * (3) computes any other useful state information clients may need
+ * 
+ * A problem state is instantiated from a string representation of a board with 9 tiles (one of which is blank).
+ * For example, string "1 2 3 8 0 4 7 6 5" is mapped to
+ *	-------------
+ *  | 1 | 2 | 3 |
+ *  -------------
+ *  | 8 | 0 | 4 |
+ *  -------------
+ *  | 7 | 6 | 5 |
+ *  -------------
+ * 
+ * Numeral "0" is the blank tile which is moved to create a new state. 
+ * 
+ * @precondition: applying the predecessor transformation to the current state yields a valid prior state
+ * 
+ */
+class ProblemStateImpl implements ProblemState {
+
+	// the dimensions of the 8-puzzle grid
+	private static final short ROW_COUNT = 3;
+	private static final short COLUMN_COUNT = 3;
+	
+	// the moves, in the order successors are generated
+	private static final ProblemTransformationOperation[] MOVES = {ProblemTransformationOperation.UP, 
+			ProblemTransformationOperation.DOWN, ProblemTransformationOperation.LEFT, ProblemTransformationOperation.RIGHT};
+	
+	// the value of an uninitialized index
+	private static final int UNDEFINED_INDEX = -1;
+	
+	// the packed layout of the 8 puzzle grid: 4 bits per tile in row major order, followed by 4 bits 
+	// holding the index of the zero/blank tile, e.g. the tile @ coordinates 1, 2 occupies bits 20..23
+	private static final int BITS_PER_TILE = 4;
+	private static final long TILE_MASK = (1L << BITS_PER_TILE) - 1;
+	private static final int ZERO_INDEX_SHIFT = ROW_COUNT * COLUMN_COUNT * BITS_PER_TILE;
+	private static final long BOARD_MASK = (1L << ZERO_INDEX_SHIFT) - 1;
+	
+	// the location of the zero/blank tile
+	private final int zeroRowIndex;
+	private final int zeroColumnIndex;
+	
+	// internal representation of the 8 puzzle grid
+	private final long state;
+	
+	// the transformation operation applied to the predecessor state to create *this* successor state
+	private final ProblemTransformationOperation predecessorOperation;
+	
+	// the cost of the transformation operation from predecessor to current
+	private final int transformationCostLocal;
+	
+	// the cost of the transformation operations to date
+	private final int transformationCostCume;
+	
+	// compute once; use many times
+	private final int hashCode;
+	
+	// the goal this state tracks its heuristic distances to; null if the state is not tracking a goal
+	private final GoalIndex goalIndex;
+	
+	// heuristic distances to the tracked goal, carried from predecessor to successor state
+	private final int tilesOutOfPlace;
+	private final int manhattanDistance;
+	private final int weightedManhattanDistance;
+	private final int linearConflicts;
+	private final int weightedLinearConflicts;
+	
+	// walking distance codes: the row (column) of every tile as base 3 digits, see GoalIndex.getRowCode
+	private final int rowCode;
+	private final int columnCode;
+	
+	// instantiate a problem state with an internal state derived from the string representation 
+	ProblemStateImpl(String stateString, ProblemTransformationOperation predecessorOperation, int cost) {
+		this(ProblemStateImpl.getPackedStateFromStringRepresentation(stateString), predecessorOperation, cost, 
+				null, 0, 0, 0, 0, 0, 0, 0);
+	}
+	
+	// instantiate a problem state with an internal state derived from the string representation 
+	// this is the way to create a goalState
+	ProblemStateImpl(String stateString, ProblemTransformationOperation predecessorOperation) {
+		this(stateString, predecessorOperation, 0);
+	}
+	
+	// instantiate a problem state directly from a packed grid; used when deriving successor states
+	private ProblemStateImpl(long packedState, ProblemTransformationOperation predecessorOperation, int cost,
+			GoalIndex goalIndex, int tilesOutOfPlace, int manhattanDistance, int weightedManhattanDistance,
+			int linearConflicts, int weightedLinearConflicts, int rowCode, int columnCode) {
+		this.predecessorOperation = predecessorOperation;
+		this.state = packedState;
+		
+		this.goalIndex = goalIndex;
+		this.tilesOutOfPlace = tilesOutOfPlace;
+		this.manhattanDistance = manhattanDistance;
+		this.weightedManhattanDistance = weightedManhattanDistance;
+		this.linearConflicts = linearConflicts;
+		this.weightedLinearConflicts = weightedLinearConflicts;
+		this.rowCode = rowCode;
+		this.columnCode = columnCode;
+		
+		int zeroIndex = (int) (packedState >>> ZERO_INDEX_SHIFT);
+		this.zeroRowIndex = zeroIndex / COLUMN_COUNT;
+		this.zeroColumnIndex = zeroIndex % COLUMN_COUNT;
+		
+		this.transformationCostLocal = this.getPredecessorTransformationCost();
+		this.transformationCostCume = cost + this.transformationCostLocal;
+		
+		this.hashCode = ProblemStateImpl.mixBits(packedState);
+	}
+	
+	// instantiate a problem state from the packed grid of getPackedEncoding
+	static ProblemState fromPackedEncoding(long packedState, ProblemTransformationOperation predecessorOperation, int cost) {
+		return new ProblemStateImpl(packedState, predecessorOperation, cost, null, 0, 0, 0, 0, 0, 0, 0);
+	}
+	
+	/*
+	 * Helper function to pack a string representation of a board into a single long
+	 */
+	private static long getPackedStateFromStringRepresentation(String stateString) {
+		
+		//extract position of tiles from the stateString
+		String[] stringArray = stateString.split(" ");
+		
+		if (stringArray.length != (ROW_COUNT * COLUMN_COUNT)) 
+			throw new IllegalArgumentException("Expected " + (ROW_COUNT * COLUMN_COUNT) + "args; received " + stringArray.length);
+		
+		long packedState = 0;
+		int zeroIndex = UNDEFINED_INDEX;
+		
+		for (int index = 0; index < stringArray.length; index++) {
+			int value = Integer.parseInt(stringArray[index]);
+			
+			if (value < 0 || value >= (ROW_COUNT * COLUMN_COUNT))
+				throw new IllegalArgumentException("Tile value " + value + " is outside the 8-Puzzle range");
+			
+			packedState |= ((long) value) << (index * BITS_PER_TILE);
+			
+			if (value == 0) zeroIndex = index;
+		}
+		
+		if (zeroIndex == UNDEFINED_INDEX) 
+			throw new IllegalArgumentException("Every 8-Puzzle configuration requires a blank (zero) tile");
+		
+		return packedState | (((long) zeroIndex) << ZERO_INDEX_SHIFT);
+	}
+	
+	/* 
+	 * Helper function to create a string representation of a packed grid
+	 */
+	private static String generateStateString(long state) {
+		StringBuilder result = new StringBuilder();
+		
+		for (int index = 0; index < (ROW_COUNT * COLUMN_COUNT); index++) {
+			if (index > 0) result.append(" ");
+			result.append(ProblemStateImpl.getTile(state, index));
+		}
+		
+		return result.toString();
+	}
+	
+	/*
+	 * Returns the value of the tile stored at the row major index of a packed grid
+	 */
+	static int getTile(long state, int index) {
+		return (int) ((state >>> (index * BITS_PER_TILE)) & TILE_MASK);
+	}
+	
+	/*
+	 * Spreads the entropy of the packed grid over all 32 bits of the hash code (murmur3 finalizer)
+	 */
+	static int mixBits(long state) {
+		long hash = state;
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return (int) (hash ^ (hash >>> 32));
+	}
+	
+	/*
+	 * Returns the row major index of the tile the blank trades places with when applying the operation
+	 */
+	private int getSwapIndex(ProblemTransformationOperation operation) {
+		int result = UNDEFINED_INDEX;
+		
+		switch (operation) {
+			case UP: result = (this.zeroRowIndex - 1) * COLUMN_COUNT + this.zeroColumnIndex; break;
+			case DOWN: result = (this.zeroRowIndex + 1) * COLUMN_COUNT + this.zeroColumnIndex; break;
+			case LEFT: result = this.zeroRowIndex * COLUMN_COUNT + this.zeroColumnIndex - 1; break;
+			case RIGHT: result = this.zeroRowIndex * COLUMN_COUNT + this.zeroColumnIndex + 1; break;
+			case NONE: result = this.zeroRowIndex * COLUMN_COUNT + this.zeroColumnIndex; break;
+		}
+		
+		return result;
+	}
+	
+	/*
+	 * Computes the tile cost (== cost of move) when reversing the operation that created this state
+	 */
+	private int getPredecessorTransformationCost() {
+		// if the predecessor op is valid, reversing it should yield valid state; i.e. no out of bounds accesses
+		// a no-op swaps the blank with itself, which has a cost of zero
+		return ProblemStateImpl.getTile(this.state, this.getSwapIndex(this.predecessorOperation.reverseTransformation()));
+	}
+	
+	/* 
+	 * Generate the successor state derived by applying the operation to the current state
+	 * Note: a no-op operation results in *this* state being returned
+	 *  
+	 * @see alouw.csc480.search.interfaces.ProblemState#applyTransformation(alouw.csc480.search.interfaces.ProblemTransformationOperation)
+	 */
+	@Override
+	public ProblemState applyTransformation(ProblemTransformationOperation operation) throws IllegalStateException {
+		if (!this.isTransformationLegal(operation)) 
+			throw new IllegalStateException(operation + "is illegal with state " + this.toString());
+		
+		// the blank holds a zero, so the swap only has to move the target tile into the blank's slot
+		// and record the new location of the blank
+		int zeroIndex = this.zeroRowIndex * COLUMN_COUNT + this.zeroColumnIndex;
+		int swapIndex = this.getSwapIndex(operation);
+		long tile = ProblemStateImpl.getTile(this.state, swapIndex);
+		
+		long newState = this.state & BOARD_MASK;
+		newState &= ~(TILE_MASK << (swapIndex * BITS_PER_TILE));
+		newState |= tile << (zeroIndex * BITS_PER_TILE);
+		newState |= ((long) swapIndex) << ZERO_INDEX_SHIFT;
+		
+		if (this.goalIndex == null) 
+			return new ProblemStateImpl(newState, operation, this.transformationCostCume, null, 0, 0, 0, 0, 0, 0, 0);
+		
+		// only the moved tile and the blank change places, so only their contributions to each heuristic change 
+		GoalIndex goal = this.goalIndex;
+		int tileValue = (int) tile;
+		int tileDistanceChange = goal.getDistance(tileValue, zeroIndex) - goal.getDistance(tileValue, swapIndex);
+		
+		// a vertical move only reorders the two rows involved, a horizontal move only the two columns
+		boolean isVerticalMove = (zeroIndex / COLUMN_COUNT) != (swapIndex / COLUMN_COUNT);
+		int lineOne = isVerticalMove ? GoalIndex.getRowLine(zeroIndex) : GoalIndex.getColumnLine(zeroIndex);
+		int lineTwo = isVerticalMove ? GoalIndex.getRowLine(swapIndex) : GoalIndex.getColumnLine(swapIndex);
+		int conflictChange = goal.getLineConflicts(newState, lineOne) + goal.getLineConflicts(newState, lineTwo)
+				- goal.getLineConflicts(this.state, lineOne) - goal.getLineConflicts(this.state, lineTwo);
+		int weightedConflictChange = goal.getWeightedLineConflicts(newState, lineOne) + goal.getWeightedLineConflicts(newState, lineTwo)
+				- goal.getWeightedLineConflicts(this.state, lineOne) - goal.getWeightedLineConflicts(this.state, lineTwo);
+		
+		// the tile and the blank trade rows (columns); see GoalIndex.getRowCode
+		int codeChange = GoalIndex.getCodeChange(tileValue, 
+				isVerticalMove ? (zeroIndex / COLUMN_COUNT) - (swapIndex / COLUMN_COUNT) : (zeroIndex % COLUMN_COUNT) - (swapIndex % COLUMN_COUNT));
+		
+		return new ProblemStateImpl(newState, operation, this.transformationCostCume, goal,
+				this.tilesOutOfPlace + goal.getOutOfPlace(tileValue, zeroIndex) - goal.getOutOfPlace(tileValue, swapIndex) 
+					+ goal.getOutOfPlace(0, swapIndex) - goal.getOutOfPlace(0, zeroIndex),
+				this.manhattanDistance + tileDistanceChange 
+					+ goal.getDistance(0, swapIndex) - goal.getDistance(0, zeroIndex),
+				this.weightedManhattanDistance + tileDistanceChange * tileValue,
+				this.linearConflicts + conflictChange,
+				this.weightedLinearConflicts + weightedConflictChange,
+				isVerticalMove ? this.rowCode + codeChange : this.rowCode,
+				isVerticalMove ? this.columnCode : this.columnCode + codeChange);
+	}
+	
+	/*
+	 * Returns a copy of this state that carries its heuristic distances to the goal state;
+	 * every successor derived from the copy updates those distances incrementally
+	 */
+	@Override
+	public ProblemState withGoalState(ProblemState goalState) {
+		GoalIndex goal = GoalIndex.getGoalIndex(goalState);
+		
+		return new ProblemStateImpl(this.state, this.predecessorOperation, 
+				this.transformationCostCume - this.transformationCostLocal, goal, 
+				goal.getNumberOfTilesOutOfPlace(this.state), 
+				goal.getSumOfManhattanDistances(this.state),
+				goal.getSumOfManhattanDistancesTimesTileValue(this.state),
+				goal.getLinearConflicts(this.state),
+				goal.getWeightedLinearConflicts(this.state),
+				GoalIndex.getRowCode(this.state),
+				GoalIndex.getColumnCode(this.state));
+	}
+	
+	/*
+	 * Whether the heuristic distances carried by this state were computed against the goal state
+	 */
+	private boolean isTrackingGoalState(ProblemState goalState) {
+		return this.goalIndex != null && this.goalIndex.isGoalState(goalState);
+	}
+
+	/*
+	 * Determines whether there is a valid successor state when applying the operation to the current state
+	 */
+	@Override
+	public boolean isTransformationLegal(ProblemTransformationOperation operation) {
+		boolean result = false;
+		
+		switch (operation) {
+			case UP: 	result = (this.zeroRowIndex == 0) ? false: true; break;
+			case DOWN:	result = (this.zeroRowIndex == (ROW_COUNT - 1)) ? false: true; break;
+			case LEFT:	result = (this.zeroColumnIndex == 0) ? false: true; break;
+			case RIGHT: result = (this.zeroColumnIndex == (COLUMN_COUNT - 1)) ? false: true; break;
+			case NONE: 	result = true;
+		}
+		
+		return result;
+	}
+
+	@Override
+	public ProblemTransformationOperation getPredecessorTransformation() {
+		return this.predecessorOperation;
+	}
+	
+	@Override
+	public String toString() {	
+		return generateStateString(this.state);
+	}
+
+	@Override
+	public Set<ProblemState> getAllValidSucessorStates() {
+		Set<ProblemState> successorStates = new HashSet<>();
+		this.forEachSuccessorState(ProblemTransformationOperation.NONE, successorStates::add);
+		return successorStates;
+	}
+	
+	@Override
+	public void forEachSuccessorState(ProblemTransformationOperation skippedOperation, Consumer<ProblemState> consumer) {
+		for (ProblemTransformationOperation op: MOVES) {
+			if (op != skippedOperation && this.isTransformationLegal(op)) consumer.accept(this.applyTransformation(op));
+		}
+	}
+
+	@Override
+	public boolean hasPackedEncoding() {
+		return true;
+	}
+
+	@Override
+	public long getPackedEncoding() {
+		return this.state;
+	}
+
+	@Override
+	public int getLocalTransformationCostFromPredecessorState() {
+		return this.transformationCostLocal;
+	}
+
+	@Override
+	public int getCumulativeTransformationCostFromInitialState() {
+		return this.transformationCostCume;
+	}
+	
+	private int getNumberOfTilesOutOfPlace(ProblemState goalState) {
+		if (this.isTrackingGoalState(goalState)) return this.tilesOutOfPlace;
+		return GoalIndex.getGoalIndex(goalState).getNumberOfTilesOutOfPlace(this.state);
+	}
+	
+	private int getSumOfManhattanDistances(ProblemState goalState) {
+		if (this.isTrackingGoalState(goalState)) return this.manhattanDistance;
+		return GoalIndex.getGoalIndex(goalState).getSumOfManhattanDistances(this.state);
+	}
+	
+	private int getSumOfManhattanDistancesTimesTileValue(ProblemState goalState) {
+		if (this.isTrackingGoalState(goalState)) return this.weightedManhattanDistance;
+		return GoalIndex.getGoalIndex(goalState).getSumOfManhattanDistancesTimesTileValue(this.state);
+	}
+	
+	// Manhattan distance of the tiles (but not the blank) plus 2 moves for every tile that must leave its line 
+	// to let another tile of the line pass
+	private int getLinearConflictDistance(ProblemState goalState) {
+		int zeroIndex = this.zeroRowIndex * COLUMN_COUNT + this.zeroColumnIndex;
+		
+		if (this.isTrackingGoalState(goalState)) 
+			return this.manhattanDistance - this.goalIndex.getDistance(0, zeroIndex) + this.linearConflicts;
+		
+		GoalIndex goal = GoalIndex.getGoalIndex(goalState);
+		return goal.getSumOfManhattanDistances(this.state) - goal.getDistance(0, zeroIndex) + goal.getLinearConflicts(this.state);
+	}
+	
+	// as above, with every move weighted by the value of the tile moved
+	private int getWeightedLinearConflictDistance(ProblemState goalState) {
+		if (this.isTrackingGoalState(goalState)) return this.weightedManhattanDistance + this.weightedLinearConflicts;
+		
+		GoalIndex goal = GoalIndex.getGoalIndex(goalState);
+		return goal.getSumOfManhattanDistancesTimesTileValue(this.state) + goal.getWeightedLinearConflicts(this.state);
+	}
+	
+	private int getWalkingDistance(ProblemState goalState, boolean weighted) {
+		if (this.isTrackingGoalState(goalState)) return this.goalIndex.getWalkingDistance(this.rowCode, this.columnCode, weighted);
+		
+		return GoalIndex.getGoalIndex(goalState).getWalkingDistance(GoalIndex.getRowCode(this.state), 
+				GoalIndex.getColumnCode(this.state), weighted);
+	}
+	
+	private PatternDatabase getPatternDatabase(ProblemState goalState) {
+		GoalIndex goal = this.isTrackingGoalState(goalState) ? this.goalIndex : GoalIndex.getGoalIndex(goalState);
+		return goal.getPatternDatabase();
+	}
+
+	@Override
+	public int getExpectedTransformationCostToGoalState(EvaluationFunction h, ProblemState goalState) {
+		int result = 0;
+		
+		switch(h) {
+			case NONE: result = this.transformationCostLocal; break; 
+			case CUME_COST: result = this.transformationCostCume; break; 
+			case GREEDY: result = this.getNumberOfTilesOutOfPlace(goalState); break;
+			case ASTAR_1: result = this.transformationCostCume + 
+					this.getNumberOfTilesOutOfPlace(goalState); break;
+			case ASTAR_2: result = this.transformationCostCume + 
+					this.getSumOfManhattanDistances(goalState); break;
+			case ASTAR_3: result = this.transformationCostCume + 
+								  this.getSumOfManhattanDistancesTimesTileValue(goalState); break;
+			case ASTAR_LINEAR_CONFLICT: result = this.transformationCostCume + 
+					this.getLinearConflictDistance(goalState); break;
+			case ASTAR_LINEAR_CONFLICT_WEIGHTED: result = this.transformationCostCume + 
+					this.getWeightedLinearConflictDistance(goalState); break;
+			case ASTAR_WALKING_DISTANCE: result = this.transformationCostCume + 
+					this.getWalkingDistance(goalState, false); break;
+			case ASTAR_WALKING_DISTANCE_WEIGHTED: result = this.transformationCostCume + 
+					this.getWalkingDistance(goalState, true); break;
+			case ASTAR_PDB: result = this.transformationCostCume + 
+					this.getPatternDatabase(goalState).getUnitCost(this.state); break;
+			case ASTAR_PDB_WEIGHTED: result = this.transformationCostCume + 
+					this.getPatternDatabase(goalState).getTileCost(this.state); break;
+			default: result = 0;
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public boolean equals(Object that){
+		if (this == that) return true;
+		if (!(that instanceof ProblemStateImpl)) return false;
+		
+		ProblemStateImpl thatState = (ProblemStateImpl) that;
+		
+		return this.state == thatState.state; 
+	}
+	
+	@Override 
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	/* 
+	 * Note that sets may *never* call equals and therefore two distinct problem states with the
+	 * same local cost could be considered identical and therefore discarded.
+	 * 
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
+	 */
+	@Override
+	public int compareTo(ProblemState that) {
+		int result = Integer.valueOf(this.transformationCostCume).compareTo(that.getCumulativeTransformationCostFromInitialState());
+		result = (result == 0 && this.equals(that) == false) ? 1 : result;
+		return result;
+	}
+}
@@ -0,0 +1,61 @@
+package alouw.csc480.search.implementations;
+
+import java.util.Arrays;
+import alouw.csc480.search.interfaces.ClosedStateSet;
+import alouw.csc480.search.interfaces.ProblemState;
+
+/*
+ * Closed set for 8-Puzzle states: one bit per PermutationRank, i.e. a fixed 45 KB bitmap covering all 9! tile
+ * arrangements.
+ *
+ * Adding, testing and removing a state is a rank computation and a single word operation, never allocates and never
+ * resizes, so memory use is the same whether the search explores ten states or all of them.
+ */
+class RankedClosedStateSet implements ClosedStateSet {
+
+	private final long[] bits = new long[(PermutationRank.STATE_COUNT + Long.SIZE - 1) / Long.SIZE];
+	private int size;
+
+	@Override
+	public boolean add(ProblemState state) {
+		int rank = PermutationRank.getRank(state.getPackedEncoding());
+		long word = this.bits[rank >>> 6];
+		long bit = 1L << rank;
+
+		if ((word & bit) != 0) return false;
+
+		this.bits[rank >>> 6] = word | bit;
+		this.size++;
+		return true;
+	}
+
+	@Override
+	public boolean contains(ProblemState state) {
+		int rank = PermutationRank.getRank(state.getPackedEncoding());
+		return (this.bits[rank >>> 6] & (1L << rank)) != 0;
+	}
+
+	@Override
+	public boolean remove(ProblemState state) {
+		int rank = PermutationRank.getRank(state.getPackedEncoding());
+		long word = this.bits[rank >>> 6];
+		long bit = 1L << rank;
+
+		if ((word & bit) == 0) return false;
+
+		this.bits[rank >>> 6] = word & ~bit;
+		this.size--;
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public void clear() {
+		if (this.size > 0) Arrays.fill(this.bits, 0L);
+		this.size = 0;
+	}
+}
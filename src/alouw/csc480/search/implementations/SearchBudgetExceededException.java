@@ -0,0 +1,14 @@
+package alouw.csc480.search.implementations;
+
+/*
+ * Thrown from within a search function once the search has used up its node or time budget
+ * (see SearchParameters); SearchTree catches it and reports the search as unsuccessful.
+ */
+public class SearchBudgetExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public SearchBudgetExceededException(String message) {
+		super(message);
+	}
+}
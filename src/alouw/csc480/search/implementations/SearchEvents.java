@@ -0,0 +1,146 @@
+package alouw.csc480.search.implementations;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/*
+ * Java Flight Recorder events of the searches. SearchTree records one Search event per search; SearchStatsCollector
+ * records the ExpansionRate and FrontierCheckpoint samples while a search runs, and an Iteration event per bound of
+ * an iterative deepening search. Every event carries the searchId of its search, so a recording of many concurrent
+ * searches (e.g. a BatchSolver) can be taken apart again; see SearchRecordingAnalyzer.
+ *
+ * With no recording running, or with these events disabled in it, a search only pays for testing isEnabled on a
+ * short lived event object once per SearchStatsCollector checkpoint and once per iteration; the JIT turns the test
+ * into a read of a static flag and elides the allocation. None of the events take a stack trace.
+ */
+public final class SearchEvents {
+
+	public static final String SEARCH = "alouw.csc480.search.Search";
+	public static final String EXPANSION_RATE = "alouw.csc480.search.ExpansionRate";
+	public static final String FRONTIER_CHECKPOINT = "alouw.csc480.search.FrontierCheckpoint";
+	public static final String ITERATION = "alouw.csc480.search.Iteration";
+
+	// the shortest time between two samples of the same search
+	static final long SAMPLE_PERIOD_NANOS = 10_000_000;
+
+	private static final AtomicLong SEARCH_IDS = new AtomicLong();
+
+	private SearchEvents() {}
+
+	// a new id for every search of the JVM
+	static long nextSearchId() {
+		return SEARCH_IDS.incrementAndGet();
+	}
+
+	@Name(SEARCH)
+	@Label("Search")
+	@Category({"CSC480", "Search"})
+	@Description("One call of SearchTree.search, from start to end")
+	@StackTrace(false)
+	static final class SearchEvent extends Event {
+		@Label("Search Id")
+		long searchId;
+
+		@Label("Search Function")
+		String searchFunction;
+
+		@Label("Evaluation Function")
+		String evaluationFunction;
+
+		@Label("Initial State")
+		String initialState;
+
+		@Label("Goal State")
+		String goalState;
+
+		@Label("Solved")
+		boolean solved;
+
+		@Label("Budget Exceeded")
+		boolean budgetExceeded;
+
+		@Label("Solution Cost")
+		long solutionCost;
+
+		@Label("Solution Length")
+		long solutionLength;
+
+		@Label("Nodes Explored")
+		long nodesExplored;
+
+		@Label("Nodes Generated")
+		@Description("0 unless the search keeps detailed stats")
+		long nodesGenerated;
+
+		@Label("Max Queue Size")
+		long maxQueueSize;
+
+		@Label("Allocated")
+		@Description("Bytes allocated by the searching thread(s); -1 unless the search keeps detailed stats")
+		@DataAmount
+		long allocatedBytes;
+	}
+
+	@Name(EXPANSION_RATE)
+	@Label("Expansion Rate")
+	@Category({"CSC480", "Search"})
+	@Description("Nodes explored since the previous sample of the search")
+	@StackTrace(false)
+	static final class ExpansionRateEvent extends Event {
+		@Label("Search Id")
+		long searchId;
+
+		@Label("Nodes Explored")
+		@Description("Total so far")
+		long nodesExplored;
+
+		@Label("Interval Nodes")
+		long intervalNodes;
+
+		@Label("Nodes Per Second")
+		double nodesPerSecond;
+	}
+
+	@Name(FRONTIER_CHECKPOINT)
+	@Label("Frontier Checkpoint")
+	@Category({"CSC480", "Search"})
+	@Description("Size of the queue (the path for depth first searches) of the search")
+	@StackTrace(false)
+	static final class FrontierCheckpointEvent extends Event {
+		@Label("Search Id")
+		long searchId;
+
+		@Label("Nodes Explored")
+		long nodesExplored;
+
+		@Label("Queue Size")
+		long queueSize;
+
+		@Label("Max Queue Size")
+		long maxQueueSize;
+	}
+
+	@Name(ITERATION)
+	@Label("Iteration")
+	@Category({"CSC480", "Search"})
+	@Description("One cost or depth bound of an iterative deepening search")
+	@StackTrace(false)
+	static final class IterationEvent extends Event {
+		@Label("Search Id")
+		long searchId;
+
+		@Label("Bound")
+		long bound;
+
+		@Label("Nodes Explored")
+		@Description("By this iteration alone")
+		long nodesExplored;
+	}
+}
@@ -0,0 +1,268 @@
+package alouw.csc480.search.implementations;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import alouw.csc480.search.interfaces.FrontierTieBreak;
+
+/*
+ * Immutable set of tuning knobs handed to a search function.
+ * Each with* method returns a copy that differs only in the named setting; the copy is only ever changed before it is
+ * returned, so the fields are never written once a SearchParameters is visible to a search.
+ */
+public final class SearchParameters {
+
+	// budgets that are never exhausted
+	public static final long UNLIMITED = Long.MAX_VALUE;
+
+	// the smallest sort buffer that holds every successor of a state
+	public static final int MIN_SORT_BUFFER_SIZE = 16;
+
+	private static final SearchParameters DEFAULT_PARAMETERS = new SearchParameters();
+
+	// order in which best-first frontiers release nodes with equal f(n)
+	private FrontierTieBreak tieBreak = FrontierTieBreak.PREFER_HIGHER_G;
+
+	// # of threads parallel search functions spread the search over
+	private int workerCount = Runtime.getRuntime().availableProcessors();
+
+	// the search gives up once it has explored more nodes or run for longer than this
+	private long nodeBudget = UNLIMITED;
+	private long timeBudgetNanos = UNLIMITED;
+
+	// answers exact searches from earlier solutions; null if solutions are not cached
+	private SolutionCache solutionCache;
+
+	// whether searches record timing, throughput and allocation metrics; see SearchStatsCollector
+	private boolean detailedStats = true;
+
+	// the shortest time between two progress reports of a search; see SearchProgress
+	private long progressPeriodNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+	// anytime search starts at f(n) = g(n) + initialWeight * h(n) and lowers the weight by weightDecrement after every
+	// solution, down to 1
+	private double initialWeight = 2.5;
+	private double weightDecrement = 0.5;
+
+	// the most nodes memory bounded search keeps at once
+	private int storedNodeLimit = 1 << 20;
+
+	// beam search keeps the best beamWidth nodes of every depth, and doubles the width up to maxBeamWidth whenever the
+	// beam runs out of nodes
+	private int beamWidth = 64;
+	private int maxBeamWidth = 64;
+
+	// external memory search spills its layers into files under spillDirectory (null for java.io.tmpdir), sorting
+	// sortBufferSize states at a time in memory
+	private Path spillDirectory;
+	private int sortBufferSize = 1 << 20;
+
+	private SearchParameters() {}
+
+	private SearchParameters(SearchParameters other) {
+		this.tieBreak = other.tieBreak;
+		this.workerCount = other.workerCount;
+		this.nodeBudget = other.nodeBudget;
+		this.timeBudgetNanos = other.timeBudgetNanos;
+		this.solutionCache = other.solutionCache;
+		this.detailedStats = other.detailedStats;
+		this.progressPeriodNanos = other.progressPeriodNanos;
+		this.initialWeight = other.initialWeight;
+		this.weightDecrement = other.weightDecrement;
+		this.storedNodeLimit = other.storedNodeLimit;
+		this.beamWidth = other.beamWidth;
+		this.maxBeamWidth = other.maxBeamWidth;
+		this.spillDirectory = other.spillDirectory;
+		this.sortBufferSize = other.sortBufferSize;
+	}
+
+	public static SearchParameters getDefaultParameters() {
+		return DEFAULT_PARAMETERS;
+	}
+
+	public SearchParameters withTieBreak(FrontierTieBreak tieBreak) {
+		if (tieBreak == null) throw new IllegalArgumentException("FrontierTieBreak cannot be <null>");
+
+		SearchParameters result = new SearchParameters(this);
+		result.tieBreak = tieBreak;
+		return result;
+	}
+
+	public SearchParameters withWorkerCount(int workerCount) {
+		if (workerCount < 1) throw new IllegalArgumentException("Expected at least 1 worker; received " + workerCount);
+
+		SearchParameters result = new SearchParameters(this);
+		result.workerCount = workerCount;
+		return result;
+	}
+
+	public SearchParameters withNodeBudget(long nodeBudget) {
+		if (nodeBudget < 0) throw new IllegalArgumentException("Node budget cannot be negative; received " + nodeBudget);
+
+		SearchParameters result = new SearchParameters(this);
+		result.nodeBudget = nodeBudget;
+		return result;
+	}
+
+	public SearchParameters withTimeBudget(long duration, TimeUnit unit) {
+		long timeBudgetNanos = unit.toNanos(duration);
+		if (timeBudgetNanos < 0) throw new IllegalArgumentException("Time budget cannot be negative; received " + timeBudgetNanos);
+
+		SearchParameters result = new SearchParameters(this);
+		result.timeBudgetNanos = timeBudgetNanos;
+		return result;
+	}
+
+	// a cache shared by every search run with the parameters; null to stop caching
+	public SearchParameters withSolutionCache(SolutionCache solutionCache) {
+		SearchParameters result = new SearchParameters(this);
+		result.solutionCache = solutionCache;
+		return result;
+	}
+
+	// false leaves only the solution, node count and queue size statistics, which cost nothing to keep
+	public SearchParameters withDetailedStats(boolean detailedStats) {
+		SearchParameters result = new SearchParameters(this);
+		result.detailedStats = detailedStats;
+		return result;
+	}
+
+	// how often a search reports its progress to the listeners of its SearchTree
+	public SearchParameters withProgressPeriod(long duration, TimeUnit unit) {
+		long progressPeriodNanos = unit.toNanos(duration);
+		if (progressPeriodNanos < 0) throw new IllegalArgumentException("Progress period cannot be negative; received " + progressPeriodNanos);
+
+		SearchParameters result = new SearchParameters(this);
+		result.progressPeriodNanos = progressPeriodNanos;
+		return result;
+	}
+
+	// the weights of anytime search; see SearchFunction.ANYTIME_ASTAR
+	public SearchParameters withAnytimeWeights(double initialWeight, double weightDecrement) {
+		if (!(initialWeight >= 1)) throw new IllegalArgumentException("Expected an initial weight of at least 1; received " + initialWeight);
+		if (!(weightDecrement > 0)) throw new IllegalArgumentException("Expected a positive weight decrement; received " + weightDecrement);
+
+		SearchParameters result = new SearchParameters(this);
+		result.initialWeight = initialWeight;
+		result.weightDecrement = weightDecrement;
+		return result;
+	}
+
+	// the memory bound of memory bounded search; see SearchFunction.SMASTAR
+	public SearchParameters withStoredNodeLimit(int storedNodeLimit) {
+		if (storedNodeLimit < 2) throw new IllegalArgumentException("Expected a limit of at least 2 stored nodes; received " + storedNodeLimit);
+
+		SearchParameters result = new SearchParameters(this);
+		result.storedNodeLimit = storedNodeLimit;
+		return result;
+	}
+
+	// the widths of beam search; see SearchFunction.BEAM
+	public SearchParameters withBeamWidth(int beamWidth) {
+		return this.withBeamWidth(beamWidth, beamWidth);
+	}
+
+	public SearchParameters withBeamWidth(int beamWidth, int maxBeamWidth) {
+		if (beamWidth < 1) throw new IllegalArgumentException("Expected a beam width of at least 1; received " + beamWidth);
+		if (maxBeamWidth < beamWidth) throw new IllegalArgumentException("Expected a maximum beam width of at least " + beamWidth + "; received " + maxBeamWidth);
+
+		SearchParameters result = new SearchParameters(this);
+		result.beamWidth = beamWidth;
+		result.maxBeamWidth = maxBeamWidth;
+		return result;
+	}
+
+	// where external memory search keeps its files; see SearchFunction.EXTERNAL_BREADTH_FIRST
+	public SearchParameters withSpillDirectory(Path spillDirectory) {
+		SearchParameters result = new SearchParameters(this);
+		result.spillDirectory = spillDirectory;
+		return result;
+	}
+
+	// the # of states external memory search sorts in memory before writing them out
+	public SearchParameters withSortBufferSize(int sortBufferSize) {
+		if (sortBufferSize < MIN_SORT_BUFFER_SIZE) throw new IllegalArgumentException("Expected a sort buffer of at least " + MIN_SORT_BUFFER_SIZE + " states; received " + sortBufferSize);
+
+		SearchParameters result = new SearchParameters(this);
+		result.sortBufferSize = sortBufferSize;
+		return result;
+	}
+
+	public FrontierTieBreak getTieBreak() {
+		return this.tieBreak;
+	}
+
+	public int getWorkerCount() {
+		return this.workerCount;
+	}
+
+	public long getNodeBudget() {
+		return this.nodeBudget;
+	}
+
+	public long getTimeBudgetNanos() {
+		return this.timeBudgetNanos;
+	}
+
+	public Optional<SolutionCache> getSolutionCache() {
+		return Optional.ofNullable(this.solutionCache);
+	}
+
+	public boolean isDetailedStats() {
+		return this.detailedStats;
+	}
+
+	public long getProgressPeriodNanos() {
+		return this.progressPeriodNanos;
+	}
+
+	public double getInitialWeight() {
+		return this.initialWeight;
+	}
+
+	public double getWeightDecrement() {
+		return this.weightDecrement;
+	}
+
+	public int getStoredNodeLimit() {
+		return this.storedNodeLimit;
+	}
+
+	public int getBeamWidth() {
+		return this.beamWidth;
+	}
+
+	public int getMaxBeamWidth() {
+		return this.maxBeamWidth;
+	}
+
+	public Optional<Path> getSpillDirectory() {
+		return Optional.ofNullable(this.spillDirectory);
+	}
+
+	public int getSortBufferSize() {
+		return this.sortBufferSize;
+	}
+
+	// the System.nanoTime() after which a search started at startNanos is out of time; UNLIMITED if never
+	long getDeadline(long startNanos) {
+		if (this.timeBudgetNanos == UNLIMITED) return UNLIMITED;
+		long result = startNanos + this.timeBudgetNanos;
+		return (result < startNanos) ? UNLIMITED : result;
+	}
+
+	public String toString() {
+		return "Tie break: " + this.tieBreak + " ; Workers: " + this.workerCount +
+			   " ; Node budget: " + ((this.nodeBudget == UNLIMITED) ? "none" : String.valueOf(this.nodeBudget)) +
+			   " ; Time budget: " + ((this.timeBudgetNanos == UNLIMITED) ? "none" : this.timeBudgetNanos + "ns") +
+			   " ; Solution cache: " + ((this.solutionCache == null) ? "none" : this.solutionCache.toString()) +
+			   " ; Detailed stats: " + this.detailedStats +
+			   " ; Progress period: " + this.progressPeriodNanos + "ns" +
+			   " ; Weights: " + this.initialWeight + " - " + this.weightDecrement +
+			   " ; Stored node limit: " + this.storedNodeLimit +
+			   " ; Beam width: " + this.beamWidth + " - " + this.maxBeamWidth +
+			   " ; Spill directory: " + ((this.spillDirectory == null) ? "default" : this.spillDirectory.toString()) +
+			   " ; Sort buffer: " + this.sortBufferSize;
+	}
+}
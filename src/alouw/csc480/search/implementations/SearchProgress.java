@@ -0,0 +1,107 @@
+package alouw.csc480.search.implementations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import alouw.csc480.search.interfaces.ProblemState;
+
+/*
+ * Immutable progress report of a running search, handed to the SearchProgressListeners of its SearchTree.
+ *
+ * Reports are coalesced: a search reports at most once per progress period of its SearchParameters, and a listener
+ * delivered to through an Executor only sees the latest report if it falls behind. The last report of every search
+ * is the final one (isFinal), which carries the outcome and is never dropped. Anytime searches also report every
+ * better solution they find as soon as they find it, with its path.
+ *
+ * A value the search function does not track is UNKNOWN.
+ */
+public final class SearchProgress {
+
+	public static final long UNKNOWN = -1;
+
+	// the suboptimality bound of a solution that carries no guarantee
+	public static final double NO_BOUND = Double.POSITIVE_INFINITY;
+
+	private final long searchId;
+	private final long elapsedNanos;
+	private final long nodesExplored;
+	private final long bound;
+	private final long frontierSize;
+	private final long maxFrontierSize;
+	private final long bestSolutionCost;
+	private final double suboptimalityBound;
+	private final List<ProblemState> solutionPath;
+	private final boolean finalReport;
+	private final boolean solved;
+	private final boolean budgetExceeded;
+
+	SearchProgress(long searchId, long elapsedNanos, long nodesExplored, long bound, long frontierSize, long maxFrontierSize,
+			long bestSolutionCost, double suboptimalityBound, List<ProblemState> solutionPath, boolean finalReport, 
+			boolean solved, boolean budgetExceeded) {
+		this.searchId = searchId;
+		this.elapsedNanos = elapsedNanos;
+		this.nodesExplored = nodesExplored;
+		this.bound = bound;
+		this.frontierSize = frontierSize;
+		this.maxFrontierSize = maxFrontierSize;
+		this.bestSolutionCost = bestSolutionCost;
+		this.suboptimalityBound = suboptimalityBound;
+		this.solutionPath = (solutionPath == null) ? null : Collections.unmodifiableList(solutionPath);
+		this.finalReport = finalReport;
+		this.solved = solved;
+		this.budgetExceeded = budgetExceeded;
+	}
+
+	// the search the report is about; the same id as in the flight recorder events of SearchEvents
+	public long getSearchId() {return this.searchId;}
+
+	// time since the search started
+	public long getElapsedNanos() {return this.elapsedNanos;}
+
+	public long getNodesExplored() {return this.nodesExplored;}
+
+	/*
+	 * How far the search has got: the f(n) of the nodes being expanded by best-first searches, the cost or depth
+	 * bound of the current iteration of iterative deepening, the depth of the node being expanded by breadth and
+	 * depth first search, the lower bound on the cost of a meeting of bidirectional search
+	 */
+	public long getBound() {return this.bound;}
+
+	// the size of the queue (the path for iterative deepening) as of the report, and its peak so far
+	public long getFrontierSize() {return this.frontierSize;}
+	public long getMaxFrontierSize() {return this.maxFrontierSize;}
+
+	// the cost of the cheapest path to the goal found so far; UNKNOWN until the search has found one
+	public long getBestSolutionCost() {return this.bestSolutionCost;}
+
+	/*
+	 * The best solution costs at most this many times the cheapest solution: the current weight bound of anytime
+	 * search (given an admissible heuristic), 1 for the solution of an exact search, NO_BOUND if unknown
+	 */
+	public double getSuboptimalityBound() {return this.suboptimalityBound;}
+
+	// the states of the better solution this report announces, initial state first; empty on every other report
+	public Optional<List<ProblemState>> getSolutionPath() {return Optional.ofNullable(this.solutionPath);}
+
+	// true for the last report of a search, sent once search() is done
+	public boolean isFinal() {return this.finalReport;}
+	public boolean isSolved() {return this.solved;}
+	public boolean isBudgetExceeded() {return this.budgetExceeded;}
+
+	public String toString() {
+		StringBuilder stringValue = new StringBuilder();
+		stringValue.append("Search #").append(this.searchId).append(this.finalReport ? " finished" : " running");
+		stringValue.append(String.format(" after %.3fms :: ", this.elapsedNanos / 1e6));
+		stringValue.append("Explored = ").append(this.nodesExplored).append(" ; ");
+		stringValue.append("Bound = ").append((this.bound == UNKNOWN) ? "?" : String.valueOf(this.bound)).append(" ; ");
+		stringValue.append("Frontier = ").append((this.frontierSize == UNKNOWN) ? "?" : String.valueOf(this.frontierSize)).append(" ; ");
+		stringValue.append("Best cost = ").append((this.bestSolutionCost == UNKNOWN) ? "none" : String.valueOf(this.bestSolutionCost));
+		if (this.suboptimalityBound != NO_BOUND) stringValue.append(String.format(" (<= %.3f x optimal)", this.suboptimalityBound));
+
+		if (this.finalReport)
+			stringValue.append(" ; ").append(this.solved ? "Solved" : (this.budgetExceeded ? "Budget exceeded" : "Not solved"));
+
+		return stringValue.toString();
+	}
+}
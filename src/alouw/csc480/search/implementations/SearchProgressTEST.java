@@ -0,0 +1,165 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+
+public class SearchProgressTEST {
+
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	private static SearchTree getTree(SearchFunction searchFunction, EvaluationFunction evalFunction, SearchParameters parameters) {
+		ProblemState initialState = ProblemStateFactory.getNewProblemState(HARD_INITIAL_STATE, ProblemTransformationOperation.NONE);
+		return new SearchTree(searchFunction, evalFunction, initialState, goalState, parameters);
+	}
+
+	/*
+	 * Reports on the searching thread track the search, and end with one final report of the outcome
+	 */
+	@Test
+	public void testProgressReports() {
+		SearchTree tree = getTree(SearchFunction.UNIFORM_COST, EvaluationFunction.CUME_COST,
+				SearchParameters.getDefaultParameters().withProgressPeriod(0, TimeUnit.MILLISECONDS));
+		List<SearchProgress> reports = new ArrayList<>();
+		tree.addProgressListener(reports::add);
+		Assert.assertTrue(tree.search());
+
+		// with no period, every checkpoint reports
+		Assert.assertTrue(reports.size() > 100);
+		SearchProgress finalReport = reports.get(reports.size() - 1);
+		Assert.assertTrue(finalReport.isFinal());
+		Assert.assertTrue(finalReport.isSolved());
+		Assert.assertFalse(finalReport.isBudgetExceeded());
+		Assert.assertEquals(128, finalReport.getBestSolutionCost());
+		Assert.assertEquals(128, finalReport.getBound());
+		Assert.assertEquals(tree.getStatsCollector().getNodesExplored(), finalReport.getNodesExplored());
+		Assert.assertEquals(tree.getStatsCollector().getMaxQueueSize(), finalReport.getMaxFrontierSize());
+
+		// f(n) = g(n) never decreases along the frontier of uniform cost search
+		for (int index = 0; index < reports.size(); index++) {
+			SearchProgress report = reports.get(index);
+			Assert.assertEquals(tree.getStatsCollector().getSearchId(), report.getSearchId());
+			Assert.assertEquals(index == reports.size() - 1, report.isFinal());
+			if (index == 0) continue;
+
+			SearchProgress previousReport = reports.get(index - 1);
+			Assert.assertTrue(report.getNodesExplored() > previousReport.getNodesExplored());
+			Assert.assertTrue(report.getElapsedNanos() >= previousReport.getElapsedNanos());
+			Assert.assertTrue(report.getBound() >= previousReport.getBound());
+			Assert.assertTrue(report.getFrontierSize() > 0 && report.getFrontierSize() <= report.getMaxFrontierSize());
+		}
+	}
+
+	/*
+	 * A slow listener on an executor only sees the latest reports, one at a time and in order, and always the final one
+	 */
+	@Test
+	public void testCoalescedDelivery() throws InterruptedException {
+		SearchTree tree = getTree(SearchFunction.UNIFORM_COST, EvaluationFunction.CUME_COST,
+				SearchParameters.getDefaultParameters().withProgressPeriod(0, TimeUnit.MILLISECONDS));
+		AtomicInteger reportCount = new AtomicInteger();
+		tree.addProgressListener(x -> reportCount.incrementAndGet());
+
+		List<SearchProgress> reports = new CopyOnWriteArrayList<>();
+		AtomicInteger concurrentCalls = new AtomicInteger();
+		CountDownLatch finished = new CountDownLatch(1);
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			tree.addProgressListener(x -> {
+				if (concurrentCalls.incrementAndGet() != 1) Assert.fail();
+				reports.add(x);
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				concurrentCalls.decrementAndGet();
+				if (x.isFinal()) finished.countDown();
+			}, executor);
+
+			Assert.assertTrue(tree.search());
+			Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdown();
+		}
+
+		Assert.assertTrue(reports.size() < reportCount.get());
+		Assert.assertTrue(reports.get(reports.size() - 1).isFinal());
+		for (int index = 1; index < reports.size(); index++)
+			Assert.assertTrue(reports.get(index).getNodesExplored() > reports.get(index - 1).getNodesExplored());
+	}
+
+	/*
+	 * A rejected delivery or a listener that throws drops the report, not the later ones, and never fails the search
+	 */
+	@Test
+	public void testFailedDelivery() {
+		SearchTree tree = getTree(SearchFunction.UNIFORM_COST, EvaluationFunction.CUME_COST,
+				SearchParameters.getDefaultParameters().withProgressPeriod(0, TimeUnit.MILLISECONDS));
+		AtomicInteger rejections = new AtomicInteger();
+		List<SearchProgress> reports = new ArrayList<>();
+		tree.addProgressListener(reports::add, x -> {
+			if (rejections.getAndIncrement() < 3) throw new RejectedExecutionException();
+			x.run();
+		});
+		tree.addProgressListener(x -> {throw new IllegalStateException();}, Runnable::run);
+
+		Assert.assertTrue(tree.search());
+		Assert.assertTrue(reports.size() > 100);
+		Assert.assertTrue(reports.get(reports.size() - 1).isFinal());
+	}
+
+	/*
+	 * Parallel search reports the shared counts of its workers, and the search that ran out of budget says so
+	 */
+	@Test
+	public void testParallelAndBudgetedReports() {
+		SearchTree tree = getTree(SearchFunction.PARALLEL_ASTAR, EvaluationFunction.ASTAR_2,
+				SearchParameters.getDefaultParameters().withWorkerCount(4).withProgressPeriod(1, TimeUnit.MILLISECONDS));
+		List<SearchProgress> reports = new ArrayList<>();
+		tree.addProgressListener(reports::add);
+		Assert.assertTrue(tree.search());
+
+		SearchProgress finalReport = reports.get(reports.size() - 1);
+		Assert.assertTrue(finalReport.isSolved());
+		Assert.assertEquals(128, finalReport.getBestSolutionCost());
+		for (SearchProgress report : reports.subList(0, reports.size() - 1)) {
+			Assert.assertEquals(SearchProgress.UNKNOWN, report.getFrontierSize());
+			Assert.assertTrue(report.getBestSolutionCost() == SearchProgress.UNKNOWN || report.getBestSolutionCost() >= 128);
+		}
+
+		tree = getTree(SearchFunction.ASTAR, EvaluationFunction.ASTAR_2, SearchParameters.getDefaultParameters().withNodeBudget(1000));
+		reports.clear();
+		tree.addProgressListener(reports::add);
+		Assert.assertFalse(tree.search());
+
+		Assert.assertEquals(1, reports.size());
+		Assert.assertTrue(reports.get(0).isFinal());
+		Assert.assertTrue(reports.get(0).isBudgetExceeded());
+		Assert.assertFalse(reports.get(0).isSolved());
+		Assert.assertEquals(SearchProgress.UNKNOWN, reports.get(0).getBestSolutionCost());
+
+		try {
+			SearchParameters.getDefaultParameters().withProgressPeriod(-1, TimeUnit.MILLISECONDS);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {}
+	}
+}
@@ -0,0 +1,311 @@
+package alouw.csc480.search.implementations;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/*
+ * Summarizes a flight recording (.jfr file) per search: the Search event of each search together with its
+ * ExpansionRate, FrontierCheckpoint and Iteration events (see SearchEvents), the garbage collections that ran during
+ * the search, and the method profiling samples (jdk.ExecutionSample) of the searching thread during the search,
+ * split into the phases of a search by the innermost frame that belongs to one.
+ *
+ * The samples of the worker threads of a parallel search are not attributed to it. A search still running when the
+ * recording was dumped has no Search event and is left out.
+ *
+ * Usage: SearchRecordingAnalyzer recording.jfr
+ * A recording with the profiling samples is taken with e.g.
+ *	java -XX:StartFlightRecording=settings=profile,filename=recording.jfr ...
+ */
+public final class SearchRecordingAnalyzer {
+
+	// where a profiling sample spent its time
+	public enum Phase {
+		HEURISTIC,
+		DUPLICATE_DETECTION,
+		FRONTIER,
+		SUCCESSOR_GENERATION,
+		OTHER
+	}
+
+	// the phase of a frame, by method name first, then by class name without its package and nested class names
+	private static final Map<String, Phase> METHOD_PHASES = new HashMap<>();
+	private static final Map<String, Phase> CLASS_PHASES = new HashMap<>();
+
+	static {
+		METHOD_PHASES.put("getExpectedTransformationCostToGoalState", Phase.HEURISTIC);
+		METHOD_PHASES.put("forEachSuccessorState", Phase.SUCCESSOR_GENERATION);
+		METHOD_PHASES.put("applyTransformation", Phase.SUCCESSOR_GENERATION);
+		METHOD_PHASES.put("forEachChild", Phase.SUCCESSOR_GENERATION);
+		METHOD_PHASES.put("getChildrenNodes", Phase.SUCCESSOR_GENERATION);
+
+		for (String name : new String[] {"EvaluationFunction", "GoalIndex", "BoardGoalIndex", "PatternDatabase"})
+			CLASS_PHASES.put(name, Phase.HEURISTIC);
+		for (String name : new String[] {"PackedClosedStateSet", "RankedClosedStateSet", "HashClosedStateSet", "PermutationRank",
+				"PackedStateHandleIndex", "HashStateHandleIndex"})
+			CLASS_PHASES.put(name, Phase.DUPLICATE_DETECTION);
+		for (String name : new String[] {"BucketPriorityQueue", "PriorityQueue", "PriorityBlockingQueue", "ArrayDeque"})
+			CLASS_PHASES.put(name, Phase.FRONTIER);
+		for (String name : new String[] {"SuccessorBuffer", "TreeNodeFactory", "NodeArena"})
+			CLASS_PHASES.put(name, Phase.SUCCESSOR_GENERATION);
+	}
+
+	private SearchRecordingAnalyzer() {}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: SearchRecordingAnalyzer <recording.jfr>");
+			System.exit(2);
+		}
+
+		List<SearchSummary> summaries = SearchRecordingAnalyzer.analyze(Paths.get(args[0]));
+		if (summaries.isEmpty()) System.out.println("No searches recorded");
+		for (SearchSummary summary : summaries) System.out.println(summary);
+	}
+
+	/*
+	 * The searches of the recording, in the order they started
+	 */
+	public static List<SearchSummary> analyze(Path recording) throws IOException {
+		Map<Long, SearchSummary> searches = new HashMap<>();
+		List<RecordedEvent> searchEvents = new ArrayList<>();
+		List<RecordedEvent> otherEvents = new ArrayList<>();
+		List<RecordedEvent> garbageCollections = new ArrayList<>();
+		List<RecordedEvent> executionSamples = new ArrayList<>();
+
+		try (RecordingFile file = new RecordingFile(recording)) {
+			while (file.hasMoreEvents()) {
+				RecordedEvent event = file.readEvent();
+				switch (event.getEventType().getName()) {
+					case SearchEvents.SEARCH: searchEvents.add(event); break;
+					case SearchEvents.EXPANSION_RATE:
+					case SearchEvents.FRONTIER_CHECKPOINT:
+					case SearchEvents.ITERATION: otherEvents.add(event); break;
+					case "jdk.GarbageCollection": garbageCollections.add(event); break;
+					case "jdk.ExecutionSample": executionSamples.add(event); break;
+					default: break;
+				}
+			}
+		}
+
+		for (RecordedEvent event : searchEvents) searches.put(event.getLong("searchId"), new SearchSummary(event));
+
+		otherEvents.sort(Comparator.comparing(RecordedEvent::getStartTime));
+		for (RecordedEvent event : otherEvents) {
+			SearchSummary summary = searches.get(event.getLong("searchId"));
+			if (summary != null) summary.add(event);
+		}
+
+		List<SearchSummary> result = new ArrayList<>(searches.values());
+		result.sort(Comparator.comparing(SearchSummary::getStartTime));
+
+		for (SearchSummary summary : result) {
+			for (RecordedEvent event : garbageCollections)
+				if (summary.isDuring(event.getStartTime())) summary.addGarbageCollection(event.getDuration("sumOfPauses"));
+
+			for (RecordedEvent event : executionSamples) {
+				RecordedThread thread = event.getThread("sampledThread");
+				if (thread != null && thread.getJavaThreadId() == summary.threadId && summary.isDuring(event.getStartTime()))
+					summary.addSample(SearchRecordingAnalyzer.getPhase(event.getStackTrace()));
+			}
+		}
+
+		return result;
+	}
+
+	// the phase of the innermost frame that belongs to one
+	static Phase getPhase(RecordedStackTrace stackTrace) {
+		if (stackTrace == null) return Phase.OTHER;
+
+		for (RecordedFrame frame : stackTrace.getFrames()) {
+			if (frame.getMethod() == null) continue;
+
+			Phase phase = METHOD_PHASES.get(frame.getMethod().getName());
+			if (phase == null) phase = CLASS_PHASES.get(SearchRecordingAnalyzer.getSimpleClassName(frame.getMethod().getType().getName()));
+			if (phase != null) return phase;
+		}
+		return Phase.OTHER;
+	}
+
+	// alouw.csc480.search.interfaces.EvaluationFunction$3 -> EvaluationFunction
+	private static String getSimpleClassName(String className) {
+		String result = className.substring(className.lastIndexOf('.') + 1);
+		int nested = result.indexOf('$');
+		return (nested < 0) ? result : result.substring(0, nested);
+	}
+
+	/*
+	 * One bound of an iterative deepening search
+	 */
+	public static final class Iteration {
+		private final long bound;
+		private final long nodesExplored;
+		private final Duration duration;
+
+		Iteration(long bound, long nodesExplored, Duration duration) {
+			this.bound = bound;
+			this.nodesExplored = nodesExplored;
+			this.duration = duration;
+		}
+
+		public long getBound() {return this.bound;}
+		public long getNodesExplored() {return this.nodesExplored;}
+		public Duration getDuration() {return this.duration;}
+	}
+
+	/*
+	 * Everything the recording holds about one search
+	 */
+	public static final class SearchSummary {
+		private final long searchId;
+		private final long threadId;
+		private final String threadName;
+		private final Instant startTime;
+		private final Instant endTime;
+		private final String searchFunction;
+		private final String evaluationFunction;
+		private final String initialState;
+		private final boolean solved;
+		private final boolean budgetExceeded;
+		private final long solutionCost;
+		private final long solutionLength;
+		private final long nodesExplored;
+		private final long maxQueueSize;
+		private final long allocatedBytes;
+
+		private final List<Double> expansionRates = new ArrayList<>();
+		private final List<Long> frontierSizes = new ArrayList<>();
+		private final List<Iteration> iterations = new ArrayList<>();
+		private int garbageCollectionCount;
+		private Duration garbageCollectionPauses = Duration.ZERO;
+		private final EnumMap<Phase, Long> phaseSamples = new EnumMap<>(Phase.class);
+
+		SearchSummary(RecordedEvent event) {
+			RecordedThread thread = event.getThread();
+
+			this.searchId = event.getLong("searchId");
+			this.threadId = (thread == null) ? -1 : thread.getJavaThreadId();
+			this.threadName = (thread == null) ? "?" : thread.getJavaName();
+			this.startTime = event.getStartTime();
+			this.endTime = event.getEndTime();
+			this.searchFunction = event.getString("searchFunction");
+			this.evaluationFunction = event.getString("evaluationFunction");
+			this.initialState = event.getString("initialState");
+			this.solved = event.getBoolean("solved");
+			this.budgetExceeded = event.getBoolean("budgetExceeded");
+			this.solutionCost = event.getLong("solutionCost");
+			this.solutionLength = event.getLong("solutionLength");
+			this.nodesExplored = event.getLong("nodesExplored");
+			this.maxQueueSize = event.getLong("maxQueueSize");
+			this.allocatedBytes = event.getLong("allocatedBytes");
+		}
+
+		private void add(RecordedEvent event) {
+			switch (event.getEventType().getName()) {
+				case SearchEvents.EXPANSION_RATE: this.expansionRates.add(event.getDouble("nodesPerSecond")); break;
+				case SearchEvents.FRONTIER_CHECKPOINT: this.frontierSizes.add(event.getLong("queueSize")); break;
+				case SearchEvents.ITERATION:
+					this.iterations.add(new Iteration(event.getLong("bound"), event.getLong("nodesExplored"), event.getDuration()));
+					break;
+				default: break;
+			}
+		}
+
+		private boolean isDuring(Instant time) {
+			return !time.isBefore(this.startTime) && !time.isAfter(this.endTime);
+		}
+
+		private void addGarbageCollection(Duration pauses) {
+			this.garbageCollectionCount++;
+			this.garbageCollectionPauses = this.garbageCollectionPauses.plus(pauses);
+		}
+
+		private void addSample(Phase phase) {
+			this.phaseSamples.merge(phase, 1L, Long::sum);
+		}
+
+		public long getSearchId() {return this.searchId;}
+		public String getThreadName() {return this.threadName;}
+		public Instant getStartTime() {return this.startTime;}
+		public Duration getDuration() {return Duration.between(this.startTime, this.endTime);}
+		public String getSearchFunction() {return this.searchFunction;}
+		public String getEvaluationFunction() {return this.evaluationFunction;}
+		public String getInitialState() {return this.initialState;}
+		public boolean isSolved() {return this.solved;}
+		public boolean isBudgetExceeded() {return this.budgetExceeded;}
+		public long getSolutionCost() {return this.solutionCost;}
+		public long getSolutionLength() {return this.solutionLength;}
+		public long getNodesExplored() {return this.nodesExplored;}
+		public long getMaxQueueSize() {return this.maxQueueSize;}
+		public long getAllocatedBytes() {return this.allocatedBytes;}
+		public List<Double> getExpansionRates() {return Collections.unmodifiableList(this.expansionRates);}
+		public List<Long> getFrontierSizes() {return Collections.unmodifiableList(this.frontierSizes);}
+		public List<Iteration> getIterations() {return Collections.unmodifiableList(this.iterations);}
+		public int getGarbageCollectionCount() {return this.garbageCollectionCount;}
+		public Duration getGarbageCollectionPauses() {return this.garbageCollectionPauses;}
+
+		// # of profiling samples of the searching thread per phase
+		public Map<Phase, Long> getPhaseSamples() {return Collections.unmodifiableMap(this.phaseSamples);}
+
+		public String toString() {
+			StringBuilder stringValue = new StringBuilder();
+			stringValue.append("Search #").append(this.searchId).append(" on ").append(this.threadName).append(" : ");
+			stringValue.append(this.searchFunction).append(" using f(n)= ").append(this.evaluationFunction);
+			stringValue.append(" from ").append(this.initialState).append(" ; ");
+			stringValue.append(String.format("%.3fms", this.getDuration().toNanos() / 1e6)).append("\n");
+
+			stringValue.append("  ").append(this.solved ? "Solved" : (this.budgetExceeded ? "Budget exceeded" : "Not solved"));
+			stringValue.append(" :: Length = ").append(this.solutionLength);
+			stringValue.append(" ; Cost = ").append(this.solutionCost);
+			stringValue.append(" ; Explored = ").append(this.nodesExplored);
+			stringValue.append(" ; Max queue = ").append(this.maxQueueSize);
+			if (this.allocatedBytes != SearchStatsCollector.UNAVAILABLE) stringValue.append(" ; Allocated = ").append(this.allocatedBytes).append("B");
+			stringValue.append("\n");
+
+			if (!this.expansionRates.isEmpty()) {
+				double sum = 0;
+				for (double rate : this.expansionRates) sum += rate;
+				stringValue.append(String.format("  Expansion rate :: %d samples ; min %.0f/s ; mean %.0f/s ; max %.0f/s%n",
+						this.expansionRates.size(), Collections.min(this.expansionRates), sum / this.expansionRates.size(),
+						Collections.max(this.expansionRates)));
+			}
+
+			if (!this.frontierSizes.isEmpty()) {
+				stringValue.append("  Frontier :: ").append(this.frontierSizes.size()).append(" checkpoints ; last ");
+				stringValue.append(this.frontierSizes.get(this.frontierSizes.size() - 1)).append(" ; peak ");
+				stringValue.append(Collections.max(this.frontierSizes)).append("\n");
+			}
+
+			for (Iteration iteration : this.iterations) {
+				stringValue.append("  Iteration :: Bound = ").append(iteration.bound).append(" ; Explored = ").append(iteration.nodesExplored);
+				stringValue.append(String.format(" ; %.3fms%n", iteration.duration.toNanos() / 1e6));
+			}
+
+			stringValue.append("  GC :: ").append(this.garbageCollectionCount).append(" collections ; ");
+			stringValue.append(String.format("%.3fms paused%n", this.garbageCollectionPauses.toNanos() / 1e6));
+
+			long sampleCount = 0;
+			for (long count : this.phaseSamples.values()) sampleCount += count;
+			stringValue.append("  Profile :: ").append(sampleCount).append(" samples");
+			for (Map.Entry<Phase, Long> entry : this.phaseSamples.entrySet())
+				stringValue.append(String.format(" ; %s %.1f%%", entry.getKey(), 100.0 * entry.getValue() / sampleCount));
+
+			return stringValue.toString();
+		}
+	}
+}
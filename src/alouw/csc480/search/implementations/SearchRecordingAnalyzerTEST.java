@@ -0,0 +1,113 @@
+package alouw.csc480.search.implementations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import jdk.jfr.Recording;
+
+public class SearchRecordingAnalyzerTEST {
+
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	private static SearchTree solve(SearchFunction searchFunction, EvaluationFunction evalFunction) {
+		ProblemState initialState = ProblemStateFactory.getNewProblemState(HARD_INITIAL_STATE, ProblemTransformationOperation.NONE);
+		SearchTree tree = new SearchTree(searchFunction, evalFunction, initialState, goalState);
+
+		Assert.assertTrue(tree.search());
+		return tree;
+	}
+
+	/*
+	 * Every search of a recording is summarized with its own samples and iterations
+	 */
+	@Test
+	public void testRecordingSummaries() throws IOException {
+		Path file = Files.createTempFile("search", ".jfr");
+		SearchTree idaTree;
+		SearchTree uniformCostTree;
+
+		try (Recording recording = new Recording()) {
+			recording.enable(SearchEvents.SEARCH);
+			recording.enable(SearchEvents.EXPANSION_RATE);
+			recording.enable(SearchEvents.FRONTIER_CHECKPOINT);
+			recording.enable(SearchEvents.ITERATION);
+			recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+			recording.start();
+
+			idaTree = solve(SearchFunction.IDA, EvaluationFunction.ASTAR_3);
+			uniformCostTree = solve(SearchFunction.UNIFORM_COST, EvaluationFunction.CUME_COST);
+
+			recording.stop();
+			recording.dump(file);
+		}
+
+		List<SearchRecordingAnalyzer.SearchSummary> summaries;
+		try {
+			summaries = SearchRecordingAnalyzer.analyze(file);
+		} finally {
+			Files.delete(file);
+		}
+		Assert.assertEquals(2, summaries.size());
+
+		SearchRecordingAnalyzer.SearchSummary idaSummary = summaries.get(0);
+		Assert.assertEquals("IDA", idaSummary.getSearchFunction());
+		Assert.assertEquals("ASTAR_3", idaSummary.getEvaluationFunction());
+		Assert.assertEquals(HARD_INITIAL_STATE, idaSummary.getInitialState());
+		Assert.assertTrue(idaSummary.isSolved());
+		Assert.assertEquals(128, idaSummary.getSolutionCost());
+		Assert.assertEquals(30, idaSummary.getSolutionLength());
+		Assert.assertEquals(idaTree.getStatsCollector().getNodesExplored(), idaSummary.getNodesExplored());
+
+		// the bounds grow up to the cost of the solution, and the iterations explored every node between them
+		List<SearchRecordingAnalyzer.Iteration> iterations = idaSummary.getIterations();
+		Assert.assertTrue(iterations.size() > 1);
+		Assert.assertEquals(128, iterations.get(iterations.size() - 1).getBound());
+		long nodesExplored = 0;
+		for (int index = 0; index < iterations.size(); index++) {
+			if (index > 0) Assert.assertTrue(iterations.get(index).getBound() > iterations.get(index - 1).getBound());
+			nodesExplored += iterations.get(index).getNodesExplored();
+		}
+		Assert.assertEquals(idaSummary.getNodesExplored(), nodesExplored);
+
+		SearchRecordingAnalyzer.SearchSummary uniformCostSummary = summaries.get(1);
+		Assert.assertEquals("UNIFORM_COST", uniformCostSummary.getSearchFunction());
+		Assert.assertTrue(uniformCostSummary.getSearchId() > idaSummary.getSearchId());
+		Assert.assertEquals(uniformCostTree.getStatsCollector().getNodesExplored(), uniformCostSummary.getNodesExplored());
+		Assert.assertEquals(uniformCostTree.getStatsCollector().getSnapshot().getAllocatedBytes(), uniformCostSummary.getAllocatedBytes());
+		Assert.assertTrue(uniformCostSummary.getIterations().isEmpty());
+
+		// sampled at most once per period, and never past the peak of the queue
+		long samplePeriods = uniformCostSummary.getDuration().toNanos() / SearchEvents.SAMPLE_PERIOD_NANOS;
+		Assert.assertTrue(uniformCostSummary.getExpansionRates().size() > 0);
+		Assert.assertTrue(uniformCostSummary.getExpansionRates().size() <= samplePeriods);
+		Assert.assertEquals(uniformCostSummary.getExpansionRates().size(), uniformCostSummary.getFrontierSizes().size());
+		for (double rate : uniformCostSummary.getExpansionRates()) Assert.assertTrue(rate > 0);
+		for (long size : uniformCostSummary.getFrontierSizes()) Assert.assertTrue(size > 0 && size <= uniformCostSummary.getMaxQueueSize());
+
+		Assert.assertTrue(uniformCostSummary.toString().startsWith("Search #" + uniformCostSummary.getSearchId()));
+	}
+
+	/*
+	 * Searches run without a recording just as before
+	 */
+	@Test
+	public void testWithoutRecording() {
+		SearchTree tree = solve(SearchFunction.IDA, EvaluationFunction.ASTAR_3);
+		Assert.assertEquals(128, tree.getStatsCollector().getSolutionCost());
+		Assert.assertTrue(tree.getStatsCollector().getSearchId() > 0);
+	}
+}
@@ -1,31 +1,423 @@
 package alouw.csc480.search.implementations;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import alouw.csc480.search.interfaces.EvaluationFunction;
 import alouw.csc480.search.interfaces.ProblemState;
 import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.SearchProgressListener;
+import alouw.csc480.search.interfaces.TreeNode;
+import alouw.csc480.search.implementations.SearchEvents.ExpansionRateEvent;
+import alouw.csc480.search.implementations.SearchEvents.FrontierCheckpointEvent;
+import alouw.csc480.search.implementations.SearchEvents.IterationEvent;
 
+/*
+ * Statistics of the searches of one SearchTree. Search functions report the solution, the nodes explored (expanded)
+ * and the queue size; with detailed stats on they also report the nodes generated, the children dropped as
+ * duplicates of a state already expanded or queued via a path at least as cheap, and the states expanded more than
+ * once, and the collector itself records the wall clock time, CPU time and bytes allocated by the searching
+ * thread(s) and samples the queue size as the search goes. getSnapshot() returns all of them at once.
+ *
+ * Every counter is a field increment; the clock and the thread MXBean are read once per search, and sampling the
+ * queue is a countdown per setMaxQueueSize call. With detailed stats off (see SearchParameters.withDetailedStats)
+ * each detailed call is a single test of a final field.
+ *
+ * Every CHECKPOINT_INTERVAL nodes explored the collector checks the deadline of the search, records the
+ * ExpansionRate and FrontierCheckpoint events of SearchEvents while a flight recording takes them, and reports the
+ * progress of the search to its listener once per progress period. Search functions keep the bound and the best
+ * solution cost of the reports up to date with setBound and setBestSolutionCost, a field store each.
+ */
 public class SearchStatsCollector {
+	
+	// a time or byte count the JVM cannot measure
+	public static final long UNAVAILABLE = -1;
+	
+	private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+	
+	// at most this many queue size samples are kept; when full, every other sample is dropped and the interval doubles
+	private static final int MAX_FRONTIER_SAMPLES = 1024;
+	private static final long INITIAL_FRONTIER_SAMPLE_INTERVAL = 64;
+	
 	private final ProblemState initialState;
 	private final ProblemState goalState;
 	private final SearchFunction searchType;
 	private final EvaluationFunction evalFunction;
+	private final boolean detailed;
 	private long lengthSolutionPath;
 	private long costSolutionPath;
 	private long numberOfNodesExplored;
 	private long maximumSizeOfQueue;
+	private long[] workerNodesExplored;
+	
+	// memory bounded search
+	private long numberOfNodesForgotten;
+	private long numberOfNodesRegenerated;
+	
+	// detailed stats
+	private long numberOfNodesGenerated;
+	private long numberOfDuplicates;
+	private long numberOfNodesReopened;
+	private long wallNanos;
+	private long cpuNanos;
+	private long allocatedBytes;
+	private long searchStartNanos;
+	private long searchStartCpuNanos;
+	private long searchStartAllocatedBytes;
+	
+	// queue size after every frontierSampleInterval-th setMaxQueueSize call
+	private long[] frontierSamples = new long[MAX_FRONTIER_SAMPLES];
+	private int frontierSampleCount;
+	private long frontierSampleInterval = INITIAL_FRONTIER_SAMPLE_INTERVAL;
+	private long queueUpdatesUntilSample = INITIAL_FRONTIER_SAMPLE_INTERVAL;
+	
+	// budget of the search in progress; see startSearch
+	private long nodeBudget = SearchParameters.UNLIMITED;
+	private long deadline = SearchParameters.UNLIMITED;
+	
+	// # of nodes explored between two checkpoints
+	private static final long CHECKPOINT_INTERVAL = 256;
+	private long nodesUntilCheckpoint = CHECKPOINT_INTERVAL;
+	
+	// flight recorder state of the search in progress; see SearchEvents
+	private long searchId;
+	private long queueSize;
+	private long lastSampleNanos;
+	private long lastSampleNodesExplored;
+	private IterationEvent iterationEvent;
+	private long iterationStartNodesExplored;
+	
+	// progress reports of the search in progress; see SearchProgress
+	private SearchProgressListener progressListener;
+	private long progressPeriodNanos;
+	private long progressStartNanos;
+	private long progressStartNodesExplored;
+	private long lastProgressNanos;
+	private long bound = SearchProgress.UNKNOWN;
+	private long bestSolutionCost = SearchProgress.UNKNOWN;
+	private double suboptimalityBound = SearchProgress.NO_BOUND;
 	
 	public SearchStatsCollector(final ProblemState initialState, final ProblemState goalState, 
 			final SearchFunction searchType, final EvaluationFunction evalFunction) {
+		this(initialState, goalState, searchType, evalFunction, true);
+	}
+	
+	public SearchStatsCollector(final ProblemState initialState, final ProblemState goalState, 
+			final SearchFunction searchType, final EvaluationFunction evalFunction, final boolean detailed) {
 		this.initialState = initialState;
 		this.goalState = goalState;
 		this.searchType = searchType;
 		this.evalFunction = evalFunction;
+		this.detailed = detailed;
+		
+		this.cpuNanos = detailed ? 0 : UNAVAILABLE;
+		this.allocatedBytes = detailed ? 0 : UNAVAILABLE;
 	}
 	
 	public void incrementSolutionPath(long incr) {this.lengthSolutionPath += incr;}
 	public void incrementSolutionCost(long incr) {this.costSolutionPath += incr;}
-	public void incrementNodesExplored(long incr) {this.numberOfNodesExplored += incr;}
-	public void setMaxQueueSize(long maxQueueSize) {this.maximumSizeOfQueue = Math.max(this.maximumSizeOfQueue, maxQueueSize);}
+	public void incrementNodesExplored(long incr) {
+		this.numberOfNodesExplored += incr;
+		
+		if (this.numberOfNodesExplored > this.nodeBudget) 
+			throw new SearchBudgetExceededException("Explored more than " + this.nodeBudget + " nodes");
+		
+		if ((this.nodesUntilCheckpoint -= incr) <= 0) this.checkpoint();
+	}
+	public void setMaxQueueSize(long queueSize) {
+		this.queueSize = queueSize;
+		if (queueSize > this.maximumSizeOfQueue) this.maximumSizeOfQueue = queueSize;
+		if (this.detailed && --this.queueUpdatesUntilSample <= 0) this.sampleFrontier(queueSize);
+	}
+	public void setWorkerNodesExplored(long[] nodesExplored) {this.workerNodesExplored = nodesExplored.clone();}
+	
+	// see SearchProgress.getBound and getBestSolutionCost
+	public void setBound(long bound) {this.bound = bound;}
+	public void setBestSolutionCost(long cost) {
+		if (this.bestSolutionCost == SearchProgress.UNKNOWN || cost < this.bestSolutionCost) this.bestSolutionCost = cost;
+	}
+	
+	// children generated by expanding nodes
+	public void incrementNodesGenerated(long incr) {if (this.detailed) this.numberOfNodesGenerated += incr;}
+	
+	// generated children dropped because their state was already expanded, or queued via a path at least as cheap
+	public void incrementDuplicates(long incr) {if (this.detailed) this.numberOfDuplicates += incr;}
+	
+	// expansions of a state that had already been expanded during the search
+	public void incrementNodesReopened(long incr) {if (this.detailed) this.numberOfNodesReopened += incr;}
+	
+	// nodes dropped by memory bounded search to stay within its limit, and nodes it generated again after dropping them
+	public void incrementNodesForgotten(long incr) {this.numberOfNodesForgotten += incr;}
+	public void incrementNodesRegenerated(long incr) {this.numberOfNodesRegenerated += incr;}
+	
+	/*
+	 * CPU time and bytes allocated by a helper thread of the search (e.g. a parallel worker), measured with
+	 * getCurrentThreadCpuNanos and getCurrentThreadAllocatedBytes on that thread
+	 */
+	public void addThreadResources(long threadCpuNanos, long threadAllocatedBytes) {
+		if (!this.detailed) return;
+		this.cpuNanos = SearchStatsCollector.add(this.cpuNanos, threadCpuNanos);
+		this.allocatedBytes = SearchStatsCollector.add(this.allocatedBytes, threadAllocatedBytes);
+	}
+	
+	/*
+	 * Brackets one cost or depth bound of an iterative deepening search; recorded as an Iteration event
+	 */
+	public void startIteration(long bound) {
+		this.bound = bound;
+		
+		IterationEvent event = new IterationEvent();
+		if (!event.isEnabled()) return;
+		
+		event.searchId = this.searchId;
+		event.bound = bound;
+		event.begin();
+		this.iterationEvent = event;
+		this.iterationStartNodesExplored = this.numberOfNodesExplored;
+	}
+	
+	public void finishIteration() {
+		if (this.iterationEvent == null) return;
+		
+		this.iterationEvent.end();
+		if (this.iterationEvent.shouldCommit()) {
+			this.iterationEvent.nodesExplored = this.numberOfNodesExplored - this.iterationStartNodesExplored;
+			this.iterationEvent.commit();
+		}
+		this.iterationEvent = null;
+	}
+	
+	// reads the clock only if the search has a deadline, a listener or a recording that takes the samples
+	private void checkpoint() {
+		this.nodesUntilCheckpoint = CHECKPOINT_INTERVAL;
+		
+		ExpansionRateEvent rateEvent = new ExpansionRateEvent();
+		FrontierCheckpointEvent frontierEvent = new FrontierCheckpointEvent();
+		boolean sampling = rateEvent.isEnabled() || frontierEvent.isEnabled();
+		if (this.deadline == SearchParameters.UNLIMITED && !sampling && this.progressListener == null) return;
+		
+		long now = System.nanoTime();
+		if (this.deadline != SearchParameters.UNLIMITED && now - this.deadline > 0) 
+			throw new SearchBudgetExceededException("Ran out of time after " + this.numberOfNodesExplored + " nodes");
+		
+		if (this.progressListener != null && now - this.lastProgressNanos >= this.progressPeriodNanos) 
+			this.reportProgress(now, this.numberOfNodesExplored, this.queueSize);
+		
+		if (!sampling || now - this.lastSampleNanos < SearchEvents.SAMPLE_PERIOD_NANOS) return;
+		
+		if (rateEvent.shouldCommit()) {
+			rateEvent.searchId = this.searchId;
+			rateEvent.nodesExplored = this.numberOfNodesExplored;
+			rateEvent.intervalNodes = this.numberOfNodesExplored - this.lastSampleNodesExplored;
+			rateEvent.nodesPerSecond = rateEvent.intervalNodes * 1e9 / (now - this.lastSampleNanos);
+			rateEvent.commit();
+		}
+		if (frontierEvent.shouldCommit()) {
+			frontierEvent.searchId = this.searchId;
+			frontierEvent.nodesExplored = this.numberOfNodesExplored;
+			frontierEvent.queueSize = this.queueSize;
+			frontierEvent.maxQueueSize = this.maximumSizeOfQueue;
+			frontierEvent.commit();
+		}
+		this.lastSampleNanos = now;
+		this.lastSampleNodesExplored = this.numberOfNodesExplored;
+	}
+	
+	private void reportProgress(long now, long nodesExplored, long frontierSize) {
+		this.lastProgressNanos = now;
+		this.progressListener.onProgress(new SearchProgress(this.searchId, now - this.progressStartNanos, 
+				nodesExplored - this.progressStartNodesExplored, this.bound, frontierSize, this.maximumSizeOfQueue, 
+				this.bestSolutionCost, this.suboptimalityBound, null, false, false, false));
+	}
+	
+	/*
+	 * Reports the progress of a search whose helper threads count the nodes explored (e.g. parallel workers, which
+	 * add theirs to the collector once they are done), if a progress period has passed since the last report
+	 */
+	void reportProgress(long nodesExplored) {
+		if (this.progressListener == null) return;
+		
+		long now = System.nanoTime();
+		if (now - this.lastProgressNanos >= this.progressPeriodNanos) this.reportProgress(now, nodesExplored, SearchProgress.UNKNOWN);
+	}
+	
+	/*
+	 * A better solution found by an anytime search, which costs at most suboptimalityBound times the cheapest one;
+	 * reported at once, whatever the progress period
+	 */
+	public void reportSolution(TreeNode solutionNode, double suboptimalityBound) {
+		this.setBestSolutionCost(solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+		this.suboptimalityBound = suboptimalityBound;
+		if (this.progressListener == null) return;
+		
+		List<ProblemState> solutionPath = new ArrayList<>();
+		for (TreeNode node = solutionNode; ; node = node.getParentNode()) {
+			solutionPath.add(node.getProblemState());
+			if (node.isRootNode()) break;
+		}
+		Collections.reverse(solutionPath);
+		
+		long now = System.nanoTime();
+		this.lastProgressNanos = now;
+		this.progressListener.onProgress(new SearchProgress(this.searchId, now - this.progressStartNanos, 
+				this.numberOfNodesExplored - this.progressStartNodesExplored, this.bound, this.queueSize, this.maximumSizeOfQueue, 
+				this.bestSolutionCost, this.suboptimalityBound, solutionPath, false, false, false));
+	}
+	
+	// see reportSolution; NO_BOUND unless the latest search is anytime
+	public double getSuboptimalityBound() {
+		return this.suboptimalityBound;
+	}
+	
+	// the final report of the search; see SearchTree.search
+	void reportResult(boolean solved, boolean budgetExceeded, long solutionCost) {
+		if (solved) this.setBestSolutionCost(solutionCost);
+		
+		// the solution of a search that only returns optimal paths is optimal
+		if (solved && this.suboptimalityBound == SearchProgress.NO_BOUND &&
+				SolutionCache.getCostModel(this.searchType, this.evalFunction).orElse(null) == SolutionCache.CostModel.TILE_COST)
+			this.suboptimalityBound = 1;
+		
+		if (this.progressListener == null) return;
+		
+		long now = System.nanoTime();
+		this.lastProgressNanos = now;
+		this.progressListener.onProgress(new SearchProgress(this.searchId, now - this.progressStartNanos, 
+				this.numberOfNodesExplored - this.progressStartNodesExplored, this.bound, this.queueSize, this.maximumSizeOfQueue, 
+				this.bestSolutionCost, this.suboptimalityBound, null, true, solved, budgetExceeded));
+	}
+	
+	void setProgressListener(SearchProgressListener listener) {
+		this.progressListener = listener;
+	}
+	
+	boolean hasProgressListener() {
+		return this.progressListener != null;
+	}
+	
+	long getProgressPeriodNanos() {
+		return this.progressPeriodNanos;
+	}
+	
+	private static long add(long total, long incr) {
+		return (total == UNAVAILABLE || incr == UNAVAILABLE) ? UNAVAILABLE : total + incr;
+	}
+	
+	private void sampleFrontier(long queueSize) {
+		if (this.frontierSampleCount == MAX_FRONTIER_SAMPLES) {
+			for (int index = 0; index < MAX_FRONTIER_SAMPLES / 2; index++) this.frontierSamples[index] = this.frontierSamples[2 * index + 1];
+			this.frontierSampleCount = MAX_FRONTIER_SAMPLES / 2;
+
+			// this update falls halfway between two samples at the doubled interval
+			this.queueUpdatesUntilSample = this.frontierSampleInterval;
+			this.frontierSampleInterval *= 2;
+			return;
+		}
+		this.frontierSamples[this.frontierSampleCount++] = queueSize;
+		this.queueUpdatesUntilSample = this.frontierSampleInterval;
+	}
+	
+	/*
+	 * Arms the node and time budgets of the parameters, from now on incrementNodesExplored throws a 
+	 * SearchBudgetExceededException once either is used up; gives the search a new searchId; and starts the
+	 * clocks of the detailed stats
+	 */
+	void startSearch(SearchParameters parameters) {
+		this.nodeBudget = parameters.getNodeBudget();
+		this.deadline = parameters.getDeadline(System.nanoTime());
+		this.nodesUntilCheckpoint = CHECKPOINT_INTERVAL;
+		
+		this.searchId = SearchEvents.nextSearchId();
+		this.lastSampleNanos = System.nanoTime();
+		this.lastSampleNodesExplored = this.numberOfNodesExplored;
+		
+		this.progressPeriodNanos = parameters.getProgressPeriodNanos();
+		this.progressStartNanos = this.lastSampleNanos;
+		this.lastProgressNanos = this.lastSampleNanos;
+		this.progressStartNodesExplored = this.numberOfNodesExplored;
+		this.bound = SearchProgress.UNKNOWN;
+		this.bestSolutionCost = SearchProgress.UNKNOWN;
+		this.suboptimalityBound = SearchProgress.NO_BOUND;
+		
+		if (!this.detailed) return;
+		this.searchStartCpuNanos = SearchStatsCollector.getCurrentThreadCpuNanos();
+		this.searchStartAllocatedBytes = SearchStatsCollector.getCurrentThreadAllocatedBytes();
+		this.searchStartNanos = System.nanoTime();
+	}
+	
+	// stops the clocks started by startSearch; the times and bytes of consecutive searches add up
+	void finishSearch() {
+		this.finishIteration();
+		
+		if (!this.detailed) return;
+		this.wallNanos += System.nanoTime() - this.searchStartNanos;
+		this.cpuNanos = SearchStatsCollector.add(this.cpuNanos, SearchStatsCollector.subtract(
+				SearchStatsCollector.getCurrentThreadCpuNanos(), this.searchStartCpuNanos));
+		this.allocatedBytes = SearchStatsCollector.add(this.allocatedBytes, SearchStatsCollector.subtract(
+				SearchStatsCollector.getCurrentThreadAllocatedBytes(), this.searchStartAllocatedBytes));
+	}
+	
+	private static long subtract(long end, long start) {
+		return (end == UNAVAILABLE || start == UNAVAILABLE) ? UNAVAILABLE : end - start;
+	}
+	
+	// CPU time of the calling thread; UNAVAILABLE if the JVM does not measure it
+	static long getCurrentThreadCpuNanos() {
+		if (!THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() || !THREAD_MX_BEAN.isThreadCpuTimeEnabled()) return UNAVAILABLE;
+		return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+	}
+	
+	// bytes allocated by the calling thread so far; UNAVAILABLE unless the JVM's thread MXBean counts them
+	static long getCurrentThreadAllocatedBytes() {
+		if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) return UNAVAILABLE;
+		
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+		if (!threadBean.isThreadAllocatedMemorySupported() || !threadBean.isThreadAllocatedMemoryEnabled()) return UNAVAILABLE;
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	public long getNodesExplored() {
+		return this.numberOfNodesExplored;
+	}
+	
+	public long getSolutionLength() {
+		return this.lengthSolutionPath;
+	}
+	
+	public long getSolutionCost() {
+		return this.costSolutionPath;
+	}
+	
+	public long getMaxQueueSize() {
+		return this.maximumSizeOfQueue;
+	}
+	
+	// # of nodes explored by each worker of a parallel search; empty for single threaded searches
+	public long[] getWorkerNodesExplored() {
+		return (this.workerNodesExplored == null) ? new long[0] : this.workerNodesExplored.clone();
+	}
+	
+	// the id of the latest search in the events of SearchEvents
+	long getSearchId() {
+		return this.searchId;
+	}
+	
+	public boolean isDetailed() {
+		return this.detailed;
+	}
+	
+	// every statistic recorded so far
+	public SearchStatsSnapshot getSnapshot() {
+		return new SearchStatsSnapshot(this.searchType, this.evalFunction, this.detailed, this.lengthSolutionPath, 
+				this.costSolutionPath, this.numberOfNodesExplored, this.numberOfNodesGenerated, this.numberOfDuplicates, 
+				this.numberOfNodesReopened, this.maximumSizeOfQueue, this.wallNanos, this.cpuNanos, this.allocatedBytes,
+				Arrays.copyOf(this.frontierSamples, this.frontierSampleCount), this.frontierSampleInterval, 
+				this.getWorkerNodesExplored(), this.numberOfNodesForgotten, this.numberOfNodesRegenerated);
+	}
 	
 	public String toString() {
 		StringBuilder stringValue = new StringBuilder();
@@ -37,6 +429,12 @@ public class SearchStatsCollector {
 		stringValue.append("Time   = ").append(numberOfNodesExplored).append(" ; ");
 		stringValue.append("Space  = ").append(maximumSizeOfQueue);
 		
+		if (workerNodesExplored != null) 
+			stringValue.append(" ; Workers = ").append(Arrays.toString(workerNodesExplored));
+		
+		if (numberOfNodesForgotten > 0)
+			stringValue.append(" ; Forgotten = ").append(numberOfNodesForgotten).append(" ; Regenerated = ").append(numberOfNodesRegenerated);
+		
 		return stringValue.toString();
 	}
 }
\ No newline at end of file
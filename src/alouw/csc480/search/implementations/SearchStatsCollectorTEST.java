@@ -0,0 +1,104 @@
+package alouw.csc480.search.implementations;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+
+public class SearchStatsCollectorTEST {
+
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	private static SearchStatsSnapshot solve(SearchFunction searchFunction, EvaluationFunction evalFunction,
+			SearchParameters parameters) {
+		ProblemState initialState = ProblemStateFactory.getNewProblemState(HARD_INITIAL_STATE, ProblemTransformationOperation.NONE);
+		SearchTree tree = new SearchTree(searchFunction, evalFunction, initialState, goalState, parameters);
+
+		Assert.assertTrue(tree.search());
+		return tree.getStatsCollector().getSnapshot();
+	}
+
+	@Test
+	public void testDetailedStats() {
+		SearchStatsSnapshot snapshot = solve(SearchFunction.UNIFORM_COST, EvaluationFunction.CUME_COST, SearchParameters.getDefaultParameters());
+
+		Assert.assertTrue(snapshot.isDetailed());
+		Assert.assertEquals(128, snapshot.getSolutionCost());
+		Assert.assertEquals(30, snapshot.getSolutionLength());
+		Assert.assertEquals(181101, snapshot.getNodesExplored());
+		Assert.assertTrue(snapshot.getNodesGenerated() > snapshot.getNodesExplored());
+		Assert.assertTrue(snapshot.getDuplicateRatio() > 0 && snapshot.getDuplicateRatio() < 1);
+
+		// the closed set never lets uniform cost search expand a state twice
+		Assert.assertEquals(0, snapshot.getNodesReopened());
+
+		Assert.assertTrue(snapshot.getWallNanos() > 0);
+		Assert.assertTrue(snapshot.getExpansionsPerSecond() > 0);
+		Assert.assertTrue(snapshot.getGenerationsPerSecond() > snapshot.getExpansionsPerSecond());
+		Assert.assertTrue(snapshot.getCpuNanos() == SearchStatsCollector.UNAVAILABLE || snapshot.getCpuNanos() > 0);
+		Assert.assertTrue(snapshot.getAllocatedBytes() == SearchStatsCollector.UNAVAILABLE || snapshot.getAllocatedBytes() > 0);
+
+		long[] samples = snapshot.getFrontierSamples();
+		Assert.assertEquals(snapshot.getNodesExplored() / snapshot.getFrontierSampleInterval(), samples.length, 1);
+		for (long sample : samples) Assert.assertTrue(sample > 0 && sample <= snapshot.getMaxQueueSize());
+	}
+
+	/*
+	 * Searches without a closed set check at enqueue time expand some states more than once
+	 */
+	@Test
+	public void testReopenedNodes() {
+		Assert.assertTrue(solve(SearchFunction.BREADTH_FIRST, EvaluationFunction.NONE, SearchParameters.getDefaultParameters()).getNodesReopened() > 0);
+		Assert.assertTrue(solve(SearchFunction.IDA, EvaluationFunction.ASTAR_3, SearchParameters.getDefaultParameters()).getNodesReopened() > 0);
+
+		SearchStatsSnapshot snapshot = solve(SearchFunction.PARALLEL_ASTAR, EvaluationFunction.ASTAR_2,
+				SearchParameters.getDefaultParameters().withWorkerCount(4));
+		Assert.assertEquals(4, snapshot.getWorkerNodesExplored().length);
+		Assert.assertTrue(snapshot.getNodesGenerated() > 0);
+	}
+
+	/*
+	 * Without detailed stats only the solution, node count and queue size are kept
+	 */
+	@Test
+	public void testDisabledStats() {
+		SearchStatsSnapshot detailed = solve(SearchFunction.ASTAR, EvaluationFunction.ASTAR_2, SearchParameters.getDefaultParameters());
+		SearchStatsSnapshot snapshot = solve(SearchFunction.ASTAR, EvaluationFunction.ASTAR_2,
+				SearchParameters.getDefaultParameters().withDetailedStats(false));
+
+		Assert.assertFalse(snapshot.isDetailed());
+		Assert.assertEquals(detailed.getSolutionCost(), snapshot.getSolutionCost());
+		Assert.assertEquals(detailed.getNodesExplored(), snapshot.getNodesExplored());
+		Assert.assertEquals(detailed.getMaxQueueSize(), snapshot.getMaxQueueSize());
+
+		Assert.assertEquals(0, snapshot.getNodesGenerated());
+		Assert.assertEquals(0, snapshot.getWallNanos());
+		Assert.assertEquals(SearchStatsCollector.UNAVAILABLE, snapshot.getCpuNanos());
+		Assert.assertEquals(SearchStatsCollector.UNAVAILABLE, snapshot.getAllocatedBytes());
+		Assert.assertEquals(0, snapshot.getFrontierSamples().length);
+	}
+
+	/*
+	 * The samples span the whole search at a growing interval, never more than a fixed # of them
+	 */
+	@Test
+	public void testFrontierSampling() {
+		SearchStatsCollector statsCollector = new SearchStatsCollector(goalState, goalState, SearchFunction.ASTAR, EvaluationFunction.ASTAR_2);
+		for (long size = 1; size <= 1_000_000; size++) statsCollector.setMaxQueueSize(size);
+
+		SearchStatsSnapshot snapshot = statsCollector.getSnapshot();
+		long[] samples = snapshot.getFrontierSamples();
+		Assert.assertEquals(1_000_000, snapshot.getMaxQueueSize());
+		Assert.assertTrue(samples.length > 256 && samples.length <= 1024);
+		Assert.assertEquals(1_000_000 / snapshot.getFrontierSampleInterval(), samples.length, 1);
+		for (int index = 1; index < samples.length; index++)
+			Assert.assertEquals(snapshot.getFrontierSampleInterval(), samples[index] - samples[index - 1]);
+	}
+}
@@ -0,0 +1,132 @@
+package alouw.csc480.search.implementations;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.SearchFunction;
+
+/*
+ * Immutable copy of the statistics of a SearchStatsCollector at one point in time.
+ *
+ * Times are in nanoseconds and are summed over the searches of the tree. The CPU time and the allocated bytes are
+ * those of the searching thread plus any helper threads; either is SearchStatsCollector.UNAVAILABLE when the JVM
+ * does not measure it. The detailed statistics are 0 (UNAVAILABLE for the CPU time and bytes) when the collector
+ * was not detailed.
+ */
+public final class SearchStatsSnapshot {
+
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final SearchFunction searchFunction;
+	private final EvaluationFunction evalFunction;
+	private final boolean detailed;
+	private final long solutionLength;
+	private final long solutionCost;
+	private final long nodesExplored;
+	private final long nodesGenerated;
+	private final long duplicates;
+	private final long nodesReopened;
+	private final long maxQueueSize;
+	private final long wallNanos;
+	private final long cpuNanos;
+	private final long allocatedBytes;
+	private final long[] frontierSamples;
+	private final long frontierSampleInterval;
+	private final long[] workerNodesExplored;
+	private final long nodesForgotten;
+	private final long nodesRegenerated;
+
+	SearchStatsSnapshot(SearchFunction searchFunction, EvaluationFunction evalFunction, boolean detailed,
+			long solutionLength, long solutionCost, long nodesExplored, long nodesGenerated, long duplicates,
+			long nodesReopened, long maxQueueSize, long wallNanos, long cpuNanos, long allocatedBytes,
+			long[] frontierSamples, long frontierSampleInterval, long[] workerNodesExplored, long nodesForgotten,
+			long nodesRegenerated) {
+		this.searchFunction = searchFunction;
+		this.evalFunction = evalFunction;
+		this.detailed = detailed;
+		this.solutionLength = solutionLength;
+		this.solutionCost = solutionCost;
+		this.nodesExplored = nodesExplored;
+		this.nodesGenerated = nodesGenerated;
+		this.duplicates = duplicates;
+		this.nodesReopened = nodesReopened;
+		this.maxQueueSize = maxQueueSize;
+		this.wallNanos = wallNanos;
+		this.cpuNanos = cpuNanos;
+		this.allocatedBytes = allocatedBytes;
+		this.frontierSamples = frontierSamples;
+		this.frontierSampleInterval = frontierSampleInterval;
+		this.workerNodesExplored = workerNodesExplored;
+		this.nodesForgotten = nodesForgotten;
+		this.nodesRegenerated = nodesRegenerated;
+	}
+
+	public SearchFunction getSearchFunction() {return this.searchFunction;}
+	public EvaluationFunction getEvaluationFunction() {return this.evalFunction;}
+	public boolean isDetailed() {return this.detailed;}
+	public long getSolutionLength() {return this.solutionLength;}
+	public long getSolutionCost() {return this.solutionCost;}
+	public long getNodesExplored() {return this.nodesExplored;}
+	public long getNodesGenerated() {return this.nodesGenerated;}
+	public long getDuplicates() {return this.duplicates;}
+	public long getNodesReopened() {return this.nodesReopened;}
+	public long getMaxQueueSize() {return this.maxQueueSize;}
+	public long getWallNanos() {return this.wallNanos;}
+	public long getCpuNanos() {return this.cpuNanos;}
+	public long getAllocatedBytes() {return this.allocatedBytes;}
+
+	// # of queue size updates between two samples; the samples span the whole search at this spacing
+	public long getFrontierSampleInterval() {return this.frontierSampleInterval;}
+
+	// the queue size over the course of the search, oldest first
+	public long[] getFrontierSamples() {return this.frontierSamples.clone();}
+
+	// # of nodes explored by each worker of a parallel search; empty for single threaded searches
+	public long[] getWorkerNodesExplored() {return this.workerNodesExplored.clone();}
+
+	// # of nodes memory bounded search dropped to stay within its limit, and # of dropped nodes it generated again
+	public long getNodesForgotten() {return this.nodesForgotten;}
+	public long getNodesRegenerated() {return this.nodesRegenerated;}
+
+	// nodes explored per second of wall clock time; 0 if no time was recorded
+	public double getExpansionsPerSecond() {
+		return (this.wallNanos == 0) ? 0 : this.nodesExplored * NANOS_PER_SECOND / this.wallNanos;
+	}
+
+	public double getGenerationsPerSecond() {
+		return (this.wallNanos == 0) ? 0 : this.nodesGenerated * NANOS_PER_SECOND / this.wallNanos;
+	}
+
+	// the share of generated nodes that were dropped as duplicates
+	public double getDuplicateRatio() {
+		return (this.nodesGenerated == 0) ? 0 : (double) this.duplicates / this.nodesGenerated;
+	}
+
+	public String toString() {
+		StringBuilder stringValue = new StringBuilder();
+		stringValue.append(this.searchFunction).append(" using f(n)= ").append(this.evalFunction).append(" :: ");
+		stringValue.append("Length = ").append(this.solutionLength).append(" ; ");
+		stringValue.append("Cost = ").append(this.solutionCost).append(" ; ");
+		stringValue.append("Explored = ").append(this.nodesExplored).append(" ; ");
+		stringValue.append("Max queue = ").append(this.maxQueueSize);
+
+		if (this.detailed) {
+			stringValue.append(" ; Generated = ").append(this.nodesGenerated);
+			stringValue.append(" ; Duplicates = ").append(String.format("%.3f", this.getDuplicateRatio()));
+			stringValue.append(" ; Reopened = ").append(this.nodesReopened);
+			stringValue.append(" ; Wall = ").append(String.format("%.3fms", this.wallNanos / 1e6));
+			stringValue.append(" ; CPU = ").append((this.cpuNanos == SearchStatsCollector.UNAVAILABLE) ? "n/a" : String.format("%.3fms", this.cpuNanos / 1e6));
+			stringValue.append(" ; Allocated = ").append((this.allocatedBytes == SearchStatsCollector.UNAVAILABLE) ? "n/a" : this.allocatedBytes + "B");
+			stringValue.append(" ; Expansions/s = ").append(String.format("%.0f", this.getExpansionsPerSecond()));
+		}
+
+		if (this.workerNodesExplored.length > 0)
+			stringValue.append(" ; Workers = ").append(Arrays.toString(this.workerNodesExplored));
+
+		if (this.nodesForgotten > 0)
+			stringValue.append(" ; Forgotten = ").append(this.nodesForgotten).append(" ; Regenerated = ").append(this.nodesRegenerated);
+
+		return stringValue.toString();
+	}
+}
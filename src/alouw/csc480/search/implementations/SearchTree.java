@@ -3,9 +3,15 @@ package alouw.csc480.search.implementations;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import alouw.csc480.search.interfaces.EvaluationFunction;
 import alouw.csc480.search.interfaces.ProblemState;
 import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.SearchProgressListener;
 import alouw.csc480.search.interfaces.TreeNode;
 
 /*
@@ -21,6 +27,7 @@ public class SearchTree {
 	private final SearchFunction searchFunction;
 	private final EvaluationFunction evalFunction;
 	private final ProblemState goalState;
+	private final SearchParameters parameters;
 	
 	// the root node anchoring the searchTree
 	private final TreeNode rootNode;
@@ -30,30 +37,134 @@ public class SearchTree {
 	private TreeNode solutionNode;
 	private boolean solutionFound = false;
 	
+	// true if the last search gave up after using up the node or time budget of its parameters
+	private boolean budgetExceeded = false;
+	
 	//collector of statistics about search performance
 	private final SearchStatsCollector statsCollector;
+	
+	// receives the progress reports of the searches; null if nobody listens
+	private SearchProgressListener progressListener;
 
 	SearchTree(final SearchFunction searchFunction, final EvaluationFunction evalFunction, 
 			final ProblemState initialState, final ProblemState goalState) {
+		this(searchFunction, evalFunction, initialState, goalState, SearchParameters.getDefaultParameters());
+	}
+	
+	SearchTree(final SearchFunction searchFunction, final EvaluationFunction evalFunction, 
+			final ProblemState initialState, final ProblemState goalState, final SearchParameters parameters) {
 		this.searchFunction = searchFunction;
 		this.evalFunction = evalFunction;
 		this.goalState = goalState;
+		this.parameters = parameters;
 		
-		this.rootNode = TreeNodeFactory.getNewRootNode(initialState);
+		this.rootNode = TreeNodeFactory.getNewRootNode(initialState.withGoalState(goalState), evalFunction, goalState);
 		this.searchTree.add(this.rootNode);
 		
-		this.statsCollector = new SearchStatsCollector(initialState, goalState, searchFunction, evalFunction);
+		this.statsCollector = new SearchStatsCollector(initialState, goalState, searchFunction, evalFunction, 
+				parameters.isDetailedStats());
 	}
 	
 	public boolean search() {
 			
 		this.solutionFound = false;
-		Optional<TreeNode> solutionNode = this.searchFunction.apply(searchTree, evalFunction, 
-				goalState, statsCollector);
+		this.budgetExceeded = false;
+		this.statsCollector.startSearch(this.parameters);
+		
+		SearchEvents.SearchEvent event = new SearchEvents.SearchEvent();
+		event.begin();
+		
+		try {
+			return this.searchOrLookUp();
+		} finally {
+			this.statsCollector.finishSearch();
+			
+			event.end();
+			if (event.shouldCommit()) this.commit(event);
+			
+			this.statsCollector.reportResult(this.solutionFound, this.budgetExceeded, this.solutionFound 
+					? this.solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState() : SearchProgress.UNKNOWN);
+		}
+	}
+	
+	/*
+	 * Reports the progress of every later search to the listener, on the searching thread, at most once per progress
+	 * period of the SearchParameters and once more when the search is done. Listeners are called in the order they
+	 * were added; add them before calling search.
+	 */
+	public void addProgressListener(SearchProgressListener listener) {
+		if (listener == null) throw new IllegalArgumentException("SearchProgressListener cannot be <null>");
+		
+		SearchProgressListener previousListener = this.progressListener;
+		this.progressListener = (previousListener == null) ? listener : x -> {
+			previousListener.onProgress(x);
+			listener.onProgress(x);
+		};
+		this.statsCollector.setProgressListener(this.progressListener);
+	}
+	
+	/*
+	 * As addProgressListener, but the reports are handed to the listener on the executor, so the search never waits 
+	 * for the listener. A listener that falls behind skips to the latest report; the final report of a search is never
+	 * skipped, unless the executor rejects it or the listener throws. The listener is never called by two threads at once.
+	 */
+	public void addProgressListener(SearchProgressListener listener, Executor executor) {
+		if (listener == null) throw new IllegalArgumentException("SearchProgressListener cannot be <null>");
+		if (executor == null) throw new IllegalArgumentException("Executor cannot be <null>");
+		
+		this.addProgressListener(new CoalescingProgressListener(listener, executor));
+	}
+	
+	private void commit(SearchEvents.SearchEvent event) {
+		SearchStatsSnapshot snapshot = this.statsCollector.getSnapshot();
+		
+		event.searchId = this.statsCollector.getSearchId();
+		event.searchFunction = this.searchFunction.name();
+		event.evaluationFunction = this.evalFunction.name();
+		event.initialState = this.rootNode.getProblemState().toString();
+		event.goalState = this.goalState.toString();
+		event.solved = this.solutionFound;
+		event.budgetExceeded = this.budgetExceeded;
+		event.solutionCost = snapshot.getSolutionCost();
+		event.solutionLength = snapshot.getSolutionLength();
+		event.nodesExplored = snapshot.getNodesExplored();
+		event.nodesGenerated = snapshot.getNodesGenerated();
+		event.maxQueueSize = snapshot.getMaxQueueSize();
+		event.allocatedBytes = snapshot.getAllocatedBytes();
+		event.commit();
+	}
+	
+	private boolean searchOrLookUp() {
+		
+		// an exact search of a state on a cached optimal path is a lookup
+		Optional<SolutionCache> solutionCache = this.parameters.getSolutionCache();
+		Optional<SolutionCache.CostModel> costModel = SolutionCache.getCostModel(this.searchFunction, this.evalFunction);
+		if (solutionCache.isPresent() && costModel.isPresent()) {
+			Optional<TreeNode> cachedNode = solutionCache.get().getSolutionNode(this.rootNode, this.goalState, costModel.get());
+			if (cachedNode.isPresent()) {
+				this.solutionNode = cachedNode.get();
+				this.solutionFound = true;
+				
+				this.statsCollector.incrementSolutionCost(this.solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+				this.statsCollector.incrementSolutionPath(this.solutionNode.getDepth());
+				return true;
+			}
+		}
+		
+		Optional<TreeNode> solutionNode;
+		try {
+			solutionNode = this.searchFunction.apply(searchTree, evalFunction, goalState, parameters, statsCollector);
+		} catch (SearchBudgetExceededException e) {
+			this.budgetExceeded = true;
+			return false;
+		}
 		
 		if (solutionNode.isPresent()) {
 			this.solutionNode = solutionNode.get();
 			this.solutionFound = true;
+			
+			if (solutionCache.isPresent() && costModel.isPresent())
+				solutionCache.get().putSolution(this.getSolution().get(), this.goalState, costModel.get());
 		}
 				
 		return this.solutionFound;
@@ -77,7 +188,69 @@ public class SearchTree {
 		return result;
 	}
 	
+	public boolean isBudgetExceeded() {
+		return this.budgetExceeded;
+	}
+	
+	public SearchStatsCollector getStatsCollector() {
+		return this.statsCollector;
+	}
+	
 	public void printStats() {
 		System.out.println(this.statsCollector.toString());
 	}
-}
\ No newline at end of file
+}
+
+/*
+ * Hands the latest progress report to a listener on an executor. At most one delivery task is scheduled at a time;
+ * it delivers reports until none is pending, and a report that arrives while an older one is still pending replaces
+ * it. A delivery that the executor rejects or the listener fails on is dropped, and never reaches the search.
+ */
+final class CoalescingProgressListener implements SearchProgressListener {
+	
+	private final SearchProgressListener listener;
+	private final Executor executor;
+	private final AtomicReference<SearchProgress> pendingProgress = new AtomicReference<>();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	
+	CoalescingProgressListener(SearchProgressListener listener, Executor executor) {
+		this.listener = listener;
+		this.executor = executor;
+	}
+	
+	@Override
+	public void onProgress(SearchProgress progress) {
+		this.pendingProgress.set(progress);
+		if (!this.scheduled.compareAndSet(false, true)) return;
+		
+		// the search goes on whatever becomes of the delivery
+		try {
+			this.executor.execute(this::deliver);
+		} catch (RejectedExecutionException e) {
+			// nothing was scheduled; the next report tries again
+			this.scheduled.set(false);
+		} catch (RuntimeException e) {
+			// the listener failed on an executor that runs the task in this thread; deliver has cleared the flag
+		}
+	}
+	
+	private void deliver() {
+		while (true) {
+			SearchProgress progress = this.pendingProgress.getAndSet(null);
+			if (progress != null) {
+				try {
+					this.listener.onProgress(progress);
+				} catch (RuntimeException e) {
+					// leave later reports to a new delivery task
+					this.scheduled.set(false);
+					throw e;
+				}
+				continue;
+			}
+			
+			// a report that arrived after the last getAndSet, but before the flag was cleared, is delivered here
+			this.scheduled.set(false);
+			if (this.pendingProgress.get() == null || !this.scheduled.compareAndSet(false, true)) return;
+		}
+	}
+}
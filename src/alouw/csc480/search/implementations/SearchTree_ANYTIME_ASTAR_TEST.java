@@ -0,0 +1,145 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+public class SearchTree_ANYTIME_ASTAR_TEST {
+
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	final SearchFunction SEARCH_ALGO = SearchFunction.ANYTIME_ASTAR;
+
+	private SearchTree getTree(String initialStateString, EvaluationFunction evalFunction, SearchParameters parameters) {
+		final ProblemState initialState = ProblemStateFactory.getNewProblemState(initialStateString,
+				ProblemTransformationOperation.NONE);
+		return new SearchTree(SEARCH_ALGO, evalFunction, initialState, goalState, parameters);
+	}
+
+	/*
+	 * Runs the search and returns the cost of the solution; the path must run from the initial state to the goal state
+	 */
+	private int solve(SearchTree tree) {
+		Assert.assertTrue(tree.search());
+		Assert.assertFalse(tree.isBudgetExceeded());
+		Assert.assertTrue(tree.getSolution().isPresent());
+
+		TreeNode solutionNode = tree.getSolution().get().peekLast();
+		Assert.assertEquals(goalState, solutionNode.getProblemState());
+		Assert.assertTrue(tree.getSolution().get().peekFirst().isRootNode());
+		Assert.assertEquals(solutionNode.getDepth() + 1, tree.getSolution().get().size());
+
+		return solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState();
+	}
+
+	private int solve(String initialStateString, EvaluationFunction evalFunction) {
+		return solve(getTree(initialStateString, evalFunction, SearchParameters.getDefaultParameters()));
+	}
+
+	// run to the end, the series finishes with an optimal solution
+	@Test
+	public void testOptimalWithoutBudget() {
+		for (EvaluationFunction evalFunction : new EvaluationFunction[] {EvaluationFunction.CUME_COST, EvaluationFunction.ASTAR_2,
+				EvaluationFunction.ASTAR_3, EvaluationFunction.ASTAR_PDB_WEIGHTED}) {
+			Assert.assertEquals(17, solve(EASY_INITIAL_STATE, evalFunction));
+			Assert.assertEquals(31, solve(MEDIUM_INITIAL_STATE, evalFunction));
+			Assert.assertEquals(128, solve(HARD_INITIAL_STATE, evalFunction));
+		}
+
+		SearchTree tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3, SearchParameters.getDefaultParameters());
+		Assert.assertEquals(128, solve(tree));
+		Assert.assertEquals(1, tree.getStatsCollector().getSuboptimalityBound(), 0);
+	}
+
+	// every reported solution is within its bound of the optimal cost, and each one improves on the one before
+	@Test
+	public void testImprovingSolutions() {
+		SearchTree tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3, SearchParameters.getDefaultParameters());
+		List<SearchProgress> reports = new ArrayList<>();
+		tree.addProgressListener(x -> {if (x.getSolutionPath().isPresent()) reports.add(x);});
+		Assert.assertEquals(128, solve(tree));
+
+		Assert.assertTrue(reports.size() > 1);
+		Assert.assertTrue(reports.get(0).getBestSolutionCost() > 128);
+		Assert.assertTrue(reports.get(0).getSuboptimalityBound() <= SearchParameters.getDefaultParameters().getInitialWeight());
+		for (int index = 0; index < reports.size(); index++) {
+			SearchProgress report = reports.get(index);
+			List<ProblemState> path = report.getSolutionPath().get();
+			Assert.assertEquals(HARD_INITIAL_STATE, path.get(0).toString());
+			Assert.assertEquals(goalState, path.get(path.size() - 1));
+			Assert.assertEquals(report.getBestSolutionCost(), path.get(path.size() - 1).getCumulativeTransformationCostFromInitialState());
+			Assert.assertTrue(report.getBestSolutionCost() <= report.getSuboptimalityBound() * 128);
+
+			if (index > 0) {
+				SearchProgress previousReport = reports.get(index - 1);
+				Assert.assertTrue(report.getNodesExplored() >= previousReport.getNodesExplored());
+				Assert.assertTrue(report.getBestSolutionCost() < previousReport.getBestSolutionCost() ||
+						report.getSuboptimalityBound() < previousReport.getSuboptimalityBound());
+			}
+		}
+		Assert.assertEquals(1, reports.get(reports.size() - 1).getSuboptimalityBound(), 0);
+	}
+
+	// out of budget, the best solution so far is the answer; without any, the search fails
+	@Test
+	public void testBudgets() {
+		SearchTree tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3, SearchParameters.getDefaultParameters().withNodeBudget(100));
+		int cost = solve(tree);
+		double bound = tree.getStatsCollector().getSuboptimalityBound();
+		Assert.assertTrue(cost > 128);
+		Assert.assertTrue(bound > 1 && cost <= bound * 128);
+		Assert.assertEquals(101, tree.getStatsCollector().getNodesExplored());
+
+		// the clock is read every 256 nodes, after the first solution of this search
+		tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3, SearchParameters.getDefaultParameters().withTimeBudget(0, TimeUnit.NANOSECONDS));
+		cost = solve(tree);
+		Assert.assertTrue(cost <= tree.getStatsCollector().getSuboptimalityBound() * 128);
+		Assert.assertEquals(256, tree.getStatsCollector().getNodesExplored());
+
+		tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3, SearchParameters.getDefaultParameters().withNodeBudget(10));
+		Assert.assertFalse(tree.search());
+		Assert.assertTrue(tree.isBudgetExceeded());
+	}
+
+	// a weight of 1 is plain A*
+	@Test
+	public void testWeights() {
+		SearchTree tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3, SearchParameters.getDefaultParameters().withAnytimeWeights(1, 0.5));
+		List<SearchProgress> reports = new ArrayList<>();
+		tree.addProgressListener(x -> {if (x.getSolutionPath().isPresent()) reports.add(x);});
+		Assert.assertEquals(128, solve(tree));
+		Assert.assertEquals(1, reports.size());
+		Assert.assertEquals(1, reports.get(0).getSuboptimalityBound(), 0);
+
+		try {
+			SearchParameters.getDefaultParameters().withAnytimeWeights(0.5, 0.5);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {}
+
+		try {
+			SearchParameters.getDefaultParameters().withAnytimeWeights(2, 0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {}
+	}
+
+	@Test
+	public void testSolvedInitialState() {
+		Assert.assertEquals(0, solve(GOAL_STATE, EvaluationFunction.ASTAR_3));
+		Assert.assertEquals(0, solve(GOAL_STATE, EvaluationFunction.NONE));
+	}
+}
@@ -0,0 +1,104 @@
+package alouw.csc480.search.implementations;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+public class SearchTree_BEAM_TEST {
+
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	final SearchFunction SEARCH_ALGO = SearchFunction.BEAM;
+
+	private SearchTree getTree(String initialStateString, EvaluationFunction evalFunction, SearchParameters parameters) {
+		final ProblemState initialState = ProblemStateFactory.getNewProblemState(initialStateString,
+				ProblemTransformationOperation.NONE);
+		return new SearchTree(SEARCH_ALGO, evalFunction, initialState, goalState, parameters);
+	}
+
+	/*
+	 * Runs the search and returns the cost of the solution; the path must run from the initial state to the goal state,
+	 * and no layer may have been wider than the beam
+	 */
+	private int solve(SearchTree tree, int maxBeamWidth) {
+		Assert.assertTrue(tree.search());
+
+		TreeNode solutionNode = tree.getSolution().get().peekLast();
+		Assert.assertEquals(goalState, solutionNode.getProblemState());
+		Assert.assertEquals(solutionNode.getDepth() + 1, tree.getSolution().get().size());
+		Assert.assertTrue(tree.getStatsCollector().getMaxQueueSize() <= maxBeamWidth);
+
+		return solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState();
+	}
+
+	private int solve(String initialStateString, EvaluationFunction evalFunction, int beamWidth) {
+		return solve(getTree(initialStateString, evalFunction, SearchParameters.getDefaultParameters().withBeamWidth(beamWidth)), beamWidth);
+	}
+
+	// a beam as wide as the widest layer is breadth first search that takes the cheapest goal of the first layer to reach it
+	@Test
+	public void testWideBeam() {
+		for (EvaluationFunction evalFunction : new EvaluationFunction[] {EvaluationFunction.NONE, EvaluationFunction.CUME_COST,
+				EvaluationFunction.ASTAR_3}) {
+			Assert.assertEquals(17, solve(EASY_INITIAL_STATE, evalFunction, 1 << 16));
+			Assert.assertEquals(31, solve(MEDIUM_INITIAL_STATE, evalFunction, 1 << 16));
+
+			SearchTree tree = getTree(HARD_INITIAL_STATE, evalFunction, SearchParameters.getDefaultParameters().withBeamWidth(1 << 16));
+			Assert.assertEquals(128, solve(tree, 1 << 16));
+			Assert.assertEquals(30, tree.getStatsCollector().getSolutionLength());
+		}
+	}
+
+	// a narrow beam explores far fewer nodes for a costlier path; a good heuristic keeps the path cheap
+	@Test
+	public void testNarrowBeam() {
+		SearchTree tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3, SearchParameters.getDefaultParameters().withBeamWidth(16));
+		int cost = solve(tree, 16);
+		Assert.assertTrue(cost > 128);
+		Assert.assertTrue(tree.getStatsCollector().getNodesExplored() < 1000);
+
+		Assert.assertEquals(17, solve(EASY_INITIAL_STATE, EvaluationFunction.ASTAR_3, 1));
+		Assert.assertEquals(31, solve(MEDIUM_INITIAL_STATE, EvaluationFunction.ASTAR_3, 1));
+		Assert.assertEquals(128, solve(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_PDB_WEIGHTED, 1));
+	}
+
+	// a beam that runs out of nodes fails, unless it may widen
+	@Test
+	public void testWidening() {
+		SearchTree tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_2, SearchParameters.getDefaultParameters().withBeamWidth(1));
+		Assert.assertFalse(tree.search());
+		Assert.assertFalse(tree.isBudgetExceeded());
+		long nodesExplored = tree.getStatsCollector().getNodesExplored();
+
+		tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_2, SearchParameters.getDefaultParameters().withBeamWidth(1, 64));
+		solve(tree, 64);
+		Assert.assertTrue(tree.getStatsCollector().getNodesExplored() > nodesExplored);
+
+		try {
+			SearchParameters.getDefaultParameters().withBeamWidth(0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {}
+
+		try {
+			SearchParameters.getDefaultParameters().withBeamWidth(8, 4);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {}
+	}
+
+	@Test
+	public void testSolvedInitialState() {
+		Assert.assertEquals(0, solve(GOAL_STATE, EvaluationFunction.ASTAR_3, 1));
+		Assert.assertEquals(0, solve(GOAL_STATE, EvaluationFunction.NONE, 1));
+	}
+}
@@ -0,0 +1,97 @@
+package alouw.csc480.search.implementations;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+public class SearchTree_BIDIRECTIONAL_TEST {
+
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+	
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+	
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE, 
+			ProblemTransformationOperation.NONE);
+	
+	final SearchFunction SEARCH_ALGO = SearchFunction.BIDIRECTIONAL;
+	final SearchParameters parameters = SearchParameters.getDefaultParameters();
+	
+	/*
+	 * Runs the search and returns the goal node; the stitched path must run from the initial state to the goal state
+	 */
+	private TreeNode solve(String initialStateString, EvaluationFunction evalFunction) {
+		final ProblemState initialState = ProblemStateFactory.getNewProblemState(initialStateString, 
+				ProblemTransformationOperation.NONE);
+		
+		final SearchTree tree = new SearchTree(SEARCH_ALGO, evalFunction, initialState, goalState, parameters);
+		boolean solutionFound = tree.search();
+		
+		Assert.assertTrue(solutionFound);
+		Assert.assertTrue(tree.getSolution().isPresent());
+		
+		TreeNode solutionNode = tree.getSolution().get().peekLast();
+		Assert.assertEquals(goalState, solutionNode.getProblemState());
+		Assert.assertEquals(initialState, tree.getSolution().get().peekFirst().getProblemState());
+		Assert.assertEquals(solutionNode.getDepth() + 1, tree.getSolution().get().size());
+		
+		return solutionNode;
+	}
+	
+	// blind search finds the same # of moves as BREADTH_FIRST
+	@Test
+	public void testWithoutPathCost() {
+		Assert.assertEquals(5, solve(EASY_INITIAL_STATE, EvaluationFunction.NONE).getDepth());
+		Assert.assertEquals(9, solve(MEDIUM_INITIAL_STATE, EvaluationFunction.NONE).getDepth());
+		Assert.assertEquals(30, solve(HARD_INITIAL_STATE, EvaluationFunction.NONE).getDepth());
+	}
+	
+	// the meeting with the fewest moves is kept, whatever it costs; compare with BREADTH_FIRST on random instances
+	@Test
+	public void testFewestMovesMatchBreadthFirst() {
+		Random random = new Random(480);
+		for (int instance = 0; instance < 20; instance++) {
+			ProblemState state = goalState;
+			for (int step = 0; step < 20 + 2 * instance; step++) {
+				ProblemTransformationOperation op = ProblemTransformationOperation.values()[random.nextInt(4)];
+				if (state.isTransformationLegal(op)) state = state.applyTransformation(op);
+			}
+			String initialStateString = state.toString();
+			
+			SearchTree referenceTree = new SearchTree(SearchFunction.BREADTH_FIRST, EvaluationFunction.NONE, 
+					ProblemStateFactory.getNewProblemState(initialStateString, ProblemTransformationOperation.NONE), goalState);
+			Assert.assertTrue(referenceTree.search());
+			
+			Assert.assertEquals(referenceTree.getSolution().get().peekLast().getDepth(), 
+					solve(initialStateString, EvaluationFunction.NONE).getDepth());
+		}
+	}
+	
+	// cost only search finds the same cost as UNIFORM_COST
+	@Test
+	public void testWithPathCost() {
+		Assert.assertEquals(17, solve(EASY_INITIAL_STATE, EvaluationFunction.CUME_COST).getProblemState().getCumulativeTransformationCostFromInitialState());
+		Assert.assertEquals(31, solve(MEDIUM_INITIAL_STATE, EvaluationFunction.CUME_COST).getProblemState().getCumulativeTransformationCostFromInitialState());
+		Assert.assertEquals(128, solve(HARD_INITIAL_STATE, EvaluationFunction.CUME_COST).getProblemState().getCumulativeTransformationCostFromInitialState());
+	}
+	
+	// MM with an admissible heuristic is optimal too
+	@Test
+	public void testWithHeuristic() {
+		Assert.assertEquals(17, solve(EASY_INITIAL_STATE, EvaluationFunction.ASTAR_3).getProblemState().getCumulativeTransformationCostFromInitialState());
+		Assert.assertEquals(31, solve(MEDIUM_INITIAL_STATE, EvaluationFunction.ASTAR_3).getProblemState().getCumulativeTransformationCostFromInitialState());
+		Assert.assertEquals(128, solve(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3).getProblemState().getCumulativeTransformationCostFromInitialState());
+	}
+	
+	@Test
+	public void testSolvedInitialState() {
+		Assert.assertEquals(0, solve(GOAL_STATE, EvaluationFunction.NONE).getDepth());
+		Assert.assertEquals(0, solve(GOAL_STATE, EvaluationFunction.ASTAR_3).getDepth());
+	}
+}
@@ -0,0 +1,149 @@
+package alouw.csc480.search.implementations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+public class SearchTree_DISTANCE_TABLE_TEST {
+
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	final SearchFunction SEARCH_ALGO = SearchFunction.DISTANCE_TABLE;
+
+	private static ProblemState getState(String stateString) {
+		return ProblemStateFactory.getNewProblemState(stateString, ProblemTransformationOperation.NONE);
+	}
+
+	private SearchTree solve(String initialStateString, EvaluationFunction evalFunction) {
+		final ProblemState initialState = getState(initialStateString);
+		final SearchTree tree = new SearchTree(SEARCH_ALGO, evalFunction, initialState, goalState);
+
+		Assert.assertTrue(tree.search());
+		Assert.assertEquals(goalState, tree.getSolution().get().peekLast().getProblemState());
+		Assert.assertEquals(initialState, tree.getSolution().get().peekFirst().getProblemState());
+
+		return tree;
+	}
+
+	private TreeNode solveForNode(String initialStateString, EvaluationFunction evalFunction) {
+		return solve(initialStateString, evalFunction).getSolution().get().peekLast();
+	}
+
+	// the cheapest paths, as found by UNIFORM_COST
+	@Test
+	public void testCheapestPaths() {
+		Assert.assertEquals(17, solveForNode(EASY_INITIAL_STATE, EvaluationFunction.CUME_COST).getProblemState().getCumulativeTransformationCostFromInitialState());
+		Assert.assertEquals(31, solveForNode(MEDIUM_INITIAL_STATE, EvaluationFunction.ASTAR_3).getProblemState().getCumulativeTransformationCostFromInitialState());
+		Assert.assertEquals(128, solveForNode(HARD_INITIAL_STATE, EvaluationFunction.CUME_COST).getProblemState().getCumulativeTransformationCostFromInitialState());
+	}
+
+	// the fewest moves, as found by BREADTH_FIRST
+	@Test
+	public void testFewestMoves() {
+		Assert.assertEquals(5, solveForNode(EASY_INITIAL_STATE, EvaluationFunction.NONE).getDepth());
+		Assert.assertEquals(9, solveForNode(MEDIUM_INITIAL_STATE, EvaluationFunction.NONE).getDepth());
+
+		SearchTree tree = solve(HARD_INITIAL_STATE, EvaluationFunction.NONE);
+		Assert.assertEquals(30, tree.getSolution().get().peekLast().getDepth());
+
+		// one node per step of the walk, goal included
+		Assert.assertEquals(31, tree.getStatsCollector().getNodesExplored());
+	}
+
+	@Test
+	public void testAlreadySolved() {
+		SearchTree tree = solve(GOAL_STATE, EvaluationFunction.CUME_COST);
+		Assert.assertEquals(1, tree.getSolution().get().size());
+	}
+
+	// states of the other parity never reach the goal
+	@Test
+	public void testUnsolvableState() {
+		SearchTree tree = new SearchTree(SEARCH_ALGO, EvaluationFunction.CUME_COST, getState("2 1 3 8 0 4 7 6 5"), goalState);
+		Assert.assertFalse(tree.search());
+	}
+
+	// the rank is a bijection onto 0 .. 9! - 1
+	@Test
+	public void testRankRoundTrip() {
+		boolean[] seen = new boolean[DistanceTable.STATE_COUNT];
+		int[] tiles = new int[9];
+
+		for (int rank = 0; rank < DistanceTable.STATE_COUNT; rank++) {
+			PermutationRank.getTiles(rank, tiles);
+
+			StringBuilder stateString = new StringBuilder();
+			for (int tile : tiles) stateString.append(tile).append(' ');
+			int roundTrip = PermutationRank.getRank(getState(stateString.toString().trim()).getPackedEncoding());
+
+			Assert.assertEquals(rank, roundTrip);
+			Assert.assertFalse(seen[roundTrip]);
+			seen[roundTrip] = true;
+		}
+	}
+
+	// exactly half the states reach the goal, and the table agrees with A* on random instances
+	@Test
+	public void testTableIsExact() {
+		int[] moves = DistanceTable.buildTable(goalState.getPackedEncoding(), false);
+		int reachable = 0;
+		for (int distance : moves) if (distance != DistanceTable.UNREACHABLE) reachable++;
+		Assert.assertEquals(DistanceTable.STATE_COUNT / 2, reachable);
+
+		DistanceTable table = GoalIndex.getGoalIndex(goalState).getDistanceTable();
+		Random random = new Random(480);
+		ProblemState state = goalState;
+		for (int walk = 0; walk < 20; walk++) {
+			for (int step = 0; step < 10; step++) {
+				ProblemTransformationOperation op = ProblemTransformationOperation.values()[random.nextInt(4)];
+				if (state.isTransformationLegal(op)) state = state.applyTransformation(op);
+			}
+			ProblemState initialState = getState(state.toString());
+
+			SearchTree tree = new SearchTree(SearchFunction.ASTAR, EvaluationFunction.ASTAR_PDB_WEIGHTED, initialState, goalState);
+			Assert.assertTrue(tree.search());
+			Assert.assertEquals(tree.getStatsCollector().getSolutionCost(), table.getCost(initialState.getPackedEncoding()));
+		}
+	}
+
+	// a second load maps the file written by the first rather than rebuilding it
+	@Test
+	public void testFileIsWrittenOnceAndMapped() throws IOException {
+		Path directory = Files.createTempDirectory("distances");
+		long goalEncoding = goalState.getPackedEncoding();
+		Path file = DistanceTable.getFile(directory, goalEncoding);
+
+		try {
+			long hardEncoding = getState(HARD_INITIAL_STATE).getPackedEncoding();
+
+			DistanceTable built = DistanceTable.load(directory, goalEncoding);
+			Assert.assertTrue(Files.isRegularFile(file));
+			long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+			DistanceTable mapped = DistanceTable.load(directory, goalEncoding);
+			Assert.assertEquals(lastModified, Files.getLastModifiedTime(file).toMillis());
+			Assert.assertEquals(30, mapped.getMoveCount(hardEncoding));
+			Assert.assertEquals(128, mapped.getCost(hardEncoding));
+			Assert.assertEquals(built.getCost(hardEncoding), mapped.getCost(hardEncoding));
+		} finally {
+			Files.deleteIfExists(file);
+			Files.delete(directory);
+		}
+	}
+}
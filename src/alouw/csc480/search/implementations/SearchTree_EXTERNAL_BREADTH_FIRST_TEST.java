@@ -0,0 +1,120 @@
+package alouw.csc480.search.implementations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+public class SearchTree_EXTERNAL_BREADTH_FIRST_TEST {
+
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+	public static final String UNSOLVABLE_INITIAL_STATE = "2 1 3 8 0 4 7 6 5";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	final SearchFunction SEARCH_ALGO = SearchFunction.EXTERNAL_BREADTH_FIRST;
+
+	private SearchTree getTree(String initialStateString, SearchParameters parameters) {
+		final ProblemState initialState = ProblemStateFactory.getNewProblemState(initialStateString,
+				ProblemTransformationOperation.NONE);
+		return new SearchTree(SEARCH_ALGO, EvaluationFunction.NONE, initialState, goalState, parameters);
+	}
+
+	/*
+	 * Runs the search and returns the # of moves of the solution; every move of the path must be legal and the
+	 * search must leave nothing behind in the spill directory
+	 */
+	private int solve(String initialStateString, int sortBufferSize) throws IOException {
+		Path directory = Files.createTempDirectory("spill-test");
+		try {
+			SearchTree tree = getTree(initialStateString, SearchParameters.getDefaultParameters().withSpillDirectory(directory)
+					.withSortBufferSize(sortBufferSize));
+			Assert.assertTrue(tree.search());
+
+			TreeNode previousNode = null;
+			for (TreeNode node : tree.getSolution().get()) {
+				if (previousNode != null) Assert.assertEquals(previousNode, node.getParentNode());
+				previousNode = node;
+			}
+			Assert.assertEquals(initialStateString, tree.getSolution().get().peekFirst().getProblemState().toString());
+			Assert.assertEquals(goalState, previousNode.getProblemState());
+			Assert.assertEquals(tree.getStatsCollector().getSolutionLength(), previousNode.getDepth());
+			Assert.assertTrue(isEmpty(directory));
+
+			return previousNode.getDepth();
+		} finally {
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	private static boolean isEmpty(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return !files.findAny().isPresent();
+		}
+	}
+
+	// the fewest moves, the same as BREADTH_FIRST, whether the layers fit one sort buffer or take many runs
+	@Test
+	public void testFewestMoves() throws IOException {
+		for (int sortBufferSize : new int[] {256, 4096, SearchParameters.getDefaultParameters().getSortBufferSize()}) {
+			Assert.assertEquals(5, solve(EASY_INITIAL_STATE, sortBufferSize));
+			Assert.assertEquals(9, solve(MEDIUM_INITIAL_STATE, sortBufferSize));
+			Assert.assertEquals(30, solve(HARD_INITIAL_STATE, sortBufferSize));
+		}
+		Assert.assertEquals(0, solve(GOAL_STATE, SearchParameters.MIN_SORT_BUFFER_SIZE));
+	}
+
+	// each state is expanded once; BREADTH_FIRST expands a state once per path that reaches it first in its layer
+	@Test
+	public void testStatesExpandedOnce() {
+		SearchTree tree = getTree(HARD_INITIAL_STATE, SearchParameters.getDefaultParameters().withSortBufferSize(4096));
+		Assert.assertTrue(tree.search());
+		SearchStatsSnapshot snapshot = tree.getStatsCollector().getSnapshot();
+		Assert.assertEquals(0, snapshot.getNodesReopened());
+		Assert.assertTrue(snapshot.getDuplicates() > 0 && snapshot.getDuplicates() < snapshot.getNodesGenerated());
+
+		SearchTree breadthFirstTree = new SearchTree(SearchFunction.BREADTH_FIRST, EvaluationFunction.NONE,
+				ProblemStateFactory.getNewProblemState(HARD_INITIAL_STATE, ProblemTransformationOperation.NONE), goalState);
+		Assert.assertTrue(breadthFirstTree.search());
+		Assert.assertEquals(30, breadthFirstTree.getStatsCollector().getSolutionLength());
+		Assert.assertTrue(tree.getStatsCollector().getNodesExplored() <= breadthFirstTree.getStatsCollector().getNodesExplored());
+	}
+
+	// every one of the 9! / 2 states that can be reached is expanded before the search gives up
+	@Test
+	public void testUnsolvable() throws IOException {
+		Path directory = Files.createTempDirectory("spill-test");
+		try {
+			SearchTree tree = getTree(UNSOLVABLE_INITIAL_STATE, SearchParameters.getDefaultParameters().withSpillDirectory(directory));
+			Assert.assertFalse(tree.search());
+			Assert.assertFalse(tree.isBudgetExceeded());
+			Assert.assertEquals(181440, tree.getStatsCollector().getNodesExplored());
+			Assert.assertTrue(isEmpty(directory));
+
+			tree = getTree(HARD_INITIAL_STATE, SearchParameters.getDefaultParameters().withSpillDirectory(directory).withNodeBudget(1000));
+			Assert.assertFalse(tree.search());
+			Assert.assertTrue(tree.isBudgetExceeded());
+			Assert.assertTrue(isEmpty(directory));
+		} finally {
+			Files.deleteIfExists(directory);
+		}
+
+		try {
+			SearchParameters.getDefaultParameters().withSortBufferSize(SearchParameters.MIN_SORT_BUFFER_SIZE - 1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {}
+	}
+}
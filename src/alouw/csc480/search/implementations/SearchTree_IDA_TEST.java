@@ -89,4 +89,27 @@ public class SearchTree_IDA_TEST {
 		Assert.assertEquals(goalState, solutionList.get(0).getProblemState());
 		Assert.assertEquals(30, solutionList.get(0).getDepth());
 	}
+	
+	/*
+	 * IDA* bounded by f(n) with an admissible heuristic must find the cheapest path, as uniform cost search does
+	 */
+	@Test
+	public void testWithHardInitialStateAndHeuristic() {
+		final ProblemState initialState = ProblemStateFactory.getNewProblemState(HARD_INITIAL_STATE, 
+				ProblemTransformationOperation.NONE);
+		
+		SearchTree tree = new SearchTree(SEARCH_ALGO, EvaluationFunction.ASTAR_3, initialState, goalState);
+		Assert.assertTrue(tree.search());
+		
+		SearchTree referenceTree = new SearchTree(SearchFunction.UNIFORM_COST, EvaluationFunction.CUME_COST, 
+				initialState, goalState);
+		Assert.assertTrue(referenceTree.search());
+		
+		TreeNode solutionNode = tree.getSolution().get().peekLast();
+		TreeNode referenceNode = referenceTree.getSolution().get().peekLast();
+		
+		Assert.assertEquals(goalState, solutionNode.getProblemState());
+		Assert.assertEquals(referenceNode.getProblemState().getCumulativeTransformationCostFromInitialState(), 
+				solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+	}
 }
@@ -0,0 +1,57 @@
+package alouw.csc480.search.implementations;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+
+public class SearchTree_LARGER_BOARDS_TEST {
+
+	public static final String FIFTEEN_PUZZLE_INITIAL_STATE = "1 2 6 4 13 10 15 8 0 7 12 3 9 5 11 14";
+	public static final String FIFTEEN_PUZZLE_GOAL_STATE = "1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 0";
+	
+	public static final String TWENTY_FOUR_PUZZLE_INITIAL_STATE = 
+			"1 2 3 4 5 11 6 8 9 10 16 7 12 13 15 22 21 18 0 24 17 23 20 14 19";
+	public static final String TWENTY_FOUR_PUZZLE_GOAL_STATE = 
+			"1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 20 21 22 23 24 0";
+	
+	/*
+	 * Runs the search and returns the cost of the solution; the path must run from the initial to the goal state
+	 */
+	private int solve(SearchFunction searchFunction, EvaluationFunction evalFunction, String initialStateString, 
+			String goalStateString) {
+		final ProblemState initialState = ProblemStateFactory.getNewProblemState(initialStateString, 
+				ProblemTransformationOperation.NONE);
+		final ProblemState goalState = ProblemStateFactory.getNewProblemState(goalStateString, 
+				ProblemTransformationOperation.NONE);
+		
+		final SearchTree tree = new SearchTree(searchFunction, evalFunction, initialState, goalState);
+		Assert.assertTrue(tree.search());
+		Assert.assertEquals(initialState, tree.getSolution().get().peekFirst().getProblemState());
+		Assert.assertEquals(goalState, tree.getSolution().get().peekLast().getProblemState());
+		
+		return tree.getSolution().get().peekLast().getProblemState().getCumulativeTransformationCostFromInitialState();
+	}
+	
+	@Test
+	public void testFifteenPuzzle() {
+		for (SearchFunction searchFunction : new SearchFunction[] {SearchFunction.ASTAR, SearchFunction.IDA, 
+				SearchFunction.BIDIRECTIONAL})
+			Assert.assertEquals(290, solve(searchFunction, EvaluationFunction.ASTAR_LINEAR_CONFLICT_WEIGHTED, 
+					FIFTEEN_PUZZLE_INITIAL_STATE, FIFTEEN_PUZZLE_GOAL_STATE));
+	}
+	
+	@Test
+	public void testTwentyFourPuzzle() {
+		for (SearchFunction searchFunction : new SearchFunction[] {SearchFunction.ASTAR, SearchFunction.IDA, 
+				SearchFunction.BIDIRECTIONAL})
+			Assert.assertEquals(382, solve(searchFunction, EvaluationFunction.ASTAR_LINEAR_CONFLICT_WEIGHTED, 
+					TWENTY_FOUR_PUZZLE_INITIAL_STATE, TWENTY_FOUR_PUZZLE_GOAL_STATE));
+		
+		// evaluation functions only tabulated for the 8-Puzzle fall back to linear conflict
+		Assert.assertEquals(382, solve(SearchFunction.ASTAR, EvaluationFunction.ASTAR_PDB_WEIGHTED, 
+				TWENTY_FOUR_PUZZLE_INITIAL_STATE, TWENTY_FOUR_PUZZLE_GOAL_STATE));
+	}
+}
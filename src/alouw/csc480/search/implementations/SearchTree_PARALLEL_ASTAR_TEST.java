@@ -0,0 +1,74 @@
+package alouw.csc480.search.implementations;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+public class SearchTree_PARALLEL_ASTAR_TEST {
+
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+	
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+	
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE, 
+			ProblemTransformationOperation.NONE);
+	
+	final SearchFunction SEARCH_ALGO = SearchFunction.PARALLEL_ASTAR;
+	final EvaluationFunction evalFunction = EvaluationFunction.ASTAR_3;
+	final SearchParameters parameters = SearchParameters.getDefaultParameters().withWorkerCount(4);
+	
+	/*
+	 * Runs the search and returns the goal node; the path found must be as cheap as the uniform cost path
+	 */
+	private TreeNode solve(String initialStateString) {
+		final ProblemState initialState = ProblemStateFactory.getNewProblemState(initialStateString, 
+				ProblemTransformationOperation.NONE);
+		
+		final SearchTree tree = new SearchTree(SEARCH_ALGO, evalFunction, initialState, goalState, parameters);
+		boolean solutionFound = tree.search();
+		
+		Assert.assertTrue(solutionFound);
+		Assert.assertTrue(tree.getSolution().isPresent());
+		Assert.assertEquals(parameters.getWorkerCount(), tree.getStatsCollector().getWorkerNodesExplored().length);
+		
+		TreeNode solutionNode = tree.getSolution().get().peekLast();
+		Assert.assertEquals(goalState, solutionNode.getProblemState());
+		Assert.assertEquals(initialState, tree.getSolution().get().peekFirst().getProblemState());
+		
+		return solutionNode;
+	}
+	
+	@Test
+	public void testWithEasyInitialState() {
+		Assert.assertEquals(17, solve(EASY_INITIAL_STATE).getProblemState().getCumulativeTransformationCostFromInitialState());
+	}
+	
+	@Test
+	public void testWithMediumInitialState() {
+		Assert.assertEquals(31, solve(MEDIUM_INITIAL_STATE).getProblemState().getCumulativeTransformationCostFromInitialState());
+	}
+	
+	@Test
+	public void testWithHardInitialState() {
+		Assert.assertEquals(128, solve(HARD_INITIAL_STATE).getProblemState().getCumulativeTransformationCostFromInitialState());
+	}
+	
+	// a frontier not ordered by f(n) is searched until no node on it has a path cheaper than the incumbent
+	@Test
+	public void testWithoutPathCostOrder() {
+		for (EvaluationFunction greedyFunction : new EvaluationFunction[] {EvaluationFunction.GREEDY, EvaluationFunction.NONE}) {
+			final ProblemState initialState = ProblemStateFactory.getNewProblemState(HARD_INITIAL_STATE, 
+					ProblemTransformationOperation.NONE);
+			
+			final SearchTree tree = new SearchTree(SEARCH_ALGO, greedyFunction, initialState, goalState, parameters);
+			Assert.assertTrue(tree.search());
+			Assert.assertEquals(128, tree.getSolution().get().peekLast().getProblemState().getCumulativeTransformationCostFromInitialState());
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package alouw.csc480.search.implementations;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+public class SearchTree_SMASTAR_TEST {
+
+	public static final String EASY_INITIAL_STATE = "1 3 4 8 6 2 7 0 5";
+	public static final String MEDIUM_INITIAL_STATE = "2 8 1 0 4 3 7 6 5";
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	final SearchFunction SEARCH_ALGO = SearchFunction.SMASTAR;
+
+	final int DEFAULT_LIMIT = SearchParameters.getDefaultParameters().getStoredNodeLimit();
+
+	private SearchTree getTree(String initialStateString, EvaluationFunction evalFunction, int storedNodeLimit) {
+		final ProblemState initialState = ProblemStateFactory.getNewProblemState(initialStateString,
+				ProblemTransformationOperation.NONE);
+		return new SearchTree(SEARCH_ALGO, evalFunction, initialState, goalState,
+				SearchParameters.getDefaultParameters().withStoredNodeLimit(storedNodeLimit));
+	}
+
+	/*
+	 * Runs the search and returns the cost of the solution; the path must run from the initial state to the goal state,
+	 * and no more nodes than the limit may have been held at once
+	 */
+	private int solve(SearchTree tree, int storedNodeLimit) {
+		Assert.assertTrue(tree.search());
+
+		TreeNode solutionNode = tree.getSolution().get().peekLast();
+		Assert.assertEquals(goalState, solutionNode.getProblemState());
+		Assert.assertEquals(solutionNode.getDepth() + 1, tree.getSolution().get().size());
+		Assert.assertTrue(tree.getStatsCollector().getMaxQueueSize() <= storedNodeLimit);
+
+		return solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState();
+	}
+
+	private int solve(String initialStateString, EvaluationFunction evalFunction, int storedNodeLimit) {
+		return solve(getTree(initialStateString, evalFunction, storedNodeLimit), storedNodeLimit);
+	}
+
+	// with memory to spare, SMA* is A*: optimal, and nothing is forgotten
+	@Test
+	public void testOptimalWithinDefaultLimit() {
+		for (EvaluationFunction evalFunction : new EvaluationFunction[] {EvaluationFunction.ASTAR_2, EvaluationFunction.ASTAR_3,
+				EvaluationFunction.ASTAR_PDB_WEIGHTED}) {
+			SearchTree tree = getTree(EASY_INITIAL_STATE, evalFunction, DEFAULT_LIMIT);
+			Assert.assertEquals(17, solve(tree, DEFAULT_LIMIT));
+			Assert.assertEquals(0, tree.getStatsCollector().getSnapshot().getNodesForgotten());
+
+			Assert.assertEquals(31, solve(MEDIUM_INITIAL_STATE, evalFunction, DEFAULT_LIMIT));
+			Assert.assertEquals(128, solve(HARD_INITIAL_STATE, evalFunction, DEFAULT_LIMIT));
+		}
+	}
+
+	// a tight limit forgets and regenerates nodes, and still finds the cheapest path
+	@Test
+	public void testOptimalWithinTightLimit() {
+		SearchTree tree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3, 100);
+		Assert.assertEquals(128, solve(tree, 100));
+
+		SearchStatsSnapshot snapshot = tree.getStatsCollector().getSnapshot();
+		Assert.assertEquals(100, snapshot.getMaxQueueSize());
+		Assert.assertTrue(snapshot.getNodesForgotten() > 0);
+		Assert.assertTrue(snapshot.getNodesRegenerated() > 0);
+		Assert.assertTrue(snapshot.getNodesRegenerated() <= snapshot.getNodesForgotten());
+
+		// less memory costs more expansions
+		SearchTree unboundedTree = getTree(HARD_INITIAL_STATE, EvaluationFunction.ASTAR_3, DEFAULT_LIMIT);
+		Assert.assertEquals(128, solve(unboundedTree, DEFAULT_LIMIT));
+		Assert.assertTrue(unboundedTree.getStatsCollector().getNodesExplored() < tree.getStatsCollector().getNodesExplored());
+
+		Assert.assertEquals(17, solve(EASY_INITIAL_STATE, EvaluationFunction.ASTAR_2, 12));
+		Assert.assertEquals(31, solve(MEDIUM_INITIAL_STATE, EvaluationFunction.ASTAR_2, 20));
+	}
+
+	// memory too small to hold a path to the goal fails the search
+	@Test
+	public void testLimitTooSmall() {
+		SearchTree tree = getTree(EASY_INITIAL_STATE, EvaluationFunction.ASTAR_2, 5);
+		Assert.assertFalse(tree.search());
+		Assert.assertFalse(tree.isBudgetExceeded());
+		Assert.assertTrue(tree.getStatsCollector().getMaxQueueSize() <= 5);
+
+		try {
+			SearchParameters.getDefaultParameters().withStoredNodeLimit(1);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {}
+	}
+
+	@Test
+	public void testSolvedInitialState() {
+		Assert.assertEquals(0, solve(GOAL_STATE, EvaluationFunction.ASTAR_3, 2));
+		Assert.assertEquals(0, solve(GOAL_STATE, EvaluationFunction.NONE, 2));
+	}
+}
@@ -0,0 +1,241 @@
+package alouw.csc480.search.implementations;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Size bounded cache of optimal solutions, shared by the searches whose SearchParameters carry it.
+ *
+ * Only exact answers are cached: the paths found by searches that are guaranteed to be optimal under a cost model
+ * (see getCostModel). Every suffix of an optimal path is itself optimal, so a solution is stored one state at a time:
+ * each state on the path maps to the move that continues the path and the exact cost and # of moves left to the
+ * goal. A path of n moves takes n + 1 entries, and any state on it is answered by following the moves until the
+ * goal. Entries are evicted least recently used first; a path whose chain of entries has lost a link is a miss.
+ *
+ * Inside a best-first search a cached distance is a perfect heuristic: once a state with a cached distance is
+ * expanded, the goal is queued via the cached path at its exact cost.
+ *
+ * Thread safe; every method holds the cache's lock.
+ */
+public final class SolutionCache {
+
+	// the cost every optimal path minimizes
+	public enum CostModel {
+		// the sum of the values of the tiles moved
+		TILE_COST,
+		// the # of moves
+		MOVE_COUNT
+	}
+
+	// getDistance when the state is not cached
+	public static final int UNKNOWN_DISTANCE = -1;
+
+	/*
+	 * Evaluation functions that never overestimate the tile cost to the goal. ASTAR_1 counts the blank among the
+	 * tiles out of place, so it can overestimate by one.
+	 */
+	private static final Set<EvaluationFunction> ADMISSIBLE_EVALUATION_FUNCTIONS = EnumSet.complementOf(
+			EnumSet.of(EvaluationFunction.NONE, EvaluationFunction.GREEDY, EvaluationFunction.ASTAR_1));
+
+	private final int capacity;
+
+	// access ordered, so the eldest entry is the least recently used
+	private final LinkedHashMap<Key, Entry> entries;
+
+	private long hitCount;
+	private long missCount;
+
+	public SolutionCache(int capacity) {
+		if (capacity < 1) throw new IllegalArgumentException("Expected a capacity of at least 1 state; received " + capacity);
+
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return this.size() > SolutionCache.this.capacity;
+			}
+		};
+	}
+
+	/*
+	 * The cost model a search function and evaluation function are guaranteed to find optimal paths under; empty if
+	 * the search may return a suboptimal path, in which case it neither reads nor fills the cache
+	 */
+	public static Optional<CostModel> getCostModel(SearchFunction searchFunction, EvaluationFunction evalFunction) {
+		switch (searchFunction) {
+			case BREADTH_FIRST:
+			case EXTERNAL_BREADTH_FIRST: return Optional.of(CostModel.MOVE_COUNT);
+			case IDA:
+			case BIDIRECTIONAL:
+			case DISTANCE_TABLE:
+				// without a path cost these search by depth (IDA, BIDIRECTIONAL) or by moves left (DISTANCE_TABLE)
+				if (!evalFunction.accumulatesPathCost()) return Optional.of(CostModel.MOVE_COUNT);
+				if (ADMISSIBLE_EVALUATION_FUNCTIONS.contains(evalFunction)) return Optional.of(CostModel.TILE_COST);
+				return Optional.empty();
+			case UNIFORM_COST:
+			case GREEDY:
+			case ASTAR:
+			case PARALLEL_ASTAR:
+				if (ADMISSIBLE_EVALUATION_FUNCTIONS.contains(evalFunction)) return Optional.of(CostModel.TILE_COST);
+				return Optional.empty();
+			default: return Optional.empty();
+		}
+	}
+
+	/*
+	 * Caches every state of an optimal path to the goal, given root first
+	 */
+	public synchronized void putSolution(Iterable<TreeNode> solutionPath, ProblemState goalState, CostModel costModel) {
+		TreeNode goalNode = null;
+		for (TreeNode node : solutionPath) goalNode = node;
+		if (goalNode == null) return;
+		if (!goalNode.getProblemState().equals(goalState)) throw new IllegalArgumentException("The path does not end at the goal state");
+
+		int goalCost = goalNode.getProblemState().getCumulativeTransformationCostFromInitialState();
+		TreeNode previousNode = null;
+
+		for (TreeNode node : solutionPath) {
+			if (previousNode != null) this.put(previousNode, node.getProblemState().getPredecessorTransformation(), goalNode, goalCost, goalState, costModel);
+			previousNode = node;
+		}
+		this.put(goalNode, ProblemTransformationOperation.NONE, goalNode, goalCost, goalState, costModel);
+	}
+
+	private void put(TreeNode node, ProblemTransformationOperation nextOperation, TreeNode goalNode, int goalCost,
+			ProblemState goalState, CostModel costModel) {
+		this.entries.put(new Key(node.getProblemState(), goalState, costModel), new Entry(nextOperation,
+				goalCost - node.getProblemState().getCumulativeTransformationCostFromInitialState(),
+				goalNode.getDepth() - node.getDepth()));
+	}
+
+	/*
+	 * The exact distance from the state to the goal under the cost model, or UNKNOWN_DISTANCE
+	 */
+	public synchronized int getDistance(ProblemState state, ProblemState goalState, CostModel costModel) {
+		Entry entry = this.entries.get(new Key(state, goalState, costModel));
+		if (entry == null) return UNKNOWN_DISTANCE;
+
+		return entry.getDistance(costModel);
+	}
+
+	/*
+	 * A node for the goal state that descends from the node along a cached optimal path; empty on a miss. The path
+	 * is grown with TreeNode.forEachChild, so its nodes are the same kind as the node's own children.
+	 */
+	public synchronized Optional<TreeNode> getSolutionNode(TreeNode node, ProblemState goalState, CostModel costModel) {
+		SuccessorBuffer children = new SuccessorBuffer();
+		TreeNode currentNode = node;
+		int distance = Integer.MAX_VALUE;
+
+		while (true) {
+			Entry entry = this.entries.get(new Key(currentNode.getProblemState(), goalState, costModel));
+			
+			// every move of an optimal path brings the goal strictly closer; anything else is not a cached path
+			if (entry == null || entry.getDistance(costModel) >= distance) break;
+			distance = entry.getDistance(costModel);
+			
+			if (entry.nextOperation == ProblemTransformationOperation.NONE) {
+				this.hitCount++;
+				return Optional.of(currentNode);
+			}
+
+			TreeNode nextNode = null;
+			children.fill(currentNode);
+			for (int index = 0; index < children.size() && nextNode == null; index++) {
+				if (children.get(index).getProblemState().getPredecessorTransformation() == entry.nextOperation)
+					nextNode = children.get(index);
+			}
+			if (nextNode == null) break;
+			currentNode = nextNode;
+		}
+
+		this.missCount++;
+		return Optional.empty();
+	}
+
+	public synchronized void clear() {
+		this.entries.clear();
+	}
+
+	// the # of cached states
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	// # of getSolutionNode calls answered, and not answered
+	public synchronized long getHitCount() {
+		return this.hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return this.missCount;
+	}
+
+	public synchronized String toString() {
+		return "States: " + this.entries.size() + "/" + this.capacity + " ; Hits: " + this.hitCount + " ; Misses: " + this.missCount;
+	}
+
+	/*
+	 * A state and goal compare by configuration only, so any path to the state finds the entry
+	 */
+	private static final class Key {
+		private final ProblemState state;
+		private final ProblemState goalState;
+		private final CostModel costModel;
+		private final int hashCode;
+
+		Key(ProblemState state, ProblemState goalState, CostModel costModel) {
+			this.state = state;
+			this.goalState = goalState;
+			this.costModel = costModel;
+			this.hashCode = Objects.hash(state, goalState, costModel);
+		}
+
+		@Override
+		public boolean equals(Object that) {
+			if (this == that) return true;
+			if (!(that instanceof Key)) return false;
+
+			Key thatKey = (Key) that;
+			return this.costModel == thatKey.costModel && this.state.equals(thatKey.state) && this.goalState.equals(thatKey.goalState);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+	// the move that continues an optimal path from a state, and the cost and # of moves left after the state
+	private static final class Entry {
+		private final ProblemTransformationOperation nextOperation;
+		private final int remainingCost;
+		private final int remainingMoves;
+
+		Entry(ProblemTransformationOperation nextOperation, int remainingCost, int remainingMoves) {
+			this.nextOperation = nextOperation;
+			this.remainingCost = remainingCost;
+			this.remainingMoves = remainingMoves;
+		}
+
+		int getDistance(CostModel costModel) {
+			return (costModel == CostModel.TILE_COST) ? this.remainingCost : this.remainingMoves;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.SearchFunction;
+import alouw.csc480.search.interfaces.TreeNode;
+
+public class SolutionCacheTEST {
+
+	public static final String HARD_INITIAL_STATE = "5 6 7 4 0 8 3 2 1";
+
+	public static final String GOAL_STATE = "1 2 3 8 0 4 7 6 5";
+
+	public static final ProblemState goalState = ProblemStateFactory.getNewProblemState(GOAL_STATE,
+			ProblemTransformationOperation.NONE);
+
+	private static ProblemState getState(String stateString) {
+		return ProblemStateFactory.getNewProblemState(stateString, ProblemTransformationOperation.NONE);
+	}
+
+	private static SearchTree solve(SearchFunction searchFunction, EvaluationFunction evalFunction, ProblemState initialState,
+			SolutionCache solutionCache) {
+		SearchTree tree = new SearchTree(searchFunction, evalFunction, initialState, goalState,
+				SearchParameters.getDefaultParameters().withSolutionCache(solutionCache));
+
+		Assert.assertTrue(tree.search());
+		Assert.assertEquals(initialState, tree.getSolution().get().peekFirst().getProblemState());
+		Assert.assertEquals(goalState, tree.getSolution().get().peekLast().getProblemState());
+
+		return tree;
+	}
+
+	private static int getCost(SearchTree tree) {
+		return tree.getSolution().get().peekLast().getProblemState().getCumulativeTransformationCostFromInitialState();
+	}
+
+	// the states of the solution path, root first, rebuilt without goal tracking or costs
+	private static List<ProblemState> getPathStates(SearchTree tree) {
+		List<ProblemState> result = new ArrayList<>();
+		for (TreeNode node : tree.getSolution().get()) result.add(getState(node.getProblemState().toString()));
+		return result;
+	}
+
+	/*
+	 * A solved state and every state on its path are answered without a search
+	 */
+	@Test
+	public void testSuffixLookups() {
+		SolutionCache solutionCache = new SolutionCache(1000);
+		SearchTree tree = solve(SearchFunction.ASTAR, EvaluationFunction.ASTAR_2, getState(HARD_INITIAL_STATE), solutionCache);
+		Assert.assertEquals(128, getCost(tree));
+		Assert.assertEquals(31, solutionCache.size());
+
+		List<ProblemState> pathStates = getPathStates(tree);
+		List<TreeNode> pathNodes = new ArrayList<>(tree.getSolution().get());
+		for (int depth = 0; depth < pathStates.size(); depth += 5) {
+			SearchTree cachedTree = solve(SearchFunction.UNIFORM_COST, EvaluationFunction.CUME_COST, pathStates.get(depth), solutionCache);
+
+			Assert.assertEquals(0, cachedTree.getStatsCollector().getNodesExplored());
+			Assert.assertEquals(128 - pathNodes.get(depth).getProblemState().getCumulativeTransformationCostFromInitialState(), getCost(cachedTree));
+			Assert.assertEquals(30 - depth, cachedTree.getSolution().get().peekLast().getDepth());
+			Assert.assertEquals(pathStates.subList(depth, pathStates.size()), getPathStates(cachedTree));
+		}
+		Assert.assertEquals(7, solutionCache.getHitCount());
+		Assert.assertEquals(1, solutionCache.getMissCount());
+	}
+
+	/*
+	 * A search that expands a cached state queues the goal at its exact cost and still finds the cheapest path
+	 */
+	@Test
+	public void testCachedDistancesAsPerfectHeuristic() {
+		SolutionCache solutionCache = new SolutionCache(1000);
+		solve(SearchFunction.ASTAR, EvaluationFunction.ASTAR_3, getState(HARD_INITIAL_STATE), solutionCache);
+
+		// one move off the cached path
+		ProblemState hardState = getState(HARD_INITIAL_STATE);
+		for (ProblemTransformationOperation move : new ProblemTransformationOperation[] {ProblemTransformationOperation.UP,
+				ProblemTransformationOperation.DOWN, ProblemTransformationOperation.LEFT, ProblemTransformationOperation.RIGHT}) {
+			ProblemState initialState = getState(hardState.applyTransformation(move).toString());
+			for (EvaluationFunction h : new EvaluationFunction[] {EvaluationFunction.CUME_COST, EvaluationFunction.ASTAR_2}) {
+				SearchTree uncachedTree = solve(SearchFunction.ASTAR, h, initialState, null);
+				SearchTree cachedTree = solve(SearchFunction.ASTAR, h, initialState, solutionCache);
+
+				Assert.assertEquals(getCost(uncachedTree), getCost(cachedTree));
+				Assert.assertTrue(cachedTree.getStatsCollector().getNodesExplored() < uncachedTree.getStatsCollector().getNodesExplored());
+			}
+		}
+	}
+
+	/*
+	 * Searches that may return a suboptimal path neither read nor fill the cache; fewest moves and cheapest paths
+	 * are cached apart
+	 */
+	@Test
+	public void testCostModels() {
+		Assert.assertFalse(SolutionCache.getCostModel(SearchFunction.DEPTH_FIRST, EvaluationFunction.ASTAR_2).isPresent());
+		Assert.assertFalse(SolutionCache.getCostModel(SearchFunction.ASTAR, EvaluationFunction.GREEDY).isPresent());
+		Assert.assertFalse(SolutionCache.getCostModel(SearchFunction.ASTAR, EvaluationFunction.ASTAR_1).isPresent());
+		Assert.assertEquals(SolutionCache.CostModel.MOVE_COUNT, SolutionCache.getCostModel(SearchFunction.IDA, EvaluationFunction.NONE).get());
+		Assert.assertEquals(SolutionCache.CostModel.TILE_COST, SolutionCache.getCostModel(SearchFunction.IDA, EvaluationFunction.ASTAR_2).get());
+
+		SolutionCache solutionCache = new SolutionCache(1000);
+		solve(SearchFunction.DEPTH_FIRST, EvaluationFunction.NONE, getState(HARD_INITIAL_STATE), solutionCache);
+		Assert.assertEquals(0, solutionCache.size());
+
+		solve(SearchFunction.ASTAR, EvaluationFunction.ASTAR_2, getState(HARD_INITIAL_STATE), solutionCache);
+		SearchTree breadthFirstTree = solve(SearchFunction.BREADTH_FIRST, EvaluationFunction.NONE, getState(HARD_INITIAL_STATE), solutionCache);
+		Assert.assertTrue(breadthFirstTree.getStatsCollector().getNodesExplored() > 0);
+		Assert.assertEquals(132, getCost(breadthFirstTree));
+		Assert.assertEquals(62, solutionCache.size());
+
+		// the fewest moves path, not the cheapest
+		SearchTree cachedTree = solve(SearchFunction.DISTANCE_TABLE, EvaluationFunction.NONE, getState(HARD_INITIAL_STATE), solutionCache);
+		Assert.assertEquals(0, cachedTree.getStatsCollector().getNodesExplored());
+		Assert.assertEquals(132, getCost(cachedTree));
+		Assert.assertEquals(30, cachedTree.getSolution().get().peekLast().getDepth());
+	}
+
+	/*
+	 * The least recently used states are evicted first; a path that lost a state is a miss
+	 */
+	@Test
+	public void testEviction() {
+		SolutionCache solutionCache = new SolutionCache(10);
+		SearchTree tree = solve(SearchFunction.ASTAR, EvaluationFunction.ASTAR_2, getState(HARD_INITIAL_STATE), solutionCache);
+		Assert.assertEquals(10, solutionCache.size());
+
+		// the path is cached root first, so only the ten states nearest the goal are left
+		List<ProblemState> pathStates = getPathStates(tree);
+		Assert.assertEquals(SolutionCache.UNKNOWN_DISTANCE, solutionCache.getDistance(pathStates.get(20), goalState, SolutionCache.CostModel.TILE_COST));
+		Assert.assertEquals(0, solutionCache.getDistance(goalState, goalState, SolutionCache.CostModel.TILE_COST));
+
+		SearchTree cachedTree = solve(SearchFunction.ASTAR, EvaluationFunction.ASTAR_2, pathStates.get(21), solutionCache);
+		Assert.assertEquals(0, cachedTree.getStatsCollector().getNodesExplored());
+
+		try {
+			new SolutionCache(0);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {}
+	}
+}
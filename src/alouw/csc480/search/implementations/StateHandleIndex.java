@@ -0,0 +1,17 @@
+package alouw.csc480.search.implementations;
+
+import alouw.csc480.search.interfaces.ProblemState;
+
+/*
+ * Map of problem state --> non-negative int, e.g. a frontier handle or the cheapest known path cost
+ */
+interface StateHandleIndex {
+
+	// the handle of the state or -1
+	int get(ProblemState state);
+
+	// associates the handle with the state, replacing any previous handle
+	void put(ProblemState state, int handle);
+
+	void remove(ProblemState state);
+}
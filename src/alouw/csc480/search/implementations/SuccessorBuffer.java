@@ -0,0 +1,61 @@
+package alouw.csc480.search.implementations;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Reusable holder for the children of one node at a time, for search functions that need to sort the children or
+ * loop over them with mutable local state. fill() collects the children through TreeNode.forEachChild, so a search
+ * allocates one buffer up front instead of a set, a list and a stream per expansion.
+ *
+ * Not thread safe; each search (or worker) owns its own buffer.
+ */
+public final class SuccessorBuffer implements Consumer<TreeNode> {
+
+	// a sliding tile has at most four moves
+	private TreeNode[] nodes = new TreeNode[4];
+	private int size;
+
+	// replaces the contents with the children of the node
+	public SuccessorBuffer fill(TreeNode node) {
+		Arrays.fill(this.nodes, 0, this.size, null);
+		this.size = 0;
+
+		node.forEachChild(this);
+		return this;
+	}
+
+	@Override
+	public void accept(TreeNode node) {
+		if (this.size == this.nodes.length) this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+		this.nodes[this.size++] = node;
+	}
+
+	/*
+	 * Stable insertion sort; children that compare equal keep the order they were generated in
+	 */
+	public SuccessorBuffer sort(Comparator<TreeNode> comparator) {
+		for (int index = 1; index < this.size; index++) {
+			TreeNode node = this.nodes[index];
+			int slot = index;
+			while (slot > 0 && comparator.compare(this.nodes[slot - 1], node) > 0) {
+				this.nodes[slot] = this.nodes[slot - 1];
+				slot--;
+			}
+			this.nodes[slot] = node;
+		}
+		return this;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public TreeNode get(int index) {
+		if (index >= this.size) throw new IndexOutOfBoundsException("Index " + index + " ; Size " + this.size);
+		return this.nodes[index];
+	}
+}
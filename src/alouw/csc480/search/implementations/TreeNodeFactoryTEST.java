@@ -70,6 +70,131 @@ public class TreeNodeFactoryTEST {
 		}
 	}
 	
+	/*
+	 * forEachChild yields the children of getChildrenNodes in move order, minus the one that returns to the parent
+	 */
+	@Test
+	public void testForEachChildSkipsParent() {
+		TreeNode rootNode = TreeNodeFactory.getNewRootNode(problemOne);
+		
+		// the root has no parent to return to, even though its state names a predecessor transformation
+		SuccessorBuffer children = new SuccessorBuffer().fill(rootNode);
+		Assert.assertEquals(4, children.size());
+		Assert.assertEquals(ProblemTransformationOperation.UP, children.get(0).getProblemState().getPredecessorTransformation());
+		Assert.assertEquals(ProblemTransformationOperation.RIGHT, children.get(3).getProblemState().getPredecessorTransformation());
+		
+		for (int index = 0; index < children.size(); index++) {
+			TreeNode childNode = children.get(index);
+			Assert.assertEquals(rootNode, childNode.getParentNode());
+			Assert.assertEquals(childNode.getProblemState(), rootNode.getChildrenNodes().get(index).getProblemState());
+			
+			SuccessorBuffer grandChildren = new SuccessorBuffer().fill(childNode);
+			Assert.assertEquals(childNode.getChildrenNodes().size() - 1, grandChildren.size());
+			for (int grandIndex = 0; grandIndex < grandChildren.size(); grandIndex++) 
+				Assert.assertNotEquals(rootNode.getProblemState(), grandChildren.get(grandIndex).getProblemState());
+		}
+	}
+	
+	/*
+	 * Sorting is stable and refilling the buffer replaces its contents
+	 */
+	@Test
+	public void testSuccessorBufferSort() {
+		TreeNode rootNode = TreeNodeFactory.getNewRootNode(problemOne);
+		SuccessorBuffer children = new SuccessorBuffer().fill(rootNode);
+		
+		// a comparator that ties every pair keeps the move order
+		children.sort((x, y) -> 0);
+		Assert.assertEquals(ProblemTransformationOperation.UP, children.get(0).getProblemState().getPredecessorTransformation());
+		
+		children.sort(EvaluationFunction.CUME_COST.getComparator(problemGoal));
+		for (int index = 1; index < children.size(); index++) 
+			Assert.assertTrue(children.get(index - 1).getProblemState().getCumulativeTransformationCostFromInitialState() <= 
+							  children.get(index).getProblemState().getCumulativeTransformationCostFromInitialState());
+		
+		children.fill(children.get(0));
+		Assert.assertEquals(2, children.size());
+		try {
+			children.get(2);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException e) {} 
+	}
+	
+	/*
+	 * Arena nodes mirror the nodes of an object tree; the parents of a path are rebuilt from the arena's records
+	 */
+	@Test
+	public void testArenaRootNode() {
+		for (String board : new String[] {stateOne, "1 2 3 4 5 6 7 8 9 10 11 12 13 14 0 15"}) {
+			ProblemState initialState = ProblemStateFactory.getNewProblemState(board, ProblemTransformationOperation.DOWN, 10);
+			ProblemState goal = ProblemStateFactory.getNewProblemState(board, ProblemTransformationOperation.NONE);
+			TreeNode objectNode = TreeNodeFactory.getNewRootNode(initialState, EvaluationFunction.ASTAR_3, goal);
+			TreeNode arenaNode = TreeNodeFactory.getNewArenaRootNode(objectNode);
+			Assert.assertNotEquals(objectNode.getClass(), arenaNode.getClass());
+			Assert.assertTrue(arenaNode.isRootNode());
+			Assert.assertEquals(arenaNode, arenaNode.getParentNode());
+			
+			// descend five levels along the first child of each node
+			for (int depth = 1; depth <= 5; depth++) {
+				objectNode = new SuccessorBuffer().fill(objectNode).get(0);
+				arenaNode = new SuccessorBuffer().fill(arenaNode).get(0);
+				
+				Assert.assertEquals(objectNode.getProblemState(), arenaNode.getProblemState());
+				Assert.assertEquals(depth, arenaNode.getDepth());
+				Assert.assertEquals(objectNode.getEvaluationCost(), arenaNode.getEvaluationCost());
+			}
+			
+			// walk back up: every parent is a view of a record
+			while (!objectNode.isRootNode()) {
+				objectNode = objectNode.getParentNode();
+				arenaNode = arenaNode.getParentNode();
+				
+				ProblemState state = arenaNode.getProblemState();
+				Assert.assertEquals(objectNode.getProblemState(), state);
+				Assert.assertEquals(objectNode.getProblemState().getPredecessorTransformation(), state.getPredecessorTransformation());
+				Assert.assertEquals(objectNode.getProblemState().getCumulativeTransformationCostFromInitialState(), 
+						state.getCumulativeTransformationCostFromInitialState());
+				Assert.assertEquals(objectNode.getEvaluationCost(), arenaNode.getEvaluationCost());
+			}
+			Assert.assertTrue(arenaNode.isRootNode());
+		}
+		
+		// boards without a packed encoding keep their object nodes
+		TreeNode largeRoot = TreeNodeFactory.getNewRootNode(ProblemStateFactory.getNewProblemState(
+				"1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 20 21 22 23 24 0", ProblemTransformationOperation.NONE));
+		Assert.assertEquals(largeRoot, TreeNodeFactory.getNewArenaRootNode(largeRoot));
+	}
+	
+	/*
+	 * Records survive chunk growth and a handle beyond the records is rejected
+	 */
+	@Test
+	public void testNodeArenaGrowth() {
+		NodeArena arena = new NodeArena(problemOne, null, null);
+		ProblemState state = problemOne;
+		int parent = NodeArena.NO_PARENT;
+		for (int depth = 0; depth < 40000; depth++) {
+			parent = arena.add(state, parent, depth % 7, depth);
+			ProblemTransformationOperation move = state.isTransformationLegal(ProblemTransformationOperation.UP) ?
+					ProblemTransformationOperation.UP : ProblemTransformationOperation.DOWN;
+			state = state.applyTransformation(move);
+		}
+		
+		Assert.assertEquals(40000, arena.size());
+		for (int handle = 1; handle < arena.size(); handle += 997) {
+			Assert.assertEquals(handle - 1, arena.getParent(handle));
+			Assert.assertEquals(handle, arena.getDepth(handle));
+			Assert.assertEquals(handle % 7, arena.getEvaluationCost(handle));
+			Assert.assertEquals(arena.getCost(handle - 1) + arena.getProblemState(handle).getLocalTransformationCostFromPredecessorState(),
+					arena.getCost(handle));
+		}
+		
+		try {
+			arena.getNode(arena.size());
+			Assert.fail();
+		} catch (IndexOutOfBoundsException e) {} 
+	}
+	
 	@Test
 	public void testTreeNodeCostFunctions() {
 		TreeNode rootNode = TreeNodeFactory.getNewRootNode(
@@ -114,4 +239,28 @@ public class TreeNodeFactoryTEST {
 			}
 		}
 	}
+	
+	/*
+	 * Nodes created under an evaluation function carry f(n) computed once, at creation
+	 */
+	@Test
+	public void testTreeNodeStoredEvaluationCost() {
+		for (EvaluationFunction h : EvaluationFunction.values()) {
+			TreeNode rootNode = TreeNodeFactory.getNewRootNode(
+					ProblemStateFactory.getNewProblemState(stateOne, ProblemTransformationOperation.NONE, 0), 
+					h, problemGoal);
+			Assert.assertEquals(h, rootNode.getEvaluationFunction());
+			
+			for (TreeNode child : rootNode.getChildrenNodes()) {
+				Assert.assertEquals(h, child.getEvaluationFunction());
+				Assert.assertEquals(child.getProblemState().getExpectedTransformationCostToGoalState(h, problemGoal),
+						child.getEvaluationCost());
+				Assert.assertEquals(child.getEvaluationCost(), child.getEvaluationPathCost(h, problemGoal));
+				
+				for (TreeNode grandChild : child.getChildrenNodes()) 
+					Assert.assertEquals(grandChild.getProblemState().getExpectedTransformationCostToGoalState(h, problemGoal),
+							grandChild.getEvaluationCost());
+			}
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package alouw.csc480.search.implementations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import alouw.csc480.search.interfaces.EvaluationFunction;
+import alouw.csc480.search.interfaces.ProblemState;
+import alouw.csc480.search.interfaces.ProblemTransformationOperation;
+import alouw.csc480.search.interfaces.TreeNode;
+
+/*
+ * Immutable tree node. The evaluation function and goal state are fixed when the root is created and 
+ * inherited by every descendant, so f(n) is computed exactly once per node and every later comparison 
+ * reads a primitive field.
+ */
+class TreeNodeImpl implements TreeNode {
+
+	private final boolean isRootNode;
+	private final ProblemState problemState;
+	private final TreeNode parentNode;
+	private final int nodeDepth;
+	
+	// the evaluation function and goal state the node was created with; both null if the tree was not
+	// created with an evaluation function
+	private final EvaluationFunction evalFunction;
+	private final ProblemState goalState;
+	
+	// f(n) under evalFunction
+	private final int evaluationCost;
+	
+	TreeNodeImpl(ProblemState state, EvaluationFunction evalFunction, ProblemState goalState) {
+		if (state == null) throw new IllegalArgumentException("ProblemState cannot be <null>");
+		
+		this.isRootNode = true;
+		this.parentNode = this;
+		this.problemState = state;
+		this.nodeDepth = 0;
+		
+		this.evalFunction = evalFunction;
+		this.goalState = goalState;
+		this.evaluationCost = this.computeEvaluationCost();
+	}
+	
+	TreeNodeImpl(TreeNode parentNode, ProblemState state) {
+		if (parentNode== null) throw new IllegalArgumentException("ParentNode cannot be <null>");
+		if (state == null) throw new IllegalArgumentException("ProblemState cannot be <null>");
+		
+		this.isRootNode = false;
+		this.parentNode = parentNode;
+		this.problemState = state;
+		this.nodeDepth = 1 + this.parentNode.getDepth();
+		
+		if (parentNode instanceof TreeNodeImpl) {
+			this.evalFunction = ((TreeNodeImpl) parentNode).evalFunction;
+			this.goalState = ((TreeNodeImpl) parentNode).goalState;
+		} else {
+			this.evalFunction = null;
+			this.goalState = null;
+		}
+		this.evaluationCost = this.computeEvaluationCost();
+	}
+	
+	private int computeEvaluationCost() {
+		if (this.evalFunction == null) return 0;
+		return this.problemState.getExpectedTransformationCostToGoalState(this.evalFunction, this.goalState);
+	}
+	
+	@Override
+	public List<TreeNode> getChildrenNodes() {
+		List<TreeNode> result = new ArrayList<>(4);
+		
+		this.problemState.forEachSuccessorState(ProblemTransformationOperation.NONE, 
+				x -> result.add(new TreeNodeImpl(this, x)));
+	
+		return result;
+	}
+	
+	@Override
+	public void forEachChild(Consumer<TreeNode> consumer) {
+		// the root's state may name a predecessor transformation, but the root has no parent to return to
+		ProblemTransformationOperation skippedOperation = this.isRootNode ? ProblemTransformationOperation.NONE 
+				: this.problemState.getPredecessorTransformation().reverseTransformation();
+		
+		this.problemState.forEachSuccessorState(skippedOperation, x -> consumer.accept(new TreeNodeImpl(this, x)));
+	}
+
+	@Override
+	public TreeNode getParentNode() {
+		return this.parentNode;
+	}
+
+	@Override
+	public Boolean isRootNode() {
+		return this.isRootNode;
+	}
+
+	@Override
+	public ProblemState getProblemState() {
+		return this.problemState;
+	}
+
+	@Override
+	public int getDepth() {
+		return this.nodeDepth;
+	}
+
+	@Override
+	public int getEvaluationPathCost(EvaluationFunction h, ProblemState goalState) {
+		if (h == this.evalFunction && goalState == this.goalState) return this.evaluationCost;
+		return this.problemState.getExpectedTransformationCostToGoalState(h, goalState);
+	}
+	
+	@Override
+	public EvaluationFunction getEvaluationFunction() {
+		return this.evalFunction;
+	}
+	
+	@Override
+	public int getEvaluationCost() {
+		return this.evaluationCost;
+	}
+	
+	ProblemState getGoalState() {
+		return this.goalState;
+	}
+
+	public String toString() {
+		return TreeNodeImpl.toString(this);
+	}
+	
+	// the row printed for a node of a solution path; shared by every TreeNode implementation
+	static String toString(TreeNode node) {
+		StringBuilder resultString = new StringBuilder();
+		
+		resultString.append("Depth: ").append(String.format("%0$"+ 8 + "s", node.getDepth())).append(" |");
+		resultString.append("Op: ").append(String.format("%1$"+ 6 + "s", node.getProblemState().getPredecessorTransformation())).append(" |");
+		resultString.append("Move cost: ").append(String.format("%1$"+ 2 + "s", node.getProblemState().getLocalTransformationCostFromPredecessorState())).append(" |");
+		resultString.append("Cume move cost: ").append(String.format("%1$"+ 8 + "s", node.getProblemState().getCumulativeTransformationCostFromInitialState())).append(" |");
+		
+		if (node.getEvaluationFunction() != null) 
+			resultString.append("Eval cost: ").append(String.format("%1$"+ 10 + "s", node.getEvaluationCost())).append(" |");
+		
+		resultString.append("State: ").append(String.format("%1$"+ 10 + "s", node.getProblemState().toString()));
+		
+		return resultString.toString();
+	}
+	
+	@Override
+	public boolean equals(Object that){
+		if (this == that) return true;
+		if (!(that instanceof TreeNodeImpl)) return false;
+		
+		TreeNodeImpl thatNode = (TreeNodeImpl) that;
+		
+		boolean result = Objects.equals(this.getProblemState(), thatNode.getProblemState());
+		
+		return result;
+	}
+	
+	@Override 
+	public int hashCode() {
+		return Objects.hash(this.getProblemState());
+	}
+}
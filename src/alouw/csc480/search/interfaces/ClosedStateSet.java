@@ -0,0 +1,23 @@
+package alouw.csc480.search.interfaces;
+
+/*
+ * The set of problem states a search function has already expanded (a.k.a. the closed list).
+ * Implementations are free to retain only an encoding of each state rather than the state itself.
+ */
+public interface ClosedStateSet {
+	
+	// records the state as explored; returns true iff the state was not explored before
+	public boolean add(ProblemState state);
+	
+	// forgets a single explored state; returns true iff the state was explored before
+	public boolean remove(ProblemState state);
+	
+	// tests whether the state has been explored
+	public boolean contains(ProblemState state);
+	
+	// the number of distinct states explored
+	public int size();
+	
+	// forgets every explored state
+	public void clear();
+}
@@ -18,67 +18,137 @@ public enum EvaluationFunction {
 		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
 			return gOfnComparator;
 		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
+		}
 	}, GREEDY {
 		@Override
 		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
-			return new Comparator<TreeNode>() {
-				@Override
-				public int compare(TreeNode o1, TreeNode o2) {
-					Integer h1 = Integer.valueOf(o1.getEvaluationPathCost(GREEDY, goalState));
-					Integer h2 = Integer.valueOf(o2.getEvaluationPathCost(GREEDY, goalState));
-					int result = h1.compareTo(h2);
-					result = (result == 0 && o1.equals(o2) == false) ? 1 : result;
-					return result;
-				}
-			};
+			return getEvaluationCostComparator(this, goalState);
 		}
 	}, ASTAR_1 {
 		@Override
 		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
-			return new Comparator<TreeNode>() {
-				@Override
-				public int compare(TreeNode o1, TreeNode o2) {
-					Integer h1 = Integer.valueOf(o1.getEvaluationPathCost(ASTAR_1, goalState));
-					Integer h2 = Integer.valueOf(o2.getEvaluationPathCost(ASTAR_1, goalState));
-					int result = h1.compareTo(h2);
-					result = (result == 0 && o1.equals(o2) == false) ? 1 : result;
-					return result;
-				}
-			};
+			return getEvaluationCostComparator(this, goalState);
+		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
 		}
 	}, ASTAR_2 {
 
 		@Override
 		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
-			return new Comparator<TreeNode>() {
-				@Override
-				public int compare(TreeNode o1, TreeNode o2) {
-					Integer h1 = Integer.valueOf(o1.getEvaluationPathCost(ASTAR_2, goalState));
-					Integer h2 = Integer.valueOf(o2.getEvaluationPathCost(ASTAR_2, goalState));
-					int result = h1.compareTo(h2);
-					result = (result == 0 && o1.equals(o2) == false) ? 1 : result;
-					return result;
-				}
-			};
+			return getEvaluationCostComparator(this, goalState);
+		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
 		}
 	}, ASTAR_3 {
 		@Override
 		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
-			return new Comparator<TreeNode>() {
-				@Override
-				public int compare(TreeNode o1, TreeNode o2) {
-					Integer h1 = Integer.valueOf(o1.getEvaluationPathCost(ASTAR_3, goalState));
-					Integer h2 = Integer.valueOf(o2.getEvaluationPathCost(ASTAR_3, goalState));
-					int result = h1.compareTo(h2);
-					result = (result == 0 && o1.equals(o2) == false) ? 1 : result;
-					return result;
-				}
-			};
+			return getEvaluationCostComparator(this, goalState);
+		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
+		}
+	}, ASTAR_LINEAR_CONFLICT {
+		// Manhattan distance plus 2 moves per tile that must let another tile of its row or column pass
+		@Override
+		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
+			return getEvaluationCostComparator(this, goalState);
+		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
+		}
+	}, ASTAR_LINEAR_CONFLICT_WEIGHTED {
+		// as above; each move costs the value of the tile moved, like ASTAR_3
+		@Override
+		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
+			return getEvaluationCostComparator(this, goalState);
+		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
+		}
+	}, ASTAR_WALKING_DISTANCE {
+		// vertical plus horizontal walking distance; one per move
+		@Override
+		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
+			return getEvaluationCostComparator(this, goalState);
+		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
+		}
+	}, ASTAR_WALKING_DISTANCE_WEIGHTED {
+		// as above; each move costs the value of the tile moved, like ASTAR_3
+		@Override
+		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
+			return getEvaluationCostComparator(this, goalState);
+		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
+		}
+	}, ASTAR_PDB {
+		// additive pattern databases; one per move
+		@Override
+		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
+			return getEvaluationCostComparator(this, goalState);
+		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
+		}
+	}, ASTAR_PDB_WEIGHTED {
+		// additive pattern databases; each move costs the value of the tile moved, like ASTAR_3
+		@Override
+		public Comparator<TreeNode> getComparator(final ProblemState goalState) {
+			return getEvaluationCostComparator(this, goalState);
+		}
+		
+		@Override
+		public boolean accumulatesPathCost() {
+			return true;
 		}
 	};
 	
 	public abstract Comparator<TreeNode> getComparator(final ProblemState goalState);
 	
+	// whether f(n) includes the cumulative path cost g(n) and therefore never decreases along a path
+	public boolean accumulatesPathCost() {
+		return false;
+	}
+	
+	/*
+	 * Orders nodes by f(n); nodes created with this evaluation function and goal state answer from a
+	 * primitive field, so a comparison is two int reads rather than two heuristic evaluations
+	 */
+	private static Comparator<TreeNode> getEvaluationCostComparator(final EvaluationFunction h, final ProblemState goalState) {
+		return new Comparator<TreeNode>() {
+			@Override
+			public int compare(TreeNode o1, TreeNode o2) {
+				int result = Integer.compare(o1.getEvaluationPathCost(h, goalState), o2.getEvaluationPathCost(h, goalState));
+				result = (result == 0 && o1.equals(o2) == false) ? 1 : result;
+				return result;
+			}
+		};
+	}
+	
 	private static Comparator<TreeNode> transformOperatorComparator = new Comparator<TreeNode>() {
 		@Override
 		public int compare(TreeNode o1, TreeNode o2) {
@@ -0,0 +1,12 @@
+package alouw.csc480.search.interfaces;
+
+/*
+ * Enumeration of the orders in which a best-first frontier releases nodes that share the same f(n)
+ */
+public enum FrontierTieBreak {
+	// release the node furthest from the initial state first; favors nodes close to the goal in A*
+	PREFER_HIGHER_G,
+
+	// release the node closest to the initial state first
+	PREFER_LOWER_G;
+}
@@ -1,6 +1,7 @@
 package alouw.csc480.search.interfaces;
 
 import java.util.Set;
+import java.util.function.Consumer;
 
 /*
  * An abstract definition of a particular state within a problem space. 
@@ -27,7 +28,21 @@ public interface ProblemState extends Comparable<ProblemState> {
 	// applies the selected transformation and returns a new, successor problem state
 	public ProblemState applyTransformation(ProblemTransformationOperation operation) throws IllegalStateException;
 	
+	// tests whether the state configuration can be losslessly encoded in a single long
+	public boolean hasPackedEncoding();
+	
+	// returns a unique 64 bit encoding of the state configuration; only meaningful if hasPackedEncoding()
+	public long getPackedEncoding();
+	
+	// returns an equivalent problem state that tracks its heuristic distances to the goal state; 
+	// successor states derived from it update those distances incrementally
+	public ProblemState withGoalState(ProblemState goalState);
+	
 	// returns a set of immutable problem states that can legally be derived from applying all transformation
 	// operations to the current state ; it does not include the current set
 	public Set<ProblemState> getAllValidSucessorStates();
+	
+	// hands every state that can legally be derived from the current state to the consumer, in the order UP, DOWN, 
+	// LEFT, RIGHT, skipping the one derived by skippedOperation (NONE skips nothing); no collection is built
+	public void forEachSuccessorState(ProblemTransformationOperation skippedOperation, Consumer<ProblemState> consumer);
 }
\ No newline at end of file
@@ -1,27 +1,47 @@
 package alouw.csc480.search.interfaces;
 
 import java.util.ArrayDeque;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Optional;
-import java.util.TreeMap;
+import java.util.function.Consumer;
 
+import alouw.csc480.search.implementations.AnytimeAStarSearch;
+import alouw.csc480.search.implementations.BeamSearch;
+import alouw.csc480.search.implementations.BidirectionalSearch;
+import alouw.csc480.search.implementations.BucketPriorityQueue;
+import alouw.csc480.search.implementations.ClosedStateSetFactory;
+import alouw.csc480.search.implementations.DistanceTableSearch;
+import alouw.csc480.search.implementations.ExternalBreadthFirstSearch;
+import alouw.csc480.search.implementations.MemoryBoundedAStarSearch;
+import alouw.csc480.search.implementations.ParallelAStarSearch;
+import alouw.csc480.search.implementations.SearchParameters;
 import alouw.csc480.search.implementations.SearchStatsCollector;
+import alouw.csc480.search.implementations.SolutionCache;
+import alouw.csc480.search.implementations.SuccessorBuffer;
+import alouw.csc480.search.implementations.TreeNodeFactory;
 
 public enum SearchFunction {
 	
 	BREADTH_FIRST {
 		@Override
 		public Optional<TreeNode> apply(final ArrayDeque<TreeNode> queue, final EvaluationFunction evalFunction, 
-				final ProblemState goalState, SearchStatsCollector statsCollector) {
+				final ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			
+			// confirm that the queue has at least an initial root node
+			assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
 			
 			// local variables for tracking search state
-			final HashSet<ProblemState> statesExplored = new HashSet<>();
+			// expanded nodes are kept as primitives in a node arena; see TreeNodeFactory.getNewArenaRootNode
+			queue.push(TreeNodeFactory.getNewArenaRootNode(queue.pop()));
+			
+			final ClosedStateSet statesExplored = ClosedStateSetFactory.getNewClosedStateSet(queue.peekFirst().getProblemState());
+			final SuccessorBuffer children = new SuccessorBuffer();
+			final Comparator<TreeNode> childOrder = evalFunction.getComparator(goalState);
 			boolean solutionFound = false;
 			TreeNode solutionNode = null;
 			
-			// confirm that the queue has at least an initial root node
-			assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
-			
 			// the queue is treated as FIFO queue
 			// nodes are taken from the front and inserted in the rear
 			// the queue stores at most the current and current -1 depth set of nodes
@@ -32,6 +52,7 @@ public enum SearchFunction {
 				
 				// take from the front
 				TreeNode currentNode = queue.pop();
+				statsCollector.setBound(currentNode.getDepth());
 				
 				// count the # of nodes explored
 				statsCollector.incrementNodesExplored(1);
@@ -48,11 +69,17 @@ public enum SearchFunction {
 				}
 				
 				// if it is not the solution, store the problem state in a set
-				statesExplored.add(currentNode.getProblemState());
+				// the queue may hold several nodes of a state; all but the first to be expanded re-open it
+				if (!statesExplored.add(currentNode.getProblemState())) statsCollector.incrementNodesReopened(1);
 				
-				// insert at the front of the queue any nodes w/ a new config of the problem state
-				currentNode.getChildrenNodes().stream().sorted(evalFunction.getComparator(goalState)).forEachOrdered(x -> {
-					if (!statesExplored.contains(x.getProblemState())) queue.add(x);});
+				// insert at the rear of the queue any nodes w/ a new config of the problem state
+				children.fill(currentNode).sort(childOrder);
+				statsCollector.incrementNodesGenerated(children.size());
+				for (int index = 0; index < children.size(); index++) {
+					TreeNode x = children.get(index);
+					if (!statesExplored.contains(x.getProblemState())) queue.add(x);
+					else statsCollector.incrementDuplicates(1);
+				}
 			}
 			
 			return Optional.ofNullable(solutionNode);
@@ -62,15 +89,20 @@ public enum SearchFunction {
 	DEPTH_FIRST {
 		@Override
 		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
-				ProblemState goalState, SearchStatsCollector statsCollector) {
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			
+			// confirm that the queue has at least an initial root node
+			assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
 			
 			// local variables for tracking search state
-			final HashSet<ProblemState> statesExplored = new HashSet<>();
+			// expanded nodes are kept as primitives in a node arena; see TreeNodeFactory.getNewArenaRootNode
+			queue.push(TreeNodeFactory.getNewArenaRootNode(queue.pop()));
+			
+			final ClosedStateSet statesExplored = ClosedStateSetFactory.getNewClosedStateSet(queue.peekFirst().getProblemState());
+			final SuccessorBuffer children = new SuccessorBuffer();
+			final Comparator<TreeNode> childOrder = evalFunction.getComparator(goalState);
 			boolean solutionFound = false;
 			TreeNode solutionNode = null;
-			
-			// confirm that the queue has at least an initial root node
-			assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
 
 			// the queue is treated as a LIFO queue
 			// nodes are taken from and inserted at the front
@@ -82,6 +114,7 @@ public enum SearchFunction {
 				
 				// take from the front
 				TreeNode currentNode = queue.pop();
+				statsCollector.setBound(currentNode.getDepth());
 				
 				// count the # of nodes explored
 				statsCollector.incrementNodesExplored(1);
@@ -98,11 +131,17 @@ public enum SearchFunction {
 				}
 				
 				// if it is not the solution, store the problem state in a set
-				statesExplored.add(currentNode.getProblemState());
+				// the queue may hold several nodes of a state; all but the first to be expanded re-open it
+				if (!statesExplored.add(currentNode.getProblemState())) statsCollector.incrementNodesReopened(1);
 				
 				// insert at the front of the queue any nodes w/ a new config of the problem state
-				currentNode.getChildrenNodes().stream().sorted(evalFunction.getComparator(goalState)).forEachOrdered(x -> {
-					if (!statesExplored.contains(x.getProblemState())) queue.push(x);});
+				children.fill(currentNode).sort(childOrder);
+				statsCollector.incrementNodesGenerated(children.size());
+				for (int index = 0; index < children.size(); index++) {
+					TreeNode x = children.get(index);
+					if (!statesExplored.contains(x.getProblemState())) queue.push(x);
+					else statsCollector.incrementDuplicates(1);
+				}
 			}
 				
 			return Optional.ofNullable(solutionNode);
@@ -112,63 +151,143 @@ public enum SearchFunction {
 	IDA {
 		@Override
 		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
-				ProblemState goalState, SearchStatsCollector statsCollector) {
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
 			
 			// confirm that the queue has at least an initial root node
 			assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
 			
 			// local variables for tracking search state
-			final HashSet<ProblemState> statesExplored = new HashSet<>();
-			boolean solutionFound = false;
+			// only the current path is stored: pathNodes[i] is the node at depth i and nextOperation[i] is the 
+			// index of the next operation to try from it; statesOnPath holds the states of the current path so that 
+			// no path ever revisits a state
+			final ProblemTransformationOperation[] operations = ProblemTransformationOperation.values();
+			final TreeNode rootNode = queue.pop();
+			final ClosedStateSet statesOnPath = ClosedStateSetFactory.getNewClosedStateSet(rootNode.getProblemState());
+			
+			// without a path cost to bound, an iteration is a depth limited search, and checking the path on its own 
+			// would leave it exponential in the depth; depthsExplored keeps the smallest depth at which each state 
+			// has been reached, and statesExplored the states expanded by the current iteration. A completed 
+			// iteration has reached every state within its limit by a shortest path, so the next one expands each 
+			// state once, at that depth
+			final boolean depthBounded = !evalFunction.accumulatesPathCost();
+			final HashMap<ProblemState, Integer> depthsExplored = new HashMap<>();
+			final ClosedStateSet statesExplored = ClosedStateSetFactory.getNewClosedStateSet(rootNode.getProblemState());
+			TreeNode[] pathNodes = new TreeNode[64];
+			int[] nextOperation = new int[64];
 			TreeNode solutionNode = null;
-			TreeNode rootNode = queue.peek(); 
-			int depthLimit = 0;
 			
-			// the queue is treated as FIFO queue up to a specific depth
-			// nodes are taken from the front and inserted in the rear
-			// when we have examined all the nodes at the current depth, we start over and advance the depth limit by one
-			while (!solutionFound) {
-
-				// while loop invariant 
-				if (!solutionFound) assert(!queue.isEmpty());
+			// the cost bound starts at the root's cost; every iteration is a depth first search of the paths whose cost 
+			// stays within the bound, and the next bound is the smallest cost that exceeded the current one 
+			int bound = getBoundingCost(rootNode, evalFunction, goalState);
+			
+			// an iteration expands again the nodes of the previous one (all of them, unless it stops at the goal)
+			long nodesExploredByPreviousIteration = 0;
+			
+			while (solutionNode == null && bound != Integer.MAX_VALUE) {
 				
-				// push root back onto the queue
-				queue.push(rootNode);
+				long nodesExploredBefore = statsCollector.getNodesExplored();
+				int nextBound = Integer.MAX_VALUE;
+				int top = 0;
+				pathNodes[top] = rootNode;
+				nextOperation[top] = 0;
+				statesOnPath.clear();
+				statesOnPath.add(rootNode.getProblemState());
+				depthsExplored.put(rootNode.getProblemState(), Integer.valueOf(0));
 				statesExplored.clear();
+				statesExplored.add(rootNode.getProblemState());
+				statsCollector.startIteration(bound);
+				
+				// count the # of nodes explored
+				statsCollector.incrementNodesExplored(1);
 				
-				while (!queue.isEmpty()) {
+				if (rootNode.getProblemState().equals(goalState)) solutionNode = rootNode;
+				
+				while (top >= 0 && solutionNode == null) {
+					
+					TreeNode currentNode = pathNodes[top];
+					ProblemState currentState = currentNode.getProblemState();
+					
+					// backtrack once every operation has been tried
+					if (nextOperation[top] == operations.length) {
+						statesOnPath.remove(currentState);
+						pathNodes[top--] = null;
+						continue;
+					}
+					
+					ProblemTransformationOperation operation = operations[nextOperation[top]++];
 					
-					// capture max length of queue
-					statsCollector.setMaxQueueSize(queue.size());
+					// never undo the move that created the current node
+					if (operation == ProblemTransformationOperation.NONE || !currentState.isTransformationLegal(operation) ||
+							(!currentNode.isRootNode() && 
+							 operation == currentState.getPredecessorTransformation().reverseTransformation())) continue;
 					
-					// take from the front
-					TreeNode currentNode = queue.pop();
+					ProblemState childState = currentState.applyTransformation(operation);
+					statsCollector.incrementNodesGenerated(1);
+					
+					// a state reached within fewer moves, or expanded at this depth already, has nothing left to find 
+					// within the depth limit; this covers the states of the current path as well
+					if (depthBounded) {
+						Integer depthExplored = depthsExplored.get(childState);
+						if (depthExplored != null && (depthExplored.intValue() <= top || 
+								(depthExplored.intValue() == top + 1 && statesExplored.contains(childState)))) {
+							statsCollector.incrementDuplicates(1);
+							continue;
+						}
+					}
+					
+					// a path that returns to one of its own states is never cheaper than the path without the cycle
+					else if (statesOnPath.contains(childState)) {
+						statsCollector.incrementDuplicates(1);
+						continue;
+					}
+					
+					TreeNode childNode = TreeNodeFactory.getNewTreeNode(currentNode, childState);
+					
+					// prune paths that exceed the bound, remembering the cheapest of them for the next iteration
+					int cost = getBoundingCost(childNode, evalFunction, goalState);
+					if (cost > bound) {
+						nextBound = Math.min(nextBound, cost);
+						continue;
+					}
 					
 					// count the # of nodes explored
 					statsCollector.incrementNodesExplored(1);
 					
 					// break if the solution has been found
-					if (currentNode.getProblemState().equals(goalState)) {
-						solutionNode = currentNode;
-						solutionFound = true;
-						
-						statsCollector.incrementSolutionCost(currentNode.getProblemState().getCumulativeTransformationCostFromInitialState());
-						statsCollector.incrementSolutionPath(currentNode.getDepth());
-						
+					if (childState.equals(goalState)) {
+						solutionNode = childNode;
 						break;
 					}
 					
-					// if it is not the solution, store the problem state in a set
-					statesExplored.add(currentNode.getProblemState());
+					// descend
+					if (++top == pathNodes.length) {
+						pathNodes = Arrays.copyOf(pathNodes, top * 2);
+						nextOperation = Arrays.copyOf(nextOperation, top * 2);
+					}
+					pathNodes[top] = childNode;
+					nextOperation[top] = 0;
+					statesOnPath.add(childState);
+					if (depthBounded) {
+						depthsExplored.put(childState, Integer.valueOf(top));
+						statesExplored.add(childState);
+					}
 					
-					// add to the queue if < depth Limit && if we have not rediscovered the initial state
-					if (currentNode.getDepth() < depthLimit)
-						currentNode.getChildrenNodes().stream().sorted(evalFunction.getComparator(goalState)).forEachOrdered(x -> {
-							if (!statesExplored.contains(x.getProblemState())) queue.push(x);});
+					// capture max length of the path
+					statsCollector.setMaxQueueSize(top + 1);
 				}
 				
-				// advance the search frontier by one
-				depthLimit += 1;
+				long nodesExploredByIteration = statsCollector.getNodesExplored() - nodesExploredBefore;
+				statsCollector.incrementNodesReopened(Math.min(nodesExploredByIteration, nodesExploredByPreviousIteration));
+				nodesExploredByPreviousIteration = nodesExploredByIteration;
+				statsCollector.finishIteration();
+				
+				// advance the search frontier to the cheapest pruned path
+				bound = nextBound;
+			}
+			
+			if (solutionNode != null) {
+				statsCollector.incrementSolutionCost(solutionNode.getProblemState().getCumulativeTransformationCostFromInitialState());
+				statsCollector.incrementSolutionPath(solutionNode.getDepth());
 			}
 			
 			return Optional.ofNullable(solutionNode);
@@ -178,30 +297,69 @@ public enum SearchFunction {
 	UNIFORM_COST {
 		@Override
 		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
-				ProblemState goalState, SearchStatsCollector statsCollector) {
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
 						
+			// confirm that the queue has at least an initial root node
+			assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
+			
 			// local variables for tracking search state
-			final TreeMap<TreeNode, TreeNode> sortedMap = new TreeMap<TreeNode, TreeNode>(evalFunction.getComparator(goalState));
-			final HashSet<ProblemState> statesExplored = new HashSet<>();
+			final BucketPriorityQueue frontier = new BucketPriorityQueue(parameters.getTieBreak(), queue.peekFirst().getProblemState());
+			final ClosedStateSet statesExplored = ClosedStateSetFactory.getNewClosedStateSet(queue.peekFirst().getProblemState());
 			boolean solutionFound = false;
 			TreeNode solutionNode =  null;
 			
-			// confirm that the queue has at least an initial root node
-			assert(!queue.isEmpty() && queue.peekFirst().isRootNode());
-			TreeNode node = queue.pop();
-			sortedMap.put(node, node);
+			// exact distances cached by earlier searches; only an optimal search may use them
+			final SolutionCache solutionCache = SolutionCache.getCostModel(this, evalFunction)
+					.filter(x -> x == SolutionCache.CostModel.TILE_COST)
+					.flatMap(x -> parameters.getSolutionCache()).orElse(null);
+			final int[] cachedSolutionCost = {Integer.MAX_VALUE};
 			
-			// the frontier set of nodes is sorted
-			while (!solutionFound) {
+			// expanded nodes are kept as primitives in a node arena; see TreeNodeFactory.getNewArenaRootNode
+			TreeNode node = TreeNodeFactory.getNewArenaRootNode(queue.pop());
+			frontier.offer(node, node.getEvaluationPathCost(evalFunction, goalState), 
+					node.getProblemState().getCumulativeTransformationCostFromInitialState());
+			
+			// push a child into the frontier iff not already in the expanded set {statesExplored}
+			// the frontier keeps whichever path to a queued state is cheaper
+			final Consumer<TreeNode> offerChild = x -> {
+				statsCollector.incrementNodesGenerated(1);
+				if (statesExplored.contains(x.getProblemState())) {
+					statsCollector.incrementDuplicates(1);
+					return;
+				}
 				
-				//System.out.println("*************");
-				//sortedMap.keySet().stream().forEachOrdered(x-> System.out.println(x));
+				TreeNode queuedNode = x;
+				if (solutionCache != null) {
+					// a path no cheaper than the cheapest cached path to the goal found so far is not worth queueing
+					if (x.getEvaluationPathCost(evalFunction, goalState) >= cachedSolutionCost[0]) return;
+					
+					// a cached distance is a perfect heuristic: the child is replaced by the goal, reached via the 
+					// cached path at its exact cost
+					int distance = solutionCache.getDistance(x.getProblemState(), goalState, SolutionCache.CostModel.TILE_COST);
+					if (distance != SolutionCache.UNKNOWN_DISTANCE) {
+						if (x.getProblemState().getCumulativeTransformationCostFromInitialState() + distance >= cachedSolutionCost[0]) return;
+						
+						Optional<TreeNode> goalNode = solutionCache.getSolutionNode(x, goalState, SolutionCache.CostModel.TILE_COST);
+						if (goalNode.isPresent()) {
+							queuedNode = goalNode.get();
+							cachedSolutionCost[0] = queuedNode.getProblemState().getCumulativeTransformationCostFromInitialState();
+						}
+					}
+				}
+				
+				if (!frontier.offer(queuedNode, queuedNode.getEvaluationPathCost(evalFunction, goalState), 
+						queuedNode.getProblemState().getCumulativeTransformationCostFromInitialState())) statsCollector.incrementDuplicates(1);
+			};
+			
+			// the frontier set of nodes is sorted by f(n); a state is queued at most once, via its cheapest known path
+			while (!solutionFound) {
 				
 				// capture max length of queue
-				statsCollector.setMaxQueueSize(sortedMap.size());
+				statsCollector.setMaxQueueSize(frontier.size());
 				
 				// take from the front
-				TreeNode currentNode = sortedMap.pollFirstEntry().getKey();
+				statsCollector.setBound(frontier.peekPriority());
+				TreeNode currentNode = frontier.poll();
 				
 				// count the # of nodes explored
 				statsCollector.incrementNodesExplored(1);
@@ -219,22 +377,9 @@ public enum SearchFunction {
 				
 				// if it is not the solution, store the problem state in a set
 				statesExplored.add(currentNode.getProblemState());
-
-				// push the children into the set iff not already in the expanded set {statesExplored}
-				currentNode.getChildrenNodes().stream().forEach(x -> {
-					//System.out.print("CHILD " + x);
-					if (!statesExplored.contains(x.getProblemState())) {
-						if (!sortedMap.containsKey(x)) {
-							sortedMap.put(x, x);
-							//System.out.println(" ....NEW!");
-						} else if (sortedMap.containsKey(x)) {
-							if(x.getProblemState().compareTo(sortedMap.get(x).getProblemState()) < 0) {
-								sortedMap.put(x, x);
-								//System.out.println(" ....REPLACED!");
-							} //else System.out.println(" ....THERE BUT NOT REPLACED!");
-						} //else System.out.println(" ....IGNORED?!?!");
-					} //else System.out.println(" ....NOT UNIQUE!!");
-				});
+				
+				// push the children into the frontier
+				currentNode.forEachChild(offerChild);
 			}
 			return Optional.ofNullable(solutionNode);
 		}
@@ -243,20 +388,86 @@ public enum SearchFunction {
 	GREEDY {
 		@Override
 		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
-				ProblemState goalState, SearchStatsCollector statsCollector) {
-			return UNIFORM_COST.apply(queue, evalFunction, goalState, statsCollector);		
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			return UNIFORM_COST.apply(queue, evalFunction, goalState, parameters, statsCollector);		
 		}
 	}, 
 	
 	ASTAR {
 		@Override
 		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
-				ProblemState goalState, SearchStatsCollector statsCollector) {
-			return GREEDY.apply(queue, evalFunction, goalState, statsCollector);
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			return GREEDY.apply(queue, evalFunction, goalState, parameters, statsCollector);
+		}
+	}, 
+	
+	PARALLEL_ASTAR {
+		@Override
+		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			// hash distributed A* across SearchParameters.getWorkerCount() threads
+			return ParallelAStarSearch.search(queue, evalFunction, goalState, parameters, statsCollector);
+		}
+	},
+	BIDIRECTIONAL {
+		@Override
+		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			// searches from the initial and goal states at once until the two trees meet
+			return BidirectionalSearch.search(queue, evalFunction, goalState, parameters, statsCollector);
+		}
+	},
+	DISTANCE_TABLE {
+		@Override
+		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			// walks the precomputed exact distances of every 8-Puzzle state to the goal
+			return DistanceTableSearch.search(queue, evalFunction, goalState, parameters, statsCollector);
+		}
+	},
+	ANYTIME_ASTAR {
+		@Override
+		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			// weighted A* solutions of improving quality, until optimal or out of budget
+			return AnytimeAStarSearch.search(queue, evalFunction, goalState, parameters, statsCollector);
+		}
+	},
+	SMASTAR {
+		@Override
+		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			// A* within SearchParameters.getStoredNodeLimit() nodes, forgetting the worst leaves when memory is full
+			return MemoryBoundedAStarSearch.search(queue, evalFunction, goalState, parameters, statsCollector);
+		}
+	},
+	BEAM {
+		@Override
+		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			// breadth first, keeping the best SearchParameters.getBeamWidth() nodes of every depth by f(n)
+			return BeamSearch.search(queue, evalFunction, goalState, parameters, statsCollector);
+		}
+	},
+	EXTERNAL_BREADTH_FIRST {
+		@Override
+		public Optional<TreeNode> apply(ArrayDeque<TreeNode> queue, EvaluationFunction evalFunction, 
+				ProblemState goalState, SearchParameters parameters, SearchStatsCollector statsCollector) {
+			// breadth first with every layer sorted into files under SearchParameters.getSpillDirectory()
+			return ExternalBreadthFirstSearch.search(queue, evalFunction, goalState, parameters, statsCollector);
 		}
 	};
 	
+	/*
+	 * The cost iterative deepening bounds each iteration by: f(n) when the evaluation function accumulates the
+	 * path cost (IDA*), otherwise the depth of the node (plain iterative deepening)
+	 */
+	private static int getBoundingCost(TreeNode node, EvaluationFunction evalFunction, ProblemState goalState) {
+		if (evalFunction.accumulatesPathCost()) return node.getEvaluationPathCost(evalFunction, goalState);
+		return node.getDepth();
+	}
+	
 	public abstract Optional<TreeNode> apply(final ArrayDeque<TreeNode> queue, 
 				final EvaluationFunction evalFunction, final ProblemState goalState,
-				SearchStatsCollector statsCollector);
+				final SearchParameters parameters, SearchStatsCollector statsCollector);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package alouw.csc480.search.interfaces;
+
+import alouw.csc480.search.implementations.SearchProgress;
+
+/*
+ * Receives the progress reports of the searches of a SearchTree; see SearchTree.addProgressListener.
+ * Listeners called on the searching thread hold up the search for as long as they run.
+ */
+@FunctionalInterface
+public interface SearchProgressListener {
+
+	// a report of a running search, or the final report of a search once isFinal()
+	public void onProgress(SearchProgress progress);
+}
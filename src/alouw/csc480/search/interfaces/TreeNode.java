@@ -1,20 +1,25 @@
 package alouw.csc480.search.interfaces;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /*
- * A mutable node that maintains pointers to its immediate parent and children. 
+ * An immutable node that maintains pointers to its immediate parent and children. 
  * Each node encapsulates the following:
  * 	- the depth within the tree at which it was discovered; and
- *  - whether it has been explored yet; and
  *  - whether it is a root node; and
- *  - the immutable problem state within a problem space associated with this node 
+ *  - the immutable problem state within a problem space associated with this node; and
+ *  - its cost f(n) under the evaluation function the tree was created with
  */
 
 public interface TreeNode{
    // a possibly empty list of children
    public List<TreeNode> getChildrenNodes();
    
+   // hands each child to the consumer, except the child that undoes the move that created this node (it is this
+   // node's parent again); no collection is built
+   public void forEachChild(Consumer<TreeNode> consumer);
+   
    // the parent node of the current node
    // current Node == getParentNode for ROOT
    public TreeNode getParentNode();
@@ -31,4 +36,10 @@ public interface TreeNode{
    // the *speculative* cost of traveling to this node if not explored
    // the *actual cost of traveling to this node if explored
    public int getEvaluationPathCost(EvaluationFunction h, ProblemState goalState);
+   
+   // the evaluation function the tree was created with; null if none
+   public EvaluationFunction getEvaluationFunction();
+   
+   // f(n) under the evaluation function the tree was created with, computed once when the node was created
+   public int getEvaluationCost();
 }